@@ -0,0 +1,177 @@
+/*-
+ * #%L
+ * benchmarks
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf.benchmarks.comparison;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import protos.test.quickbuf.RepeatedPackables.Packed;
+import us.hebi.quickbuf.ProtoSource;
+import us.hebi.quickbuf.RepeatedInt;
+import us.hebi.quickbuf.RepeatedLong;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializes large packed varint arrays, e.g., encoder ticks of many joints
+ * that are sent as deltas. Most values are small, but the sizes are mixed so
+ * that the decoder can't rely on a fixed width.
+ * <p>
+ * The *Loop variants decode one varint at a time through the public source
+ * methods, and the stream variant uses the generic per-element path.
+ *
+ * === Quickbuf bulk decoding (JDK17, 1 core Xeon VM)
+ * Benchmark                                     Mode  Cnt     Score     Error  Units
+ * PackedVarintsBenchmark.readInt32Loop          avgt   10   977,681 ± 107,367  us/op
+ * PackedVarintsBenchmark.readInt32Quick         avgt   10   804,073 ± 105,365  us/op
+ * PackedVarintsBenchmark.readInt64Quick         avgt   10   785,500 ±  45,123  us/op
+ * PackedVarintsBenchmark.readSInt32Quick        avgt   10   449,427 ±  20,080  us/op
+ * PackedVarintsBenchmark.readSInt64Loop         avgt   10   815,785 ±  28,477  us/op
+ * PackedVarintsBenchmark.readSInt64Quick        avgt   10   586,398 ±  23,375  us/op
+ * PackedVarintsBenchmark.readSInt64QuickDirect  avgt   10   596,971 ±  17,677  us/op
+ * PackedVarintsBenchmark.readSInt64QuickStream  avgt   10  1762,783 ± 786,373  us/op
+ *
+ * === Protobuf-Java 3.21.12 (JDK17, 1 core Xeon VM)
+ * Benchmark                                     Mode  Cnt     Score     Error  Units
+ * PackedVarintsBenchmark.readInt32Proto         avgt   10  1175,364 ±  99,386  us/op
+ * PackedVarintsBenchmark.readSInt64Proto        avgt   10  1958,112 ±  48,674  us/op
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 250, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 250, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class PackedVarintsBenchmark {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(".*" + PackedVarintsBenchmark.class.getSimpleName() + ".*")
+                .verbosity(VerboseMode.NORMAL)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random rnd = new Random(0);
+        final int[] ints = new int[64 * 1024];
+        final long[] longs = new long[ints.length];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = rnd.nextInt() >> rnd.nextInt(32);
+            longs[i] = rnd.nextLong() >> rnd.nextInt(64);
+        }
+        int32s = Packed.newInstance().addAllInt32S(ints).toByteArray();
+        sint32s = Packed.newInstance().addAllSint32S(ints).toByteArray();
+        int64s = Packed.newInstance().addAllInt64S(longs).toByteArray();
+        sint64s = Packed.newInstance().addAllSint64S(longs).toByteArray();
+        sint64Stream = new ByteArrayInputStream(sint64s);
+    }
+
+    byte[] int32s;
+    byte[] sint32s;
+    byte[] int64s;
+    byte[] sint64s;
+    ByteArrayInputStream sint64Stream;
+
+    final ProtoSource source = ProtoSource.newArraySource();
+    final ProtoSource directSource = ProtoSource.newDirectSource();
+    final ProtoSource streamSource = ProtoSource.newBufferedStreamSource();
+    final Packed message = Packed.newInstance();
+
+    @Benchmark
+    public Object readInt32Quick() throws IOException {
+        return message.clearQuick().mergeFrom(source.setInput(int32s));
+    }
+
+    @Benchmark
+    public Object readSInt32Quick() throws IOException {
+        return message.clearQuick().mergeFrom(source.setInput(sint32s));
+    }
+
+    @Benchmark
+    public Object readInt64Quick() throws IOException {
+        return message.clearQuick().mergeFrom(source.setInput(int64s));
+    }
+
+    @Benchmark
+    public Object readSInt64Quick() throws IOException {
+        return message.clearQuick().mergeFrom(source.setInput(sint64s));
+    }
+
+    @Benchmark
+    public Object readSInt64QuickDirect() throws IOException {
+        return message.clearQuick().mergeFrom(directSource.setInput(sint64s));
+    }
+
+    @Benchmark
+    public Object readSInt64QuickStream() throws IOException {
+        // streams don't support bulk decoding and fall back to one varint at a time
+        sint64Stream.reset();
+        return message.clearQuick().mergeFrom(streamSource.setInput(sint64Stream));
+    }
+
+    // Baselines that decode one varint at a time through the public source methods
+
+    @Benchmark
+    public Object readInt32Loop() throws IOException {
+        final RepeatedInt store = message.clearQuick().getMutableInt32S();
+        source.setInput(int32s).readTag();
+        final int limit = source.pushLimit(source.readRawVarint32());
+        while (!source.isAtEnd()) {
+            store.add(source.readInt32());
+        }
+        source.popLimit(limit);
+        return message;
+    }
+
+    @Benchmark
+    public Object readSInt64Loop() throws IOException {
+        final RepeatedLong store = message.clearQuick().getMutableSint64S();
+        source.setInput(sint64s).readTag();
+        final int limit = source.pushLimit(source.readRawVarint32());
+        while (!source.isAtEnd()) {
+            store.add(source.readSInt64());
+        }
+        source.popLimit(limit);
+        return message;
+    }
+
+    @Benchmark
+    public Object readInt32Proto() throws IOException {
+        return protos.test.protobuf.RepeatedPackables.Packed.parseFrom(int32s);
+    }
+
+    @Benchmark
+    public Object readSInt64Proto() throws IOException {
+        return protos.test.protobuf.RepeatedPackables.Packed.parseFrom(sint64s);
+    }
+
+}
@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * benchmarks
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf.benchmarks.encoding;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import protos.test.quickbuf.TestAllTypes;
+import us.hebi.quickbuf.ProtoSource;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a message with singular varint fields of 2 to 10 bytes. Array sources decode
+ * the scalar fields through the generated array reader, and direct sources use the
+ * regular decoder as a reference.
+ *
+ * === word-wise vs. byte-wise varints in ArrayDecoder (JDK17, 1 core Xeon VM, -f 2 -wi 8 -i 10 -r 1s)
+ * Alternating runs of readArraySource with the previous byte-wise slow path (before)
+ * and with the word-wise decoding from ByteUtil (after):
+ * Benchmark                              Mode  Cnt    Score    Error  Units
+ * ArrayReaderBenchmark.readArraySource   avgt   20  238,384 ± 29,233  ns/op (before)
+ * ArrayReaderBenchmark.readArraySource   avgt   20  240,824 ± 25,262  ns/op (after)
+ * ArrayReaderBenchmark.readArraySource   avgt   20  233,667 ± 28,767  ns/op (before)
+ * ArrayReaderBenchmark.readArraySource   avgt   20  266,080 ± 12,585  ns/op (after)
+ * ArrayReaderBenchmark.readArraySource   avgt   20  248,672 ± 28,463  ns/op (before)
+ * ArrayReaderBenchmark.readArraySource   avgt   20  285,479 ±  6,067  ns/op (after)
+ * ArrayReaderBenchmark.readDirectSource  avgt   20  271,243 ± 18,022  ns/op
+ *
+ * On this machine the word-wise path does not pay off, which matches the varint
+ * read results in Varint64Benchmark. Machines where ArraySource profits from
+ * word-wise reads should see the same effect here.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class ArrayReaderBenchmark {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(".*" + ArrayReaderBenchmark.class.getSimpleName() + ".*")
+                .verbosity(VerboseMode.NORMAL)
+                .build();
+        new Runner(options).run();
+    }
+
+    final byte[] varints = TestAllTypes.newInstance()
+            .setOptionalInt32(300)
+            .setOptionalInt64(1L << 40)
+            .setOptionalUint32(1 << 20)
+            .setOptionalUint64(-1L)
+            .setOptionalSint32(-70000)
+            .setOptionalSint64(Long.MIN_VALUE >> 8)
+            .setDefaultInt32(-1)
+            .setDefaultInt64(1L << 50)
+            .setDefaultUint32(1 << 28)
+            .setDefaultUint64(1L << 35)
+            .setDefaultSint32(5000)
+            .setDefaultSint64(-(1L << 30))
+            .toByteArray();
+
+    final ProtoSource arraySource = ProtoSource.newArraySource();
+    final ProtoSource directSource = ProtoSource.newDirectSource();
+    final TestAllTypes message = TestAllTypes.newInstance();
+
+    @Benchmark
+    public Object readArraySource() throws IOException {
+        return message.clearQuick().mergeFrom(arraySource.setInput(varints));
+    }
+
+    @Benchmark
+    public Object readDirectSource() throws IOException {
+        return message.clearQuick().mergeFrom(directSource.setInput(varints));
+    }
+
+}
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * quickbuf-benchmarks
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf.benchmarks.encoding;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import protos.benchmarks.wide.quickbuf.WideMessages.WideMessage;
+import protos.benchmarks.wide.quickbuf.WideMessages.WideMessage.WideMessageView;
+import us.hebi.quickbuf.FieldProjection;
+import us.hebi.quickbuf.ProtoSource;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a few fields of the 500 field message by parsing the full message, by parsing
+ * only a projection of the fields, and by reading the fields from a view. The views
+ * still need to scan the tags of all fields, but they don't decode or store the values
+ * of fields that don't get accessed.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class MessageViewBenchmark {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(".*" + MessageViewBenchmark.class.getSimpleName() + ".*")
+                .verbosity(VerboseMode.NORMAL)
+                .build();
+        new Runner(options).run();
+    }
+
+    final byte[] msgBytes = WideMessageBenchmark.newWideMessage().toByteArray();
+    final WideMessage msg = WideMessage.newInstance();
+    final WideMessageView view = WideMessageView.newInstance();
+    final ProtoSource source = ProtoSource.newArraySource();
+    final ProtoSource projectedSource = ProtoSource.newArraySource()
+            .setProjection(FieldProjection.newInstance().include(1).include(250).include(500));
+
+    @Benchmark
+    public long mergeFrom() throws IOException {
+        msg.clearQuick().mergeFrom(source.setInput(msgBytes));
+        return msg.getField1() + msg.getField250() + msg.getField500();
+    }
+
+    @Benchmark
+    public long mergeFromProjection() throws IOException {
+        msg.clearQuick().mergeFrom(projectedSource.setInput(msgBytes));
+        return msg.getField1() + msg.getField250() + msg.getField500();
+    }
+
+    @Benchmark
+    public long view() {
+        view.wrap(msgBytes);
+        return view.getField1() + view.getField250() + view.getField500();
+    }
+
+    @Benchmark
+    public long viewSingleField() {
+        return view.wrap(msgBytes).getField250();
+    }
+
+}
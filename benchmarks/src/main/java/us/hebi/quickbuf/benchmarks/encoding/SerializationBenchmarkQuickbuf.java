@@ -30,6 +30,7 @@ import protos.test.quickbuf.ForeignMessage;
 import protos.test.quickbuf.TestAllTypes;
 import us.hebi.quickbuf.ProtoSink;
 import us.hebi.quickbuf.ProtoSource;
+import us.hebi.quickbuf.ReverseSink;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -58,6 +59,15 @@ import java.util.concurrent.TimeUnit;
  * SerializationBenchmarkQuickbuf.writeMessageToOutputStream      avgt   10  1,795 ± 0,020  us/op
  * SerializationBenchmarkQuickbuf.writeMessageUnsafe              avgt   10  0,083 ± 0,006  us/op
  *
+ * == two-pass vs. reversed serialization (JDK17, 1 core Xeon VM)
+ * Benchmark                                                   Mode  Cnt  Score   Error  Units
+ * SerializationBenchmarkQuickbuf.writeMessage                 avgt   10  0,114 ± 0,016  us/op
+ * SerializationBenchmarkQuickbuf.writeMessageReversed         avgt   10  0,185 ± 0,037  us/op
+ * SerializationBenchmarkQuickbuf.writeMessageReversedAndCopy  avgt   10  0,191 ± 0,033  us/op
+ * SerializationBenchmarkQuickbuf.writeMessageTwoPass          avgt   10  0,177 ± 0,026  us/op
+ * SerializationBenchmarkQuickbuf.writeTreeReversed            avgt   10  0,373 ± 0,063  us/op
+ * SerializationBenchmarkQuickbuf.writeTreeTwoPass             avgt   10  0,817 ± 0,139  us/op
+ *
  * @author Florian Enner
  * @since 16 Aug 2019
  */
@@ -144,7 +154,21 @@ public class SerializationBenchmarkQuickbuf {
     byte[] stringMsgBytes = stringMessage.toByteArray();
     byte[] stringMsgOutBuffer = new byte[stringMessage.getSerializedSize()];
 
+    final TestAllTypes treeMessage = newTreeMessage();
+    byte[] treeMsgOutBuffer = new byte[treeMessage.getSerializedSize()];
+
+    private static TestAllTypes newTreeMessage() {
+        TestAllTypes tree = TestAllTypes.newInstance();
+        for (int i = 0; i < 32; i++) {
+            tree.addRepeatedForeignMessage(ForeignMessage.newInstance().setC(i));
+            tree.addRepeatedNestedMessage(TestAllTypes.NestedMessage.newInstance().setBb(i));
+            tree.getMutableOptionalNestedMessage().setBb(i);
+        }
+        return tree;
+    }
+
     final ProtoSink sink = ProtoSink.newArraySink();
+    final ReverseSink reverseSink = ReverseSink.newInstance(stringMsgOutBuffer.length);
     final ProtoSource source = ProtoSource.newArraySource();
 
     final ProtoSink unsafeSink = ProtoSink.newDirectSink();
@@ -188,6 +212,39 @@ public class SerializationBenchmarkQuickbuf {
         return sink.getTotalBytesWritten();
     }
 
+    @Benchmark
+    public int writeMessageTwoPass() throws IOException {
+        msg.getSerializedSize();
+        msg.writeTo(sink.setOutput(msgOutBuffer));
+        return sink.getTotalBytesWritten();
+    }
+
+    @Benchmark
+    public int writeMessageReversed() throws IOException {
+        msg.writeToReversed(reverseSink.reset());
+        return reverseSink.getTotalBytesWritten();
+    }
+
+    @Benchmark
+    public int writeMessageReversedAndCopy() throws IOException {
+        msg.writeToReversed(reverseSink.reset());
+        reverseSink.writeTo(sink.setOutput(msgOutBuffer));
+        return sink.getTotalBytesWritten();
+    }
+
+    @Benchmark
+    public int writeTreeTwoPass() throws IOException {
+        treeMessage.getSerializedSize();
+        treeMessage.writeTo(sink.setOutput(treeMsgOutBuffer));
+        return sink.getTotalBytesWritten();
+    }
+
+    @Benchmark
+    public int writeTreeReversed() throws IOException {
+        treeMessage.writeToReversed(reverseSink.reset());
+        return reverseSink.getTotalBytesWritten();
+    }
+
     @Benchmark
     public TestAllTypes readMessageUnsafe() throws IOException {
         return msgIn.clear().mergeFrom(unsafeSource.setInput(msgBytes));
@@ -26,7 +26,10 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.VerboseMode;
+import us.hebi.quickbuf.ProtoSink;
+import us.hebi.quickbuf.ProtoSource;
 
+import java.io.IOException;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
@@ -69,6 +72,19 @@ import java.util.concurrent.TimeUnit;
  * Varint32Benchmark.computeVarint32Nano          avgt   10  0,168 ± 0,019  us/op
  * Varint32Benchmark.computeVarint32_zlc_lookup   avgt   10  0,191 ± 0,004  us/op
  *
+ * === readRawVarint32 (JDK 17, 1 core Xeon VM, -f 2 -wi 5 -i 5 -r 250ms)
+ * (production distribution)
+ * Benchmark                                    Mode  Cnt  Score   Error  Units
+ * Varint32Benchmark.readVarint32_arraySource   avgt   10  1.012 ± 0.173  us/op
+ * Varint32Benchmark.readVarint32_bytewise      avgt   10  0.425 ± 0.123  us/op
+ * Varint32Benchmark.readVarint32_directSource  avgt   10  1.136 ± 0.805  us/op
+ *
+ * (random input w/ 50% negative numbers)
+ * Benchmark                                    Mode  Cnt  Score   Error  Units
+ * Varint32Benchmark.readVarint32_arraySource   avgt   10  3.781 ± 0.877  us/op
+ * Varint32Benchmark.readVarint32_bytewise      avgt   10  4.104 ± 0.599  us/op
+ * Varint32Benchmark.readVarint32_directSource  avgt   10  3.899 ± 0.499  us/op
+ *
  * @author Florian Enner
  * @since 12 Sep 2014
  */
@@ -91,8 +107,15 @@ public class Varint32Benchmark {
     int[] values = new int[512];
     byte[] output = new byte[10];
 
+    // encoded values for the read benchmarks
+    byte[] input = new byte[values.length * 10];
+    int inputLength;
+    int inputPosition;
+    ProtoSource arraySource = ProtoSource.newArraySource();
+    ProtoSource directSource = ProtoSource.newDirectSource();
+
     @Setup(Level.Iteration)
-    public void setup() {
+    public void setup() throws IOException {
         Random random = new Random(System.nanoTime());
         for (int i = 0; i < values.length; i++) {
 //            values[i] = Math.abs(random.nextInt()) % 128; // all 1 byte varint (best case)
@@ -101,8 +124,49 @@ public class Varint32Benchmark {
 //            values[i] = 1 << random.nextInt(10); // random long bit distribution
             values[i] = withProductionDistribution(random);
         }
+
+        ProtoSink inputSink = ProtoSink.newInstance(input);
+        for (int value : values) {
+            inputSink.writeInt32NoTag(value);
+        }
+        inputLength = inputSink.getTotalBytesWritten();
     }
 
+    // Byte-wise implementation that was used by array sources before switching to word-wise reads
+    private int readRawVarint32Bytewise() {
+        int x = readRawByte();
+        if (x >= 0) {
+            return x;
+        } else if ((x ^= (readRawByte() << 7)) < 0) {
+            return x ^ xorBits7;
+        } else if ((x ^= (readRawByte() << 14)) >= 0) {
+            return x ^ xorBits14;
+        } else if ((x ^= (readRawByte() << 21)) < 0) {
+            return x ^ xorBits21;
+        } else {
+            // Discard upper 32 bits.
+            final int y = readRawByte();
+            if (y < 0
+                    && readRawByte() < 0
+                    && readRawByte() < 0
+                    && readRawByte() < 0
+                    && readRawByte() < 0
+                    && readRawByte() < 0) {
+                throw new IllegalStateException("malformed varint");
+            }
+            return x ^ (y << 28) ^ xorBits28;
+        }
+    }
+
+    private byte readRawByte() {
+        return input[inputPosition++];
+    }
+
+    static final int xorBits7 = ~0 << 7;
+    static final int xorBits14 = xorBits7 ^ (~0 << 14);
+    static final int xorBits21 = xorBits14 ^ (~0 << 21);
+    static final int xorBits28 = xorBits21 ^ (~0 << 28);
+
     private int withProductionDistribution(Random random) {
         float rnd = random.nextFloat() * 100f;
         if(rnd < 94.8) return 1; // 1 byte
@@ -285,4 +349,35 @@ public class Varint32Benchmark {
         }
         return size;
     }
+
+    @Benchmark
+    public int readVarint32_bytewise() {
+        inputPosition = 0;
+        int sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += readRawVarint32Bytewise();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int readVarint32_arraySource() throws IOException {
+        arraySource.setInput(input, 0, inputLength);
+        int sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += arraySource.readRawVarint32();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int readVarint32_directSource() throws IOException {
+        directSource.setInput(input, 0, inputLength);
+        int sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += directSource.readRawVarint32();
+        }
+        return sum;
+    }
+
 }
@@ -27,6 +27,7 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.VerboseMode;
 import us.hebi.quickbuf.ProtoSink;
+import us.hebi.quickbuf.ProtoSource;
 
 import java.io.IOException;
 import java.util.Random;
@@ -102,6 +103,22 @@ import java.util.concurrent.TimeUnit;
  * Varint64Benchmark.writeUInt64                      thrpt   20   395,856 ± 11,377  ops/ms
  * Varint64Benchmark.writeUInt64As32                  thrpt   20   450,396 ±  5,713  ops/ms
  *
+ * === readRawVarint64 (JDK 17, 1 core Xeon VM, -f 2 -wi 5 -i 10 -r 250ms)
+ * (production distribution)
+ * Benchmark                                   Mode  Cnt    Score    Error   Units
+ * Varint64Benchmark.readUInt64_arraySource   thrpt   20  463.078 ± 17.574  ops/ms
+ * Varint64Benchmark.readUInt64_bytewise      thrpt   20  547.645 ± 72.503  ops/ms
+ * Varint64Benchmark.readUInt64_directSource  thrpt   20  361.267 ± 31.519  ops/ms
+ *
+ * (random long bit range)
+ * Benchmark                                   Mode  Cnt    Score    Error   Units
+ * Varint64Benchmark.readUInt64_arraySource   thrpt   20  275.937 ± 29.355  ops/ms
+ * Varint64Benchmark.readUInt64_bytewise      thrpt   20  431.208 ± 86.777  ops/ms
+ * Varint64Benchmark.readUInt64_directSource  thrpt   20  295.657 ± 19.568  ops/ms
+ *
+ * The bytewise variant is a private loop without bounds checks or virtual calls,
+ * so it is a lower bound rather than an equivalent source.
+ *
  * @author Florian Enner
  * @since 12 Sep 2014
  */
@@ -126,8 +143,15 @@ public class Varint64Benchmark {
     ProtoSink sink = ProtoSink.newInstance(output);
     private static final boolean ENABLE_ALIGNED_ACCESS = false;
 
+    // encoded values for the read benchmarks
+    byte[] input = new byte[values.length * 10];
+    int inputLength;
+    int inputPosition;
+    ProtoSource arraySource = ProtoSource.newArraySource();
+    ProtoSource directSource = ProtoSource.newDirectSource();
+
     @Setup(Level.Iteration)
-    public void setup() {
+    public void setup() throws IOException {
         Random random = new Random(System.nanoTime());
         for (int i = 0; i < values.length; i++) {
 //            values[i] = Math.abs(random.nextInt()) % 128; // all 1 byte varint (best case)
@@ -138,6 +162,12 @@ public class Varint64Benchmark {
 //            values[i] = 1L << random.nextInt(64); // random long bit distribution
             values[i] = withProductionDistribution(random);
         }
+
+        ProtoSink inputSink = ProtoSink.newInstance(input);
+        for (long value : values) {
+            inputSink.writeUInt64NoTag(value);
+        }
+        inputLength = inputSink.getTotalBytesWritten();
     }
 
     private long withProductionDistribution(Random random) {
@@ -297,6 +327,50 @@ public class Varint64Benchmark {
         sink.writeRawByte(value);
     }
 
+    // Byte-wise implementation that was used by array sources before switching to word-wise reads
+    private long readRawVarint64Bytewise() {
+        int y;
+        if ((y = readRawByte()) >= 0) {
+            return y;
+        } else if ((y ^= (readRawByte() << 7)) < 0) {
+            return y ^ xorBits7;
+        } else if ((y ^= (readRawByte() << 14)) >= 0) {
+            return y ^ xorBits14;
+        } else if ((y ^= (readRawByte() << 21)) < 0) {
+            return y ^ xorBits21;
+        }
+
+        long x;
+        if ((x = y ^ ((long) readRawByte() << 28)) >= 0L) {
+            return x ^ xorBits28L;
+        } else if ((x ^= ((long) readRawByte() << 35)) < 0L) {
+            return x ^ xorBits35L;
+        } else if ((x ^= ((long) readRawByte() << 42)) >= 0L) {
+            return x ^ xorBits42L;
+        } else if ((x ^= ((long) readRawByte() << 49)) < 0L) {
+            return x ^ xorBits49L;
+        } else {
+            x ^= ((long) readRawByte() << 56) ^ xorBits56L;
+            if (x < 0L) {
+                readRawByte();
+            }
+            return x;
+        }
+    }
+
+    private byte readRawByte() {
+        return input[inputPosition++];
+    }
+
+    static final int xorBits7 = ~0 << 7;
+    static final int xorBits14 = xorBits7 ^ (~0 << 14);
+    static final int xorBits21 = xorBits14 ^ (~0 << 21);
+    static final long xorBits28L = xorBits21 ^ (~0L << 28);
+    static final long xorBits35L = xorBits28L ^ (~0L << 35);
+    static final long xorBits42L = xorBits35L ^ (~0L << 42);
+    static final long xorBits49L = xorBits42L ^ (~0L << 49);
+    static final long xorBits56L = xorBits49L ^ (~0L << 56);
+
     @Benchmark
     public int writeUInt32() throws IOException {
         sink.reset();
@@ -369,6 +443,36 @@ public class Varint64Benchmark {
         return sink.getTotalBytesWritten();
     }
 
+    @Benchmark
+    public long readUInt64_bytewise() {
+        inputPosition = 0;
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += readRawVarint64Bytewise();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long readUInt64_arraySource() throws IOException {
+        arraySource.setInput(input, 0, inputLength);
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += arraySource.readRawVarint64();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long readUInt64_directSource() throws IOException {
+        directSource.setInput(input, 0, inputLength);
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += directSource.readRawVarint64();
+        }
+        return sum;
+    }
+
     @Benchmark
     public int computeRawVarInt64Size_branches() {
         int sum = 0;
@@ -0,0 +1,173 @@
+/*-
+ * #%L
+ * quickbuf-benchmarks
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf.benchmarks.encoding;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import protos.benchmarks.wide.quickbuf.WideMessages.WideMessage;
+import us.hebi.quickbuf.JsonSink;
+import us.hebi.quickbuf.JsonSource;
+import us.hebi.quickbuf.ProtoSink;
+import us.hebi.quickbuf.ProtoSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes a synthetic message with 500 fields. Without splitting, the generated methods of
+ * such messages are larger than HotSpot's HugeMethodLimit and never get compiled by the JIT.
+ * The 'compiledHugeMethods' fork disables the limit and acts as a reference for what the JIT
+ * can achieve, so the scores of both forks should be close to each other. Running with
+ * -XX:+PrintCompilation shows that the split helper methods get compiled.
+ *
+ * === split methods (JDK17, 1 core Xeon VM, -f 2 -wi 8 -i 10 -r 1s)
+ * Benchmark                                             Mode  Cnt   Score    Error  Units
+ * WideMessageBenchmark.compiledHugeMethodsReadMessage   avgt   20   8,738 ±  1,049  us/op
+ * WideMessageBenchmark.compiledHugeMethodsWriteMessage  avgt   20   2,554 ±  0,152  us/op
+ * WideMessageBenchmark.computeSerializedSize            avgt   20   0,724 ±  0,099  us/op
+ * WideMessageBenchmark.copyMessage                      avgt   20   0,509 ±  0,035  us/op
+ * WideMessageBenchmark.equalsMessage                    avgt   20   2,562 ±  0,142  us/op
+ * WideMessageBenchmark.readJson                         avgt   20  87,383 ± 23,289  us/op
+ * WideMessageBenchmark.readMessage                      avgt   20   8,853 ±  0,962  us/op
+ * WideMessageBenchmark.writeJson                        avgt   20  13,382 ±  1,840  us/op
+ * WideMessageBenchmark.writeMessage                     avgt   20   2,419 ±  0,384  us/op
+ * WideMessageBenchmark.writeToArray                     avgt   20   2,435 ±  0,213  us/op
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class WideMessageBenchmark {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(".*" + WideMessageBenchmark.class.getSimpleName() + ".*")
+                .verbosity(VerboseMode.NORMAL)
+                .build();
+        new Runner(options).run();
+    }
+
+    final WideMessage msg = newWideMessage();
+    final WideMessage msgIn = WideMessage.newInstance();
+    final WideMessage msgCopy = msg.clone();
+    final byte[] msgBytes = msg.toByteArray();
+    final byte[] msgOutBuffer = new byte[msgBytes.length];
+    final byte[] jsonBytes = msg.toString().getBytes(StandardCharsets.UTF_8);
+
+    final ProtoSource source = ProtoSource.newArraySource();
+    final ProtoSink sink = ProtoSink.newArraySink();
+    final JsonSink jsonSink = JsonSink.newInstance().reserve(jsonBytes.length);
+
+    static WideMessage newWideMessage() {
+        // Populate all fields via JSON so we don't need to call 500 setters
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 1; i <= 500; i++) {
+            json.append(i == 1 ? "" : ",").append("\"field_").append(i).append("\":");
+            switch ((i - 1) % 10) {
+                case 2:
+                case 3:
+                    json.append(i).append(".5");
+                    break;
+                case 4:
+                    json.append("true");
+                    break;
+                case 5:
+                    json.append("\"value ").append(i).append('"');
+                    break;
+                case 6:
+                case 9:
+                    json.append(-i);
+                    break;
+                default:
+                    json.append(i);
+            }
+        }
+        try {
+            return WideMessage.newInstance().mergeFrom(JsonSource.newInstance(json.append("}").toString()));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Benchmark
+    public WideMessage readMessage() throws IOException {
+        return msgIn.clear().mergeFrom(source.setInput(msgBytes));
+    }
+
+    @Benchmark
+    public int writeMessage() throws IOException {
+        msg.writeTo(sink.setOutput(msgOutBuffer));
+        return sink.getTotalBytesWritten();
+    }
+
+    @Benchmark
+    public int writeToArray() throws IOException {
+        return msg.writeToArray(msgOutBuffer, 0);
+    }
+
+    @Benchmark
+    public int computeSerializedSize() {
+        return msg.getSerializedSize();
+    }
+
+    @Benchmark
+    public boolean equalsMessage() {
+        return msg.equals(msgCopy);
+    }
+
+    @Benchmark
+    public WideMessage copyMessage() {
+        return msgIn.copyFrom(msg);
+    }
+
+    @Benchmark
+    public WideMessage readJson() throws IOException {
+        return msgIn.clear().mergeFrom(JsonSource.newInstance(jsonBytes));
+    }
+
+    @Benchmark
+    public int writeJson() throws IOException {
+        return jsonSink.clear().writeMessage(msg).getBytes().length();
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = "-XX:-DontCompileHugeMethods")
+    public WideMessage compiledHugeMethodsReadMessage() throws IOException {
+        return readMessage();
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = "-XX:-DontCompileHugeMethods")
+    public int compiledHugeMethodsWriteMessage() throws IOException {
+        return writeMessage();
+    }
+
+}
@@ -150,15 +150,15 @@ class BitField {
         return String.format("((bitField%d_ & 0x%08x) >>> %d)", intSlot, 1 << indexInSlot, indexInSlot);
     }
 
-    private static String fieldName(int intIndex) {
+    static String fieldName(int intIndex) {
         return String.format("bitField%d_", intIndex);
     }
 
-    private static int getFieldIndex(int fieldIndex) {
+    static int getFieldIndex(int fieldIndex) {
         return fieldIndex / BITS_PER_FIELD;
     }
 
-    private static int getBitIndex(int fieldIndex) {
+    static int getBitIndex(int fieldIndex) {
         return fieldIndex % BITS_PER_FIELD;
     }
 
@@ -67,12 +67,23 @@ public class FieldGenerator {
                     .initializer(named("$abstractMessage:T.bytesDefaultValue(\"$default:L\")"))
                     .build());
         }
+
+        if (info.isLazyParsingEnabled()) {
+            // serialized content that gets parsed on first access
+            type.addField(FieldSpec.builder(RuntimeClasses.BytesType, info.getLazyBytesName())
+                    .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+                    .initializer("$T.newEmptyInstance()", RuntimeClasses.BytesType)
+                    .build());
+        }
     }
 
     private CodeBlock initializer() {
         CodeBlock.Builder initializer = CodeBlock.builder();
-        if (info.isRepeated() && info.isMessageOrGroup()) {
-            initializer.add("$T.newEmptyInstance($T.getFactory())", RuntimeClasses.RepeatedMessage, info.getTypeName());
+        final ClassName repeatedMessageType = info.isIndexedMap() ? info.getMapStoreType() : RuntimeClasses.RepeatedMessage;
+        if (info.isRepeated() && info.isMessageOrGroup() && info.isDirtyTrackingEnabled()) {
+            initializer.add("attach($T.newEmptyInstance($T.getFactory()))", repeatedMessageType, info.getTypeName());
+        } else if (info.isRepeated() && info.isMessageOrGroup()) {
+            initializer.add("$T.newEmptyInstance($T.getFactory())", repeatedMessageType, info.getTypeName());
         } else if (info.isRepeated() && info.isEnum()) {
             initializer.add("$T.newEmptyInstance($T.converter())", RuntimeClasses.RepeatedEnum, info.getTypeName());
         } else if (info.isRepeated()) {
@@ -83,6 +94,8 @@ public class FieldGenerator {
             } else {
                 initializer.add(named("$storeType:T.newInstance($defaultField:N)"));
             }
+        } else if (info.isMessageOrGroup() && info.isDirtyTrackingEnabled()) {
+            initializer.add(named("attach($storeType:T.newInstance())"));
         } else if (info.isMessageOrGroup()) {
             initializer.add(named("$storeType:T.newInstance()"));
         } else if (info.isString()) {
@@ -133,6 +146,10 @@ public class FieldGenerator {
         if (info.isLazyAllocationEnabled()) {
             method.endControlFlow();
         }
+
+        if (info.isLazyParsingEnabled()) {
+            method.addStatement(named("$lazyBytes:N.clear()"));
+        }
     }
 
     protected void generateClearQuickCode(MethodSpec.Builder method) {
@@ -155,6 +172,10 @@ public class FieldGenerator {
         if (info.isLazyAllocationEnabled()) {
             method.endControlFlow();
         }
+
+        if (info.isLazyParsingEnabled()) {
+            method.addStatement(named("$lazyBytes:N.clear()"));
+        }
     }
 
     protected void generateCopyFromCode(MethodSpec.Builder method) {
@@ -173,6 +194,9 @@ public class FieldGenerator {
             } else {
                 method.addStatement(named("$field:N.copyFrom(other.$field:N)"));
             }
+            if (info.isLazyParsingEnabled()) {
+                method.addStatement(named("$lazyBytes:N.copyFrom(other.$lazyBytes:N)"));
+            }
         } else {
             throw new IllegalStateException("unhandled field: " + info.getDescriptor());
         }
@@ -181,6 +205,8 @@ public class FieldGenerator {
     protected void generateMergeFromMessageCode(MethodSpec.Builder method) {
         if (info.isRepeated()) {
             method.addStatement(named("$getMutableMethod:N().addAll(other.$field:N)"));
+        } else if (info.isLazyParsingEnabled()) {
+            method.addStatement(named("$getMutableMethod:N().mergeFrom(other.$parseLazyMethod:N())"));
         } else if (info.isMessageOrGroup()) {
             method.addStatement(named("$getMutableMethod:N().mergeFrom(other.$field:N)"));
         } else if (info.isBytes()) {
@@ -197,7 +223,10 @@ public class FieldGenerator {
     }
 
     protected void generateEqualsStatement(MethodSpec.Builder method) {
-        if (info.isRepeated() || info.isBytes() || info.isMessageOrGroup() || info.isString()) {
+        if (info.isLazyParsingEnabled()) {
+            method.addNamedCode("$parseLazyMethod:N().equals(other.$parseLazyMethod:N())", m);
+
+        } else if (info.isRepeated() || info.isBytes() || info.isMessageOrGroup() || info.isString()) {
             method.addNamedCode("$field:N.equals(other.$field:N)", m);
 
         } else if (typeName == TypeName.DOUBLE || typeName == TypeName.FLOAT) {
@@ -211,10 +240,34 @@ public class FieldGenerator {
         }
     }
 
+    protected void generateHashCode(MethodSpec.Builder method) {
+        if (info.isLazyParsingEnabled()) {
+            method.addStatement(named("_hash = $protoUtil:T.hash(_hash, $parseLazyMethod:N())"));
+        } else {
+            method.addStatement(named("_hash = $protoUtil:T.hash(_hash, $field:N)"));
+        }
+    }
+
     /**
      * @return true if the tag needs to be read
      */
     protected boolean generateMergingCode(MethodSpec.Builder method) {
+        if (info.isLazyParsingEnabled()) {
+            // Keep the serialized content unless the field has already been parsed
+            method.addCode(clearOtherOneOfs)
+                    .beginControlFlow(named("if ($getHas:L && $lazyBytes:N.length() == 0)"))
+                    .addCode(ensureFieldNotNull)
+                    .addStatement(named("input.readMessage($field:N)"))
+                    .nextControlFlow("else");
+            if (info.isLazyAllocationEnabled()) {
+                method.addStatement(named("$lazyInitMethod:L()"));
+            }
+            method.addStatement(named("input.readMessageBytes($lazyBytes:N)"))
+                    .endControlFlow()
+                    .addStatement(named("$setHas:L"));
+            return true;
+        }
+
         method.addCode(clearOtherOneOfs).addCode(ensureFieldNotNull);
         if (info.isRepeated()) {
             method
@@ -275,6 +328,89 @@ public class FieldGenerator {
         return true;
     }
 
+    /**
+     * Merging code for reading from an array with the position and limit in local
+     * variables. Singular scalars get decoded inline, and all other fields move the
+     * source to the current position and use the regular merging code.
+     *
+     * @return true if the tag needs to be read
+     */
+    protected boolean generateArrayMergingCode(MethodSpec.Builder method) {
+        if (!info.isSingularPrimitiveOrEnum()) {
+            method.addStatement("final $T input = _decoder.seek(_position)", RuntimeClasses.ProtoSource);
+            boolean readTag = info.isPackable() ? generateMergingCodeFromPacked(method) : generateMergingCode(method);
+            method.addStatement("_position = _decoder.position()");
+            return readTag;
+        }
+
+        method.addCode(clearOtherOneOfs).addCode(ensureFieldNotNull);
+        if (info.isEnum()) {
+            method
+                    .addStatement("_position = _decoder.readVarint32(_buffer, _position, _limit)")
+                    .addStatement("final int value = _decoder.intValue()")
+                    .beginControlFlow("if ($T.forNumber(value) != null)", typeName)
+                    .addStatement(named("$field:N = value"))
+                    .addStatement(named("$setHas:L"));
+            if (info.isStoreUnknownFieldsEnabled()) {
+                method.nextControlFlow("else")
+                        .addStatement("_decoder.seek(_position).skipEnum(tag, value, $N)", RuntimeClasses.unknownBytesField);
+            }
+            method.endControlFlow();
+            return true;
+        }
+
+        final String read;
+        final String value;
+        switch (info.getDescriptor().getType()) {
+            case TYPE_DOUBLE:
+                read = "readFixed64";
+                value = "Double.longBitsToDouble(_decoder.longValue())";
+                break;
+            case TYPE_FLOAT:
+                read = "readFixed32";
+                value = "Float.intBitsToFloat(_decoder.intValue())";
+                break;
+            case TYPE_FIXED64:
+            case TYPE_SFIXED64:
+                read = "readFixed64";
+                value = "_decoder.longValue()";
+                break;
+            case TYPE_FIXED32:
+            case TYPE_SFIXED32:
+                read = "readFixed32";
+                value = "_decoder.intValue()";
+                break;
+            case TYPE_INT64:
+            case TYPE_UINT64:
+                read = "readVarint64";
+                value = "_decoder.longValue()";
+                break;
+            case TYPE_INT32:
+            case TYPE_UINT32:
+                read = "readVarint32";
+                value = "_decoder.intValue()";
+                break;
+            case TYPE_SINT64:
+                read = "readVarint64";
+                value = "$protoSource:T.decodeZigZag64(_decoder.longValue())";
+                break;
+            case TYPE_SINT32:
+                read = "readVarint32";
+                value = "$protoSource:T.decodeZigZag32(_decoder.intValue())";
+                break;
+            case TYPE_BOOL:
+                read = "readVarint64";
+                value = "_decoder.longValue() != 0";
+                break;
+            default:
+                throw new IllegalStateException("unhandled field: " + info.getDescriptor());
+        }
+        method.addStatement("_position = _decoder.$L(_buffer, _position, _limit)", read)
+                .addStatement(named("$field:N = " + value))
+                .addStatement(named("$setHas:L"));
+        return true;
+    }
+
     protected void generateSerializationCode(MethodSpec.Builder method) {
         m.put("writeTagToOutput", generateWriteVarint32(getInfo().getTag()));
         if (info.isPacked()) {
@@ -296,6 +432,16 @@ public class FieldGenerator {
                     "$writeEndGroupTagToOutput:L" +
                     "$<}\n", m);
 
+        } else if (info.isLazyParsingEnabled()) {
+            // re-emit unparsed content as is
+            method.addNamedCode("" +
+                    "$writeTagToOutput:L" +
+                    "if ($lazyBytes:N.length() > 0) {$>\n" +
+                    "output.writeBytesNoTag($lazyBytes:N);\n" +
+                    "$<} else {$>\n" +
+                    "output.write$capitalizedType:LNoTag($field:N);\n" +
+                    "$<}\n", m);
+
         } else {
             // unroll varint tag loop
             method.addNamedCode("" + // non-repeated
@@ -306,6 +452,130 @@ public class FieldGenerator {
         }
     }
 
+    /**
+     * Mirror image of the serialization code for writing back-to-front, i.e., values
+     * get written before their tags and repeated values get written in reverse order.
+     */
+    protected void generateReverseSerializationCode(MethodSpec.Builder method) {
+        m.put("writeTagToOutputReversed", generateWriteVarint32Reversed(getInfo().getTag()));
+        if (info.isPacked()) {
+            m.put("writePackedTagToOutputReversed", generateWriteVarint32Reversed(getInfo().getPackedTag()));
+        }
+        m.put("writeEndGroupTagToOutputReversed", !info.isGroup() ? "" :
+                generateWriteVarint32Reversed(getInfo().getEndGroupTag()));
+
+        if (info.isPacked()) {
+            method.addNamedCode("" +
+                    "output.writePacked$capitalizedType:LNoTag($field:N);\n" +
+                    "$writePackedTagToOutputReversed:L", m);
+
+        } else if (info.isRepeated()) {
+            method.addNamedCode("" +
+                    "for (int i = $field:N.length() - 1; i >= 0; i--) {$>\n" +
+                    "$writeEndGroupTagToOutputReversed:L" +
+                    "output.write$capitalizedType:LNoTag($field:N.$getRepeatedIndex_i:L);\n" +
+                    "$writeTagToOutputReversed:L" +
+                    "$<}\n", m);
+
+        } else if (info.isLazyParsingEnabled()) {
+            // re-emit unparsed content as is
+            method.addNamedCode("" +
+                    "if ($lazyBytes:N.length() > 0) {$>\n" +
+                    "output.writeBytesNoTag($lazyBytes:N);\n" +
+                    "$<} else {$>\n" +
+                    "output.write$capitalizedType:LNoTag($field:N);\n" +
+                    "$<}\n" +
+                    "$writeTagToOutputReversed:L", m);
+
+        } else {
+            method.addNamedCode("" + // non-repeated
+                    "$writeEndGroupTagToOutputReversed:L" +
+                    "output.write$capitalizedType:LNoTag($field:N);\n" +
+                    "$writeTagToOutputReversed:L", m
+            );
+        }
+    }
+
+    /**
+     * Serialization code for writing directly into an array. The position is kept in
+     * a local variable, and nested messages get written through their concrete type,
+     * so there are no virtual calls for individual fields.
+     */
+    protected void generateArraySerializationCode(MethodSpec.Builder method) {
+        m.put("writeTagToArray", generateWriteVarint32ToArray(getInfo().getTag()));
+        if (info.isPacked()) {
+            m.put("writePackedTagToArray", generateWriteVarint32ToArray(getInfo().getPackedTag()));
+        }
+        m.put("writeEndGroupTagToArray", !info.isGroup() ? "" :
+                generateWriteVarint32ToArray(getInfo().getEndGroupTag()));
+
+        if (info.isPacked()) {
+            method.addNamedCode("" +
+                    "$writePackedTagToArray:L" +
+                    "_position = $arrayEncoder:T.writePacked$capitalizedType:LNoTag(_buffer, _position, $field:N);\n", m);
+
+        } else if (info.isRepeated() && info.isMessageOrGroup()) {
+            method.addNamedCode("" +
+                    "for (int i = 0; i < $field:N.length(); i++) {$>\n" +
+                    "$writeTagToArray:L" +
+                    (info.isGroup() ? "" : "_position = $arrayEncoder:T.writeLength(_buffer, _position, $field:N.get(i).getCachedSize());\n") +
+                    "_position = $field:N.get(i).writeToArray(_buffer, _position);\n" +
+                    "$writeEndGroupTagToArray:L" +
+                    "$<}\n", m);
+
+        } else if (info.isRepeated()) {
+            method.addNamedCode("" +
+                    "for (int i = 0; i < $field:N.length(); i++) {$>\n" +
+                    "$writeTagToArray:L" +
+                    "_position = $arrayEncoder:T.write$capitalizedType:LNoTag(_buffer, _position, $field:N.$getRepeatedIndex_i:L);\n" +
+                    "$<}\n", m);
+
+        } else if (info.isLazyParsingEnabled()) {
+            // re-emit unparsed content as is
+            method.addNamedCode("" +
+                    "$writeTagToArray:L" +
+                    "if ($lazyBytes:N.length() > 0) {$>\n" +
+                    "_position = $arrayEncoder:T.writeBytesNoTag(_buffer, _position, $lazyBytes:N);\n" +
+                    "$<} else {$>\n" +
+                    "_position = $arrayEncoder:T.writeLength(_buffer, _position, $field:N.getCachedSize());\n" +
+                    "_position = $field:N.writeToArray(_buffer, _position);\n" +
+                    "$<}\n", m);
+
+        } else if (info.isMessageOrGroup()) {
+            method.addNamedCode("" +
+                    "$writeTagToArray:L" +
+                    (info.isGroup() ? "" : "_position = $arrayEncoder:T.writeLength(_buffer, _position, $field:N.getCachedSize());\n") +
+                    "_position = $field:N.writeToArray(_buffer, _position);\n" +
+                    "$writeEndGroupTagToArray:L", m);
+
+        } else {
+            method.addNamedCode("" +
+                    "$writeTagToArray:L" +
+                    "_position = $arrayEncoder:T.write$capitalizedType:LNoTag(_buffer, _position, $field:N);\n", m);
+        }
+    }
+
+    private static String generateWriteVarint32ToArray(int value) {
+        // Tags are constant, so we can store the individual bytes directly
+        StringBuilder output = new StringBuilder();
+        while ((value & ~0x7F) != 0) {
+            output.append("_buffer[_position++] = (byte) ").append((value & 0x7F) | 0x80).append(";\n");
+            value >>>= 7;
+        }
+        output.append("_buffer[_position++] = (byte) ").append(value).append(";\n");
+        return output.toString();
+    }
+
+    private static String generateWriteVarint32Reversed(int value) {
+        // Same raw writes as for forward output, but with the statements in reverse order
+        final String[] lines = generateWriteVarint32(value).split("\n");
+        StringBuilder output = new StringBuilder();
+        for (int i = lines.length - 1; i >= 0; i--) {
+            output.append(lines[i]).append("\n");
+        }
+        return output.toString();
+    }
+
     private static String generateWriteVarint32(int value) {
         // Split tag into individual bytes
         int[] bytes = new int[5];
@@ -368,6 +638,14 @@ public class FieldGenerator {
         } else if (info.isFixedWidth()) {
             method.addStatement("size += $L", (info.getBytesPerTag() + info.getFixedWidth())); // non-repeated
 
+        } else if (info.isLazyParsingEnabled()) {
+            method.addNamedCode("" +
+                    "if ($lazyBytes:N.length() > 0) {$>\n" +
+                    "size += $bytesPerTag:L + $protoSink:T.computeBytesSizeNoTag($lazyBytes:N);\n" +
+                    "$<} else {$>\n" +
+                    "size += $bytesPerTag:L + $protoSink:T.compute$capitalizedType:LSizeNoTag($field:N);\n" +
+                    "$<}\n", m);
+
         } else {
             method.addStatement(named("size += $bytesPerTag:L + $protoSink:T.compute$capitalizedType:LSizeNoTag($field:N)")); // non-repeated
         }
@@ -379,6 +657,8 @@ public class FieldGenerator {
             method.addStatement(named("output.writeRepeated$capitalizedType:L($fieldNames:T.$field:N, $field:N)"));
         } else if (info.isEnum()) {
             method.addStatement(named("output.write$capitalizedType:L($fieldNames:T.$field:N, $field:N, $type:T.converter())"));
+        } else if (info.isLazyParsingEnabled()) {
+            method.addStatement(named("output.write$capitalizedType:L($fieldNames:T.$field:N, $parseLazyMethod:N())"));
         } else {
             method.addStatement(named("output.write$capitalizedType:L($fieldNames:T.$field:N, $field:N)"));
         }
@@ -437,10 +717,41 @@ public class FieldGenerator {
                             .build())
                     .build());
         }
+        if (info.isLazyParsingEnabled()) {
+            MethodSpec.Builder parseLazy = MethodSpec.methodBuilder(info.getLazyParseName())
+                    .addModifiers(Modifier.PRIVATE)
+                    .returns(storeType);
+            if (info.isLazyAllocationEnabled()) {
+                parseLazy.addStatement("$N()", info.getLazyInitName());
+            }
+            type.addMethod(parseLazy
+                    .beginControlFlow(named("if ($lazyBytes:N.length() > 0)"))
+                    .addComment("The cached size may have been computed from non-canonical raw bytes")
+                    .addStatement("markDirty()")
+                    .addStatement(named("$abstractMessage:T.mergeLazyBytes($field:N, $lazyBytes:N)"))
+                    .endControlFlow()
+                    .addStatement(named("return $field:N"))
+                    .build());
+        }
     }
 
-    private CodeBlock lazyFieldInit() {
+    /**
+     * The value gets overwritten, so the serialized content can be dropped without parsing it
+     */
+    private CodeBlock discardLazyContent() {
+        CodeBlock.Builder block = CodeBlock.builder();
         if (info.isLazyAllocationEnabled()) {
+            block.addStatement("$N()", info.getLazyInitName());
+        }
+        return block.addStatement("$N.clear()", info.getLazyBytesName()).build();
+    }
+
+    private CodeBlock lazyFieldInit() {
+        if (info.isLazyParsingEnabled()) {
+            return CodeBlock.builder()
+                    .addStatement("$N()", info.getLazyParseName())
+                    .build();
+        } else if (info.isLazyAllocationEnabled()) {
             return CodeBlock.builder()
                     .addStatement("$N()", info.getLazyInitName())
                     .build();
@@ -473,6 +784,7 @@ public class FieldGenerator {
                     .addModifiers(Modifier.PUBLIC)
                     .addParameter(info.getInputParameterType(), "value", Modifier.FINAL)
                     .returns(info.getParentType())
+                    .addCode(markDirty)
                     .addCode(clearOtherOneOfs)
                     .addCode(ensureFieldNotNull)
                     .addStatement(named("$setHas:L"))
@@ -491,6 +803,7 @@ public class FieldGenerator {
                     .addParameter(ArrayTypeName.of(info.getInputParameterType()), "values", Modifier.FINAL)
                     .varargs(true)
                     .returns(info.getParentType())
+                    .addCode(markDirty)
                     .addCode(clearOtherOneOfs)
                     .addCode(ensureFieldNotNull)
                     .addStatement(named("$setHas:L"))
@@ -509,6 +822,7 @@ public class FieldGenerator {
                         .addParameter(ArrayTypeName.of(info.getInputParameterType()), "values", Modifier.FINAL)
                         .varargs(true)
                         .returns(info.getParentType())
+                        .addCode(markDirty)
                         .addCode(clearOtherOneOfs)
                         .addCode(ensureFieldNotNull)
                         .addStatement(named("$setHas:L"))
@@ -527,8 +841,9 @@ public class FieldGenerator {
                     .addModifiers(Modifier.PUBLIC)
                     .returns(info.getParentType())
                     .addParameter(info.getInputParameterType(), "value", Modifier.FINAL)
+                    .addCode(markDirty)
                     .addCode(clearOtherOneOfs)
-                    .addCode(ensureFieldNotNull)
+                    .addCode(info.isLazyParsingEnabled() ? discardLazyContent() : ensureFieldNotNull)
                     .addStatement(named("$setHas:L"))
                     .addStatement(named("$field:N.copyFrom(value)"))
                     .addStatement(named("return this"))
@@ -545,6 +860,7 @@ public class FieldGenerator {
                         .addModifiers(Modifier.PUBLIC)
                         .returns(info.getParentType())
                         .addParameter(RuntimeClasses.StringType, "value", Modifier.FINAL)
+                        .addCode(markDirty)
                         .addCode(clearOtherOneOfs)
                         .addCode(ensureFieldNotNull)
                         .addStatement(named("$setHas:L"))
@@ -563,6 +879,7 @@ public class FieldGenerator {
                     .addModifiers(Modifier.PUBLIC)
                     .addParameter(info.getTypeName(), "value", Modifier.FINAL)
                     .returns(info.getParentType())
+                    .addCode(markDirty)
                     .addCode(clearOtherOneOfs)
                     .addCode(ensureFieldNotNull)
                     .addNamedCode("" +
@@ -618,6 +935,7 @@ public class FieldGenerator {
                 .addModifiers(Modifier.PUBLIC)
                 .addParameter(int.class, "value", Modifier.FINAL)
                 .returns(info.getParentType())
+                .addCode(markDirty)
                 .addNamedCode("" +
                         "$setHas:L;\n" +
                         "$field:N = value;\n" +
@@ -684,6 +1002,7 @@ public class FieldGenerator {
                     .addAnnotations(info.getMethodAnnotations())
                     .addModifiers(Modifier.PUBLIC)
                     .returns(storeType)
+                    .addCode(markDirty)
                     .addCode(clearOtherOneOfs)
                     .addCode(ensureFieldNotNull)
                     .addStatement(named("$setHas:L"))
@@ -723,6 +1042,7 @@ public class FieldGenerator {
                     .addAnnotations(info.getMethodAnnotations())
                     .addModifiers(Modifier.PUBLIC)
                     .returns(storeType)
+                    .addCode(markDirty)
                     .addCode(clearOtherOneOfs)
                     .addCode(ensureFieldNotNull)
                     .addStatement(named("$setHas:L"))
@@ -741,6 +1061,7 @@ public class FieldGenerator {
                 .addAnnotations(info.getMethodAnnotations())
                 .addModifiers(Modifier.PUBLIC)
                 .returns(info.getParentType())
+                .addCode(markDirty)
                 .addStatement(named("$clearHas:L"));
         generateClearCode(method);
         method.addStatement("return this");
@@ -756,6 +1077,15 @@ public class FieldGenerator {
                 .build();
     }
 
+    private CodeBlock generateMarkDirty() {
+        if (!info.isDirtyTrackingEnabled())
+            return EMPTY_BLOCK;
+
+        return CodeBlock.builder()
+                .addStatement("markDirty()")
+                .build();
+    }
+
     private CodeBlock generateEnforceHasCheck() {
         if (!info.isEnforceHasCheckEnabled())
             return EMPTY_BLOCK;
@@ -784,6 +1114,8 @@ public class FieldGenerator {
         m.put("storeType", storeType);
         m.put("getMutableMethod", info.getMutableGetterName());
         m.put("lazyInitMethod", info.getLazyInitName());
+        m.put("lazyBytes", info.getLazyBytesName());
+        m.put("parseLazyMethod", info.getLazyParseName());
         m.put("getMethod", info.getGetterName());
         m.put("setMethod", info.getSetterName());
         m.put("addMethod", info.getAdderName());
@@ -812,12 +1144,14 @@ public class FieldGenerator {
         m.put("abstractMessage", RuntimeClasses.AbstractMessage);
         m.put("protoSource", RuntimeClasses.ProtoSource);
         m.put("protoSink", RuntimeClasses.ProtoSink);
+        m.put("arrayEncoder", RuntimeClasses.ArrayEncoder);
         m.put("protoUtil", RuntimeClasses.ProtoUtil);
 
         // Common configuration-dependent code blocks
         clearOtherOneOfs = generateClearOtherOneOfs();
         enforceHasCheck = generateEnforceHasCheck();
         ensureFieldNotNull = lazyFieldInit();
+        markDirty = generateMarkDirty();
     }
 
     protected final RequestInfo.FieldInfo info;
@@ -826,6 +1160,7 @@ public class FieldGenerator {
     protected final CodeBlock clearOtherOneOfs;
     protected final CodeBlock enforceHasCheck;
     protected final CodeBlock ensureFieldNotNull;
+    protected final CodeBlock markDirty;
     private static final CodeBlock EMPTY_BLOCK = CodeBlock.builder().build();
 
     protected final HashMap<String, Object> m = new HashMap<>();
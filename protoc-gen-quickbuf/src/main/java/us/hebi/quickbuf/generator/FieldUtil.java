@@ -82,6 +82,7 @@ class FieldUtil {
      * by Google's protobuf bindings.
      */
     static final Comparator<FieldGenerator> AscendingNumberSorter = Comparator.comparingInt(field -> field.getInfo().getNumber());
+    static final Comparator<FieldDescriptorProto> AscendingNumberOrder = Comparator.comparingInt(FieldDescriptorProto::getNumber);
 
     /**
      * Sort the fields according to their layout in memory.
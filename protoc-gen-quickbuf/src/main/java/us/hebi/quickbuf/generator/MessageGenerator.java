@@ -29,6 +29,7 @@ import us.hebi.quickbuf.generator.RequestInfo.MessageInfo;
 import javax.lang.model.element.Modifier;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -98,13 +99,31 @@ class MessageGenerator {
 
         // Fields accessors
         fields.forEach(f -> f.generateMemberMethods(type));
+        if (info.getMapStoreType() != null) {
+            generateMapKey(type);
+        }
         generateCopyFrom(type);
         generateMergeFromMessage(type);
         generateClear(type);
         generateEquals(type);
+        if (info.getParentFile().getParentRequest().getPluginOptions().isGenerateHashCode()) {
+            generateHashCode(type);
+        }
         generateWriteTo(type);
+        if (info.getParentFile().getParentRequest().getPluginOptions().isGenerateReverseWriter()) {
+            generateWriteToReversed(type);
+        }
+        if (info.getParentFile().getParentRequest().getPluginOptions().isGenerateArrayWriter()) {
+            generateWriteToArray(type);
+        }
         generateComputeSerializedSize(type);
+        if (info.isDirtyTrackingEnabled()) {
+            generateGetSerializedSize(type);
+        }
         generateMergeFrom(type);
+        if (info.getParentFile().getParentRequest().getPluginOptions().isGenerateArrayReader()) {
+            generateMergeFromArray(type);
+        }
         generateIsInitialized(type);
         generateWriteToJson(type);
         generateMergeFromJson(type);
@@ -116,6 +135,9 @@ class MessageGenerator {
         // Static utilities
         generateParseFrom(type);
         generateMessageFactory(type);
+        if (info.getParentFile().getParentRequest().getPluginOptions().isGenerateViews()) {
+            type.addType(new ViewGenerator(info).generate());
+        }
         generateJsonFieldNames(type);
         type.addField(FieldSpec.builder(TypeName.LONG, "serialVersionUID")
                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
@@ -130,6 +152,24 @@ class MessageGenerator {
         return type.build();
     }
 
+    private void generateMapKey(TypeSpec.Builder type) {
+        // The key gets looked up without a has check, so unset keys need to return the default
+        final RequestInfo.FieldInfo key = fields.stream()
+                .map(FieldGenerator::getInfo)
+                .filter(field -> field.getNumber() == 1)
+                .findFirst()
+                .orElseThrow(() -> new GeneratorException("Map entry without key: " + info.getFullName()));
+        type.addSuperinterface(info.getMapStoreType().nestedClass("Entry"));
+        type.addMethod(MethodSpec.methodBuilder("getMapKey")
+                .addJavadoc(Javadoc.inherit())
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(key.isString() ? RuntimeClasses.StringType : key.getTypeName())
+                .addStatement("return $N() ? $N : $L", key.getHazzerName(), key.getFieldName(),
+                        key.isString() ? "null" : key.getDefaultValue())
+                .build());
+    }
+
     private void generateUnknownByteMembers(TypeSpec.Builder type) {
         if (!info.isStoreUnknownFieldsEnabled()) {
             return;
@@ -144,6 +184,7 @@ class MessageGenerator {
                 .addAnnotation(Override.class)
                 .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
                 .returns(RuntimeClasses.BytesType)
+                .addCode(info.isDirtyTrackingEnabled() ? invalidateCachedSize : CodeBlock.builder().build())
                 .addStatement("return unknownBytes")
                 .build());
     }
@@ -177,7 +218,7 @@ class MessageGenerator {
                 .endControlFlow();
 
         // clear has state
-        clear.addStatement("cachedSize = -1");
+        clear.addCode(invalidateCachedSize);
         BitField.generateClearCode(clear, numBitFields);
 
         if (isFullClear) {
@@ -220,10 +261,33 @@ class MessageGenerator {
                 equals.addCode("\n&& $L", BitField.getEqualsStatement(i));
             }
 
-            for (FieldGenerator field : fields) {
-                equals.addCode("\n&& (!$1N() || ", field.getInfo().getHazzerName());
-                field.generateEqualsStatement(equals);
-                equals.addCode(")");
+            // Large messages compare groups of fields in helper methods
+            final BiConsumer<FieldGenerator, MethodSpec.Builder> fieldEquals = (field, method) -> {
+                method.addCode("(!$1N() || ", field.getInfo().getHazzerName());
+                field.generateEqualsStatement(method);
+                method.addCode(")");
+            };
+            final List<List<FieldGenerator>> groups = MethodSplitter.split(fields, fieldEquals);
+            if (groups.size() == 1) {
+                for (FieldGenerator field : fields) {
+                    equals.addCode("\n&& ");
+                    fieldEquals.accept(field, equals);
+                }
+            } else {
+                for (int i = 0; i < groups.size(); i++) {
+                    MethodSpec.Builder helper = MethodSpec.methodBuilder("equalsPart" + i)
+                            .addModifiers(Modifier.PRIVATE)
+                            .returns(boolean.class)
+                            .addParameter(info.getTypeName(), "other", Modifier.FINAL)
+                            .addCode("return $>");
+                    final List<FieldGenerator> group = groups.get(i);
+                    for (int j = 0; j < group.size(); j++) {
+                        helper.addCode(j == 0 ? "" : "\n&& ");
+                        fieldEquals.accept(group.get(j), helper);
+                    }
+                    type.addMethod(helper.addCode(";$<\n").build());
+                    equals.addCode("\n&& $N(other)", "equalsPart" + i);
+                }
             }
 
             equals.addCode(";$<\n");
@@ -234,6 +298,57 @@ class MessageGenerator {
         type.addMethod(equals.build());
     }
 
+    private void generateHashCode(TypeSpec.Builder type) {
+        // The hash combines the has state with the values of all set fields, so it
+        // is consistent with equals. Dirty tracking keeps it until the next change.
+        final boolean cached = info.isDirtyTrackingEnabled();
+        MethodSpec.Builder hash64 = MethodSpec.methodBuilder(cached ? "computeHash64" : "hash64")
+                .returns(long.class);
+        if (cached) {
+            hash64.addModifiers(Modifier.PRIVATE);
+        } else {
+            hash64.addJavadoc(Javadoc.inherit())
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC);
+        }
+
+        hash64.addStatement("long _hash = $N", BitField.fieldName(0));
+        for (int i = 1; i < numBitFields; i++) {
+            hash64.addStatement("_hash = $T.hash(_hash, $N)", RuntimeClasses.ProtoUtil, BitField.fieldName(i));
+        }
+        addHasFieldCode(type, hash64, MethodSpec.methodBuilder("hash64Part")
+                        .addModifiers(Modifier.PRIVATE)
+                        .returns(long.class)
+                        .addParameter(long.class, "_hash")
+                        .build(),
+                info.isSparseHasBitsEnabled() ? getFieldSortedByHasBit() : fields, false,
+                FieldGenerator::generateHashCode);
+        hash64.addStatement("return $T.finishHash(_hash)", RuntimeClasses.ProtoUtil);
+        type.addMethod(hash64.build());
+
+        if (cached) {
+            type.addMethod(MethodSpec.methodBuilder("hash64")
+                    .addJavadoc(Javadoc.inherit())
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(long.class)
+                    .beginControlFlow("if (cachedHash == 0)")
+                    .addStatement("cachedHash = computeHash64()")
+                    .endControlFlow()
+                    .addStatement("return cachedHash")
+                    .build());
+        }
+
+        type.addMethod(MethodSpec.methodBuilder("hashCode")
+                .addJavadoc(Javadoc.inherit())
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(int.class)
+                .addStatement("final long _hash = hash64()")
+                .addStatement("return (int) (_hash ^ (_hash >>> 32))")
+                .build());
+    }
+
     private void generateMergeFrom(TypeSpec.Builder type) {
         MethodSpec.Builder mergeFrom = MethodSpec.methodBuilder("mergeFrom")
                 .addJavadoc(Javadoc.inherit())
@@ -255,17 +370,94 @@ class MessageGenerator {
         final boolean enableFallthroughOptimization = info.getExpectedInputOrder() != FieldSerializationOrder.None;
         final List<FieldGenerator> sortedFields = getFieldSortedByExpectedInputOrder();
 
-        if (enableFallthroughOptimization) {
+        // Large messages get split into helper methods that each handle a group of fields. The main
+        // method only dispatches to the group, and the fall-through ordering applies within each group.
+        final List<List<FieldGenerator>> groups = MethodSplitter.split(sortedFields, (field, method) -> {
+            generateMergeCases(method, Collections.singletonList(field), enableFallthroughOptimization);
+            generateNonPackedMergeCases(method, Collections.singletonList(field));
+        });
+
+        if (enableFallthroughOptimization && groups.size() == 1) {
             mergeFrom.addComment("Enabled Fall-Through Optimization (" + info.getExpectedInputOrder() + ")");
             mergeFrom.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
                     .addMember("value", "$S", "fallthrough")
                     .build());
         }
 
-        mergeFrom.addStatement(named("int tag = input.readTag()"))
-                .beginControlFlow("while (true)")
+        if (info.isDirtyTrackingEnabled()) {
+            mergeFrom.addStatement("markDirty()");
+        }
+        if (info.getParentFile().getParentRequest().getPluginOptions().isGenerateArrayReader()) {
+            // Avoid virtual calls when reading from a flat array. Continues with the remaining fields.
+            mergeFrom.addStatement(named("int tag = tryMergeFromArray(input)"));
+        } else {
+            mergeFrom.addStatement(named("int tag = input.readTag()"));
+        }
+        mergeFrom.beginControlFlow("while (true)")
                 .beginControlFlow("switch (tag)");
 
+        if (groups.size() == 1) {
+            generateMergeCases(mergeFrom, sortedFields, enableFallthroughOptimization);
+        } else {
+            for (int i = 0; i < groups.size(); i++) {
+                MethodSpec.Builder part = MethodSpec.methodBuilder("mergeFromPart" + i)
+                        .addModifiers(Modifier.PRIVATE)
+                        .returns(int.class)
+                        .addParameter(RuntimeClasses.ProtoSource, "input", Modifier.FINAL)
+                        .addParameter(int.class, "tag")
+                        .addException(IOException.class);
+                if (enableFallthroughOptimization) {
+                    part.addComment("Enabled Fall-Through Optimization (" + info.getExpectedInputOrder() + ")");
+                    part.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                            .addMember("value", "$S", "fallthrough")
+                            .build());
+                }
+                part.beginControlFlow("while (true)")
+                        .beginControlFlow("switch (tag)");
+                generateMergeCases(part, groups.get(i), enableFallthroughOptimization);
+                part.beginControlFlow("default:")
+                        .addStatement("return tag")
+                        .endControlFlow();
+                generateNonPackedMergeCases(part, groups.get(i));
+                part.endControlFlow();
+                part.endControlFlow();
+                type.addMethod(part.build());
+
+                addDispatchCases(mergeFrom, groups.get(i), true);
+                mergeFrom.addStatement("tag = $N(input, tag)", "mergeFromPart" + i)
+                        .addStatement("break")
+                        .endControlFlow();
+            }
+        }
+
+        // zero means invalid tag / end of data
+        mergeFrom.beginControlFlow("case 0:")
+                .addStatement("return this")
+                .endControlFlow();
+
+        // default case -> skip field
+        CodeBlock ifSkipField = info.isStoreUnknownFieldsEnabled() ?
+                named("if (!input.skipField(tag, $unknownBytes:N))") :
+                named("if (!input.skipField(tag))");
+
+        mergeFrom.beginControlFlow("default:")
+                .beginControlFlow(ifSkipField)
+                .addStatement("return this");
+        mergeFrom.endControlFlow()
+                .addStatement(named("tag = input.readTag()"))
+                .addStatement("break")
+                .endControlFlow();
+
+        if (groups.size() == 1) {
+            generateNonPackedMergeCases(mergeFrom, sortedFields);
+        }
+
+        mergeFrom.endControlFlow();
+        mergeFrom.endControlFlow();
+        type.addMethod(mergeFrom.build());
+    }
+
+    private void generateMergeCases(MethodSpec.Builder mergeFrom, List<FieldGenerator> sortedFields, boolean enableFallthroughOptimization) {
         // Add fields by the expected order and type
         for (int i = 0; i < sortedFields.size(); i++) {
             FieldGenerator field = sortedFields.get(i);
@@ -298,25 +490,9 @@ class MessageGenerator {
             mergeFrom.endControlFlow();
 
         }
+    }
 
-        // zero means invalid tag / end of data
-        mergeFrom.beginControlFlow("case 0:")
-                .addStatement("return this")
-                .endControlFlow();
-
-        // default case -> skip field
-        CodeBlock ifSkipField = info.isStoreUnknownFieldsEnabled() ?
-                named("if (!input.skipField(tag, $unknownBytes:N))") :
-                named("if (!input.skipField(tag))");
-
-        mergeFrom.beginControlFlow("default:")
-                .beginControlFlow(ifSkipField)
-                .addStatement("return this");
-        mergeFrom.endControlFlow()
-                .addStatement(named("tag = input.readTag()"))
-                .addStatement("break")
-                .endControlFlow();
-
+    private void generateNonPackedMergeCases(MethodSpec.Builder mergeFrom, List<FieldGenerator> sortedFields) {
         // Generate missing non-packed cases for packable fields for compatibility reasons
         for (FieldGenerator field : sortedFields) {
             if (field.getInfo().isPackable()) {
@@ -329,12 +505,226 @@ class MessageGenerator {
                 mergeFrom.addStatement("break").endControlFlow();
             }
         }
+    }
+
+    /**
+     * Adds a case with the tags of all fields in the group. The caller needs to add the body.
+     */
+    private void addDispatchCases(MethodSpec.Builder method, List<FieldGenerator> group, boolean includeNonPacked) {
+        List<Integer> tags = new ArrayList<>();
+        for (FieldGenerator field : group) {
+            tags.add(getPackedTagOrTag(field));
+            if (includeNonPacked && field.getInfo().isPackable()) {
+                tags.add(field.getInfo().getTag());
+            }
+        }
+        for (int i = 0; i < tags.size() - 1; i++) {
+            method.addCode("case $L:\n", tags.get(i));
+        }
+        method.beginControlFlow("case $L:", tags.get(tags.size() - 1));
+    }
+
+    private void generateMergeFromArray(TypeSpec.Builder type) {
+        MethodSpec.Builder mergeFrom = MethodSpec.methodBuilder("mergeFromArray")
+                .addJavadoc(Javadoc.inherit())
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PROTECTED)
+                .returns(int.class)
+                .addParameter(RuntimeClasses.ArrayDecoder, "_decoder", Modifier.FINAL)
+                .addParameter(byte[].class, "_buffer", Modifier.FINAL)
+                .addParameter(int.class, "_position")
+                .addParameter(int.class, "_limit", Modifier.FINAL)
+                .addException(IOException.class);
+
+        // Same fall-through ordering as mergeFrom. Tags that are not handled here (unknown
+        // fields, non-packed variants of packable fields, end of message) get handed back.
+        final boolean enableFallthroughOptimization = info.getExpectedInputOrder() != FieldSerializationOrder.None;
+        final List<FieldGenerator> sortedFields = getFieldSortedByExpectedInputOrder();
+        final List<List<FieldGenerator>> groups = MethodSplitter.split(sortedFields, (field, method) ->
+                generateArrayMergeCases(method, Collections.singletonList(field), enableFallthroughOptimization));
+
+        if (enableFallthroughOptimization && groups.size() == 1) {
+            mergeFrom.addComment("Enabled Fall-Through Optimization (" + info.getExpectedInputOrder() + ")");
+            mergeFrom.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                    .addMember("value", "$S", "fallthrough")
+                    .build());
+        }
+
+        mergeFrom.addStatement("_position = _decoder.readTag(_buffer, _position, _limit)")
+                .addStatement("int tag = _decoder.intValue()")
+                .beginControlFlow("while (true)")
+                .beginControlFlow("switch (tag)");
+
+        if (groups.size() == 1) {
+            generateArrayMergeCases(mergeFrom, sortedFields, enableFallthroughOptimization);
+        } else {
+            // The helper methods store the position in the source and return the next tag
+            for (int i = 0; i < groups.size(); i++) {
+                MethodSpec.Builder part = MethodSpec.methodBuilder("mergeFromArrayPart" + i)
+                        .addModifiers(Modifier.PRIVATE)
+                        .returns(int.class)
+                        .addParameter(RuntimeClasses.ArrayDecoder, "_decoder", Modifier.FINAL)
+                        .addParameter(byte[].class, "_buffer", Modifier.FINAL)
+                        .addParameter(int.class, "_position")
+                        .addParameter(int.class, "_limit", Modifier.FINAL)
+                        .addParameter(int.class, "tag")
+                        .addException(IOException.class);
+                if (enableFallthroughOptimization) {
+                    part.addComment("Enabled Fall-Through Optimization (" + info.getExpectedInputOrder() + ")");
+                    part.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                            .addMember("value", "$S", "fallthrough")
+                            .build());
+                }
+                part.beginControlFlow("while (true)")
+                        .beginControlFlow("switch (tag)");
+                generateArrayMergeCases(part, groups.get(i), enableFallthroughOptimization);
+                part.beginControlFlow("default:")
+                        .addStatement("_decoder.seek(_position)")
+                        .addStatement("return tag")
+                        .endControlFlow();
+                part.endControlFlow();
+                part.endControlFlow();
+                type.addMethod(part.build());
+
+                // non-packed variants are handled by the regular decoder
+                addDispatchCases(mergeFrom, groups.get(i), false);
+                mergeFrom.addStatement("tag = $N(_decoder, _buffer, _position, _limit, tag)", "mergeFromArrayPart" + i)
+                        .addStatement("_position = _decoder.position()")
+                        .addStatement("break")
+                        .endControlFlow();
+            }
+        }
+
+        // zero (end of data) and all remaining tags are handled by the regular decoder
+        mergeFrom.beginControlFlow("default:")
+                .addStatement("return _decoder.finish(_position, tag)")
+                .endControlFlow();
 
         mergeFrom.endControlFlow();
         mergeFrom.endControlFlow();
         type.addMethod(mergeFrom.build());
     }
 
+    private void generateArrayMergeCases(MethodSpec.Builder mergeFrom, List<FieldGenerator> sortedFields, boolean enableFallthroughOptimization) {
+        for (int i = 0; i < sortedFields.size(); i++) {
+            FieldGenerator field = sortedFields.get(i);
+            mergeFrom.beginControlFlow("case $L:", getPackedTagOrTag(field));
+            mergeFrom.addComment("$L$L", field.getInfo().getFieldName(), field.getInfo().isPackable() ? " [packed=true]" : "");
+            boolean readTag = field.generateArrayMergingCode(mergeFrom);
+
+            if (!enableFallthroughOptimization) {
+                if (readTag) {
+                    mergeFrom.addStatement("_position = _decoder.readTag(_buffer, _position, _limit)")
+                            .addStatement("tag = _decoder.intValue()");
+                }
+                mergeFrom.addStatement("break").endControlFlow();
+                continue;
+            }
+
+            // try falling to 0 (exit) at last field
+            final int nextCase = (i == sortedFields.size() - 1) ? 0 : getPackedTagOrTag(sortedFields.get(i + 1));
+            if (readTag && nextCase > 0 && nextCase < 0x80) {
+                // single byte tags can be compared without decoding
+                mergeFrom.beginControlFlow("if (_position < _limit && _buffer[_position] == $L)", nextCase)
+                        .addStatement("_position++")
+                        .addStatement("tag = $L", nextCase)
+                        .nextControlFlow("else");
+            }
+            if (readTag) {
+                mergeFrom.addStatement("_position = _decoder.readTag(_buffer, _position, _limit)")
+                        .addStatement("tag = _decoder.intValue()");
+            }
+            mergeFrom.beginControlFlow("if (tag != $L)", nextCase)
+                    .addStatement("break")
+                    .endControlFlow();
+            if (readTag && nextCase > 0 && nextCase < 0x80) {
+                mergeFrom.endControlFlow();
+            }
+            mergeFrom.endControlFlow();
+        }
+    }
+
+    /**
+     * Adds the code of all fields to the method. Messages with many fields move groups of fields
+     * into helper methods that get called in sequence, so that the JIT can still compile them.
+     *
+     * @param part signature of the helper methods. Non-void helpers return their last parameter,
+     *             which gets assigned back in the calling method.
+     */
+    private <T> void addFieldCode(TypeSpec.Builder type, MethodSpec.Builder method, MethodSpec part,
+                                  List<T> fields, BiConsumer<T, MethodSpec.Builder> fieldCode) {
+        final List<List<T>> groups = MethodSplitter.split(fields, fieldCode);
+        if (groups.size() == 1) {
+            fields.forEach(field -> fieldCode.accept(field, method));
+            return;
+        }
+
+        final String args = part.parameters.stream().map(param -> param.name).collect(Collectors.joining(", "));
+        for (int i = 0; i < groups.size(); i++) {
+            final MethodSpec.Builder helper = part.toBuilder().setName(part.name + i).returns(part.returnType);
+            groups.get(i).forEach(field -> fieldCode.accept(field, helper));
+            if (part.returnType.equals(TypeName.VOID)) {
+                method.addStatement("$N($L)", part.name + i, args);
+            } else {
+                final String result = part.parameters.get(part.parameters.size() - 1).name;
+                helper.addStatement("return $N", result);
+                method.addStatement("$N = $N($L)", result, part.name + i, args);
+            }
+            type.addMethod(helper.build());
+        }
+    }
+
+    /**
+     * Adds the code of all fields that are set. The 'sparse_has_bits' option iterates over the set bits
+     * of each bit field instead, so that wide messages with few set fields don't check every field.
+     * The fields get visited in the order of their has bits, which get assigned in serialization order
+     * when the option is enabled. Other orders fall back to checking every field.
+     */
+    private void addHasFieldCode(TypeSpec.Builder type, MethodSpec.Builder method, MethodSpec part,
+                                 List<FieldGenerator> fields, boolean reversed, BiConsumer<FieldGenerator, MethodSpec.Builder> fieldCode) {
+        final List<FieldGenerator> bitOrder = getFieldSortedByHasBit();
+        if (reversed) {
+            Collections.reverse(bitOrder);
+        }
+        if (!info.isSparseHasBitsEnabled() || !bitOrder.equals(fields)) {
+            addFieldCode(type, method, part, fields, ifHasField(fieldCode));
+            return;
+        }
+
+        final Collection<List<FieldGenerator>> bitFields = fields.stream()
+                .collect(Collectors.groupingBy(field -> BitField.getFieldIndex(field.getInfo().getBitIndex()),
+                        LinkedHashMap::new, Collectors.toList()))
+                .values();
+        addFieldCode(type, method, part, new ArrayList<>(bitFields), (bitField, code) -> {
+            // Visit set bits in ascending (trailing zeros) or descending (leading zeros) order
+            final int fieldIndex = BitField.getFieldIndex(bitField.get(0).getInfo().getBitIndex());
+            code.beginControlFlow("for (int _bits = $L; _bits != 0; _bits &= $L)", BitField.fieldName(fieldIndex),
+                            reversed ? "~Integer.highestOneBit(_bits)" : "_bits - 1")
+                    .beginControlFlow("switch (Integer.$L(_bits))",
+                            reversed ? "numberOfLeadingZeros" : "numberOfTrailingZeros");
+            for (FieldGenerator field : bitField) {
+                final int bit = BitField.getBitIndex(field.getInfo().getBitIndex());
+                code.beginControlFlow("case $L:", reversed ? BitField.BITS_PER_FIELD - 1 - bit : bit);
+                fieldCode.accept(field, code);
+                code.addStatement("break").endControlFlow();
+            }
+            code.endControlFlow().endControlFlow();
+        });
+    }
+
+    private static BiConsumer<FieldGenerator, MethodSpec.Builder> ifHasField(BiConsumer<FieldGenerator, MethodSpec.Builder> fieldCode) {
+        return (field, method) -> {
+            if (field.getInfo().isRequired()) {
+                // no need to check has state again
+                fieldCode.accept(field, method);
+            } else {
+                method.beginControlFlow("if ($L)", field.getInfo().getHasBit());
+                fieldCode.accept(field, method);
+                method.endControlFlow();
+            }
+        };
+    }
+
     private int getPackedTagOrTag(FieldGenerator field) {
         if (field.getInfo().isPackable())
             return field.getInfo().getPackedTag();
@@ -350,6 +740,13 @@ class MessageGenerator {
                 .addParameter(RuntimeClasses.ProtoSink, "output", Modifier.FINAL)
                 .addException(IOException.class);
 
+        if (info.getParentFile().getParentRequest().getPluginOptions().isGenerateArrayWriter()) {
+            // Avoid virtual calls when writing to a flat array
+            writeTo.beginControlFlow("if (tryWriteToArray(output))")
+                    .addStatement("return")
+                    .endControlFlow();
+        }
+
         boolean needsInitializationChecks = info.hasRequiredFieldsInHierarchy();
         if (needsInitializationChecks) {
             // Fail if any required bits are missing
@@ -357,16 +754,12 @@ class MessageGenerator {
             writeTo.beginControlFlow("try");
         }
 
-        getFieldSortedByOutputOrder().forEach(f -> {
-            if (f.getInfo().isRequired()) {
-                // no need to check has state again
-                f.generateSerializationCode(writeTo);
-            } else {
-                writeTo.beginControlFlow("if ($L)", f.getInfo().getHasBit());
-                f.generateSerializationCode(writeTo);
-                writeTo.endControlFlow();
-            }
-        });
+        addHasFieldCode(type, writeTo, MethodSpec.methodBuilder("writeToPart")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(RuntimeClasses.ProtoSink, "output", Modifier.FINAL)
+                        .addException(IOException.class)
+                        .build(),
+                getFieldSortedByOutputOrder(), false, FieldGenerator::generateSerializationCode);
         if (info.isStoreUnknownFieldsEnabled()) {
             writeTo.addCode(named("if ($unknownBytes:N.length() > 0)"))
                     .beginControlFlow("")
@@ -383,6 +776,89 @@ class MessageGenerator {
         type.addMethod(writeTo.build());
     }
 
+    private void generateWriteToArray(TypeSpec.Builder type) {
+        MethodSpec.Builder writeTo = MethodSpec.methodBuilder("writeToArray")
+                .addJavadoc(Javadoc.inherit())
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(int.class)
+                .addParameter(byte[].class, "_buffer", Modifier.FINAL)
+                .addParameter(int.class, "_position")
+                .addException(IOException.class);
+
+        boolean needsInitializationChecks = info.hasRequiredFieldsInHierarchy();
+        if (needsInitializationChecks) {
+            // Fail if any required bits are missing
+            insertFailOnMissingRequiredBits(writeTo);
+            writeTo.beginControlFlow("try");
+        }
+
+        addHasFieldCode(type, writeTo, MethodSpec.methodBuilder("writeToArrayPart")
+                        .addModifiers(Modifier.PRIVATE)
+                        .returns(int.class)
+                        .addParameter(byte[].class, "_buffer", Modifier.FINAL)
+                        .addParameter(int.class, "_position")
+                        .addException(IOException.class)
+                        .build(),
+                getFieldSortedByOutputOrder(), false, FieldGenerator::generateArraySerializationCode);
+        if (info.isStoreUnknownFieldsEnabled()) {
+            writeTo.addCode(named("if ($unknownBytes:N.length() > 0)"))
+                    .beginControlFlow("")
+                    .addStatement(named("_position = $arrayEncoder:T.writeRawBytes(_buffer, _position, $unknownBytes:N)"))
+                    .endControlFlow();
+        }
+        writeTo.addStatement("return _position");
+
+        if (needsInitializationChecks) {
+            writeTo.nextControlFlow("catch ($T nestedFail)", RuntimeClasses.UninitializedMessageException)
+                    .addStatement("throw rethrowFromParent(nestedFail)")
+                    .endControlFlow();
+        }
+
+        type.addMethod(writeTo.build());
+    }
+
+    private void generateWriteToReversed(TypeSpec.Builder type) {
+        MethodSpec.Builder writeTo = MethodSpec.methodBuilder("writeToReversed")
+                .addJavadoc(Javadoc.inherit())
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(void.class)
+                .addParameter(RuntimeClasses.ReverseSink, "output", Modifier.FINAL)
+                .addException(IOException.class);
+
+        boolean needsInitializationChecks = info.hasRequiredFieldsInHierarchy();
+        if (needsInitializationChecks) {
+            // Fail if any required bits are missing
+            insertFailOnMissingRequiredBits(writeTo);
+            writeTo.beginControlFlow("try");
+        }
+
+        // Mirror image of writeTo, i.e., unknown bytes come first and fields in reverse order
+        if (info.isStoreUnknownFieldsEnabled()) {
+            writeTo.addCode(named("if ($unknownBytes:N.length() > 0)"))
+                    .beginControlFlow("")
+                    .addStatement(named("output.writeRawBytes($unknownBytes:N)"))
+                    .endControlFlow();
+        }
+        final List<FieldGenerator> reversedFields = new ArrayList<>(getFieldSortedByOutputOrder());
+        Collections.reverse(reversedFields);
+        addHasFieldCode(type, writeTo, MethodSpec.methodBuilder("writeToReversedPart")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(RuntimeClasses.ReverseSink, "output", Modifier.FINAL)
+                        .addException(IOException.class)
+                        .build(),
+                reversedFields, true, FieldGenerator::generateReverseSerializationCode);
+
+        if (needsInitializationChecks) {
+            writeTo.nextControlFlow("catch ($T nestedFail)", RuntimeClasses.UninitializedMessageException)
+                    .addStatement("throw rethrowFromParent(nestedFail)")
+                    .endControlFlow();
+        }
+
+        type.addMethod(writeTo.build());
+    }
+
     private void generateComputeSerializedSize(TypeSpec.Builder type) {
         MethodSpec.Builder computeSerializedSize = MethodSpec.methodBuilder("computeSerializedSize")
                 .addJavadoc(Javadoc.inherit())
@@ -399,16 +875,13 @@ class MessageGenerator {
 
         // Check all required fields at once
         computeSerializedSize.addStatement("int size = 0");
-        fields.forEach(f -> {
-            if (f.getInfo().isRequired()) {
-                // no need to check has state again
-                f.generateComputeSerializedSizeCode(computeSerializedSize);
-            } else {
-                computeSerializedSize.beginControlFlow("if ($L)", f.getInfo().getHasBit());
-                f.generateComputeSerializedSizeCode(computeSerializedSize);
-                computeSerializedSize.endControlFlow();
-            }
-        });
+        addHasFieldCode(type, computeSerializedSize, MethodSpec.methodBuilder("computeSerializedSizePart")
+                        .addModifiers(Modifier.PRIVATE)
+                        .returns(int.class)
+                        .addParameter(int.class, "size")
+                        .build(),
+                info.isSparseHasBitsEnabled() ? getFieldSortedByHasBit() : fields, false,
+                FieldGenerator::generateComputeSerializedSizeCode);
         if (info.isStoreUnknownFieldsEnabled()) {
             computeSerializedSize.addStatement(named("size += $unknownBytes:N.length()"));
         }
@@ -422,6 +895,20 @@ class MessageGenerator {
         type.addMethod(computeSerializedSize.build());
     }
 
+    private void generateGetSerializedSize(TypeSpec.Builder type) {
+        // The cached size stays valid until the message or one of its children gets modified
+        type.addMethod(MethodSpec.methodBuilder("getSerializedSize")
+                .addJavadoc(Javadoc.inherit())
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(int.class)
+                .beginControlFlow("if (cachedSize < 0)")
+                .addStatement("cachedSize = computeSerializedSize()")
+                .endControlFlow()
+                .addStatement("return cachedSize")
+                .build());
+    }
+
     private void generateCopyFrom(TypeSpec.Builder type) {
         MethodSpec.Builder copyFrom = MethodSpec.methodBuilder("copyFrom")
                 .addJavadoc(Javadoc.inherit())
@@ -429,7 +916,12 @@ class MessageGenerator {
                 .addParameter(info.getTypeName(), "other", Modifier.FINAL)
                 .addModifiers(Modifier.PUBLIC)
                 .returns(info.getTypeName());
-        copyFrom.addStatement("cachedSize = other.cachedSize");
+        if (info.isDirtyTrackingEnabled()) {
+            // copying nested messages marks this message dirty again, so the size gets copied at the end
+            copyFrom.addStatement("markDirty()");
+        } else {
+            copyFrom.addStatement("cachedSize = other.cachedSize");
+        }
         for (int i = 0; i < numBitFields; i++) {
             final int fieldIndex = i;
 
@@ -445,6 +937,9 @@ class MessageGenerator {
         if (info.isStoreUnknownFieldsEnabled()) {
             copyFrom.addStatement(named("$unknownBytes:N.copyFrom(other.$unknownBytes:N)"));
         }
+        if (info.isDirtyTrackingEnabled()) {
+            copyFrom.addStatement("cachedSize = other.cachedSize");
+        }
         copyFrom.addStatement("return this");
         type.addMethod(copyFrom.build());
     }
@@ -460,13 +955,17 @@ class MessageGenerator {
         mergeFrom.beginControlFlow("if (other.isEmpty())")
                 .addStatement("return this")
                 .endControlFlow();
-        mergeFrom.addStatement("cachedSize = -1");
-
-        fields.forEach(field -> {
-            mergeFrom.beginControlFlow("if (other.$L())", field.getInfo().getHazzerName());
-            field.generateMergeFromMessageCode(mergeFrom);
-            mergeFrom.endControlFlow();
-        });
+        mergeFrom.addCode(invalidateCachedSize);
+
+        addFieldCode(type, mergeFrom, MethodSpec.methodBuilder("mergeFromPart")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(info.getTypeName(), "other", Modifier.FINAL)
+                        .build(),
+                fields, (field, method) -> {
+                    method.beginControlFlow("if (other.$L())", field.getInfo().getHazzerName());
+                    field.generateMergeFromMessageCode(method);
+                    method.endControlFlow();
+                });
 
         if (info.isStoreUnknownFieldsEnabled()) {
             mergeFrom.beginControlFlow("$L", named("if (other.$unknownBytes:N.length() > 0)"))
@@ -632,16 +1131,12 @@ class MessageGenerator {
         writeTo.addStatement("output.beginObject()");
 
         // add every set field
-        getFieldSortedByOutputOrder().forEach(f -> {
-            if (f.getInfo().isRequired()) {
-                // no need to check has state again
-                f.generateJsonSerializationCode(writeTo);
-            } else {
-                writeTo.beginControlFlow("if ($L)", f.getInfo().getHasBit());
-                f.generateJsonSerializationCode(writeTo);
-                writeTo.endControlFlow();
-            }
-        });
+        addFieldCode(type, writeTo, MethodSpec.methodBuilder("writeToPart")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(RuntimeClasses.JsonSink, "output", Modifier.FINAL)
+                        .addException(IOException.class)
+                        .build(),
+                getFieldSortedByOutputOrder(), ifHasField(FieldGenerator::generateJsonSerializationCode));
 
         // add unknown fields as base64
         if (info.isStoreUnknownFieldsEnabled()) {
@@ -673,6 +1168,9 @@ class MessageGenerator {
         mergeFrom.beginControlFlow("if (!input.beginObject())")
                 .addStatement("return this")
                 .endControlFlow();
+        if (info.isDirtyTrackingEnabled()) {
+            mergeFrom.addStatement("markDirty()");
+        }
 
         // Fallthrough optimization:
         //
@@ -683,39 +1181,56 @@ class MessageGenerator {
         final boolean enableFallthroughOptimization = false; // info.getExpectedIncomingOrder() != ExpectedIncomingOrder.None;
         final List<FieldGenerator> sortedFields = fields; // getFieldSortedByExpectedIncomingOrder();
 
+        // Large messages get split into helper methods that each handle a group of fields
+        final List<List<FieldGenerator>> groups = enableFallthroughOptimization ? Collections.singletonList(sortedFields) :
+                MethodSplitter.split(sortedFields, (field, method) -> {
+                    addJsonMergeCase(method, field);
+                    method.addStatement("break").endControlFlow();
+                });
+
         if (enableFallthroughOptimization) {
-            mergeFrom.addStatement("int hash = input.nextFieldHashOrZero()")
+            mergeFrom.addStatement("int _hash = input.nextFieldHashOrZero()")
                     .beginControlFlow("while (true)")
-                    .beginControlFlow("switch (hash)");
+                    .beginControlFlow("switch (_hash)");
+        } else if (groups.size() > 1) {
+            // Listing all hashes in the main switch would exceed the limit on its own,
+            // so each helper method reports whether it knows the field
+            final List<String> parts = new ArrayList<>();
+            for (int i = 0; i < groups.size(); i++) {
+                MethodSpec.Builder part = MethodSpec.methodBuilder("mergeFromPart" + i)
+                        .addModifiers(Modifier.PRIVATE)
+                        .returns(boolean.class)
+                        .addParameter(RuntimeClasses.JsonSource, "input", Modifier.FINAL)
+                        .addParameter(int.class, "_hash", Modifier.FINAL)
+                        .addException(IOException.class)
+                        .beginControlFlow("switch (_hash)");
+                for (FieldGenerator field : groups.get(i)) {
+                    addJsonMergeCase(part, field);
+                    part.addStatement("break").endControlFlow();
+                }
+                part.beginControlFlow("default:")
+                        .addStatement("return false")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .addStatement("return true");
+                type.addMethod(part.build());
+                parts.add("mergeFromPart" + i + "(input, _hash)");
+            }
+            mergeFrom.beginControlFlow("while (!input.isAtEnd())")
+                    .addStatement("final int _hash = input.readFieldHash()")
+                    .beginControlFlow("if ($>$>$L$<$<)", String.join("\n|| ", parts))
+                    .addStatement("continue")
+                    .endControlFlow()
+                    .beginControlFlow("switch (_hash)");
         } else {
             mergeFrom.beginControlFlow("while (!input.isAtEnd())")
                     .beginControlFlow("switch (input.readFieldHash())");
         }
 
         // add case statements for every field
-        for (int i = 0; i < sortedFields.size(); i++) {
+        for (int i = 0; groups.size() == 1 && i < sortedFields.size(); i++) {
             FieldGenerator field = sortedFields.get(i);
-
-            // Synonym hash check
-            int hash1 = FieldUtil.hash32(field.getInfo().getJsonName());
-            int hash2 = FieldUtil.hash32(field.getInfo().getProtoFieldName());
-            if (hash1 != hash2) {
-                mergeFrom.addCode("case $L:\n", hash1);
-            }
-
-            // Known hash -> try to parse
-            mergeFrom.beginControlFlow("case $L:", hash2)
-                    .beginControlFlow("if (input.isAtField($N.$N))",
-                            info.getFieldNamesClass().simpleName(),
-                            field.getInfo().getFieldName())
-                    .beginControlFlow("if (!input.trySkipNullValue())");
-            field.generateJsonDeserializationCode(mergeFrom);
-
-            // Unknown field -> skip
-            mergeFrom.endControlFlow()
-                    .nextControlFlow("else")
-                    .addStatement("input.skipUnknownField()")
-                    .endControlFlow();
+            addJsonMergeCase(mergeFrom, field);
 
             // See if we can fallthrough to the next case
             if (enableFallthroughOptimization) {
@@ -729,13 +1244,13 @@ class MessageGenerator {
                 }
 
                 // Check if we can fall through
-                mergeFrom.addStatement("hash = input.readFieldHashOrZero()");
+                mergeFrom.addStatement("_hash = input.readFieldHashOrZero()");
                 if (nextHash1 == nextHash2) {
-                    mergeFrom.beginControlFlow("if (hash != $L)", nextHash1)
+                    mergeFrom.beginControlFlow("if (_hash != $L)", nextHash1)
                             .addStatement("break")
                             .endControlFlow();
                 } else {
-                    mergeFrom.beginControlFlow("if (hash != $L && hash != $L)", nextHash1, nextHash2)
+                    mergeFrom.beginControlFlow("if (_hash != $L && _hash != $L)", nextHash1, nextHash2)
                             .addStatement("break")
                             .endControlFlow();
                 }
@@ -767,7 +1282,7 @@ class MessageGenerator {
                     .addStatement("input.skipUnknownField()")
                     .endControlFlow();
             if (enableFallthroughOptimization) {
-                mergeFrom.addStatement("hash = input.readFieldHashOrZero()");
+                mergeFrom.addStatement("_hash = input.readFieldHashOrZero()");
             }
             mergeFrom.addStatement("break");
             mergeFrom.endControlFlow();
@@ -777,7 +1292,7 @@ class MessageGenerator {
         mergeFrom.beginControlFlow("default:")
                 .addStatement("input.skipUnknownField()");
         if (enableFallthroughOptimization) {
-            mergeFrom.addStatement("hash = input.readFieldHashOrZero()");
+            mergeFrom.addStatement("_hash = input.readFieldHashOrZero()");
         }
         mergeFrom.addStatement("break")
                 .endControlFlow() // case
@@ -792,6 +1307,29 @@ class MessageGenerator {
         type.addMethod(mergeFrom.build());
     }
 
+    private void addJsonMergeCase(MethodSpec.Builder mergeFrom, FieldGenerator field) {
+        // Synonym hash check
+        int hash1 = FieldUtil.hash32(field.getInfo().getJsonName());
+        int hash2 = FieldUtil.hash32(field.getInfo().getProtoFieldName());
+        if (hash1 != hash2) {
+            mergeFrom.addCode("case $L:\n", hash1);
+        }
+
+        // Known hash -> try to parse
+        mergeFrom.beginControlFlow("case $L:", hash2)
+                .beginControlFlow("if (input.isAtField($N.$N))",
+                        info.getFieldNamesClass().simpleName(),
+                        field.getInfo().getFieldName())
+                .beginControlFlow("if (!input.trySkipNullValue())");
+        field.generateJsonDeserializationCode(mergeFrom);
+
+        // Unknown field -> skip
+        mergeFrom.endControlFlow()
+                .nextControlFlow("else")
+                .addStatement("input.skipUnknownField()")
+                .endControlFlow();
+    }
+
     private void generateMessageFactory(TypeSpec.Builder type) {
         ParameterizedTypeName factoryReturnType = ParameterizedTypeName.get(RuntimeClasses.MessageFactory, info.getTypeName());
         ClassName factoryTypeName = info.getTypeName().nestedClass(info.getTypeName().simpleName() + "Factory");
@@ -856,10 +1394,14 @@ class MessageGenerator {
         this.info = info;
         info.getFields().forEach(f -> fields.add(new FieldGenerator(f)));
         numBitFields = info.getNumBitFields();
+        invalidateCachedSize = CodeBlock.builder()
+                .addStatement(info.isDirtyTrackingEnabled() ? "markDirty()" : "cachedSize = -1")
+                .build();
 
         m.put("abstractMessage", RuntimeClasses.AbstractMessage);
         m.put("unknownBytes", RuntimeClasses.unknownBytesField);
         m.put("unknownBytesKey", RuntimeClasses.unknownBytesFieldName);
+        m.put("arrayEncoder", RuntimeClasses.ArrayEncoder);
     }
 
     private List<FieldGenerator> getFieldSortedByExpectedInputOrder() {
@@ -875,6 +1417,12 @@ class MessageGenerator {
         return fields;
     }
 
+    private List<FieldGenerator> getFieldSortedByHasBit() {
+        final List<FieldGenerator> sortedFields = new ArrayList<>(fields);
+        sortedFields.sort(Comparator.comparingInt(field -> field.getInfo().getBitIndex()));
+        return sortedFields;
+    }
+
     private List<FieldGenerator> getFieldSortedByOutputOrder() {
         // Sorts output the same way as protobuf. This is always slower,
         // but it results in binary equivalence for conformance tests.
@@ -889,6 +1437,7 @@ class MessageGenerator {
     final MessageInfo info;
     final List<FieldGenerator> fields = new ArrayList<>();
     final int numBitFields;
+    final CodeBlock invalidateCachedSize;
     final HashMap<String, Object> m = new HashMap<>();
 
     private CodeBlock named(String format, Object... args /* makes IDE hints disappear */) {
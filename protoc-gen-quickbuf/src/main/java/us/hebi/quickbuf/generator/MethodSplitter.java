@@ -0,0 +1,102 @@
+/*-
+ * #%L
+ * quickbuf-generator
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf.generator;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HotSpot does not compile methods with more than 8000 bytes of bytecode (-XX:HugeMethodLimit),
+ * so the per-field methods of messages with hundreds of fields would always run in the
+ * interpreter. This utility splits the fields into groups that can be moved into separate
+ * helper methods.
+ * <p>
+ * The bytecode can't be measured while generating the sources, so the size gets estimated
+ * from the number of tokens in the generated code. The generated methods of the test messages
+ * measured between 1.5 and 2.7 bytes per token, so the estimate is conservative.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+class MethodSplitter {
+
+    /**
+     * Splits the fields into groups whose code stays below the estimated limit.
+     *
+     * @param fields    fields (or groups of fields) in the order of the generated code
+     * @param fieldCode generates the code for a single entry
+     * @return a single group if the method does not need to be split
+     */
+    static <T> List<List<T>> split(List<T> fields, BiConsumer<T, MethodSpec.Builder> fieldCode) {
+        final int[] sizes = new int[fields.size()];
+        int totalSize = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            MethodSpec.Builder scratch = MethodSpec.methodBuilder("estimate");
+            fieldCode.accept(fields.get(i), scratch);
+            sizes[i] = estimateBytecodeSize(scratch.build().code);
+            totalSize += sizes[i];
+        }
+        if (totalSize <= MAX_ESTIMATED_SIZE) {
+            return Collections.singletonList(fields);
+        }
+
+        List<List<T>> groups = new ArrayList<>();
+        int start = 0;
+        int groupSize = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            if (groupSize + sizes[i] > MAX_ESTIMATED_SIZE && i > start) {
+                groups.add(fields.subList(start, i));
+                start = i;
+                groupSize = 0;
+            }
+            groupSize += sizes[i];
+        }
+        groups.add(fields.subList(start, fields.size()));
+        return groups;
+    }
+
+    static int estimateBytecodeSize(CodeBlock code) {
+        // Remove package qualifiers that get replaced by imports
+        String source = PACKAGE_PREFIX.matcher(code.toString()).replaceAll("");
+        int tokens = 0;
+        Matcher matcher = TOKEN.matcher(source);
+        while (matcher.find()) {
+            tokens++;
+        }
+        return tokens * BYTES_PER_TOKEN;
+    }
+
+    private static final Pattern PACKAGE_PREFIX = Pattern.compile("\\b(?:[a-z_]\\w*\\.)+(?=[A-Z])");
+    private static final Pattern TOKEN = Pattern.compile("\"(?:[^\"\\\\]|\\\\.)*\"|[A-Za-z_$][\\w$]*|\\d\\w*|&&|\\|\\||[=!<>]=|[-+*/|&^<>!]=?");
+    private static final int BYTES_PER_TOKEN = 3;
+
+    // Leaves some room for code that is not related to individual fields
+    private static final int HUGE_METHOD_LIMIT = 8000;
+    private static final int MAX_ESTIMATED_SIZE = HUGE_METHOD_LIMIT - 1000;
+
+}
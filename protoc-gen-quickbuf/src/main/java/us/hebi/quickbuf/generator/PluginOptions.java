@@ -46,10 +46,19 @@ class PluginOptions {
         outputOrder = FieldSerializationOrder.parseInputOrder(map.getOrDefault("output_order", "quickbuf"));
         storeUnknownFieldsEnabled = parseBoolean(map.getOrDefault("store_unknown_fields", "false"));
         allocationStrategy = AllocationStrategy.parseFromString(map.getOrDefault("allocation", "eager"));
+        lazyParsing = LazyParsing.parseFromString(map.getOrDefault("lazy_parse", "disabled"));
         extensionSupport = ExtensionSupport.parseFromString(map.getOrDefault("extensions", "disabled"));
         enforceHasChecksEnabled = parseBoolean(map.getOrDefault("enforce_has_checks", "false"));
         tryGetAccessorsEnabled = parseBoolean(map.getOrDefault("java8_optional", "false"));
         generateDescriptors = parseBoolean(map.getOrDefault("gen_descriptors", "false"));
+        generateReverseWriter = parseBoolean(map.getOrDefault("gen_reverse_writer", "false"));
+        generateArrayWriter = parseBoolean(map.getOrDefault("gen_array_writer", "false"));
+        generateArrayReader = parseBoolean(map.getOrDefault("gen_array_reader", "false"));
+        dirtyTrackingEnabled = parseBoolean(map.getOrDefault("dirty_tracking", "false"));
+        sparseHasBitsEnabled = parseBoolean(map.getOrDefault("sparse_has_bits", "false"));
+        indexedMapsEnabled = parseBoolean(map.getOrDefault("indexed_maps", "false"));
+        generateHashCode = parseBoolean(map.getOrDefault("gen_hashcode", "false"));
+        generateViews = parseBoolean(map.getOrDefault("gen_views", "false"));
     }
 
     enum FieldSerializationOrder {
@@ -112,6 +121,27 @@ class PluginOptions {
 
     }
 
+    enum LazyParsing {
+        Disabled, // parse all nested messages
+        Annotated, // keep bytes of message fields with [lazy=true]
+        All; // keep bytes of all supported message fields
+
+        static LazyParsing parseFromString(String string) {
+            switch (string.toLowerCase()) {
+                case "disabled":
+                case "false":
+                    return Disabled;
+                case "annotated":
+                    return Annotated;
+                case "all":
+                case "true":
+                    return All;
+            }
+            throw new GeneratorException("'lazy_parse' parameter accepts ['disabled', 'annotated', 'all']. Found: " + string);
+        }
+
+    }
+
     enum ExtensionSupport {
         Disabled, Embedded;
 
@@ -163,12 +193,21 @@ class PluginOptions {
     final FieldSerializationOrder expectedInputOrder;
     final FieldSerializationOrder outputOrder;
     final AllocationStrategy allocationStrategy;
+    final LazyParsing lazyParsing;
     final ExtensionSupport extensionSupport;
     final String indentString;
     final boolean storeUnknownFieldsEnabled;
     final boolean enforceHasChecksEnabled;
     final boolean tryGetAccessorsEnabled;
     final boolean generateDescriptors;
+    final boolean generateReverseWriter;
+    final boolean generateArrayWriter;
+    final boolean generateArrayReader;
+    final boolean dirtyTrackingEnabled;
+    final boolean sparseHasBitsEnabled;
+    final boolean indexedMapsEnabled;
+    final boolean generateHashCode;
+    final boolean generateViews;
     final Function<String, String> replacePackageFunction;
 
 }
@@ -188,6 +188,9 @@ public class RequestInfo {
             this.outputOrder = options.getOutputOrder();
             this.storeUnknownFieldsEnabled = options.isStoreUnknownFieldsEnabled();
             this.enforceHasChecksEnabled = options.isEnforceHasChecksEnabled();
+            this.dirtyTrackingEnabled = options.isDirtyTrackingEnabled();
+            this.sparseHasBitsEnabled = options.isSparseHasBitsEnabled();
+            this.mapStoreType = getMapStoreType(descriptor, options);
 
             // Extensions in embedded mode: treat extension fields the same as normal
             // fields and embed them directly into the message.
@@ -226,11 +229,20 @@ public class RequestInfo {
             // Build bitfield index map. In the case of OneOf fields we want them grouped
             // together so that we can check all has states in as few bitfield comparisons
             // as possible. If there are no OneOf fields, the order will match the field
-            // order.
+            // order. Sparse has bits get iterated in bit order, so they need to match the
+            // serialization order instead.
+            final Comparator<FieldDescriptorProto> bitOrder;
+            if (!sparseHasBitsEnabled) {
+                bitOrder = FieldUtil.GroupOneOfAndRequiredBits;
+            } else if (outputOrder == FieldSerializationOrder.AscendingNumber) {
+                bitOrder = FieldUtil.AscendingNumberOrder;
+            } else {
+                bitOrder = FieldUtil.MemoryLayoutSorter;
+            }
             int bitIndex = 0;
             Map<FieldDescriptorProto, Integer> bitIndices = new HashMap<>();
             for (FieldDescriptorProto desc : sortedFields.stream()
-                    .sorted(FieldUtil.GroupOneOfAndRequiredBits)
+                    .sorted(bitOrder)
                     .collect(Collectors.toList())) {
                 bitIndices.put(desc, bitIndex++);
             }
@@ -273,6 +285,16 @@ public class RequestInfo {
             return syntheticIndices;
         }
 
+        /**
+         * @return the indexed map type for a map entry, or null if the message is not an indexed map entry
+         */
+        static ClassName getMapStoreType(DescriptorProtos.DescriptorProto descriptor, PluginOptions options) {
+            if (!options.isIndexedMapsEnabled() || !descriptor.getOptions().getMapEntry()) {
+                return null;
+            }
+            return RuntimeClasses.getMapStoreType(descriptor.getField(0).getType());
+        }
+
         public boolean hasRequiredFieldsInHierarchy() {
             return getParentFile().getParentRequest().getTypeRegistry().hasRequiredFieldsInHierarchy(typeName);
         }
@@ -288,6 +310,9 @@ public class RequestInfo {
         private final boolean storeUnknownFieldsEnabled;
         private final int numBitFields;
         private final boolean enforceHasChecksEnabled;
+        private final boolean dirtyTrackingEnabled;
+        private final boolean sparseHasBitsEnabled;
+        private final ClassName mapStoreType;
         private final Function<String, Boolean> nameCollisionCheck;
 
     }
@@ -343,6 +368,11 @@ public class RequestInfo {
             final String defValue = FieldUtil.getDefaultValue(descriptor);
             defaultValue = isEnum() ? NamingUtil.filterKeyword(defValue) : defValue;
             repeatedStoreType = RuntimeClasses.getRepeatedStoreType(descriptor.getType());
+            mapStoreType = !isRepeated() || !isMessage() ? null : parentTypeInfo.getDescriptor().getNestedTypeList().stream()
+                    .filter(nested -> descriptor.getTypeName().equals(parentTypeInfo.typeId + "." + nested.getName()))
+                    .findFirst()
+                    .map(nested -> MessageInfo.getMapStoreType(nested, getPluginOptions()))
+                    .orElse(null);
             methodAnnotations = isDeprecated() ?
                     Collections.singletonList(AnnotationSpec.builder(Deprecated.class).build()) :
                     Collections.emptyList();
@@ -366,7 +396,9 @@ public class RequestInfo {
         }
 
         public TypeName getRepeatedStoreType() {
-            if (isGroup() || isMessage()) {
+            if (isIndexedMap()) {
+                return ParameterizedTypeName.get(mapStoreType, getTypeName());
+            } else if (isGroup() || isMessage()) {
                 return ParameterizedTypeName.get(repeatedStoreType, getTypeName());
             } else if (isEnum()) {
                 return ParameterizedTypeName.get(repeatedStoreType, getTypeName());
@@ -383,6 +415,10 @@ public class RequestInfo {
             return FieldUtil.getFixedWidth(descriptor.getType());
         }
 
+        public boolean isIndexedMap() {
+            return mapStoreType != null;
+        }
+
         public boolean isMessageOrGroup() {
             return isMessage() || isGroup();
         }
@@ -423,6 +459,30 @@ public class RequestInfo {
             }
         }
 
+        public boolean isLazyParsingEnabled() {
+            switch (getPluginOptions().getLazyParsing()) {
+                case All:
+                    break;
+                case Annotated:
+                    if (descriptor.getOptions().hasLazy() && descriptor.getOptions().getLazy()) {
+                        break;
+                    }
+                case Disabled:
+                default:
+                    return false;
+            }
+            // only singular messages that don't need to be parsed for initialization checks
+            return isMessage() && !isRepeated() && !isRequired() && !isMessageOrGroupWithRequiredFieldsInHierarchy();
+        }
+
+        public String getLazyBytesName() {
+            return "_lazy" + getUpperName();
+        }
+
+        public String getLazyParseName() {
+            return "parseLazy" + getUpperName();
+        }
+
         public boolean isEnforceHasCheckEnabled() {
             return getPluginOptions().isEnforceHasChecksEnabled();
         }
@@ -431,6 +491,10 @@ public class RequestInfo {
             return getPluginOptions().isTryGetAccessorsEnabled();
         }
 
+        public boolean isDirtyTrackingEnabled() {
+            return getPluginOptions().isDirtyTrackingEnabled();
+        }
+
         public boolean isPresenceEnabled() {
             // Checks whether field presence is enabled for this field. See
             // https://github.com/protocolbuffers/protobuf/blob/main/docs/implementing_proto3_presence.md
@@ -611,6 +675,7 @@ public class RequestInfo {
         private final MessageInfo parentTypeInfo;
         private final ClassName parentType;
         private final ClassName repeatedStoreType;
+        private final ClassName mapStoreType;
         private final FieldDescriptorProto descriptor;
         private final int bitIndex;
         private final String hasBit;
@@ -35,9 +35,14 @@ class RuntimeClasses {
 
     static final ClassName ProtoSource = ClassName.get(API_PACKAGE, "ProtoSource");
     static final ClassName ProtoSink = ClassName.get(API_PACKAGE, "ProtoSink");
+    static final ClassName ReverseSink = ClassName.get(API_PACKAGE, "ReverseSink");
+    static final ClassName ArrayEncoder = ClassName.get(API_PACKAGE, "ArrayEncoder");
+    static final ClassName ArrayDecoder = ClassName.get(API_PACKAGE, "ArrayDecoder");
     static final ClassName ProtoUtil = ClassName.get(API_PACKAGE, "ProtoUtil");
     static final ClassName AbstractMessage = ClassName.get(API_PACKAGE, "ProtoMessage");
     static final ClassName MessageFactory = ClassName.get(API_PACKAGE, "MessageFactory");
+    static final ClassName MessageView = ClassName.get(API_PACKAGE, "MessageView");
+    static final ClassName FieldCursor = ClassName.get(API_PACKAGE, "FieldCursor");
     static final ClassName StringType = ClassName.get(API_PACKAGE,"Utf8String");
     static final ClassName Utf8Decoder = ClassName.get(API_PACKAGE,"Utf8Decoder");
     static final ClassName BytesType = ClassName.get(API_PACKAGE, "RepeatedByte");
@@ -66,6 +71,37 @@ class RuntimeClasses {
     private static final ClassName RepeatedBytes = ClassName.get(API_PACKAGE, "RepeatedBytes");
     static final ClassName RepeatedMessage = ClassName.get(API_PACKAGE, "RepeatedMessage");
     static final ClassName RepeatedEnum = ClassName.get(API_PACKAGE, "RepeatedEnum");
+    private static final ClassName IntKeyMap = ClassName.get(API_PACKAGE, "IntKeyMap");
+    private static final ClassName LongKeyMap = ClassName.get(API_PACKAGE, "LongKeyMap");
+    private static final ClassName StringKeyMap = ClassName.get(API_PACKAGE, "StringKeyMap");
+
+    /**
+     * @return the indexed map type for the key type, or null if the key type does not support indexed lookup
+     */
+    static ClassName getMapStoreType(FieldDescriptorProto.Type keyType) {
+        switch (keyType) {
+
+            case TYPE_INT32:
+            case TYPE_UINT32:
+            case TYPE_SINT32:
+            case TYPE_FIXED32:
+            case TYPE_SFIXED32:
+                return IntKeyMap;
+
+            case TYPE_INT64:
+            case TYPE_UINT64:
+            case TYPE_SINT64:
+            case TYPE_FIXED64:
+            case TYPE_SFIXED64:
+                return LongKeyMap;
+
+            case TYPE_STRING:
+                return StringKeyMap;
+
+            default: // bool keys don't benefit from an index
+                return null;
+        }
+    }
 
     static ClassName getRepeatedStoreType(FieldDescriptorProto.Type type) {
         switch (type) {
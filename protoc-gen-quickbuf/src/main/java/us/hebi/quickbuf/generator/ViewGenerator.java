@@ -0,0 +1,212 @@
+/*-
+ * #%L
+ * quickbuf-generator
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf.generator;
+
+import com.squareup.javapoet.*;
+import us.hebi.quickbuf.generator.RequestInfo.FieldInfo;
+import us.hebi.quickbuf.generator.RequestInfo.MessageInfo;
+
+import javax.lang.model.element.Modifier;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Generates read-only views that read fields directly from the serialized bytes
+ * of a message. Singular fields get an index into the lazily built position table
+ * of the view, and repeated fields get exposed as cursors.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+class ViewGenerator {
+
+    static ClassName getViewType(ClassName messageType) {
+        return messageType.nestedClass(messageType.simpleName() + "View");
+    }
+
+    ViewGenerator(MessageInfo info) {
+        this.info = info;
+        this.viewType = getViewType(info.getTypeName());
+        this.singularFields = info.getFields().stream()
+                .filter(FieldInfo::isSingular)
+                .collect(Collectors.toList());
+    }
+
+    TypeSpec generate() {
+        TypeSpec.Builder type = TypeSpec.classBuilder(viewType)
+                .addJavadoc("Read-only view of serialized {@code $T} messages that reads\n" +
+                        "fields on demand without parsing the whole message.\n", info.getTypeName())
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .superclass(ParameterizedTypeName.get(RuntimeClasses.MessageView, viewType));
+
+        type.addMethod(MethodSpec.methodBuilder("newInstance")
+                .addJavadoc("@return a new view that needs to wrap serialized bytes before use\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(viewType)
+                .addStatement("return new $T()", viewType)
+                .build());
+
+        type.addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .addStatement("super($L)", singularFields.size())
+                .build());
+
+        generateIndexOf(type);
+        for (FieldInfo field : info.getFields()) {
+            if (field.isRepeated()) {
+                generateCursor(type, field);
+            } else {
+                generateSingularAccessors(type, field, singularFields.indexOf(field));
+            }
+        }
+        return type.build();
+    }
+
+    private void generateIndexOf(TypeSpec.Builder type) {
+        MethodSpec.Builder indexOf = MethodSpec.methodBuilder("indexOf")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PROTECTED)
+                .addParameter(int.class, "fieldNumber")
+                .returns(int.class)
+                .beginControlFlow("switch (fieldNumber)");
+        for (int i = 0; i < singularFields.size(); i++) {
+            indexOf.addStatement("case $L: return $L", singularFields.get(i).getNumber(), i);
+        }
+        indexOf.addStatement("default: return -1")
+                .endControlFlow();
+        type.addMethod(indexOf.build());
+    }
+
+    private void generateSingularAccessors(TypeSpec.Builder type, FieldInfo field, int index) {
+        type.addMethod(MethodSpec.methodBuilder(field.getHazzerName())
+                .addJavadoc(Javadoc.forMessageField(field)
+                        .add("\n@return whether the $L field is present", field.getFieldName())
+                        .build())
+                .addAnnotations(field.getMethodAnnotations())
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.BOOLEAN)
+                .addStatement("return has($L)", index)
+                .build());
+
+        MethodSpec.Builder getter = MethodSpec.methodBuilder(field.getGetterName())
+                .addJavadoc(Javadoc.forMessageField(field)
+                        .add("\n@return the $L field, or the default value if it is not present", field.getFieldName())
+                        .build())
+                .addAnnotations(field.getMethodAnnotations())
+                .addModifiers(Modifier.PUBLIC);
+        final String capitalizedType = FieldUtil.getCapitalizedType(field.getDescriptor().getType());
+
+        if (field.isEnum()) {
+            final String defaultValue = field.hasDefaultValue() ? field.getTypeName() + "." + field.getDefaultValue() + "_VALUE" : "0";
+            final String valueGetter = field.getGetterName() + "Value";
+            type.addMethod(getter.returns(field.getTypeName())
+                    .addStatement("return $T.forNumber($N())", field.getTypeName(), valueGetter)
+                    .build());
+            type.addMethod(MethodSpec.methodBuilder(valueGetter)
+                    .addJavadoc(Javadoc.forMessageField(field)
+                            .add("\n@return numeric wire representation")
+                            .build())
+                    .addAnnotations(field.getMethodAnnotations())
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(TypeName.INT)
+                    .addStatement("return readEnum($L, $L)", index, defaultValue)
+                    .build());
+
+        } else if (field.isPrimitive()) {
+            type.addMethod(getter.returns(field.getTypeName())
+                    .addStatement("return read$L($L, $L)", capitalizedType, index, field.getDefaultValue())
+                    .build());
+
+        } else if (field.isString()) {
+            final String bytesGetter = field.getGetterName() + "Bytes";
+            type.addMethod(getter.returns(String.class)
+                    .addStatement("return $N().getString()", bytesGetter)
+                    .build());
+            MethodSpec.Builder bytes = MethodSpec.methodBuilder(bytesGetter)
+                    .addJavadoc(Javadoc.forMessageField(field)
+                            .add("\n@return reusable {@code Utf8String} representation of $L", field.getFieldName())
+                            .build())
+                    .addAnnotations(field.getMethodAnnotations())
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(RuntimeClasses.StringType);
+            addLazyStore(type, bytes, field, RuntimeClasses.StringType, "$T.newEmptyInstance()");
+            bytes.beginControlFlow("if (!readString($L, $N))", index, field.getFieldName());
+            if (field.hasDefaultValue()) {
+                bytes.addStatement("$N.copyFrom($S)", field.getFieldName(), field.getDefaultValue());
+            } else {
+                bytes.addStatement("$N.clear()", field.getFieldName());
+            }
+            type.addMethod(bytes.endControlFlow()
+                    .addStatement("return $N", field.getFieldName())
+                    .build());
+
+        } else if (field.isBytes()) {
+            getter.returns(RuntimeClasses.BytesType);
+            addLazyStore(type, getter, field, RuntimeClasses.BytesType, "$T.newEmptyInstance()");
+            getter.beginControlFlow("if (!readBytes($L, $N))", index, field.getFieldName());
+            if (field.hasDefaultValue()) {
+                getter.addStatement("$N.copyFrom($T.$N)", field.getFieldName(), info.getTypeName(), field.getDefaultFieldName());
+            } else {
+                getter.addStatement("$N.clear()", field.getFieldName());
+            }
+            type.addMethod(getter.endControlFlow()
+                    .addStatement("return $N", field.getFieldName())
+                    .build());
+
+        } else if (field.isMessageOrGroup()) {
+            final ClassName nestedView = getViewType((ClassName) field.getTypeName());
+            getter.returns(nestedView);
+            addLazyStore(type, getter, field, nestedView, "$T.newInstance()");
+            type.addMethod(getter.addStatement("return read$L($L, $N)", field.isGroup() ? "Group" : "Message", index, field.getFieldName())
+                    .build());
+
+        } else {
+            throw new IllegalStateException("unhandled field: " + field.getDescriptor());
+        }
+    }
+
+    private void addLazyStore(TypeSpec.Builder type, MethodSpec.Builder getter, FieldInfo field, ClassName storeType, String initializer) {
+        // Initialized on first access so that recursive message types don't allocate infinitely
+        type.addField(FieldSpec.builder(storeType, field.getFieldName(), Modifier.PRIVATE).build());
+        getter.beginControlFlow("if ($N == null)", field.getFieldName())
+                .addStatement("$N = " + initializer, field.getFieldName(), storeType)
+                .endControlFlow();
+    }
+
+    private void generateCursor(TypeSpec.Builder type, FieldInfo field) {
+        final String cursorField = field.getFieldName() + "Cursor";
+        type.addField(FieldSpec.builder(RuntimeClasses.FieldCursor, cursorField, Modifier.PRIVATE).build());
+        type.addMethod(MethodSpec.methodBuilder(field.getGetterName() + "Cursor")
+                .addJavadoc(Javadoc.forMessageField(field)
+                        .add("\n@return reusable cursor that iterates over all $L elements", field.getFieldName())
+                        .build())
+                .addAnnotations(field.getMethodAnnotations())
+                .addModifiers(Modifier.PUBLIC)
+                .returns(RuntimeClasses.FieldCursor)
+                .addStatement("return $N = cursor($N, $L, $L)", cursorField, cursorField, field.getTag(), field.isPackable())
+                .build());
+    }
+
+    private final MessageInfo info;
+    private final ClassName viewType;
+    private final List<FieldInfo> singularFields;
+
+}
@@ -80,6 +80,30 @@ public class QuickbufPluginTest {
         CodeGeneratorResponse response = QuickbufPlugin.handleRequest(request);
     }
 
+    @Test
+    public void testAllTypesSparseRequest() {
+        CodeGeneratorRequest request = TestRequestLoader.getAllTypesSparseRequest();
+        CodeGeneratorResponse response = QuickbufPlugin.handleRequest(request);
+        String allTypes = response.getFileList().stream()
+                .filter(file -> file.getName().endsWith("/TestAllTypes.java"))
+                .map(CodeGeneratorResponse.File::getContent)
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+
+        // Serialization iterates over the set bits rather than checking every field
+        assertSparseLoop(allTypes, "public void writeTo(final ProtoSink output)");
+        assertSparseLoop(allTypes, "protected int computeSerializedSize()");
+        assertSparseLoop(allTypes, "public void writeToReversed(final ReverseSink output)");
+    }
+
+    private static void assertSparseLoop(String content, String method) {
+        int start = content.indexOf(method);
+        assertTrue(method, start >= 0);
+        String body = content.substring(start, content.indexOf("\n    }\n", start));
+        assertTrue(method, body.contains("for (int _bits = bitField"));
+        assertFalse(method, body.contains("if ((bitField"));
+    }
+
     @Test
     public void testRepeatedPackablesRequest() {
         CodeGeneratorRequest request = TestRequestLoader.getRepeatedPackablesRequest();
@@ -40,6 +40,7 @@ public class TestRequestLoader {
         getImportRequest();
         getAllTypesEagerRequest();
         getAllTypesLazyRequest();
+        getAllTypesSparseRequest();
         getRepeatedPackablesRequest();
         getUnsupportedMapRequest();
         getUnsupportedExtensionRequest();
@@ -63,6 +64,10 @@ public class TestRequestLoader {
         return getRequest("allTypes_lazy");
     }
 
+    public static CodeGeneratorRequest getAllTypesSparseRequest() {
+        return getRequest("allTypes_sparse");
+    }
+
     public static CodeGeneratorRequest getRepeatedPackablesRequest() {
         return getRequest("repeatedPackables");
     }
@@ -0,0 +1,185 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+
+import static java.lang.foreign.ValueLayout.*;
+import static us.hebi.quickbuf.ProtoUtil.*;
+import static us.hebi.quickbuf.SegmentAccess.*;
+import static us.hebi.quickbuf.WireFormat.*;
+
+/**
+ * Sink that writes to a {@link MemorySegment}. This provides zero-copy access
+ * to off-heap memory on JDKs that restrict access to sun.misc.Unsafe. Segments
+ * may be allocated by any arena, but confined segments can only be written by
+ * the thread that owns them. If more bytes are written than fit in the segment,
+ * an {@link OutOfSpaceException} will be thrown.
+ * <p>
+ * Segments can be larger than 2 GB. The 64 bit position can be queried via
+ * {@link #getPosition()}, and the 32 bit values returned by {@link #getTotalBytesWritten()}
+ * and {@link #spaceLeft()} saturate at {@link Integer#MAX_VALUE}.
+ * <p>
+ * This class is only available on Java 22+.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class SegmentSink extends ProtoSink {
+
+    public static SegmentSink newInstance(MemorySegment segment) {
+        return new SegmentSink().setOutput(segment);
+    }
+
+    SegmentSink() {
+    }
+
+    /**
+     * Changes the output to the given segment and moves to the beginning.
+     *
+     * @param segment writable memory segment
+     * @return this
+     */
+    public SegmentSink setOutput(MemorySegment segment) {
+        checkArgument(!segment.isReadOnly(), "Segment is read only");
+        this.segment = segment;
+        this.position = 0;
+        return this;
+    }
+
+    /**
+     * @return the absolute position in the segment
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public ProtoSink setOutput(byte[] buffer, long offset, int length) {
+        if (buffer != null) {
+            return setOutput(MemorySegment.ofArray(buffer).asSlice(offset, length));
+        } else if (offset <= 0) {
+            throw new NullPointerException("null reference with invalid address offset");
+        } else {
+            // Wrapping a raw address requires native access to be enabled
+            return setOutput(MemorySegment.ofAddress(offset).reinterpret(length));
+        }
+    }
+
+    @Override
+    public ProtoSink setOutput(ByteBuffer buffer) {
+        checkArgument(!buffer.isReadOnly(), "Buffer is read only");
+        return setOutput(MemorySegment.ofBuffer(buffer));
+    }
+
+    @Override
+    public ProtoSink clear() {
+        return setOutput(MemorySegment.NULL);
+    }
+
+    @Override
+    public int spaceLeft() {
+        return (int) Math.min(segment.byteSize() - position, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int getTotalBytesWritten() {
+        return (int) Math.min(position, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public SegmentSink reset() {
+        position = 0;
+        return this;
+    }
+
+    @Override
+    public void writeRawByte(final byte value) throws IOException {
+        segment.set(JAVA_BYTE, require(1), value);
+    }
+
+    @Override
+    public void writeRawLittleEndian16(final short value) throws IOException {
+        segment.set(LE_SHORT, require(FIXED_16_SIZE), value);
+    }
+
+    @Override
+    public void writeRawLittleEndian32(final int value) throws IOException {
+        segment.set(LE_INT, require(FIXED_32_SIZE), value);
+    }
+
+    @Override
+    public void writeRawLittleEndian64(final long value) throws IOException {
+        segment.set(LE_LONG, require(FIXED_64_SIZE), value);
+    }
+
+    @Override
+    public void writeFloatNoTag(final float value) throws IOException {
+        segment.set(LE_FLOAT, require(FIXED_32_SIZE), value);
+    }
+
+    @Override
+    public void writeDoubleNoTag(final double value) throws IOException {
+        segment.set(LE_DOUBLE, require(FIXED_64_SIZE), value);
+    }
+
+    @Override
+    public void writeRawBytes(final byte[] values, int offset, int length) throws IOException {
+        MemorySegment.copy(values, offset, segment, JAVA_BYTE, require(length), length);
+    }
+
+    @Override
+    protected void writeRawFixed32s(final int[] values, final int length) throws IOException {
+        MemorySegment.copy(values, 0, segment, LE_INT, require(length * FIXED_32_SIZE), length);
+    }
+
+    @Override
+    protected void writeRawFixed64s(final long[] values, final int length) throws IOException {
+        MemorySegment.copy(values, 0, segment, LE_LONG, require(length * FIXED_64_SIZE), length);
+    }
+
+    @Override
+    protected void writeRawFloats(final float[] values, final int length) throws IOException {
+        MemorySegment.copy(values, 0, segment, LE_FLOAT, require(length * FIXED_32_SIZE), length);
+    }
+
+    @Override
+    protected void writeRawDoubles(final double[] values, final int length) throws IOException {
+        MemorySegment.copy(values, 0, segment, LE_DOUBLE, require(length * FIXED_64_SIZE), length);
+    }
+
+    /** moves forward by numBytes and returns the current position */
+    private long require(final int numBytes) throws OutOfSpaceException {
+        if (numBytes < 0 || numBytes > segment.byteSize() - position) {
+            throw new OutOfSpaceException(new IndexOutOfBoundsException(
+                    "pos " + position + " limit " + segment.byteSize() + " required " + numBytes));
+        }
+        final long offset = position;
+        position += numBytes;
+        return offset;
+    }
+
+    private MemorySegment segment = MemorySegment.NULL;
+    private long position;
+
+}
@@ -0,0 +1,312 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+
+import static java.lang.foreign.ValueLayout.*;
+import static us.hebi.quickbuf.ProtoUtil.*;
+import static us.hebi.quickbuf.SegmentAccess.*;
+import static us.hebi.quickbuf.WireFormat.*;
+
+/**
+ * Source that reads from a {@link MemorySegment}. This provides zero-copy access
+ * to off-heap memory on JDKs that restrict access to sun.misc.Unsafe. Segments may
+ * be allocated by any arena, but confined segments can only be read by the thread
+ * that owns them.
+ * <p>
+ * Segments can be larger than 2 GB. Positions inside the segment are 64 bit wide
+ * and can be queried and changed via {@link #getPosition()} and {@link #seek(long)}.
+ * All other positions, such as {@link #getTotalBytesRead()} and limits, are 32 bit
+ * wide and relative to the last call to {@link #seek(long)} or {@link #resetSizeCounter()}.
+ * This matches the behavior of {@link MappedFileSource}.
+ * <p>
+ * This class is only available on Java 22+.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class SegmentSource extends ProtoSource {
+
+    public static SegmentSource newInstance(MemorySegment segment) {
+        return new SegmentSource().setInput(segment);
+    }
+
+    SegmentSource() {
+    }
+
+    /**
+     * Changes the input to the given segment and moves to the beginning.
+     *
+     * @param segment readable memory segment
+     * @return this
+     */
+    public SegmentSource setInput(MemorySegment segment) {
+        this.segment = checkNotNull(segment);
+        return seek(0);
+    }
+
+    /**
+     * @return the absolute position in the segment
+     */
+    public long getPosition() {
+        return readStart + position;
+    }
+
+    /**
+     * Moves to the given absolute position in the segment and resets any
+     * existing internal state such as limits. The total bytes read get
+     * counted relative to the new position.
+     *
+     * @param position absolute position in the segment
+     * @return this
+     */
+    public SegmentSource seek(long position) {
+        if (position < 0 || position > segment.byteSize()) {
+            throw new IllegalArgumentException("position out of bounds");
+        }
+        resetInternalState();
+        this.readStart = position;
+        this.position = 0;
+        updateLimit();
+        return this;
+    }
+
+    /**
+     * Resets the total bytes read to zero without changing the absolute
+     * position. Should only be called between messages.
+     *
+     * @return this
+     */
+    @Override
+    public SegmentSource resetSizeCounter() {
+        readStart += position;
+        if (currentLimit != NO_LIMIT) {
+            currentLimit -= position;
+        }
+        position = 0;
+        updateLimit();
+        return this;
+    }
+
+    @Override
+    public ProtoSource setInput(byte[] buffer, long offset, int length) {
+        if (buffer != null) {
+            return setInput(MemorySegment.ofArray(buffer).asSlice(offset, length));
+        } else if (offset <= 0) {
+            throw new NullPointerException("null reference with invalid base address");
+        } else if (length < 0) {
+            throw new ArrayIndexOutOfBoundsException("negative length");
+        } else {
+            // Wrapping a raw address requires native access to be enabled
+            return setInput(MemorySegment.ofAddress(offset).reinterpret(length));
+        }
+    }
+
+    @Override
+    public ProtoSource setInput(ByteBuffer buffer) {
+        return setInput(MemorySegment.ofBuffer(buffer));
+    }
+
+    @Override
+    public ProtoSource clear() {
+        return setInput(MemorySegment.NULL);
+    }
+
+    @Override
+    public int pushLimit(int byteLimit) throws InvalidProtocolBufferException {
+        if (byteLimit < 0) {
+            throw InvalidProtocolBufferException.negativeSize();
+        }
+        byteLimit += position;
+        if (byteLimit > limit || byteLimit < 0) { // limit is always Math.min(limit, currentLimit)
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+        final int oldLimit = currentLimit;
+        currentLimit = byteLimit;
+        updateLimit();
+        return oldLimit;
+    }
+
+    @Override
+    public void popLimit(final int oldLimit) {
+        currentLimit = oldLimit;
+        updateLimit();
+    }
+
+    @Override
+    public int getBytesUntilLimit() {
+        if (currentLimit == NO_LIMIT) {
+            return -1;
+        }
+        return currentLimit - position;
+    }
+
+    @Override
+    public boolean isAtEnd() throws IOException {
+        return position == limit;
+    }
+
+    @Override
+    public int getTotalBytesRead() {
+        return position;
+    }
+
+    @Override
+    public void rewindTo(int position) {
+        if (position < 0 || position > limit) {
+            throw new IllegalArgumentException("position out of bounds");
+        }
+        this.position = position;
+    }
+
+    private void updateLimit() {
+        final int segmentLimit = (int) Math.min(segment.byteSize() - readStart, Integer.MAX_VALUE);
+        limit = Math.min(segmentLimit, currentLimit);
+    }
+
+    @Override
+    public void skipRawBytes(final int size) throws IOException {
+        require(size);
+    }
+
+    @Override
+    public byte readRawByte() throws IOException {
+        if (position == limit) {
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+        return segment.get(JAVA_BYTE, readStart + position++);
+    }
+
+    @Override
+    public int readRawVarint32() throws IOException {
+        if (limit - position >= MAX_VARINT_SIZE) {
+            return (int) readRawVarint64Unaligned();
+        }
+        return super.readRawVarint32();
+    }
+
+    @Override
+    public long readRawVarint64() throws IOException {
+        if (limit - position >= MAX_VARINT_SIZE) {
+            return readRawVarint64Unaligned();
+        }
+        return super.readRawVarint64();
+    }
+
+    /** See implementation notes in ArraySource */
+    private long readRawVarint64Unaligned() throws IOException {
+        final long address = readStart + position;
+        final long word = segment.get(LE_LONG, address);
+        final long stopBits = ~word & ByteUtil.VARINT_CONTINUATION_BITS;
+        if (stopBits != 0) {
+            position += ByteUtil.getVarintLength(stopBits);
+            return ByteUtil.compactVarint(word, stopBits);
+        }
+
+        final byte ninth = segment.get(JAVA_BYTE, address + 8);
+        final long value = ByteUtil.compactVarint(word, 0) | (ninth & 0x7FL) << 56;
+        if (ninth >= 0) {
+            position += 9;
+            return value;
+        }
+        final byte last = segment.get(JAVA_BYTE, address + 9);
+        if (last < 0) {
+            throw InvalidProtocolBufferException.malformedVarint();
+        }
+        position += 10;
+        return value | (long) last << 63;
+    }
+
+    @Override
+    public short readRawLittleEndian16() throws IOException {
+        return segment.get(LE_SHORT, require(FIXED_16_SIZE));
+    }
+
+    @Override
+    public int readRawLittleEndian32() throws IOException {
+        return segment.get(LE_INT, require(FIXED_32_SIZE));
+    }
+
+    @Override
+    public long readRawLittleEndian64() throws IOException {
+        return segment.get(LE_LONG, require(FIXED_64_SIZE));
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return segment.get(LE_FLOAT, require(FIXED_32_SIZE));
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return segment.get(LE_DOUBLE, require(FIXED_64_SIZE));
+    }
+
+    @Override
+    public void readRawBytes(byte[] values, int offset, int length) throws IOException {
+        MemorySegment.copy(segment, JAVA_BYTE, require(length), values, offset, length);
+    }
+
+    @Override
+    protected void readRawFixed32s(int[] values, int offset, int length) throws IOException {
+        MemorySegment.copy(segment, LE_INT, require(length * FIXED_32_SIZE), values, offset, length);
+    }
+
+    @Override
+    protected void readRawFixed64s(long[] values, int offset, int length) throws IOException {
+        MemorySegment.copy(segment, LE_LONG, require(length * FIXED_64_SIZE), values, offset, length);
+    }
+
+    @Override
+    protected void readRawFloats(float[] values, int offset, int length) throws IOException {
+        MemorySegment.copy(segment, LE_FLOAT, require(length * FIXED_32_SIZE), values, offset, length);
+    }
+
+    @Override
+    protected void readRawDoubles(double[] values, int offset, int length) throws IOException {
+        MemorySegment.copy(segment, LE_DOUBLE, require(length * FIXED_64_SIZE), values, offset, length);
+    }
+
+    /** moves forward by numBytes and returns the current offset in the segment */
+    private long require(final int numBytes) throws IOException {
+        if (numBytes < 0) {
+            throw InvalidProtocolBufferException.negativeSize();
+        } else if (numBytes > limit - position) {
+            // Read to the end of the current sub-message before failing
+            if (currentLimit != NO_LIMIT) {
+                position = currentLimit;
+            }
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+        final long address = readStart + position;
+        position += numBytes;
+        return address;
+    }
+
+    private MemorySegment segment = MemorySegment.NULL;
+    private long readStart;
+    private int position;
+    private int limit;
+
+}
@@ -0,0 +1,200 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+
+import static us.hebi.quickbuf.UnsafeAccess.*;
+import static us.hebi.quickbuf.WireFormat.*;
+
+/**
+ * Decoding methods for messages that were generated with the 'gen_array_reader'
+ * option. The generated code keeps the read position and the limit in local variables
+ * and passes them through these methods, so reading from an array does not require any
+ * virtual calls for scalar fields.
+ * <p>
+ * All read methods start at the given position and return the position after the last
+ * consumed byte. The decoded value gets stored in a register that can be retrieved via
+ * {@link #intValue()} or {@link #longValue()}. Fields that are not decoded inline can
+ * {@link #seek(int)} the underlying source and read the remaining position back via
+ * {@link #position()}.
+ * <p>
+ * Each decoder belongs to a single source, so it must not be shared between threads.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class ArrayDecoder {
+
+    ArrayDecoder(ArraySource source) {
+        this.source = source;
+    }
+
+    /**
+     * Reads a field tag, or zero if the limit has been reached.
+     * See {@link ProtoSource#readTag()}
+     */
+    public int readTag(final byte[] buffer, final int position, final int limit) throws IOException {
+        if (position == limit) {
+            intValue = 0;
+            return position;
+        }
+        final int next = readVarint32(buffer, position, limit);
+        if (getTagFieldNumber(intValue) == 0) {
+            // Field number zero is not a valid tag
+            throw InvalidProtocolBufferException.invalidTag();
+        }
+        return next;
+    }
+
+    /** Reads a raw varint and stores the lower 32 bits in the int register. */
+    public int readVarint32(final byte[] buffer, final int position, final int limit) throws IOException {
+        if (position < limit) {
+            final byte first = buffer[position];
+            if (first >= 0) {
+                intValue = first;
+                return position + 1;
+            }
+        }
+        final int next = readVarint64SlowPath(buffer, position, limit);
+        intValue = (int) longValue;
+        return next;
+    }
+
+    /** Reads a raw varint and stores it in the long register. */
+    public int readVarint64(final byte[] buffer, final int position, final int limit) throws IOException {
+        if (position < limit) {
+            final byte first = buffer[position];
+            if (first >= 0) {
+                longValue = first;
+                return position + 1;
+            }
+        }
+        return readVarint64SlowPath(buffer, position, limit);
+    }
+
+    private int readVarint64SlowPath(final byte[] buffer, final int position, final int limit) throws IOException {
+        if (ENABLE_UNSAFE_UNALIGNED && limit - position >= MAX_VARINT_SIZE) {
+            return readVarint64Unaligned(buffer, position);
+        }
+        return readVarint64Bytewise(buffer, position, limit);
+    }
+
+    /** See implementation notes in ArraySource::readRawVarint64Unaligned */
+    private int readVarint64Unaligned(final byte[] buffer, final int position) throws IOException {
+        final long word = ByteUtil.readLittleEndian64(buffer, position);
+        final long stopBits = ~word & ByteUtil.VARINT_CONTINUATION_BITS;
+        if (stopBits != 0) {
+            longValue = ByteUtil.compactVarint(word, stopBits);
+            return position + ByteUtil.getVarintLength(stopBits);
+        }
+
+        final byte ninth = buffer[position + 8];
+        final long value = ByteUtil.compactVarint(word, 0) | (ninth & 0x7FL) << 56;
+        if (ninth >= 0) {
+            longValue = value;
+            return position + 9;
+        }
+        final byte last = buffer[position + 9];
+        if (last < 0) {
+            throw InvalidProtocolBufferException.malformedVarint();
+        }
+        longValue = value | (long) last << 63;
+        return position + 10;
+    }
+
+    private int readVarint64Bytewise(final byte[] buffer, int position, final int limit) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position == limit) {
+                throw InvalidProtocolBufferException.truncatedMessage();
+            }
+            final byte b = buffer[position++];
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                longValue = result;
+                return position;
+            }
+        }
+        throw InvalidProtocolBufferException.malformedVarint();
+    }
+
+    /** Reads a 32-bit little-endian value and stores it in the int register. */
+    public int readFixed32(final byte[] buffer, final int position, final int limit) throws IOException {
+        if (limit - position < FIXED_32_SIZE) {
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+        intValue = ByteUtil.readLittleEndian32(buffer, position);
+        return position + FIXED_32_SIZE;
+    }
+
+    /** Reads a 64-bit little-endian value and stores it in the long register. */
+    public int readFixed64(final byte[] buffer, final int position, final int limit) throws IOException {
+        if (limit - position < FIXED_64_SIZE) {
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+        longValue = ByteUtil.readLittleEndian64(buffer, position);
+        return position + FIXED_64_SIZE;
+    }
+
+    /** @return the int register, i.e., the result of the last 32-bit read */
+    public int intValue() {
+        return intValue;
+    }
+
+    /** @return the long register, i.e., the result of the last 64-bit read */
+    public long longValue() {
+        return longValue;
+    }
+
+    /**
+     * Moves the underlying source to the given position, so that fields
+     * that are not decoded inline can be read through the regular methods.
+     *
+     * @return the underlying source
+     */
+    public ProtoSource seek(final int position) {
+        source.position = position;
+        return source;
+    }
+
+    /** @return the current position of the underlying source */
+    public int position() {
+        return source.position;
+    }
+
+    /**
+     * Writes the position back to the underlying source and hands over a tag that
+     * could not be decoded inline, e.g., unknown fields or the end of the message.
+     *
+     * @return the tag that needs to be handled by the regular decoder
+     */
+    public int finish(final int position, final int tag) {
+        source.position = position;
+        source.setLastTag(tag);
+        return tag;
+    }
+
+    private final ArraySource source;
+    private int intValue;
+    private long longValue;
+
+}
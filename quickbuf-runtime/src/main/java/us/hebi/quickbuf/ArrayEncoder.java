@@ -0,0 +1,298 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import us.hebi.quickbuf.ProtoSink.OutOfSpaceException;
+
+import static us.hebi.quickbuf.WireFormat.*;
+
+/**
+ * Static encoding methods for messages that were generated with the 'gen_array_writer'
+ * option. The generated code keeps the write position in a local variable and passes
+ * it through these methods, so writing to an array does not require any virtual calls.
+ * <p>
+ * All methods write to the given position and return the position after the last
+ * written byte. The output is bounded by the end of the array. Writing past the end
+ * results in either an {@link OutOfSpaceException} or an {@link ArrayIndexOutOfBoundsException},
+ * so callers should convert the latter as needed.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class ArrayEncoder {
+
+    /** Write a length delimiter to the array. */
+    public static int writeLength(final byte[] buffer, final int position, final int length) {
+        return writeUInt32NoTag(buffer, position, length);
+    }
+
+    /** Write a {@code double} field to the array. */
+    public static int writeDoubleNoTag(final byte[] buffer, final int position, final double value) throws OutOfSpaceException {
+        ByteUtil.writeDouble(buffer, require(buffer, position, FIXED_64_SIZE), value);
+        return position + FIXED_64_SIZE;
+    }
+
+    /** Write a {@code float} field to the array. */
+    public static int writeFloatNoTag(final byte[] buffer, final int position, final float value) throws OutOfSpaceException {
+        ByteUtil.writeFloat(buffer, require(buffer, position, FIXED_32_SIZE), value);
+        return position + FIXED_32_SIZE;
+    }
+
+    /** Write an {@code int64} field to the array. */
+    public static int writeInt64NoTag(final byte[] buffer, final int position, final long value) {
+        return writeUInt64NoTag(buffer, position, value);
+    }
+
+    /** Write an {@code int32} field to the array. */
+    public static int writeInt32NoTag(final byte[] buffer, final int position, final int value) {
+        if (value >= 0) {
+            return writeUInt32NoTag(buffer, position, value);
+        } else {
+            // Must sign-extend
+            return writeUInt64NoTag(buffer, position, value);
+        }
+    }
+
+    /** Write a {@code uint64} field to the array. */
+    public static int writeUInt64NoTag(final byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) (((int) value) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    /** Write a {@code uint32} field to the array. */
+    public static int writeUInt32NoTag(final byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    /** Write a {@code fixed64} field to the array. */
+    public static int writeFixed64NoTag(final byte[] buffer, final int position, final long value) throws OutOfSpaceException {
+        ByteUtil.writeLittleEndian64(buffer, require(buffer, position, FIXED_64_SIZE), value);
+        return position + FIXED_64_SIZE;
+    }
+
+    /** Write a {@code fixed32} field to the array. */
+    public static int writeFixed32NoTag(final byte[] buffer, final int position, final int value) throws OutOfSpaceException {
+        ByteUtil.writeLittleEndian32(buffer, require(buffer, position, FIXED_32_SIZE), value);
+        return position + FIXED_32_SIZE;
+    }
+
+    /** Write an {@code sfixed64} field to the array. */
+    public static int writeSFixed64NoTag(final byte[] buffer, final int position, final long value) throws OutOfSpaceException {
+        return writeFixed64NoTag(buffer, position, value);
+    }
+
+    /** Write an {@code sfixed32} field to the array. */
+    public static int writeSFixed32NoTag(final byte[] buffer, final int position, final int value) throws OutOfSpaceException {
+        return writeFixed32NoTag(buffer, position, value);
+    }
+
+    /** Write an {@code sint64} field to the array. */
+    public static int writeSInt64NoTag(final byte[] buffer, final int position, final long value) {
+        return writeUInt64NoTag(buffer, position, ProtoSink.encodeZigZag64(value));
+    }
+
+    /** Write an {@code sint32} field to the array. */
+    public static int writeSInt32NoTag(final byte[] buffer, final int position, final int value) {
+        return writeUInt32NoTag(buffer, position, ProtoSink.encodeZigZag32(value));
+    }
+
+    /** Write a {@code bool} field to the array. */
+    public static int writeBoolNoTag(final byte[] buffer, final int position, final boolean value) {
+        buffer[position] = (byte) (value ? 1 : 0);
+        return position + 1;
+    }
+
+    /** Write an enum field to the array. */
+    public static int writeEnumNoTag(final byte[] buffer, final int position, final int value) {
+        return writeInt32NoTag(buffer, position, value);
+    }
+
+    /** Write a {@code string} field to the array. */
+    public static int writeStringNoTag(final byte[] buffer, final int position, final Utf8String value) throws OutOfSpaceException {
+        final int length = value.size();
+        return writeRawBytes(buffer, writeLength(buffer, position, length), value.contentArray(), value.contentOffset(), length);
+    }
+
+    /** Write a {@code string} field to the array. */
+    public static int writeStringNoTag(final byte[] buffer, final int position, final CharSequence value) {
+        final int length = Utf8.encodedLength(value);
+        final int start = writeLength(buffer, position, length);
+        return Utf8.encodeArray(value, buffer, start, buffer.length - start);
+    }
+
+    /** Write a {@code bytes} field to the array. */
+    public static int writeBytesNoTag(final byte[] buffer, final int position, final RepeatedByte value) throws OutOfSpaceException {
+        return writeRawBytes(buffer, writeLength(buffer, position, value.length), value.contentArray(), value.contentOffset(), value.length);
+    }
+
+    /** Writes the contents as an array of bytes */
+    public static int writeRawBytes(final byte[] buffer, final int position, final RepeatedByte value) throws OutOfSpaceException {
+        return writeRawBytes(buffer, position, value.contentArray(), value.contentOffset(), value.length);
+    }
+
+    private static int writeRawBytes(final byte[] buffer, final int position, final byte[] value, final int offset, final int length) throws OutOfSpaceException {
+        ByteUtil.writeBytes(buffer, require(buffer, position, length), value, offset, length);
+        return position + length;
+    }
+
+    // -------------------------- PACKED FIXED WIDTH TYPES --------------------------
+
+    /** Write a repeated (packed) {@code double} field, excluding tag, to the array. */
+    public static int writePackedDoubleNoTag(final byte[] buffer, final int position, final RepeatedDouble values) throws OutOfSpaceException {
+        final int length = values.length * FIXED_64_SIZE;
+        final int start = require(buffer, writeLength(buffer, position, length), length);
+        ByteUtil.writeDoubles(buffer, start, values.array, values.length);
+        return start + length;
+    }
+
+    /** Write a repeated (packed) {@code float} field, excluding tag, to the array. */
+    public static int writePackedFloatNoTag(final byte[] buffer, final int position, final RepeatedFloat values) throws OutOfSpaceException {
+        final int length = values.length * FIXED_32_SIZE;
+        final int start = require(buffer, writeLength(buffer, position, length), length);
+        ByteUtil.writeFloats(buffer, start, values.array, values.length);
+        return start + length;
+    }
+
+    /** Write a repeated (packed) {@code fixed64} field, excluding tag, to the array. */
+    public static int writePackedFixed64NoTag(final byte[] buffer, final int position, final RepeatedLong values) throws OutOfSpaceException {
+        final int length = values.length * FIXED_64_SIZE;
+        final int start = require(buffer, writeLength(buffer, position, length), length);
+        ByteUtil.writeLittleEndian64s(buffer, start, values.array, values.length);
+        return start + length;
+    }
+
+    /** Write a repeated (packed) {@code fixed32} field, excluding tag, to the array. */
+    public static int writePackedFixed32NoTag(final byte[] buffer, final int position, final RepeatedInt values) throws OutOfSpaceException {
+        final int length = values.length * FIXED_32_SIZE;
+        final int start = require(buffer, writeLength(buffer, position, length), length);
+        ByteUtil.writeLittleEndian32s(buffer, start, values.array, values.length);
+        return start + length;
+    }
+
+    /** Write a repeated (packed) {@code sfixed64} field, excluding tag, to the array. */
+    public static int writePackedSFixed64NoTag(final byte[] buffer, final int position, final RepeatedLong values) throws OutOfSpaceException {
+        return writePackedFixed64NoTag(buffer, position, values);
+    }
+
+    /** Write a repeated (packed) {@code sfixed32} field, excluding tag, to the array. */
+    public static int writePackedSFixed32NoTag(final byte[] buffer, final int position, final RepeatedInt values) throws OutOfSpaceException {
+        return writePackedFixed32NoTag(buffer, position, values);
+    }
+
+    /** Write a repeated (packed) {@code bool} field, excluding tag, to the array. */
+    public static int writePackedBoolNoTag(final byte[] buffer, final int position, final RepeatedBoolean values) throws OutOfSpaceException {
+        final int length = values.length * MIN_BOOL_SIZE;
+        final int start = require(buffer, writeLength(buffer, position, length), length);
+        ByteUtil.writeBooleans(buffer, start, values.array, values.length);
+        return start + length;
+    }
+
+    // -------------------------- PACKED VARINT TYPES --------------------------
+
+    /** Write a repeated (packed) {@code enum} field, excluding tag, to the array. */
+    public static int writePackedEnumNoTag(final byte[] buffer, final int position, final RepeatedEnum<?> values) {
+        int pos = writeLength(buffer, position, ProtoSink.computeRepeatedEnumSizeNoTag(values));
+        final int[] array = values.array();
+        for (int i = 0; i < values.length; i++) {
+            pos = writeEnumNoTag(buffer, pos, array[i]);
+        }
+        return pos;
+    }
+
+    /** Write a repeated (packed) {@code int32} field, excluding tag, to the array. */
+    public static int writePackedInt32NoTag(final byte[] buffer, final int position, final RepeatedInt values) {
+        int pos = writeLength(buffer, position, ProtoSink.computeRepeatedInt32SizeNoTag(values));
+        final int[] array = values.array;
+        for (int i = 0; i < values.length; i++) {
+            pos = writeInt32NoTag(buffer, pos, array[i]);
+        }
+        return pos;
+    }
+
+    /** Write a repeated (packed) {@code uint32} field, excluding tag, to the array. */
+    public static int writePackedUInt32NoTag(final byte[] buffer, final int position, final RepeatedInt values) {
+        int pos = writeLength(buffer, position, ProtoSink.computeRepeatedUInt32SizeNoTag(values));
+        final int[] array = values.array;
+        for (int i = 0; i < values.length; i++) {
+            pos = writeUInt32NoTag(buffer, pos, array[i]);
+        }
+        return pos;
+    }
+
+    /** Write a repeated (packed) {@code sint32} field, excluding tag, to the array. */
+    public static int writePackedSInt32NoTag(final byte[] buffer, final int position, final RepeatedInt values) {
+        int pos = writeLength(buffer, position, ProtoSink.computeRepeatedSInt32SizeNoTag(values));
+        final int[] array = values.array;
+        for (int i = 0; i < values.length; i++) {
+            pos = writeSInt32NoTag(buffer, pos, array[i]);
+        }
+        return pos;
+    }
+
+    /** Write a repeated (packed) {@code int64} field, excluding tag, to the array. */
+    public static int writePackedInt64NoTag(final byte[] buffer, final int position, final RepeatedLong values) {
+        int pos = writeLength(buffer, position, ProtoSink.computeRepeatedInt64SizeNoTag(values));
+        final long[] array = values.array;
+        for (int i = 0; i < values.length; i++) {
+            pos = writeUInt64NoTag(buffer, pos, array[i]);
+        }
+        return pos;
+    }
+
+    /** Write a repeated (packed) {@code uint64} field, excluding tag, to the array. */
+    public static int writePackedUInt64NoTag(final byte[] buffer, final int position, final RepeatedLong values) {
+        return writePackedInt64NoTag(buffer, position, values);
+    }
+
+    /** Write a repeated (packed) {@code sint64} field, excluding tag, to the array. */
+    public static int writePackedSInt64NoTag(final byte[] buffer, final int position, final RepeatedLong values) {
+        int pos = writeLength(buffer, position, ProtoSink.computeRepeatedSInt64SizeNoTag(values));
+        final long[] array = values.array;
+        for (int i = 0; i < values.length; i++) {
+            pos = writeSInt64NoTag(buffer, pos, array[i]);
+        }
+        return pos;
+    }
+
+    /**
+     * Checks the space for writes that are not bounds checked by the JVM, e.g., unsafe
+     * stores or bulk copies. Single byte stores get checked implicitly.
+     */
+    private static int require(final byte[] buffer, final int position, final int numBytes) throws OutOfSpaceException {
+        if (buffer.length - position < numBytes) {
+            throw new OutOfSpaceException(position, buffer.length);
+        }
+        return position;
+    }
+
+    private ArrayEncoder() {
+    }
+
+}
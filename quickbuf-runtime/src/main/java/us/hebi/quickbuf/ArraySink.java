@@ -97,6 +97,27 @@ class ArraySink extends ProtoSink {
         buffer[position++] = value;
     }
 
+    /**
+     * Writes a message through its generated array encoder. The encoder only
+     * checks the bounds of the array, so this is limited to outputs that extend
+     * to the end of the backing array.
+     *
+     * @return false if the message needs to be written through the regular methods
+     */
+    final boolean writeArrayEncoded(final ProtoMessage<?> message) throws IOException {
+        if (buffer == null || limit != buffer.length) {
+            return false;
+        }
+        try {
+            position = message.writeToArray(buffer, position);
+            return true;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            final OutOfSpaceException outOfSpaceException = outOfSpace();
+            outOfSpaceException.initCause(e);
+            throw outOfSpaceException;
+        }
+    }
+
     // ----------------- OVERRIDE METHODS -----------------
 
     @Override
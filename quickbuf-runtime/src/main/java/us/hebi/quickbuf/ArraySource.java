@@ -36,10 +36,12 @@ import static us.hebi.quickbuf.WireFormat.*;
 class ArraySource extends ProtoSource{
 
     private int bufferSizeAfterLimit;
+    private boolean enableAliasing = false;
     protected int offset;
     protected int limit;
     protected int position;
     protected byte[] buffer;
+    private ArrayDecoder decoder;
 
     @Override
     protected ProtoSource resetInternalState() {
@@ -78,7 +80,7 @@ class ArraySource extends ProtoSource{
     }
 
     @Override
-    public boolean isAtEnd() {
+    public boolean isAtEnd() throws IOException {
         return position == limit;
     }
 
@@ -183,6 +185,23 @@ class ArraySource extends ProtoSource{
         }
     }
 
+    /**
+     * Merges the fields of a message through its generated array decoder. The decoder
+     * can only access heap arrays, and it does not support filtering via projections.
+     * Sources that map data in windows need to use the regular methods.
+     *
+     * @return the first tag that needs to be handled by the regular methods
+     */
+    int mergeArrayDecoded(final ProtoMessage<?> message) throws IOException {
+        if (buffer == null || isProjected()) {
+            return readTag();
+        }
+        if (decoder == null) {
+            decoder = new ArrayDecoder(this);
+        }
+        return message.mergeFromArray(decoder, buffer, position, limit);
+    }
+
     // ----------------- OVERRIDE METHODS -----------------
 
     @Override
@@ -208,6 +227,32 @@ class ArraySource extends ProtoSource{
         return setInput(ProtoUtil.EMPTY_BYTE_ARRAY);
     }
 
+    @Override
+    public ProtoSource enableAliasing(boolean enabled) {
+        enableAliasing = enabled;
+        return this;
+    }
+
+    @Override
+    public void readString(final Utf8String store) throws IOException {
+        if (enableAliasing && buffer != null) {
+            final int length = readLength();
+            store.setAliasedContent(buffer, require(length), length);
+        } else {
+            super.readString(store);
+        }
+    }
+
+    @Override
+    public void readBytes(final RepeatedByte store) throws IOException {
+        if (enableAliasing && buffer != null) {
+            final int length = readLength();
+            store.setAliasedContent(buffer, require(length), length);
+        } else {
+            super.readBytes(store);
+        }
+    }
+
     @Override
     public void skipRawBytes(final int size) throws IOException {
         require(size);
@@ -221,6 +266,101 @@ class ArraySource extends ProtoSource{
         return buffer[position++];
     }
 
+    @Override
+    public int readRawVarint32() throws IOException {
+        if (ENABLE_UNSAFE_UNALIGNED && limit - position >= MAX_VARINT_SIZE) {
+            final byte first = buffer[position];
+            if (first >= 0) {
+                position++;
+                return first;
+            }
+            return (int) readRawVarint64Unaligned();
+        }
+        return super.readRawVarint32();
+    }
+
+    @Override
+    public long readRawVarint64() throws IOException {
+        if (ENABLE_UNSAFE_UNALIGNED && limit - position >= MAX_VARINT_SIZE) {
+            final byte first = buffer[position];
+            if (first >= 0) {
+                position++;
+                return first;
+            }
+            return readRawVarint64Unaligned();
+        }
+        return super.readRawVarint64();
+    }
+
+    /**
+     * Decodes a varint by loading 8 bytes at once and locating the terminating byte
+     * via the missing continuation bit. Only varints that are longer than 8 bytes
+     * get completed byte by byte. Requires at least 10 remaining bytes.
+     */
+    private long readRawVarint64Unaligned() throws IOException {
+        final int pos = position;
+        final long word = ByteUtil.readLittleEndian64(buffer, pos);
+        final long stopBits = ~word & ByteUtil.VARINT_CONTINUATION_BITS;
+        if (stopBits != 0) {
+            position = pos + ByteUtil.getVarintLength(stopBits);
+            return ByteUtil.compactVarint(word, stopBits);
+        }
+
+        final byte ninth = buffer[pos + 8];
+        final long value = ByteUtil.compactVarint(word, 0) | (ninth & 0x7FL) << 56;
+        if (ninth >= 0) {
+            position = pos + 9;
+            return value;
+        }
+        final byte last = buffer[pos + 9];
+        if (last < 0) {
+            throw InvalidProtocolBufferException.malformedVarint();
+        }
+        position = pos + 10;
+        return value | (long) last << 63;
+    }
+
+    /**
+     * Decodes all varints of a packed field in a tight loop that writes directly into the
+     * backing array of the store. Requires the entire payload to be available in the buffer.
+     */
+    @Override
+    protected void readRawVarint64s(final RepeatedLong store, final boolean zigZag) throws IOException {
+        if (ENABLE_UNSAFE_UNALIGNED && limit == currentLimit) {
+            final long address = address(position);
+            final int count = ByteUtil.countUnsafeVarints(buffer, address, limit - position);
+            if (count >= 0) {
+                final int offset = store.addLength(count);
+                final long end = address + limit - position;
+                ByteUtil.readUnsafeVarint64s(buffer, address, end, store.array, offset, count, zigZag);
+                position = limit;
+                return;
+            }
+        }
+        super.readRawVarint64s(store, zigZag);
+    }
+
+    @Override
+    protected void readRawVarint32s(final RepeatedInt store, final boolean zigZag) throws IOException {
+        if (ENABLE_UNSAFE_UNALIGNED && limit == currentLimit) {
+            final long address = address(position);
+            final int count = ByteUtil.countUnsafeVarints(buffer, address, limit - position);
+            if (count >= 0) {
+                final int offset = store.addLength(count);
+                final long end = address + limit - position;
+                ByteUtil.readUnsafeVarint32s(buffer, address, end, store.array, offset, count, zigZag);
+                position = limit;
+                return;
+            }
+        }
+        super.readRawVarint32s(store, zigZag);
+    }
+
+    /** @return address of the position that can be used with Unsafe */
+    long address(int position) {
+        return BYTE_ARRAY_OFFSET + position;
+    }
+
     @Override
     public short readRawLittleEndian16() throws IOException {
         return ByteUtil.readLittleEndian16(buffer, require(FIXED_16_SIZE));
@@ -291,7 +431,7 @@ class ArraySource extends ProtoSource{
      */
     static class DirectArraySource extends ArraySource {
 
-        private long baseOffset;
+        long baseOffset;
         Object gcRef;
 
         DirectArraySource() {
@@ -338,58 +478,127 @@ class ArraySource extends ProtoSource{
             return UNSAFE.getByte(buffer, baseOffset + position++);
         }
 
+        @Override
+        public int readRawVarint32() throws IOException {
+            if (ENABLE_UNSAFE_UNALIGNED && limit - position >= MAX_VARINT_SIZE) {
+                final byte first = UNSAFE.getByte(buffer, baseOffset + position);
+                if (first >= 0) {
+                    position++;
+                    return first;
+                }
+                return (int) readRawVarint64Unaligned();
+            }
+            return super.readRawVarint32();
+        }
+
+        @Override
+        public long readRawVarint64() throws IOException {
+            if (ENABLE_UNSAFE_UNALIGNED && limit - position >= MAX_VARINT_SIZE) {
+                final byte first = UNSAFE.getByte(buffer, baseOffset + position);
+                if (first >= 0) {
+                    position++;
+                    return first;
+                }
+                return readRawVarint64Unaligned();
+            }
+            return super.readRawVarint64();
+        }
+
+        @Override
+        long address(int position) {
+            return baseOffset + position;
+        }
+
+        /** See implementation notes in the heap array version */
+        private long readRawVarint64Unaligned() throws IOException {
+            final long address = baseOffset + position;
+            final long word = ByteUtil.readUnsafeLittleEndian64(buffer, address);
+            final long stopBits = ~word & ByteUtil.VARINT_CONTINUATION_BITS;
+            if (stopBits != 0) {
+                position += ByteUtil.getVarintLength(stopBits);
+                return ByteUtil.compactVarint(word, stopBits);
+            }
+
+            final byte ninth = UNSAFE.getByte(buffer, address + 8);
+            final long value = ByteUtil.compactVarint(word, 0) | (ninth & 0x7FL) << 56;
+            if (ninth >= 0) {
+                position += 9;
+                return value;
+            }
+            final byte last = UNSAFE.getByte(buffer, address + 9);
+            if (last < 0) {
+                throw InvalidProtocolBufferException.malformedVarint();
+            }
+            position += 10;
+            return value | (long) last << 63;
+        }
+
         @Override
         public short readRawLittleEndian16() throws IOException {
-            return ByteUtil.readUnsafeLittleEndian16(buffer, require(FIXED_16_SIZE));
+            final long address = require(FIXED_16_SIZE);
+            return ByteUtil.readUnsafeLittleEndian16(buffer, address);
         }
 
         @Override
         public int readRawLittleEndian32() throws IOException {
-            return ByteUtil.readUnsafeLittleEndian32(buffer, require(FIXED_32_SIZE));
+            final long address = require(FIXED_32_SIZE);
+            return ByteUtil.readUnsafeLittleEndian32(buffer, address);
         }
 
         @Override
         public long readRawLittleEndian64() throws IOException {
-            return ByteUtil.readUnsafeLittleEndian64(buffer, require(FIXED_64_SIZE));
+            final long address = require(FIXED_64_SIZE);
+            return ByteUtil.readUnsafeLittleEndian64(buffer, address);
         }
 
         @Override
         public float readFloat() throws IOException {
-            return ByteUtil.readUnsafeFloat(buffer, require(FIXED_32_SIZE));
+            final long address = require(FIXED_32_SIZE);
+            return ByteUtil.readUnsafeFloat(buffer, address);
         }
 
         @Override
         public double readDouble() throws IOException {
-            return ByteUtil.readUnsafeDouble(buffer, require(FIXED_64_SIZE));
+            final long address = require(FIXED_64_SIZE);
+            return ByteUtil.readUnsafeDouble(buffer, address);
         }
 
         @Override
         public void readRawBytes(byte[] values, int offset, int length) throws IOException {
             ProtoUtil.checkBounds(values, offset, length);
-            ByteUtil.readUnsafeBytes(buffer, require(length), values, offset, length);
+            final long address = require(length);
+            ByteUtil.readUnsafeBytes(buffer, address, values, offset, length);
         }
 
         @Override
         protected void readRawFixed32s(int[] values, int offset, int length) throws IOException {
-            ByteUtil.readUnsafeLittleEndian32s(buffer, require(length * FIXED_32_SIZE), values, offset, length);
+            final long address = require(length * FIXED_32_SIZE);
+            ByteUtil.readUnsafeLittleEndian32s(buffer, address, values, offset, length);
         }
 
         @Override
         protected void readRawFixed64s(long[] values, int offset, int length) throws IOException {
-            ByteUtil.readUnsafeLittleEndian64s(buffer, require(length * FIXED_64_SIZE), values, offset, length);
+            final long address = require(length * FIXED_64_SIZE);
+            ByteUtil.readUnsafeLittleEndian64s(buffer, address, values, offset, length);
         }
 
         @Override
         protected void readRawFloats(float[] values, int offset, int length) throws IOException {
-            ByteUtil.readUnsafeFloats(buffer, require(length * FIXED_32_SIZE), values, offset, length);
+            final long address = require(length * FIXED_32_SIZE);
+            ByteUtil.readUnsafeFloats(buffer, address, values, offset, length);
         }
 
         @Override
         protected void readRawDoubles(double[] values, int offset, int length) throws IOException {
-            ByteUtil.readUnsafeDoubles(buffer, require(length * FIXED_64_SIZE), values, offset, length);
+            final long address = require(length * FIXED_64_SIZE);
+            ByteUtil.readUnsafeDoubles(buffer, address, values, offset, length);
         }
 
-        /** moves forward by numBytes and returns the current address */
+        /**
+         * Moves forward by numBytes and returns the current address. Subclasses may
+         * change the buffer when ensuring that enough bytes are remaining, so this
+         * needs to be called before accessing the buffer.
+         */
         private long require(int numBytes) throws IOException {
             requireRemaining(numBytes);
             try {
@@ -0,0 +1,293 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+import static us.hebi.quickbuf.WireFormat.*;
+
+/**
+ * Sink that encodes into a reusable array and writes to an OutputStream
+ * whenever the array runs out of space or when it gets flushed explicitly.
+ * Writes that are larger than the buffer go directly to the stream.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+class BufferedStreamSink extends ProtoSink {
+
+    BufferedStreamSink(int bufferSize) {
+        checkArgument(bufferSize >= MIN_BUFFER_SIZE, "buffer size must be at least " + MIN_BUFFER_SIZE + " bytes");
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public ProtoSink setOutput(OutputStream outputStream) {
+        this.stream = checkNotNull(outputStream);
+        this.position = 0;
+        this.totalBytesFlushed = 0;
+        return this;
+    }
+
+    /**
+     * Removes the reference to the current stream. Bytes that have
+     * not been flushed yet are discarded.
+     */
+    @Override
+    public ProtoSink clear() {
+        return setOutput(EMPTY_OUTPUT_STREAM);
+    }
+
+    @Override
+    public int getTotalBytesWritten() {
+        return totalBytesFlushed + position;
+    }
+
+    /**
+     * Resets the counter for the total bytes written. This does not
+     * discard any buffered bytes.
+     */
+    @Override
+    public ProtoSink reset() {
+        totalBytesFlushed = -position;
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (position > 0) {
+            writeOutput(buffer, 0, position);
+            totalBytesFlushed += position;
+            position = 0;
+        }
+    }
+
+    @Override
+    public void writeRawByte(final byte value) throws IOException {
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = value;
+    }
+
+    @Override
+    public void writeUInt32NoTag(int value) throws IOException {
+        if (buffer.length - position < MAX_VARINT32_SIZE) {
+            flush();
+        }
+        while (true) {
+            if ((value & ~0x7F) == 0) {
+                buffer[position++] = (byte) value;
+                return;
+            } else {
+                buffer[position++] = (byte) (value | 0x80);
+                value >>>= 7;
+            }
+        }
+    }
+
+    @Override
+    public void writeUInt64NoTag(long value) throws IOException {
+        if (buffer.length - position < MAX_VARINT64_SIZE) {
+            flush();
+        }
+        while (true) {
+            if ((value & ~0x7FL) == 0) {
+                buffer[position++] = (byte) value;
+                return;
+            } else {
+                buffer[position++] = (byte) (((int) value) | 0x80);
+                value >>>= 7;
+            }
+        }
+    }
+
+    @Override
+    public void writeRawLittleEndian16(final short value) throws IOException {
+        ByteUtil.writeLittleEndian16(buffer, require(FIXED_16_SIZE), value);
+    }
+
+    @Override
+    public void writeRawLittleEndian32(final int value) throws IOException {
+        ByteUtil.writeLittleEndian32(buffer, require(FIXED_32_SIZE), value);
+    }
+
+    @Override
+    public void writeRawLittleEndian64(final long value) throws IOException {
+        ByteUtil.writeLittleEndian64(buffer, require(FIXED_64_SIZE), value);
+    }
+
+    @Override
+    public void writeFloatNoTag(final float value) throws IOException {
+        ByteUtil.writeFloat(buffer, require(FIXED_32_SIZE), value);
+    }
+
+    @Override
+    public void writeDoubleNoTag(final double value) throws IOException {
+        ByteUtil.writeDouble(buffer, require(FIXED_64_SIZE), value);
+    }
+
+    @Override
+    public void writeRawBytes(final byte[] value, int offset, int length) throws IOException {
+        if (length < buffer.length) {
+            ByteUtil.writeBytes(buffer, require(length), value, offset, length);
+        } else {
+            // Large payloads are not worth copying
+            ProtoUtil.checkBounds(value, offset, length);
+            flush();
+            writeOutput(value, offset, length);
+            totalBytesFlushed += length;
+        }
+    }
+
+    @Override
+    public void writeStringNoTag(final CharSequence value) throws IOException {
+        final int maxLength = value.length() * Utf8.MAX_UTF8_EXPANSION;
+        if (maxLength > buffer.length - MAX_VARINT32_SIZE) {
+            writeLargeStringNoTag(value);
+            return;
+        }
+        if (buffer.length - position < maxLength + MAX_VARINT32_SIZE) {
+            flush();
+        }
+
+        // See ArraySink::writeStringNoTag
+        final int maxLengthVarIntSize = computeRawVarint32Size(maxLength);
+        if (maxLengthVarIntSize == computeRawVarint32Size(value.length())) {
+            final int startPosition = position + maxLengthVarIntSize;
+            final int endPosition = Utf8.encodeArray(value, buffer, startPosition, buffer.length - startPosition);
+            writeUInt32NoTag(endPosition - startPosition);
+            position = endPosition;
+        } else {
+            writeUInt32NoTag(Utf8.encodedLength(value));
+            position = Utf8.encodeArray(value, buffer, position, buffer.length - position);
+        }
+    }
+
+    private void writeLargeStringNoTag(final CharSequence value) throws IOException {
+        // The worst case does not fit, so encode with the exact length
+        final int length = Utf8.encodedLength(value);
+        writeUInt32NoTag(length);
+        if (length > buffer.length) {
+            // Encode into a temporary array and write it with a single call
+            final byte[] bytes = new byte[length];
+            Utf8.encodeArray(value, bytes, 0, length);
+            flush();
+            writeOutput(bytes, 0, length);
+            totalBytesFlushed += length;
+            return;
+        }
+        if (buffer.length - position < length) {
+            flush();
+        }
+        position = Utf8.encodeArray(value, buffer, position, length);
+    }
+
+    @Override
+    protected void writeRawBooleans(final boolean[] values, final int length) throws IOException {
+        if (length <= buffer.length) {
+            ByteUtil.writeBooleans(buffer, require(length), values, length);
+        } else {
+            super.writeRawBooleans(values, length);
+        }
+    }
+
+    @Override
+    protected void writeRawFixed32s(final int[] values, final int length) throws IOException {
+        final int numBytes = length * FIXED_32_SIZE;
+        if (numBytes <= buffer.length) {
+            ByteUtil.writeLittleEndian32s(buffer, require(numBytes), values, length);
+        } else {
+            super.writeRawFixed32s(values, length);
+        }
+    }
+
+    @Override
+    protected void writeRawFixed64s(final long[] values, final int length) throws IOException {
+        final int numBytes = length * FIXED_64_SIZE;
+        if (numBytes <= buffer.length) {
+            ByteUtil.writeLittleEndian64s(buffer, require(numBytes), values, length);
+        } else {
+            super.writeRawFixed64s(values, length);
+        }
+    }
+
+    @Override
+    protected void writeRawFloats(final float[] values, final int length) throws IOException {
+        final int numBytes = length * FIXED_32_SIZE;
+        if (numBytes <= buffer.length) {
+            ByteUtil.writeFloats(buffer, require(numBytes), values, length);
+        } else {
+            super.writeRawFloats(values, length);
+        }
+    }
+
+    @Override
+    protected void writeRawDoubles(final double[] values, final int length) throws IOException {
+        final int numBytes = length * FIXED_64_SIZE;
+        if (numBytes <= buffer.length) {
+            ByteUtil.writeDoubles(buffer, require(numBytes), values, length);
+        } else {
+            super.writeRawDoubles(values, length);
+        }
+    }
+
+    /**
+     * Writes the contents of the internal buffer, or a large payload
+     * that bypasses the buffer, to the underlying output.
+     */
+    void writeOutput(final byte[] bytes, final int offset, final int length) throws IOException {
+        stream.write(bytes, offset, length);
+    }
+
+    /**
+     * Flushes the buffer if it can't fit numBytes, moves forward by
+     * numBytes and returns the current position. Must not be called
+     * with more bytes than the buffer can hold.
+     */
+    private int require(final int numBytes) throws IOException {
+        if (buffer.length - position < numBytes) {
+            flush();
+        }
+        try {
+            return position;
+        } finally {
+            position += numBytes;
+        }
+    }
+
+    final byte[] buffer;
+    int position;
+    private int totalBytesFlushed;
+    private OutputStream stream = EMPTY_OUTPUT_STREAM;
+
+    static final int DEFAULT_BUFFER_SIZE = 4096;
+    static final int MIN_BUFFER_SIZE = 2 * MAX_VARINT_SIZE;
+    private static final OutputStream EMPTY_OUTPUT_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            // do nothing
+        }
+    };
+
+}
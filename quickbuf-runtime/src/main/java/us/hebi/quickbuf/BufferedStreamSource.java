@@ -0,0 +1,467 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+import static us.hebi.quickbuf.WireFormat.*;
+
+/**
+ * Source that reads from an InputStream through a refillable window. Values
+ * are decoded directly from the window, so the stream only gets accessed
+ * when the buffered bytes run out.
+ * <p>
+ * Positions are tracked relative to the start of the stream. Bytes that
+ * were shifted out of the window are "retired" and can't be rewound to.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+class BufferedStreamSource extends ProtoSource {
+
+    BufferedStreamSource(int bufferSize) {
+        checkArgument(bufferSize >= MIN_BUFFER_SIZE, "buffer size must be at least " + MIN_BUFFER_SIZE + " bytes");
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public ProtoSource setInput(InputStream stream) {
+        this.input = checkNotNull(stream);
+        return resetInternalState();
+    }
+
+    @Override
+    protected ProtoSource resetInternalState() {
+        super.resetInternalState();
+        position = 0;
+        bufferSize = 0;
+        bufferSizeAfterLimit = 0;
+        totalBytesRetired = 0;
+        sizeLimit = NO_LIMIT;
+        return this;
+    }
+
+    @Override
+    public ProtoSource clear() {
+        return setInput(EMPTY_INPUT_STREAM);
+    }
+
+    @Override
+    public int setSizeLimit(final int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Size limit cannot be negative: " + limit);
+        }
+        final int oldLimit = sizeLimit;
+        sizeLimit = limit;
+        return oldLimit;
+    }
+
+    @Override
+    public ProtoSource resetSizeCounter() {
+        totalBytesRetired = -position;
+        return this;
+    }
+
+    @Override
+    public int pushLimit(int byteLimit) throws InvalidProtocolBufferException {
+        if (byteLimit < 0) {
+            throw InvalidProtocolBufferException.negativeSize();
+        }
+        byteLimit += totalBytesRetired + position;
+        if (byteLimit > currentLimit) {
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+        final int oldLimit = currentLimit;
+        currentLimit = byteLimit;
+        recomputeBufferSizeAfterLimit();
+        return oldLimit;
+    }
+
+    @Override
+    public void popLimit(final int oldLimit) {
+        currentLimit = oldLimit;
+        recomputeBufferSizeAfterLimit();
+    }
+
+    private void recomputeBufferSizeAfterLimit() {
+        bufferSize += bufferSizeAfterLimit;
+        final int bufferEnd = totalBytesRetired + bufferSize;
+        if (bufferEnd > currentLimit) {
+            // Limit is in current buffer.
+            bufferSizeAfterLimit = bufferEnd - currentLimit;
+            bufferSize -= bufferSizeAfterLimit;
+        } else {
+            // Limit is beyond bounds or not set
+            bufferSizeAfterLimit = 0;
+        }
+    }
+
+    @Override
+    public boolean isAtEnd() throws IOException {
+        if (position < bufferSize || tryRefillBuffer(1)) {
+            return false;
+        } else if (getBytesUntilLimit() > 0) {
+            // The stream ended before the end of the current message
+            checkStreamRemaining(1);
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+        return true;
+    }
+
+    @Override
+    public int getTotalBytesRead() {
+        return totalBytesRetired + position;
+    }
+
+    /**
+     * Rewinds to a position within the currently buffered window. Bytes that
+     * have already been discarded from the window can't be read again.
+     */
+    @Override
+    public void rewindTo(int totalBytesRead) {
+        final int newPosition = totalBytesRead - totalBytesRetired;
+        if (newPosition < 0 || newPosition > bufferSize) {
+            throw new IllegalArgumentException("position is outside of the buffered window");
+        }
+        this.position = newPosition;
+    }
+
+    @Override
+    protected void reservePackedVarintCapacity(RepeatedField<?, ?> store) throws IOException {
+        // The remaining varints can be counted without decoding if the limit is inside the window
+        if (store.remainingCapacity() == 0 && totalBytesRetired + bufferSize == currentLimit) {
+            int count = 0;
+            for (int i = position; i < bufferSize; i++) {
+                if (buffer[i] >= 0) {
+                    count++;
+                }
+            }
+            store.reserve(count);
+        }
+    }
+
+    // ----------------- OVERRIDE METHODS -----------------
+
+    @Override
+    public byte readRawByte() throws IOException {
+        if (position == bufferSize) {
+            refillBuffer(1);
+        }
+        return buffer[position++];
+    }
+
+    @Override
+    public int readRawVarint32() throws IOException {
+        if (bufferSize - position < MAX_VARINT_SIZE) {
+            return super.readRawVarint32();
+        }
+
+        // See ProtoSource::readRawVarint64 for implementation notes
+        final byte[] buffer = this.buffer;
+        int pos = position;
+        int x = buffer[pos++];
+        if (x >= 0) {
+            position = pos;
+            return x;
+        } else if ((x ^= (buffer[pos++] << 7)) < 0) {
+            x ^= xorBits7;
+        } else if ((x ^= (buffer[pos++] << 14)) >= 0) {
+            x ^= xorBits14;
+        } else if ((x ^= (buffer[pos++] << 21)) < 0) {
+            x ^= xorBits21;
+        } else {
+
+            // Discard upper 32 bits.
+            final int y = buffer[pos++];
+            if (y < 0
+                    && buffer[pos++] < 0
+                    && buffer[pos++] < 0
+                    && buffer[pos++] < 0
+                    && buffer[pos++] < 0
+                    && buffer[pos++] < 0) {
+                throw InvalidProtocolBufferException.malformedVarint();
+            }
+            x ^= (y << 28) ^ xorBits28;
+
+        }
+        position = pos;
+        return x;
+    }
+
+    @Override
+    public long readRawVarint64() throws IOException {
+        if (bufferSize - position < MAX_VARINT_SIZE) {
+            return super.readRawVarint64();
+        }
+
+        // See ProtoSource::readRawVarint64 for implementation notes
+        final byte[] buffer = this.buffer;
+        int pos = position;
+        int y;
+        long x;
+        if ((y = buffer[pos++]) >= 0) {
+            position = pos;
+            return y;
+        } else if ((y ^= (buffer[pos++] << 7)) < 0) {
+            x = y ^ xorBits7;
+        } else if ((y ^= (buffer[pos++] << 14)) >= 0) {
+            x = y ^ xorBits14;
+        } else if ((y ^= (buffer[pos++] << 21)) < 0) {
+            x = y ^ xorBits21;
+        } else if ((x = y ^ ((long) buffer[pos++] << 28)) >= 0L) {
+            x ^= xorBits28L;
+        } else if ((x ^= ((long) buffer[pos++] << 35)) < 0L) {
+            x ^= xorBits35L;
+        } else if ((x ^= ((long) buffer[pos++] << 42)) >= 0L) {
+            x ^= xorBits42L;
+        } else if ((x ^= ((long) buffer[pos++] << 49)) < 0L) {
+            x ^= xorBits49L;
+        } else {
+            x ^= ((long) buffer[pos++] << 56) ^ xorBits56L;
+            if (x < 0L) {
+                if (buffer[pos++] < 0) {
+                    throw InvalidProtocolBufferException.malformedVarint();
+                }
+            }
+        }
+        position = pos;
+        return x;
+    }
+
+    @Override
+    public short readRawLittleEndian16() throws IOException {
+        return ByteUtil.readLittleEndian16(buffer, require(FIXED_16_SIZE));
+    }
+
+    @Override
+    public int readRawLittleEndian32() throws IOException {
+        return ByteUtil.readLittleEndian32(buffer, require(FIXED_32_SIZE));
+    }
+
+    @Override
+    public long readRawLittleEndian64() throws IOException {
+        return ByteUtil.readLittleEndian64(buffer, require(FIXED_64_SIZE));
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return ByteUtil.readFloat(buffer, require(FIXED_32_SIZE));
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return ByteUtil.readDouble(buffer, require(FIXED_64_SIZE));
+    }
+
+    @Override
+    protected void readRawFixed32s(int[] values, int offset, int length) throws IOException {
+        final int numBytes = length * FIXED_32_SIZE;
+        if (numBytes <= bufferSize - position) {
+            ByteUtil.readLittleEndian32s(buffer, require(numBytes), values, offset, length);
+        } else {
+            super.readRawFixed32s(values, offset, length);
+        }
+    }
+
+    @Override
+    protected void readRawFixed64s(long[] values, int offset, int length) throws IOException {
+        final int numBytes = length * FIXED_64_SIZE;
+        if (numBytes <= bufferSize - position) {
+            ByteUtil.readLittleEndian64s(buffer, require(numBytes), values, offset, length);
+        } else {
+            super.readRawFixed64s(values, offset, length);
+        }
+    }
+
+    @Override
+    protected void readRawFloats(float[] values, int offset, int length) throws IOException {
+        final int numBytes = length * FIXED_32_SIZE;
+        if (numBytes <= bufferSize - position) {
+            ByteUtil.readFloats(buffer, require(numBytes), values, offset, length);
+        } else {
+            super.readRawFloats(values, offset, length);
+        }
+    }
+
+    @Override
+    protected void readRawDoubles(double[] values, int offset, int length) throws IOException {
+        final int numBytes = length * FIXED_64_SIZE;
+        if (numBytes <= bufferSize - position) {
+            ByteUtil.readDoubles(buffer, require(numBytes), values, offset, length);
+        } else {
+            super.readRawDoubles(values, offset, length);
+        }
+    }
+
+    @Override
+    public void readRawBytes(byte[] values, int offset, int length) throws IOException {
+        if (length < 0) {
+            throw InvalidProtocolBufferException.negativeSize();
+        } else if (length <= bufferSize - position) {
+            ByteUtil.readBytes(buffer, require(length), values, offset, length);
+        } else if (length <= buffer.length) {
+            refillBuffer(length);
+            ByteUtil.readBytes(buffer, require(length), values, offset, length);
+        } else {
+            // Copy the buffered bytes and read the remainder straight from the stream
+            checkStreamRemaining(length);
+            final int numBuffered = bufferSize - position;
+            ByteUtil.readBytes(buffer, position, values, offset, numBuffered);
+            int remaining = length - numBuffered;
+            offset += numBuffered;
+            discardBuffer();
+            while (remaining > 0) {
+                final int n = input.read(values, offset, remaining);
+                if (n == EOF) {
+                    throw InvalidProtocolBufferException.truncatedMessage();
+                }
+                offset += n;
+                remaining -= n;
+                totalBytesRetired += n;
+            }
+        }
+    }
+
+    @Override
+    public void skipRawBytes(final int size) throws IOException {
+        if (size < 0) {
+            throw InvalidProtocolBufferException.negativeSize();
+        } else if (size <= bufferSize - position) {
+            position += size;
+            return;
+        }
+
+        // Discard the buffered bytes and skip the remainder in the stream
+        checkStreamRemaining(size);
+        long remaining = size - (bufferSize - position);
+        discardBuffer();
+        while (remaining > 0) {
+            long n = input.skip(remaining);
+            if (n <= 0) {
+                // skip may not be supported or may not detect the end of the stream
+                n = input.read(buffer, 0, (int) Math.min(remaining, buffer.length));
+                if (n == EOF) {
+                    throw InvalidProtocolBufferException.truncatedMessage();
+                }
+            }
+            remaining -= n;
+            totalBytesRetired += (int) n;
+        }
+    }
+
+    /** moves forward by numBytes and returns the current position */
+    private int require(final int numBytes) throws IOException {
+        if (numBytes > bufferSize - position) {
+            refillBuffer(numBytes);
+        }
+        try {
+            return position;
+        } finally {
+            position += numBytes;
+        }
+    }
+
+    /**
+     * Makes sure that at least numBytes are available in the buffer. Must
+     * not be called with more bytes than the buffer can hold.
+     */
+    private void refillBuffer(final int numBytes) throws IOException {
+        if (!tryRefillBuffer(numBytes)) {
+            checkStreamRemaining(numBytes);
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+    }
+
+    /**
+     * Tries to make at least numBytes available in the buffer by moving the
+     * remaining bytes to the front and reading more data from the stream.
+     *
+     * @return false if the end of the stream or a limit was reached first
+     */
+    private boolean tryRefillBuffer(final int numBytes) throws IOException {
+        final int totalBytesRead = totalBytesRetired + position;
+        if (numBytes > currentLimit - totalBytesRead || numBytes > sizeLimit - totalBytesRead) {
+            return false;
+        }
+
+        // The limit is beyond the end of the window, so there are no bytes after the limit
+        if (position > 0) {
+            final int numBuffered = bufferSize - position;
+            System.arraycopy(buffer, position, buffer, 0, numBuffered);
+            totalBytesRetired += position;
+            bufferSize = numBuffered;
+            position = 0;
+        }
+
+        // Read as much as is available without exceeding the size limit
+        do {
+            final int maxBytes = Math.min(buffer.length - bufferSize, sizeLimit - (totalBytesRetired + bufferSize));
+            final int n = input.read(buffer, bufferSize, maxBytes);
+            if (n == EOF) {
+                return false;
+            }
+            bufferSize += n;
+        } while (bufferSize < numBytes);
+
+        recomputeBufferSizeAfterLimit();
+        return true;
+    }
+
+    /**
+     * Checks whether reading numBytes would exceed either the current
+     * limit or the size limit.
+     */
+    private void checkStreamRemaining(final int numBytes) throws IOException {
+        final int totalBytesRead = totalBytesRetired + position;
+        if (numBytes > sizeLimit - totalBytesRead) {
+            throw InvalidProtocolBufferException.sizeLimitExceeded();
+        } else if (numBytes > currentLimit - totalBytesRead) {
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+    }
+
+    /**
+     * Drops all buffered bytes. Only valid if the limit is beyond
+     * the end of the window.
+     */
+    private void discardBuffer() {
+        totalBytesRetired += bufferSize;
+        bufferSize = 0;
+        position = 0;
+    }
+
+    private final byte[] buffer;
+    private int position;
+    private int bufferSize;
+    private int bufferSizeAfterLimit;
+    private int totalBytesRetired;
+    private int sizeLimit = NO_LIMIT;
+    private InputStream input = EMPTY_INPUT_STREAM;
+
+    static final int DEFAULT_BUFFER_SIZE = 4096;
+    static final int MIN_BUFFER_SIZE = 2 * MAX_VARINT_SIZE;
+    private static final InputStream EMPTY_INPUT_STREAM = new ByteArrayInputStream(ProtoUtil.EMPTY_BYTE_ARRAY);
+    private static final int EOF = -1;
+
+}
@@ -220,6 +220,144 @@ final class ByteUtil {
         }
     }
 
+    /**
+     * Returns the number of bytes up to and including the first byte without a
+     * continuation bit in a little endian word of varint bytes.
+     *
+     * @param stopBits continuation bits that are not set, i.e., {@code ~word & VARINT_CONTINUATION_BITS}
+     */
+    static int getVarintLength(long stopBits) {
+        return (Long.numberOfTrailingZeros(stopBits) + 1) >>> 3;
+    }
+
+    /**
+     * Compacts the 7 bit groups of a varint that was loaded as a little endian word.
+     * Bytes after the first byte without continuation bit are ignored. A stopBits
+     * value of zero decodes all 8 bytes.
+     *
+     * @param stopBits continuation bits that are not set, i.e., {@code ~word & VARINT_CONTINUATION_BITS}
+     */
+    static long compactVarint(long word, long stopBits) {
+        long x = word & (stopBits ^ (stopBits - 1)) & ~VARINT_CONTINUATION_BITS;
+        x = (x & 0x007F007F007F007FL) | ((x & 0x7F007F007F007F00L) >>> 1);
+        x = (x & 0x00003FFF00003FFFL) | ((x & 0x3FFF00003FFF0000L) >>> 2);
+        return (x & 0x000000000FFFFFFFL) | ((x & 0x0FFFFFFF00000000L) >>> 4);
+    }
+
+    static final long VARINT_CONTINUATION_BITS = 0x8080808080808080L;
+
+    /**
+     * Counts the varints in a range by counting the bytes without continuation bit.
+     *
+     * @return number of varints, or -1 if the last varint does not terminate within the range
+     */
+    static int countUnsafeVarints(byte[] buffer, long offset, int length) {
+        if (length == 0) {
+            return 0;
+        } else if (UNSAFE.getByte(buffer, offset + length - 1) < 0) {
+            return -1;
+        }
+        int count = 0;
+        final long end = offset + length;
+        for (; end - offset >= FIXED_64_SIZE; offset += FIXED_64_SIZE) {
+            count += Long.bitCount(~readUnsafeLittleEndian64(buffer, offset) & VARINT_CONTINUATION_BITS);
+        }
+        for (; offset < end; offset++) {
+            count += ~UNSAFE.getByte(buffer, offset) >>> 31;
+        }
+        return count;
+    }
+
+    /**
+     * Decodes a range of varints that has been checked by {@link #countUnsafeVarints(byte[], long, int)}.
+     * Varints get loaded word-wise while there are at least 10 bytes left, and the remaining
+     * tail gets decoded byte by byte.
+     *
+     * @return offset after the last varint
+     */
+    static long readUnsafeVarint64s(byte[] buffer, long offset, long end, long[] dst, int dstOffset, int dstLength, boolean zigZag) throws IOException {
+        for (int i = dstOffset; i < dstOffset + dstLength; i++) {
+            long value;
+            if (end - offset >= MAX_VARINT_SIZE) {
+                final long word = readUnsafeLittleEndian64(buffer, offset);
+                final long stopBits = ~word & VARINT_CONTINUATION_BITS;
+                if (stopBits != 0) {
+                    offset += getVarintLength(stopBits);
+                    value = compactVarint(word, stopBits);
+                } else {
+                    final byte ninth = UNSAFE.getByte(buffer, offset + 8);
+                    value = compactVarint(word, 0) | (ninth & 0x7FL) << 56;
+                    if (ninth >= 0) {
+                        offset += 9;
+                    } else {
+                        final byte last = UNSAFE.getByte(buffer, offset + 9);
+                        if (last < 0) {
+                            throw InvalidProtocolBufferException.malformedVarint();
+                        }
+                        value |= (long) last << 63;
+                        offset += 10;
+                    }
+                }
+            } else {
+                value = 0;
+                byte b;
+                int shift = 0;
+                do {
+                    if (shift == 7 * MAX_VARINT_SIZE) {
+                        throw InvalidProtocolBufferException.malformedVarint();
+                    }
+                    b = UNSAFE.getByte(buffer, offset++);
+                    value |= (b & 0x7FL) << shift;
+                    shift += 7;
+                } while (b < 0);
+            }
+            dst[i] = zigZag ? ProtoSource.decodeZigZag64(value) : value;
+        }
+        return offset;
+    }
+
+    /**
+     * 32 bit version of {@link #readUnsafeVarint64s(byte[], long, long, long[], int, int, boolean)}. The
+     * upper bits of longer varints get discarded.
+     */
+    static long readUnsafeVarint32s(byte[] buffer, long offset, long end, int[] dst, int dstOffset, int dstLength, boolean zigZag) throws IOException {
+        for (int i = dstOffset; i < dstOffset + dstLength; i++) {
+            int value;
+            if (end - offset >= MAX_VARINT_SIZE) {
+                final long word = readUnsafeLittleEndian64(buffer, offset);
+                final long stopBits = ~word & VARINT_CONTINUATION_BITS;
+                if (stopBits != 0) {
+                    offset += getVarintLength(stopBits);
+                    value = (int) compactVarint(word, stopBits);
+                } else {
+                    // only the lower 32 bits are needed
+                    value = (int) compactVarint(word, 0);
+                    if (UNSAFE.getByte(buffer, offset + 8) >= 0) {
+                        offset += 9;
+                    } else if (UNSAFE.getByte(buffer, offset + 9) >= 0) {
+                        offset += 10;
+                    } else {
+                        throw InvalidProtocolBufferException.malformedVarint();
+                    }
+                }
+            } else {
+                value = 0;
+                byte b;
+                int shift = 0;
+                do {
+                    if (shift == 7 * MAX_VARINT_SIZE) {
+                        throw InvalidProtocolBufferException.malformedVarint();
+                    }
+                    b = UNSAFE.getByte(buffer, offset++);
+                    value |= shift < Integer.SIZE ? (b & 0x7F) << shift : 0;
+                    shift += 7;
+                } while (b < 0);
+            }
+            dst[i] = zigZag ? ProtoSource.decodeZigZag32(value) : value;
+        }
+        return offset;
+    }
+
     static short readLittleEndian16(byte[] buffer, int offset) {
         if (ENABLE_UNSAFE_UNALIGNED) {
             final short value = UNSAFE.getShort(buffer, BYTE_ARRAY_OFFSET + offset);
@@ -0,0 +1,245 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.util.zip.Checksum;
+
+import static us.hebi.quickbuf.ByteUtil.*;
+
+/**
+ * Incremental checksums that are used by the {@link HashingSink}.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+class Checksums {
+
+    /**
+     * Returns the JDK implementation of CRC32C on Java 9+ runtimes, which
+     * gets intrinsified to use the CPU's crc32 instructions. Older runtimes
+     * fall back to a table based implementation with the same results.
+     */
+    static Checksum newCrc32c() {
+        if (JDK_CRC32C != null) {
+            try {
+                return (Checksum) JDK_CRC32C.newInstance();
+            } catch (Exception e) {
+                // fall through
+            }
+        }
+        return new Crc32c();
+    }
+
+    static Checksum newXxHash64() {
+        return new XxHash64();
+    }
+
+    private static Class<?> loadJdkCrc32c() {
+        try {
+            return Class.forName("java.util.zip.CRC32C");
+        } catch (Throwable notAvailable) {
+            return null;
+        }
+    }
+
+    private static final Class<?> JDK_CRC32C = loadJdkCrc32c();
+
+    /**
+     * Byte-wise CRC32C (Castagnoli) for runtimes prior to Java 9
+     */
+    static class Crc32c implements Checksum {
+
+        @Override
+        public void update(int b) {
+            crc = (crc >>> 8) ^ TABLE[(crc ^ b) & 0xFF];
+        }
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            int crc = this.crc;
+            final int limit = offset + length;
+            for (int i = offset; i < limit; i++) {
+                crc = (crc >>> 8) ^ TABLE[(crc ^ bytes[i]) & 0xFF];
+            }
+            this.crc = crc;
+        }
+
+        @Override
+        public long getValue() {
+            return ~crc & 0xFFFFFFFFL;
+        }
+
+        @Override
+        public void reset() {
+            crc = 0xFFFFFFFF;
+        }
+
+        private int crc = 0xFFFFFFFF;
+
+        private static final int[] TABLE = new int[256];
+
+        static {
+            final int reversedPolynomial = 0x82F63B78;
+            for (int i = 0; i < TABLE.length; i++) {
+                int value = i;
+                for (int bit = 0; bit < 8; bit++) {
+                    value = (value & 1) != 0 ? (value >>> 1) ^ reversedPolynomial : value >>> 1;
+                }
+                TABLE[i] = value;
+            }
+        }
+
+    }
+
+    /**
+     * Streaming version of the 64-bit xxHash (XXH64) with a seed of zero. The
+     * input gets processed in stripes of 32 bytes, so partial stripes are kept
+     * in an internal buffer until more bytes arrive.
+     */
+    static class XxHash64 implements Checksum {
+
+        XxHash64() {
+            reset();
+        }
+
+        @Override
+        public void update(int b) {
+            stripe[stripeLength++] = (byte) b;
+            totalLength++;
+            if (stripeLength == STRIPE_SIZE) {
+                processStripe(stripe, 0);
+                stripeLength = 0;
+            }
+        }
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            ProtoUtil.checkBounds(bytes, offset, length);
+            totalLength += length;
+
+            // Complete a partial stripe from previous updates
+            if (stripeLength > 0) {
+                final int numBytes = Math.min(length, STRIPE_SIZE - stripeLength);
+                System.arraycopy(bytes, offset, stripe, stripeLength, numBytes);
+                stripeLength += numBytes;
+                offset += numBytes;
+                length -= numBytes;
+                if (stripeLength < STRIPE_SIZE) {
+                    return;
+                }
+                processStripe(stripe, 0);
+                stripeLength = 0;
+            }
+
+            // Process full stripes directly from the input
+            final int limit = offset + length - STRIPE_SIZE;
+            for (; offset <= limit; offset += STRIPE_SIZE) {
+                processStripe(bytes, offset);
+            }
+
+            // Keep the remainder for later
+            stripeLength = limit + STRIPE_SIZE - offset;
+            System.arraycopy(bytes, offset, stripe, 0, stripeLength);
+        }
+
+        private void processStripe(byte[] bytes, int offset) {
+            v1 = round(v1, readLittleEndian64(bytes, offset));
+            v2 = round(v2, readLittleEndian64(bytes, offset + 8));
+            v3 = round(v3, readLittleEndian64(bytes, offset + 16));
+            v4 = round(v4, readLittleEndian64(bytes, offset + 24));
+        }
+
+        @Override
+        public long getValue() {
+            long hash;
+            if (totalLength >= STRIPE_SIZE) {
+                hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+                hash = mergeRound(hash, v1);
+                hash = mergeRound(hash, v2);
+                hash = mergeRound(hash, v3);
+                hash = mergeRound(hash, v4);
+            } else {
+                hash = PRIME64_5;
+            }
+            hash += totalLength;
+
+            int i = 0;
+            for (; i <= stripeLength - 8; i += 8) {
+                hash ^= round(0, readLittleEndian64(stripe, i));
+                hash = Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+            }
+            if (i <= stripeLength - 4) {
+                hash ^= (readLittleEndian32(stripe, i) & 0xFFFFFFFFL) * PRIME64_1;
+                hash = Long.rotateLeft(hash, 23) * PRIME64_2 + PRIME64_3;
+                i += 4;
+            }
+            for (; i < stripeLength; i++) {
+                hash ^= (stripe[i] & 0xFFL) * PRIME64_5;
+                hash = Long.rotateLeft(hash, 11) * PRIME64_1;
+            }
+
+            hash ^= hash >>> 33;
+            hash *= PRIME64_2;
+            hash ^= hash >>> 29;
+            hash *= PRIME64_3;
+            hash ^= hash >>> 32;
+            return hash;
+        }
+
+        @Override
+        public void reset() {
+            v1 = PRIME64_1 + PRIME64_2;
+            v2 = PRIME64_2;
+            v3 = 0;
+            v4 = -PRIME64_1;
+            totalLength = 0;
+            stripeLength = 0;
+        }
+
+        private static long round(long acc, long input) {
+            acc += input * PRIME64_2;
+            acc = Long.rotateLeft(acc, 31);
+            return acc * PRIME64_1;
+        }
+
+        private static long mergeRound(long acc, long value) {
+            acc ^= round(0, value);
+            return acc * PRIME64_1 + PRIME64_4;
+        }
+
+        private long v1, v2, v3, v4;
+        private long totalLength;
+        private final byte[] stripe = new byte[STRIPE_SIZE];
+        private int stripeLength;
+
+        private static final int STRIPE_SIZE = 32;
+        private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+        private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+        private static final long PRIME64_3 = 0x165667B19E3779F9L;
+        private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+        private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    }
+
+    private Checksums() {
+    }
+
+}
@@ -0,0 +1,302 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+import static us.hebi.quickbuf.UnsafeAccess.*;
+
+/**
+ * Source that reads from a chain of {@link ByteBuffer} fragments as if they
+ * were a single contiguous buffer, e.g., a message that was received in
+ * multiple pooled network buffers. This avoids copying the fragments into
+ * a single array before parsing.
+ * <p>
+ * Values that lie entirely inside one fragment get decoded via the same fast
+ * path as {@link ProtoSource#newDirectSource()}. Only values that cross the end of a
+ * fragment get assembled in an internal scratch buffer. Fragments can be
+ * heap or direct buffers, and they get read between their position and
+ * limit without modifying either. The fragments must not be modified while
+ * they are being read, and the total size is limited to 2 GB.
+ * <p>
+ * Aliasing is not supported because values may span multiple fragments.
+ * This source requires availability of sun.misc.Unsafe.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class CompositeBufferSource extends ArraySource.DirectArraySource {
+
+    CompositeBufferSource() {
+        checkState(BufferAccess.isAvailable(), "native buffer access is disabled on this platform");
+    }
+
+    /**
+     * Changes the input to the given fragments and moves to the
+     * beginning of the first one.
+     *
+     * @param fragments buffers that get read in order
+     * @return this
+     */
+    public CompositeBufferSource setInput(ByteBuffer... fragments) {
+        return setInput(fragments, fragments.length);
+    }
+
+    /**
+     * Changes the input to the given fragments and moves to the
+     * beginning of the first one.
+     *
+     * @param fragments buffers that get read in order
+     * @return this
+     */
+    public CompositeBufferSource setInput(List<ByteBuffer> fragments) {
+        return setInput(fragments.toArray(new ByteBuffer[fragments.size()]));
+    }
+
+    private CompositeBufferSource setInput(final ByteBuffer[] fragments, final int count) {
+        if (count + 1 > starts.length) {
+            final int capacity = count + 1;
+            gcRefs = new ByteBuffer[capacity];
+            arrays = new byte[capacity][];
+            addresses = new long[capacity];
+            starts = new int[capacity];
+        }
+
+        long totalLength = 0;
+        for (int i = 0; i < count; i++) {
+            final ByteBuffer fragment = checkNotNull(fragments[i]);
+            if (fragment.hasArray()) {
+                arrays[i] = fragment.array();
+                addresses[i] = BYTE_ARRAY_OFFSET + fragment.arrayOffset() + fragment.position();
+            } else if (fragment.isDirect()) {
+                arrays[i] = null;
+                addresses[i] = BufferAccess.address(fragment) + fragment.position();
+            } else {
+                // read-only heap array
+                arrays[i] = BufferAccess.array(fragment);
+                addresses[i] = BYTE_ARRAY_OFFSET + BufferAccess.arrayOffset(fragment) + fragment.position();
+            }
+            gcRefs[i] = fragment; // keep native memory from being garbage collected
+            starts[i] = (int) totalLength;
+            totalLength += fragment.remaining();
+            checkArgument(totalLength <= Integer.MAX_VALUE, "fragments exceed the maximum size of 2 GB");
+        }
+        Arrays.fill(gcRefs, count, gcRefs.length, null);
+        Arrays.fill(arrays, count, arrays.length, null);
+
+        this.numFragments = count;
+        this.totalLength = (int) totalLength;
+        starts[count] = this.totalLength;
+
+        resetInternalState();
+        this.position = this.offset = 0;
+        this.fragmentIndex = 0;
+        updateWindow();
+        return this;
+    }
+
+    @Override
+    public ProtoSource setInput(byte[] buffer, long offset, int length) {
+        if (buffer == null) {
+            throw new UnsupportedOperationException("CompositeBufferSource can only read from ByteBuffers");
+        }
+        return setInput(ByteBuffer.wrap(buffer, (int) offset, length));
+    }
+
+    @Override
+    public ProtoSource setInput(ByteBuffer buffer) {
+        return setInput(new ByteBuffer[]{buffer}, 1);
+    }
+
+    /**
+     * Removes the references to all fragments
+     */
+    @Override
+    public CompositeBufferSource clear() {
+        return setInput(EMPTY_FRAGMENTS, 0);
+    }
+
+    @Override
+    public ProtoSource enableAliasing(boolean enabled) {
+        return this; // not supported
+    }
+
+    @Override
+    public int pushLimit(int byteLimit) throws InvalidProtocolBufferException {
+        if (byteLimit < 0) {
+            throw InvalidProtocolBufferException.negativeSize();
+        }
+        byteLimit += position;
+        if (byteLimit > Math.min(currentLimit, totalLength) || byteLimit < 0) {
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+        final int oldLimit = currentLimit;
+        currentLimit = byteLimit;
+        limit = Math.min(windowEnd, currentLimit);
+        return oldLimit;
+    }
+
+    @Override
+    public void popLimit(final int oldLimit) {
+        currentLimit = oldLimit;
+        limit = Math.min(windowEnd, currentLimit);
+    }
+
+    @Override
+    public boolean isAtEnd() throws IOException {
+        if (position == limit && limit < currentLimit) {
+            updateWindow();
+        }
+        return position == limit;
+    }
+
+    @Override
+    int mergeArrayDecoded(final ProtoMessage<?> message) throws IOException {
+        // The limit may only be the end of the current window
+        return readTag();
+    }
+
+    @Override
+    public void rewindTo(int position) {
+        if (position < 0 || position > Math.min(currentLimit, totalLength)) {
+            throw new IllegalArgumentException("position out of bounds");
+        }
+        this.position = position;
+        updateWindow();
+    }
+
+    @Override
+    public void skipRawBytes(final int size) throws IOException {
+        if (size > limit - position && size >= 0 && size <= getBytesUntilEnd()) {
+            // Move past the seams without copying the skipped bytes
+            position += size;
+            updateWindow();
+            return;
+        }
+        super.skipRawBytes(size);
+    }
+
+    @Override
+    public byte readRawByte() throws IOException {
+        if (position == limit) {
+            requireRemaining(1);
+        }
+        return super.readRawByte();
+    }
+
+    @Override
+    public void readRawBytes(byte[] values, int offset, int length) throws IOException {
+        if (length > limit - position && length >= 0 && length <= getBytesUntilEnd()) {
+            // Copy each fragment directly rather than assembling it in the scratch buffer
+            ProtoUtil.checkBounds(values, offset, length);
+            copyFragments(position, values, offset, length);
+            position += length;
+            updateWindow();
+            return;
+        }
+        super.readRawBytes(values, offset, length);
+    }
+
+    @Override
+    protected void requireRemaining(final int numBytes) throws IOException {
+        if (numBytes > limit - position && numBytes <= getBytesUntilEnd()) {
+            updateWindow();
+            if (numBytes > limit - position) {
+                gatherSeam(numBytes);
+            }
+        }
+        super.requireRemaining(numBytes);
+    }
+
+    /**
+     * Copies a value that crosses the end of a fragment into the scratch buffer
+     * and points the window at it. The window moves back to the fragments once
+     * the value has been read.
+     */
+    private void gatherSeam(final int numBytes) {
+        if (scratch.length < numBytes) {
+            scratch = new byte[Math.max(numBytes, 2 * scratch.length)];
+        }
+        copyFragments(position, scratch, 0, numBytes);
+        buffer = scratch;
+        baseOffset = BYTE_ARRAY_OFFSET - position;
+        windowEnd = position + numBytes;
+        limit = Math.min(windowEnd, currentLimit);
+    }
+
+    private void copyFragments(int position, final byte[] dst, int dstOffset, int length) {
+        int i = fragmentIndex;
+        while (i > 0 && position < starts[i]) {
+            i--;
+        }
+        while (length > 0) {
+            while (position >= starts[i + 1]) {
+                i++;
+            }
+            final int n = Math.min(length, starts[i + 1] - position);
+            ByteUtil.readUnsafeBytes(arrays[i], addresses[i] + position - starts[i], dst, dstOffset, n);
+            position += n;
+            dstOffset += n;
+            length -= n;
+        }
+    }
+
+    private int getBytesUntilEnd() {
+        return Math.min(currentLimit, totalLength) - position;
+    }
+
+    /**
+     * Points the readable window at the fragment that contains the current
+     * position. Empty fragments get skipped.
+     */
+    private void updateWindow() {
+        int i = fragmentIndex;
+        while (i > 0 && position < starts[i]) {
+            i--;
+        }
+        while (i < numFragments - 1 && position >= starts[i + 1]) {
+            i++;
+        }
+        fragmentIndex = i;
+        buffer = arrays[i];
+        baseOffset = addresses[i] - starts[i];
+        windowEnd = numFragments == 0 ? 0 : starts[i + 1];
+        limit = Math.min(windowEnd, currentLimit);
+    }
+
+    private ByteBuffer[] gcRefs = new ByteBuffer[1];
+    private byte[][] arrays = new byte[1][];
+    private long[] addresses = new long[1];
+    private int[] starts = new int[1];
+    private int numFragments;
+    private int totalLength;
+
+    private int fragmentIndex;
+    private int windowEnd;
+    private byte[] scratch = new byte[16];
+
+    private static final ByteBuffer[] EMPTY_FRAGMENTS = new ByteBuffer[0];
+
+}
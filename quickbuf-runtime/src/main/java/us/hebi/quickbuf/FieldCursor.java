@@ -0,0 +1,309 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+
+import static us.hebi.quickbuf.MessageView.*;
+
+/**
+ * Iterates over the elements of a repeated field of a {@link MessageView}. Packed and
+ * unpacked elements are returned in the order in which they appear in the bytes. The
+ * value of the current element can be read with the read method that matches the type
+ * of the field, e.g.,
+ * <pre>{@code
+ * FieldCursor cursor = view.getRepeatedInt32Cursor();
+ * while (cursor.next()) {
+ *     sum += cursor.readInt32();
+ * }
+ * }</pre>
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class FieldCursor {
+
+    FieldCursor() {
+    }
+
+    FieldCursor reset(MessageView<?> view, int tag, boolean packable) {
+        this.source = view.source;
+        this.starts = view.starts;
+        this.ends = view.ends;
+        this.numRegions = view.numRegions;
+        this.region = 0;
+        this.tag = tag;
+        this.packable = packable;
+        this.scanPosition = starts[0];
+        this.element = NO_ELEMENT;
+        this.packedEnd = NO_ELEMENT;
+        return this;
+    }
+
+    /**
+     * Moves to the next element
+     *
+     * @return false if there are no more elements
+     */
+    public boolean next() {
+        try {
+            // Skip the current element
+            if (element != NO_ELEMENT) {
+                source.rewindTo(element);
+                source.skipField(tag);
+                element = NO_ELEMENT;
+                if (packedEnd != NO_ELEMENT) {
+                    if (source.getTotalBytesRead() < packedEnd) {
+                        element = source.getTotalBytesRead();
+                        return true;
+                    }
+                    scanPosition = packedEnd;
+                    packedEnd = NO_ELEMENT;
+                } else {
+                    scanPosition = source.getTotalBytesRead();
+                }
+            }
+
+            // Find the next matching tag in the remaining regions
+            for (; region < numRegions; region++) {
+                if (findNextTag()) {
+                    return true;
+                }
+                if (region + 1 < numRegions) {
+                    scanPosition = starts[region + 1];
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    private boolean findNextTag() throws IOException {
+        source.rewindTo(scanPosition);
+        final int end = ends[region];
+        final int oldLimit = pushLimit(source, end);
+        try {
+            int tag;
+            while ((tag = source.readTag()) != 0) {
+                if (tag == this.tag) {
+                    element = source.getTotalBytesRead();
+                    return true;
+                }
+                if (packable && tag == packedTag()) {
+                    final int length = source.readLength();
+                    if (length > 0) {
+                        element = source.getTotalBytesRead();
+                        packedEnd = element + length;
+                        return true;
+                    }
+                    continue;
+                }
+                if (!source.skipField(tag)) {
+                    break; // end group
+                }
+            }
+            scanPosition = source.getTotalBytesRead();
+            return false;
+        } finally {
+            popLimit(source, end, oldLimit);
+        }
+    }
+
+    private int packedTag() {
+        return WireFormat.makeTag(WireFormat.getTagFieldNumber(tag), WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    }
+
+    private ProtoSource seek() {
+        if (element == NO_ELEMENT) {
+            throw new IllegalStateException("No current element. Call next() before reading.");
+        }
+        source.rewindTo(element);
+        return source;
+    }
+
+    public double readDouble() {
+        try {
+            return seek().readDouble();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public float readFloat() {
+        try {
+            return seek().readFloat();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public long readInt64() {
+        try {
+            return seek().readInt64();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public long readUInt64() {
+        try {
+            return seek().readUInt64();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public long readSInt64() {
+        try {
+            return seek().readSInt64();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public long readFixed64() {
+        try {
+            return seek().readFixed64();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public long readSFixed64() {
+        try {
+            return seek().readSFixed64();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public int readInt32() {
+        try {
+            return seek().readInt32();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public int readUInt32() {
+        try {
+            return seek().readUInt32();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public int readSInt32() {
+        try {
+            return seek().readSInt32();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public int readFixed32() {
+        try {
+            return seek().readFixed32();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public int readSFixed32() {
+        try {
+            return seek().readSFixed32();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    /**
+     * @return the numeric wire value of the enum
+     */
+    public int readEnum() {
+        try {
+            return seek().readEnum();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public boolean readBool() {
+        try {
+            return seek().readBool();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public Utf8String readString(Utf8String store) {
+        try {
+            seek().readString(store);
+            return store;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    public RepeatedByte readBytes(RepeatedByte store) {
+        try {
+            seek().readBytes(store);
+            return store;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    /**
+     * Wraps the current element of a repeated message or group field
+     *
+     * @param view view of the message type of the field
+     * @return the view
+     */
+    public <V extends MessageView<V>> V readMessage(V view) {
+        try {
+            final ProtoSource source = seek();
+            if (WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_START_GROUP) {
+                return view.wrapRegion(source, element, UNKNOWN_END);
+            }
+            final int length = source.readLength();
+            final int position = source.getTotalBytesRead();
+            return view.wrapRegion(source, position, position + length);
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    private ProtoSource source;
+    private int[] starts;
+    private int[] ends;
+    private int numRegions;
+    private int region;
+    private int tag;
+    private boolean packable;
+    private int scanPosition;
+    private int element;
+    private int packedEnd;
+
+    private static final int NO_ELEMENT = -1;
+
+}
@@ -0,0 +1,272 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+
+/**
+ * Records the position of every top-level field in a serialized message, so that
+ * individual fields can be decoded on demand without parsing the entire message.
+ * This is useful when only a few fields of many stored messages are of interest.
+ * <p>
+ * Indexing scans the tags once and skips over all values. Each entry stores the tag,
+ * the offset of the value (i.e. the position after the tag), and the encoded length of
+ * the value. The value of delimited fields includes the length prefix, so the source
+ * returned by {@link #seek(int)} can be read with the regular read methods, e.g.,
+ * {@code index.seek(entry).readMessage(msg)}. Repeated fields have one entry per
+ * occurrence, or one entry per packed block.
+ * <p>
+ * Nested messages and groups can be indexed via {@link #index(FieldIndex, int)}, which
+ * shares the source of the outer index. Instances are reusable and don't allocate once
+ * the internal arrays are large enough.
+ * <pre>{@code
+ * FieldIndex index = FieldIndex.newInstance().index(bytes);
+ * int entry = index.lastIndexOf(fieldNumber);
+ * if (entry >= 0) {
+ *     long value = index.seek(entry).readInt64();
+ * }
+ * }</pre>
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class FieldIndex {
+
+    public static FieldIndex newInstance() {
+        return new FieldIndex();
+    }
+
+    private FieldIndex() {
+    }
+
+    /**
+     * Indexes a serialized message. The array must not be modified while the index is in use.
+     *
+     * @return this
+     */
+    public FieldIndex index(byte[] bytes) throws IOException {
+        return index(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Indexes a serialized message. The array must not be modified while the index is in use.
+     *
+     * @return this
+     */
+    public FieldIndex index(byte[] bytes, int offset, int length) throws IOException {
+        if (ownedSource == null) {
+            ownedSource = ProtoSource.newArraySource();
+        }
+        ownedSource.setInput(bytes, offset, length);
+        return index(ownedSource);
+    }
+
+    /**
+     * Indexes the remaining input of a source, e.g., a direct source that reads from
+     * off-heap memory, until the end of the input or the current limit. The source needs
+     * to support {@link ProtoSource#rewindTo(int)}, and it must not be modified while the
+     * index is in use.
+     *
+     * @return this
+     * @throws InvalidProtocolBufferException if the input contains an unmatched end group tag
+     */
+    public FieldIndex index(ProtoSource source) throws IOException {
+        return index(checkNotNull(source), 0);
+    }
+
+    /**
+     * Indexes fields until the expected end group tag, or until the end of the
+     * input if the expected tag is zero.
+     */
+    private FieldIndex index(ProtoSource source, int endGroupTag) throws IOException {
+        this.source = source;
+        size = 0;
+        int tag;
+        while ((tag = source.readTag()) != 0) {
+            if (WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_END_GROUP) {
+                break;
+            }
+            final int offset = source.getTotalBytesRead();
+            source.skipField(tag);
+            add(tag, offset, source.getTotalBytesRead() - offset);
+        }
+        if (tag != endGroupTag) {
+            throw InvalidProtocolBufferException.invalidEndTag();
+        }
+        return this;
+    }
+
+    /**
+     * Indexes the content of a nested message or group of another index. Both indices
+     * share the same source.
+     *
+     * @param parent index that contains the nested field
+     * @param entry  entry of the nested field in the parent index
+     * @return this
+     */
+    public FieldIndex index(FieldIndex parent, int entry) throws IOException {
+        final ProtoSource source = parent.seek(entry);
+        switch (parent.getWireType(entry)) {
+            case WireFormat.WIRETYPE_LENGTH_DELIMITED:
+                final int oldLimit = source.pushLimit(source.readLength());
+                try {
+                    return index(source, 0);
+                } finally {
+                    source.popLimit(oldLimit);
+                }
+            case WireFormat.WIRETYPE_START_GROUP:
+                final int fieldNumber = parent.getFieldNumber(entry);
+                return index(source, WireFormat.makeTag(fieldNumber, WireFormat.WIRETYPE_END_GROUP));
+            default:
+                throw new IllegalArgumentException("Entry " + entry + " is not a message or group");
+        }
+    }
+
+    /**
+     * Positions the source at the value of the entry
+     *
+     * @return the source of the indexed message
+     */
+    public ProtoSource seek(int entry) {
+        checkEntry(entry);
+        source.rewindTo(offsets[entry]);
+        return source;
+    }
+
+    /**
+     * @return the number of indexed fields
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getTag(int entry) {
+        checkEntry(entry);
+        return tags[entry];
+    }
+
+    public int getFieldNumber(int entry) {
+        return WireFormat.getTagFieldNumber(getTag(entry));
+    }
+
+    public int getWireType(int entry) {
+        return WireFormat.getTagWireType(getTag(entry));
+    }
+
+    /**
+     * @return the position of the value relative to the start of the source
+     */
+    public int getOffset(int entry) {
+        checkEntry(entry);
+        return offsets[entry];
+    }
+
+    /**
+     * @return the number of bytes of the encoded value, including the length prefix
+     * of delimited fields and the end tag of groups
+     */
+    public int getLength(int entry) {
+        checkEntry(entry);
+        return lengths[entry];
+    }
+
+    /**
+     * @return the first entry with the field number, or -1 if the field is not present
+     */
+    public int indexOf(int fieldNumber) {
+        return nextIndexOf(fieldNumber, 0);
+    }
+
+    /**
+     * @return the first entry at or after fromEntry with the field number, or -1
+     */
+    public int nextIndexOf(int fieldNumber, int fromEntry) {
+        for (int i = Math.max(fromEntry, 0); i < size; i++) {
+            if (WireFormat.getTagFieldNumber(tags[i]) == fieldNumber) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the last entry with the field number. Singular fields that occur
+     * multiple times get merged, so the last occurrence holds the effective value
+     * of scalar fields.
+     *
+     * @return the last entry with the field number, or -1 if the field is not present
+     */
+    public int lastIndexOf(int fieldNumber) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (WireFormat.getTagFieldNumber(tags[i]) == fieldNumber) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes all entries and the reference to the source
+     *
+     * @return this
+     */
+    public FieldIndex clear() {
+        size = 0;
+        source = null;
+        if (ownedSource != null) {
+            ownedSource.setInput(EMPTY_BYTE_ARRAY);
+        }
+        return this;
+    }
+
+    private void add(int tag, int offset, int length) {
+        if (size == tags.length) {
+            final int capacity = Math.max(MIN_CAPACITY, size * 2);
+            tags = Arrays.copyOf(tags, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        tags[size] = tag;
+        offsets[size] = offset;
+        lengths[size] = length;
+        size++;
+    }
+
+    private void checkEntry(int entry) {
+        if (entry < 0 || entry >= size) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+    }
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int[] EMPTY_ARRAY = new int[0];
+
+    private ProtoSource source;
+    private ProtoSource ownedSource;
+    private int size;
+    private int[] tags = EMPTY_ARRAY;
+    private int[] offsets = EMPTY_ARRAY;
+    private int[] lengths = EMPTY_ARRAY;
+
+}
@@ -0,0 +1,185 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.util.Arrays;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+
+/**
+ * Selection of field numbers that should be parsed by a {@link ProtoSource}. All
+ * other fields get skipped without being decoded, so they remain unset and they
+ * don't end up in the unknown bytes. This can speed up reading wide messages
+ * when only a small subset of the fields is needed.
+ * <p>
+ * Paths select fields of nested messages, e.g., {@code include(3, 1)} selects
+ * field 1 inside the message stored in field 3. Message fields that are included
+ * without a nested path get parsed completely. Projections are immutable once
+ * they are in use and can be shared between sources.
+ *
+ * <pre>{@code
+ * FieldProjection projection = FieldProjection.newInstance()
+ *         .include(1)
+ *         .include(3, 1)
+ *         .include(3, 2);
+ * msg.clearQuick().mergeFrom(source.setInput(data).setProjection(projection));
+ * }</pre>
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class FieldProjection {
+
+    public static FieldProjection newInstance() {
+        return new FieldProjection();
+    }
+
+    private FieldProjection() {
+    }
+
+    /**
+     * Selects the field at the end of the given path of field numbers. All
+     * fields along the path get selected as well.
+     *
+     * @param path field numbers starting at the top level message
+     * @return this
+     */
+    public FieldProjection include(int... path) {
+        checkArgument(path.length > 0, "path must not be empty");
+        FieldProjection projection = this;
+        for (int i = 0; i < path.length; i++) {
+            final int fieldNumber = path[i];
+            checkArgument(fieldNumber > 0 && fieldNumber <= MAX_FIELD_NUMBER, "invalid field number");
+            final boolean isLeaf = i == path.length - 1;
+            projection = projection.select(fieldNumber, isLeaf);
+            if (projection == null) {
+                return this; // already includes the entire sub-message
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return true if the field with the given number is selected
+     */
+    public boolean isIncluded(int fieldNumber) {
+        if (fieldNumber < 64) {
+            return fieldNumber >= 0 && (lowBits & (1L << fieldNumber)) != 0;
+        }
+        return indexOf(fieldNumber) >= 0;
+    }
+
+    /**
+     * Checks whether a tag needs to be parsed. End group tags
+     * are always selected so that groups get terminated.
+     */
+    boolean isSelected(final int tag) {
+        final int fieldNumber = tag >>> 3;
+        if (fieldNumber < 64) {
+            return (lowBits & (1L << fieldNumber)) != 0 || (tag & 0x7) == WireFormat.WIRETYPE_END_GROUP;
+        }
+        return indexOf(fieldNumber) >= 0 || (tag & 0x7) == WireFormat.WIRETYPE_END_GROUP;
+    }
+
+    /**
+     * @return projection for the message in the given field, or null if all nested fields are selected
+     */
+    FieldProjection getNested(final int fieldNumber) {
+        if (numNested == 0) {
+            return null;
+        }
+        final int index = indexOf(fieldNumber);
+        return index < 0 ? null : nested[index];
+    }
+
+    private FieldProjection select(final int fieldNumber, final boolean isLeaf) {
+        int index = indexOf(fieldNumber);
+        final boolean wasIncluded = index >= 0;
+        if (!wasIncluded) {
+            index = insert(-(index + 1), fieldNumber);
+        }
+
+        FieldProjection child = nested[index];
+        if (isLeaf || (wasIncluded && child == null)) {
+            // parse the entire sub-message
+            if (child != null) {
+                nested[index] = null;
+                numNested--;
+            }
+            return null;
+        }
+        if (child == null) {
+            child = new FieldProjection();
+            nested[index] = child;
+            numNested++;
+        }
+        return child;
+    }
+
+    /**
+     * @return index of the field number, or (-(insertion point) - 1) if it is not selected
+     */
+    private int indexOf(final int fieldNumber) {
+        return Arrays.binarySearch(fieldNumbers, 0, size, fieldNumber);
+    }
+
+    private int insert(final int index, final int fieldNumber) {
+        if (size == fieldNumbers.length) {
+            final int newLength = Math.max(4, size * 2);
+            fieldNumbers = Arrays.copyOf(fieldNumbers, newLength);
+            nested = Arrays.copyOf(nested, newLength);
+        }
+        System.arraycopy(fieldNumbers, index, fieldNumbers, index + 1, size - index);
+        System.arraycopy(nested, index, nested, index + 1, size - index);
+        fieldNumbers[index] = fieldNumber;
+        nested[index] = null;
+        size++;
+        if (fieldNumber < 64) {
+            lowBits |= 1L << fieldNumber;
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(fieldNumbers[i]);
+            if (nested[i] != null) {
+                builder.append('=').append(nested[i]);
+            }
+        }
+        return builder.append('}').toString();
+    }
+
+    // Sorted field numbers with matching nested projections. Fields below 64
+    // are also kept in a bit mask so that common tags don't need a search.
+    private int[] fieldNumbers = new int[0];
+    private FieldProjection[] nested = new FieldProjection[0];
+    private int size = 0;
+    private int numNested = 0;
+    private long lowBits = 0;
+    private static final int MAX_FIELD_NUMBER = (1 << 29) - 1;
+
+}
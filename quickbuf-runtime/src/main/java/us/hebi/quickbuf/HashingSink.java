@@ -0,0 +1,171 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Checksum;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+
+/**
+ * Sink that computes a CRC32C checksum and a 64-bit xxHash (XXH64) of all written
+ * bytes without materializing the serialized message. The bytes get encoded into a
+ * small internal block that is passed to the hash functions whenever it runs out of
+ * space, so tags and varints don't need to update the hashes one byte at a time.
+ * <p>
+ * The hashes are computed for the bytes written since the last call to
+ * {@link #reset()} or {@code setOutput}, e.g.,
+ * <pre>{@code
+ * HashingSink sink = ProtoSink.newHashingSink();
+ * message.writeTo(sink.reset());
+ * long crc = sink.getCrc32c();
+ * }</pre>
+ * <p>
+ * The sink can also act as a tee that forwards all bytes to a downstream
+ * {@link ProtoSink} or {@link OutputStream}. Forwarded bytes may not reach
+ * the downstream output until {@link #flush()} gets called.
+ * <p>
+ * CRC32C uses the intrinsified JDK implementation on Java 9+ runtimes and a
+ * slower table based fallback on older runtimes.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class HashingSink extends BufferedStreamSink {
+
+    HashingSink(int blockSize) {
+        super(blockSize);
+    }
+
+    /**
+     * Forwards all bytes to the downstream sink. This resets the hashes.
+     *
+     * @param downstream sink that receives a copy of all written bytes
+     * @return this
+     */
+    public HashingSink setOutput(ProtoSink downstream) {
+        clear();
+        this.downstream = checkNotNull(downstream);
+        return this;
+    }
+
+    /**
+     * Forwards all bytes to the stream. This resets the hashes.
+     */
+    @Override
+    public HashingSink setOutput(OutputStream stream) {
+        super.setOutput(stream);
+        this.downstream = null;
+        this.hashedPosition = 0;
+        crc32c.reset();
+        xxHash64.reset();
+        return this;
+    }
+
+    /**
+     * Removes the reference to the downstream output and resets the
+     * hashes. Bytes that have not been flushed yet are discarded.
+     */
+    @Override
+    public HashingSink clear() {
+        super.clear();
+        return this;
+    }
+
+    /**
+     * Resets the hashes and the counter for the total bytes written. Buffered
+     * bytes still get forwarded to the downstream output, but they are excluded
+     * from the hashes.
+     */
+    @Override
+    public HashingSink reset() {
+        super.reset();
+        hashedPosition = position;
+        crc32c.reset();
+        xxHash64.reset();
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        super.flush();
+        if (downstream != null) {
+            downstream.flush();
+        }
+    }
+
+    /**
+     * @return the CRC32C checksum of all bytes written since the last reset
+     */
+    public long getCrc32c() {
+        updatePending();
+        return crc32c.getValue();
+    }
+
+    /**
+     * @return the 64-bit xxHash (XXH64 with a seed of zero) of all bytes written since the last reset
+     */
+    public long getHash64() {
+        updatePending();
+        return xxHash64.getValue();
+    }
+
+    /**
+     * Hashes the buffered bytes without flushing them, so reading the
+     * hashes does not cause writes to the downstream output.
+     */
+    private void updatePending() {
+        updateHashes(buffer, hashedPosition, position - hashedPosition);
+        hashedPosition = position;
+    }
+
+    @Override
+    void writeOutput(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (bytes == buffer) {
+            // The start of the buffer may have been hashed already
+            updateHashes(bytes, offset + hashedPosition, length - hashedPosition);
+            hashedPosition = 0;
+        } else {
+            updateHashes(bytes, offset, length);
+        }
+        if (downstream != null) {
+            downstream.writeRawBytes(bytes, offset, length);
+        } else {
+            super.writeOutput(bytes, offset, length);
+        }
+    }
+
+    private void updateHashes(final byte[] bytes, final int offset, final int length) {
+        if (length > 0) {
+            crc32c.update(bytes, offset, length);
+            xxHash64.update(bytes, offset, length);
+        }
+    }
+
+    private final Checksum crc32c = Checksums.newCrc32c();
+    private final Checksum xxHash64 = Checksums.newXxHash64();
+    private ProtoSink downstream = null;
+    private int hashedPosition = 0;
+
+    static final int DEFAULT_BLOCK_SIZE = 1024;
+
+}
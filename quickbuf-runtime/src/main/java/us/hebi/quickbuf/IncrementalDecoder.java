@@ -0,0 +1,365 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+import static us.hebi.quickbuf.WireFormat.*;
+
+/**
+ * Push-style decoder for input that arrives in chunks, e.g., from a non-blocking
+ * {@link java.nio.channels.SocketChannel}. Chunks can be fed as they arrive, and
+ * every call to {@link #next()} parses as far as the available data allows.
+ * <p>
+ * Parsing suspends at top-level field boundaries. A field that has not been fully
+ * received stays buffered until the remaining bytes arrive, so the decoder never
+ * blocks and never needs to restart from the beginning of a message. The scan
+ * position and any open groups are kept in an explicit state stack, so resuming
+ * does not rescan the buffered bytes. Completed fields get merged into the target
+ * message, which follows protobuf's merge semantics for split input.
+ * <p>
+ * Nested messages are not parsed incrementally, so a large top-level message or bytes
+ * field gets buffered in its entirety before any of it is parsed. The amount of buffered
+ * data can be bounded via {@link #setMaxBufferedBytes(int)}, e.g., to cap the memory
+ * used per connection.
+ * <p>
+ * A decoder created via {@link #newDelimitedInstance(ProtoMessage)} reads a sequence
+ * of length delimited messages and reports each completed message, e.g.,
+ * <pre>{@code
+ * // on every read event
+ * decoder.feed(readBuffer);
+ * while (decoder.next()) {
+ *     handle(decoder.getMessage());
+ * }
+ * }</pre>
+ * <p>
+ * A decoder created via {@link #newInstance(ProtoMessage)} reads a single top-level
+ * message that is only complete once the end of the input was signaled via {@link #finish()}.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class IncrementalDecoder<MessageType extends ProtoMessage<MessageType>> {
+
+    /**
+     * Creates a decoder for a single top-level message that spans the entire input.
+     *
+     * @param message target message
+     * @return decoder
+     */
+    public static <MessageType extends ProtoMessage<MessageType>> IncrementalDecoder<MessageType> newInstance(MessageType message) {
+        return new IncrementalDecoder<MessageType>(message, false);
+    }
+
+    /**
+     * Creates a decoder for a sequence of messages that are each prefixed
+     * with their length, e.g., as written by {@link ProtoMessage#writeDelimitedTo(ProtoSink)}.
+     *
+     * @param message target message that gets reused for every decoded message
+     * @return decoder
+     */
+    public static <MessageType extends ProtoMessage<MessageType>> IncrementalDecoder<MessageType> newDelimitedInstance(MessageType message) {
+        return new IncrementalDecoder<MessageType>(message, true);
+    }
+
+    private IncrementalDecoder(MessageType message, boolean delimited) {
+        this.message = checkNotNull(message);
+        this.delimited = delimited;
+        reset();
+    }
+
+    /**
+     * @return the target message
+     */
+    public MessageType getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets the maximum number of bytes that may be buffered, i.e., fed but not parsed
+     * yet. Feeding more data fails, so the limit needs to be larger than the largest
+     * expected top-level field. The default is {@code Integer.MAX_VALUE}.
+     *
+     * @param maxBufferedBytes maximum number of unparsed bytes
+     * @return this
+     */
+    public IncrementalDecoder<MessageType> setMaxBufferedBytes(int maxBufferedBytes) {
+        checkArgument(maxBufferedBytes > 0, "maxBufferedBytes must be positive");
+        this.maxBufferedBytes = maxBufferedBytes;
+        return this;
+    }
+
+    /**
+     * @return the number of bytes that have been fed but not parsed yet
+     */
+    public int getBufferedBytes() {
+        return end - start;
+    }
+
+    /**
+     * Appends the remaining bytes of the given buffer. The position of the
+     * buffer gets moved to its limit.
+     *
+     * @param chunk received data
+     * @return this
+     * @throws InvalidProtocolBufferException if the buffered data would exceed the maximum size.
+     *                                        The chunk does not get consumed in that case.
+     */
+    public IncrementalDecoder<MessageType> feed(ByteBuffer chunk) throws InvalidProtocolBufferException {
+        final int length = chunk.remaining();
+        reserve(length);
+        chunk.get(buffer, end, length);
+        end += length;
+        return this;
+    }
+
+    /**
+     * Appends the given bytes. The bytes get copied, so the array may be
+     * reused after this call returns.
+     *
+     * @param chunk  received data
+     * @param offset offset of the first byte
+     * @param length number of bytes
+     * @return this
+     * @throws InvalidProtocolBufferException if the buffered data would exceed the maximum size
+     */
+    public IncrementalDecoder<MessageType> feed(byte[] chunk, int offset, int length) throws InvalidProtocolBufferException {
+        checkBounds(chunk, offset, length);
+        reserve(length);
+        System.arraycopy(chunk, offset, buffer, end, length);
+        end += length;
+        return this;
+    }
+
+    /**
+     * Parses all fields that have been fully received. The target message gets
+     * cleared before parsing the next message, so a previously reported message
+     * needs to be handled before calling this method again.
+     *
+     * @return true if a delimited message has been completed. Always false for top-level messages.
+     * @throws IOException if the received data is not valid protobuf
+     */
+    public boolean next() throws IOException {
+        if (completed) {
+            message.clearQuick();
+            completed = false;
+        }
+
+        if (messageEnd < 0) {
+            final int position = readVarint(start, end);
+            if (position < 0) {
+                return false;
+            }
+            if (varint < 0 || varint > Integer.MAX_VALUE) {
+                throw InvalidProtocolBufferException.negativeSize();
+            }
+            if (varint > Integer.MAX_VALUE - position) {
+                throw InvalidProtocolBufferException.sizeLimitExceeded();
+            }
+            start = scanned = boundary = position;
+            messageEnd = position + (int) varint;
+        }
+
+        final int limit = Math.min(end, messageEnd);
+        scan(limit);
+        if (limit == messageEnd && boundary != messageEnd) {
+            // the entire message is available, but the last field is not
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+
+        if (boundary > start) {
+            source.setInput(buffer, start, boundary - start);
+            message.mergeFrom(source);
+            start = boundary;
+        }
+
+        if (start == messageEnd) {
+            messageEnd = -1;
+            completed = true;
+        }
+        return completed;
+    }
+
+    /**
+     * Signals the end of the input. A top-level message is complete after this
+     * method returns. Delimited messages need to be drained via {@link #next()} first.
+     *
+     * @throws IOException if the input ended in the middle of a field or message
+     */
+    public void finish() throws IOException {
+        if (!delimited) {
+            next();
+        }
+        if (start != end || (delimited && messageEnd >= 0)) {
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+    }
+
+    /**
+     * Discards all buffered data and clears the target message
+     *
+     * @return this
+     */
+    public IncrementalDecoder<MessageType> reset() {
+        start = end = scanned = boundary = 0;
+        messageEnd = delimited ? -1 : Integer.MAX_VALUE;
+        groupDepth = 0;
+        completed = false;
+        message.clearQuick();
+        return this;
+    }
+
+    /**
+     * Moves the scan position forward to the end of the last fully received
+     * element. Groups can be nested inside top-level fields, so the scanner
+     * keeps track of open groups in an explicit stack rather than recursing.
+     */
+    private void scan(final int limit) throws InvalidProtocolBufferException {
+        int position = scanned;
+        while (position < limit) {
+            int next = readVarint(position, limit);
+            if (next < 0) {
+                break;
+            }
+            final int tag = (int) varint;
+            if (getTagFieldNumber(tag) == 0) {
+                throw InvalidProtocolBufferException.invalidTag();
+            }
+
+            switch (getTagWireType(tag)) {
+                case WIRETYPE_VARINT:
+                    next = readVarint(next, limit);
+                    break;
+                case WIRETYPE_FIXED64:
+                    next = limit - next >= FIXED_64_SIZE ? next + FIXED_64_SIZE : -1;
+                    break;
+                case WIRETYPE_FIXED32:
+                    next = limit - next >= FIXED_32_SIZE ? next + FIXED_32_SIZE : -1;
+                    break;
+                case WIRETYPE_LENGTH_DELIMITED:
+                    next = readVarint(next, limit);
+                    if (next >= 0) {
+                        if (varint < 0 || varint > Integer.MAX_VALUE) {
+                            throw InvalidProtocolBufferException.negativeSize();
+                        }
+                        next = limit - next >= varint ? next + (int) varint : -1;
+                    }
+                    break;
+                case WIRETYPE_START_GROUP:
+                    if (groupDepth == groupStack.length) {
+                        throw InvalidProtocolBufferException.recursionLimitExceeded();
+                    }
+                    groupStack[groupDepth++] = getTagFieldNumber(tag);
+                    break;
+                case WIRETYPE_END_GROUP:
+                    if (groupDepth == 0 || groupStack[groupDepth - 1] != getTagFieldNumber(tag)) {
+                        throw InvalidProtocolBufferException.invalidEndTag();
+                    }
+                    groupDepth--;
+                    break;
+                default:
+                    throw InvalidProtocolBufferException.invalidWireType();
+            }
+
+            if (next < 0) {
+                break;
+            }
+            position = next;
+            if (groupDepth == 0) {
+                boundary = position;
+            }
+        }
+        scanned = position;
+    }
+
+    /**
+     * Reads a varint into the varint field
+     *
+     * @return the position after the varint, or -1 if it has not been fully received
+     */
+    private int readVarint(int position, final int limit) throws InvalidProtocolBufferException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position == limit) {
+                return -1;
+            }
+            final byte b = buffer[position++];
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                varint = result;
+                return position;
+            }
+        }
+        throw InvalidProtocolBufferException.malformedVarint();
+    }
+
+    /**
+     * Makes room for the given number of bytes. Parsed bytes get discarded,
+     * so the buffer only grows to the size of the largest unparsed section.
+     */
+    private void reserve(final int length) throws InvalidProtocolBufferException {
+        final int remaining = end - start;
+        if (length > maxBufferedBytes - remaining) {
+            throw InvalidProtocolBufferException.sizeLimitExceeded();
+        }
+        if (length <= buffer.length - end) {
+            return;
+        }
+
+        byte[] target = buffer;
+        if (remaining + length > buffer.length) {
+            final int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(remaining + length, 2L * buffer.length));
+            target = new byte[capacity];
+        }
+
+        System.arraycopy(buffer, start, target, 0, remaining);
+        buffer = target;
+        end -= start;
+        scanned -= start;
+        boundary -= start;
+        if (messageEnd >= 0 && messageEnd != Integer.MAX_VALUE) {
+            messageEnd -= start;
+        }
+        start = 0;
+    }
+
+    private final MessageType message;
+    private final boolean delimited;
+    private final ProtoSource source = ProtoSource.newArraySource();
+
+    private byte[] buffer = new byte[256];
+    private int maxBufferedBytes = Integer.MAX_VALUE;
+    private int start; // first byte that has not been parsed
+    private int end; // end of the received data
+    private int scanned; // end of the last fully received element
+    private int boundary; // end of the last fully received top-level field
+    private int messageEnd; // end of the current delimited message, or -1 for the next length prefix
+    private boolean completed;
+
+    private final int[] groupStack = new int[MAX_GROUP_DEPTH];
+    private int groupDepth;
+    private long varint;
+
+    private static final int MAX_GROUP_DEPTH = 64;
+
+}
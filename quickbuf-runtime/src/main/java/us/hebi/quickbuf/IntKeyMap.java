@@ -0,0 +1,125 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+/**
+ * Map field for {@code int32}, {@code uint32}, {@code sint32}, {@code fixed32},
+ * and {@code sfixed32} keys. The hash function is a bijection, so lookups only
+ * need to compare the hashes that are stored in the table.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class IntKeyMap<E extends ProtoMessage<E> & IntKeyMap.Entry> extends MapField<IntKeyMap<E>, E> {
+
+    /**
+     * Implemented by generated map entries with 32 bit integer keys
+     */
+    public interface Entry {
+
+        /**
+         * @return the key, or the default value if the key is not set
+         */
+        int getMapKey();
+
+        ProtoMessage<?> setKey(int key);
+
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends ProtoMessage<T> & Entry> IntKeyMap<T> newEmptyInstance(MessageFactory<T> factory) {
+        return new IntKeyMap(factory);
+    }
+
+    private IntKeyMap(MessageFactory<E> factory) {
+        super(factory);
+    }
+
+    /**
+     * @param key key to look up
+     * @return the index of the entry with the key, or -1 if there is no such entry
+     */
+    public int indexOf(final int key) {
+        if (length == 0) return -1;
+        final int hash = mix(key);
+        final int mask = table.length - 1;
+        int index;
+        for (int slot = hash & mask; (index = table[slot]) != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash) {
+                return index - 1;
+            }
+        }
+        return -1;
+    }
+
+    public boolean containsKey(final int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @param key key to look up
+     * @return the entry with the key, or null if there is no such entry
+     */
+    public E find(final int key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : array[index];
+    }
+
+    /**
+     * Returns the entry with the key for modifications. A new entry
+     * gets added if the key is not contained yet.
+     *
+     * @param key key to look up
+     * @return the existing entry or a new entry with the key
+     */
+    public E put(final int key) {
+        final int index = indexOf(key);
+        if (index >= 0) {
+            return array[index];
+        }
+        final E entry = nextPending();
+        entry.setKey(key);
+        commitPending();
+        return entry;
+    }
+
+    /**
+     * @param key key to be removed
+     * @return true if an entry got removed
+     */
+    public boolean remove(final int key) {
+        final int index = indexOf(key);
+        if (index < 0) return false;
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    int hashOf(E entry) {
+        return mix(entry.getMapKey());
+    }
+
+    @Override
+    boolean isSameKey(E a, E b) {
+        return a.getMapKey() == b.getMapKey();
+    }
+
+}
@@ -45,6 +45,10 @@ class JsonEncoding {
          * RFC4648
          */
         static void writeQuotedBase64(final byte[] bytes, final int length, RepeatedByte output) {
+            writeQuotedBase64(bytes, 0, length, output);
+        }
+
+        static void writeQuotedBase64(final byte[] bytes, final int offset, final int length, RepeatedByte output) {
 
             // Size output buffer
             final int encodedLength = ((length + 2) / 3) << 2;
@@ -55,7 +59,7 @@ class JsonEncoding {
             // Encode 24-bit blocks
             int i;
             final int blockableLength = (length / 3) * 3;
-            for (i = 0; i < blockableLength; i += 3, pos += 4) {
+            for (i = offset; i < offset + blockableLength; i += 3, pos += 4) {
                 // Copy next three bytes into lower 24 bits of int
                 final int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
 
@@ -100,7 +104,8 @@ class JsonEncoding {
 
         static void writeQuotedUtf8(Utf8String sequence, RepeatedByte output) {
             final int numBytes = sequence.size();
-            final byte[] utf8 = sequence.bytes();
+            final byte[] utf8 = sequence.contentArray();
+            final int utf8Offset = sequence.contentOffset();
             int i = 0;
 
             // Fast-path: no escape support
@@ -111,7 +116,7 @@ class JsonEncoding {
                 out[offset - 1] = '"';
 
                 for (; i < numBytes; i++) {
-                    final byte c = utf8[i];
+                    final byte c = utf8[utf8Offset + i];
                     if (CAN_DIRECT_WRITE_UTF8[c & 0xFF]) {
                         out[offset + i] = c;
                     } else {
@@ -126,7 +131,7 @@ class JsonEncoding {
 
             // Slow-path: with escape support
             for (; i < numBytes; i++) {
-                final byte c = utf8[i];
+                final byte c = utf8[utf8Offset + i];
                 if (CAN_DIRECT_WRITE_UTF8[c & 0xFF]) {
                     final int offset = output.addLength(1);
                     output.array[offset] = c;
@@ -387,6 +387,16 @@ public abstract class JsonSink implements Closeable, Flushable {
         return this;
     }
 
+    public JsonSink writeRepeatedMessage(final FieldName name, final MapField<?, ?> value) throws IOException {
+        writeFieldName(name);
+        beginArray();
+        for (int i = 0; i < value.length; i++) {
+            writeMessageValue(value.array[i]);
+        }
+        endArray();
+        return this;
+    }
+
     public JsonSink writeRepeatedString(final FieldName name, final RepeatedString value) throws IOException {
         writeFieldName(name);
         beginArray();
@@ -464,7 +474,7 @@ public abstract class JsonSink implements Closeable, Flushable {
             tmpBytes = RepeatedByte.newEmptyInstance();
         }
         tmpBytes.clear();
-        Base64Encoding.writeQuotedBase64(value.array, value.length, tmpBytes); // "<content>"
+        Base64Encoding.writeQuotedBase64(value.contentArray(), value.contentOffset(), value.length, tmpBytes); // "<content>"
         String str = new String(tmpBytes.array, 1, tmpBytes.length - 2, Charsets.ASCII); // <content>
         writeString(str);
     }
@@ -596,7 +606,7 @@ public abstract class JsonSink implements Closeable, Flushable {
 
         @Override
         protected void writeBinary(RepeatedByte value) {
-            Base64Encoding.writeQuotedBase64(value.array, value.length, output);
+            Base64Encoding.writeQuotedBase64(value.contentArray(), value.contentOffset(), value.length, output);
             writeMore();
         }
 
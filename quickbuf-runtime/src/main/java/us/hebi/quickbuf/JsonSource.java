@@ -50,7 +50,7 @@ public abstract class JsonSource implements Closeable {
     }
 
     public static JsonSource newInstance(RepeatedByte bytes) {
-        return newInstance(bytes.array, 0, bytes.length);
+        return newInstance(bytes.contentArray(), bytes.contentOffset(), bytes.length);
     }
 
     public static JsonSource newInstance(InputStream inputStream) {
@@ -325,6 +325,15 @@ public abstract class JsonSource implements Closeable {
         return value;
     }
 
+    public <ProtoMsg extends ProtoMessage<ProtoMsg>> void readRepeatedMessage(final MapField<?, ProtoMsg> value) throws IOException {
+        beginArray();
+        while (!isAtEnd()) {
+            readMessage(value.nextPending());
+            value.commitPending();
+        }
+        endArray();
+    }
+
     public void readRepeatedString(final RepeatedString value) throws IOException {
         beginArray();
         while (!isAtEnd()) {
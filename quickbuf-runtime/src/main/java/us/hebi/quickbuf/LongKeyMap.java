@@ -0,0 +1,128 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+/**
+ * Map field for {@code int64}, {@code uint64}, {@code sint64}, {@code fixed64},
+ * and {@code sfixed64} keys.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class LongKeyMap<E extends ProtoMessage<E> & LongKeyMap.Entry> extends MapField<LongKeyMap<E>, E> {
+
+    /**
+     * Implemented by generated map entries with 64 bit integer keys
+     */
+    public interface Entry {
+
+        /**
+         * @return the key, or the default value if the key is not set
+         */
+        long getMapKey();
+
+        ProtoMessage<?> setKey(long key);
+
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends ProtoMessage<T> & Entry> LongKeyMap<T> newEmptyInstance(MessageFactory<T> factory) {
+        return new LongKeyMap(factory);
+    }
+
+    private LongKeyMap(MessageFactory<E> factory) {
+        super(factory);
+    }
+
+    /**
+     * @param key key to look up
+     * @return the index of the entry with the key, or -1 if there is no such entry
+     */
+    public int indexOf(final long key) {
+        if (length == 0) return -1;
+        final int hash = hash(key);
+        final int mask = table.length - 1;
+        int index;
+        for (int slot = hash & mask; (index = table[slot]) != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && array[index - 1].getMapKey() == key) {
+                return index - 1;
+            }
+        }
+        return -1;
+    }
+
+    public boolean containsKey(final long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @param key key to look up
+     * @return the entry with the key, or null if there is no such entry
+     */
+    public E find(final long key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : array[index];
+    }
+
+    /**
+     * Returns the entry with the key for modifications. A new entry
+     * gets added if the key is not contained yet.
+     *
+     * @param key key to look up
+     * @return the existing entry or a new entry with the key
+     */
+    public E put(final long key) {
+        final int index = indexOf(key);
+        if (index >= 0) {
+            return array[index];
+        }
+        final E entry = nextPending();
+        entry.setKey(key);
+        commitPending();
+        return entry;
+    }
+
+    /**
+     * @param key key to be removed
+     * @return true if an entry got removed
+     */
+    public boolean remove(final long key) {
+        final int index = indexOf(key);
+        if (index < 0) return false;
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    int hashOf(E entry) {
+        return hash(entry.getMapKey());
+    }
+
+    @Override
+    boolean isSameKey(E a, E b) {
+        return a.getMapKey() == b.getMapKey();
+    }
+
+    private static int hash(long key) {
+        return mix((int) (key ^ (key >>> 32)));
+    }
+
+}
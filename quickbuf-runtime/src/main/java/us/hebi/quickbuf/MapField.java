@@ -0,0 +1,398 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.util.Arrays;
+
+/**
+ * Base class for map fields that were generated with the 'indexed_maps' option. It
+ * adds indexed lookup on top of the regular entry storage, i.e., keys and values
+ * remain in the generated entry messages rather than in specialized primitive arrays.
+ * <p>
+ * The entries are stored in a dense array of reusable entry messages, so they can be
+ * iterated and serialized in the same way as a {@link RepeatedMessage}. The array is
+ * indexed by an open-addressing hash table with linear probing, so that lookups by
+ * key do not need to scan all entries. Each table slot stores the index of the entry
+ * and the hash of its key, so probing does not need to touch the entries unless the
+ * hashes match.
+ * <p>
+ * Adding an entry with an existing key replaces the value of the existing entry,
+ * which matches the merge semantics of the protobuf wire format where the last entry
+ * wins. Removing an entry moves the last entry into its place, so the iteration
+ * order is not stable across removals.
+ * <p>
+ * The keys of contained entries must not be modified directly, because the table
+ * would not be able to find them anymore.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public abstract class MapField<MapType extends MapField<MapType, E>, E extends ProtoMessage<E>> extends RepeatedField<MapType, E> {
+
+    MapField(MessageFactory<E> factory) {
+        this.factory = ProtoUtil.checkNotNull(factory);
+    }
+
+    /**
+     * @param index index of the entry in iteration order
+     * @return the entry at the index
+     */
+    public final E get(int index) {
+        checkIndex(index);
+        return array[index];
+    }
+
+    @Override
+    protected E getValueAt(int index) {
+        return get(index);
+    }
+
+    /**
+     * Adds a copy of the entry, or copies it into an existing
+     * entry with the same key.
+     *
+     * @param entry entry to be copied
+     */
+    public final void add(E entry) {
+        nextPending().copyFrom(entry);
+        commitPending();
+    }
+
+    public final void addAll(E[] entries) {
+        addAll(entries, 0, entries.length);
+    }
+
+    public final void addAll(E[] buffer, int offset, int length) {
+        reserve(length);
+        for (int i = offset; i < offset + length; i++) {
+            add(buffer[i]);
+        }
+    }
+
+    /**
+     * Adds copies of all entries in the other map. Entries of
+     * the other map replace existing entries with the same key.
+     */
+    @Override
+    public final void addAll(MapType other) {
+        reserve(other.length);
+        for (int i = 0; i < other.length; i++) {
+            add(other.array[i]);
+        }
+    }
+
+    @Override
+    public final void copyFrom(MapType other) {
+        if (other == this) {
+            return;
+        }
+        clearQuick();
+        reserve(other.length);
+        for (int i = 0; i < other.length; i++) {
+            array[i].copyFrom(other.array[i]);
+        }
+        length = other.length;
+
+        // The entries are in the same order, so the slots can be copied
+        if (table.length == other.table.length) {
+            System.arraycopy(other.table, 0, table, 0, table.length);
+            System.arraycopy(other.hashes, 0, hashes, 0, hashes.length);
+        } else {
+            for (int slot = 0; slot < other.table.length; slot++) {
+                if (other.table[slot] != 0) {
+                    insertSlot(other.hashes[slot], other.table[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the entry at the given index. The last entry
+     * gets moved into its place.
+     *
+     * @param index index of the entry in iteration order
+     */
+    public final void removeAt(int index) {
+        checkIndex(index);
+        removeSlot(slotOf(index));
+        final int last = length - 1;
+        if (index != last) {
+            table[slotOf(last)] = index + 1;
+            final E removed = array[index];
+            array[index] = array[last];
+            array[last] = removed;
+        }
+        length = last;
+    }
+
+    /**
+     * @return true if all contained entries are initialized
+     */
+    public final boolean isInitialized() {
+        for (int i = 0; i < length; i++) {
+            if (!array[i].isInitialized())
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final MapType clear() {
+        for (int i = 0; i < length; i++) {
+            array[i].clear();
+        }
+        clearTable();
+        return super.clear();
+    }
+
+    /**
+     * Clears the entries without releasing any of the internal
+     * storage, so that the map can be reused without allocations.
+     *
+     * @return this
+     */
+    @SuppressWarnings("unchecked")
+    public final MapType clearQuick() {
+        for (int i = 0; i < length; i++) {
+            array[i].clearQuick();
+        }
+        clearTable();
+        length = 0;
+        return (MapType) this;
+    }
+
+    private void clearTable() {
+        if (length > 0) {
+            Arrays.fill(table, 0);
+        }
+    }
+
+    @Override
+    public final int capacity() {
+        return array.length;
+    }
+
+    @Override
+    protected final void extendCapacityTo(int desiredSize) {
+        final E[] newValues = allocateArray(desiredSize);
+        System.arraycopy(array, 0, newValues, 0, array.length);
+        for (int i = array.length; i < newValues.length; i++) {
+            newValues[i] = createEmpty();
+        }
+        this.array = newValues;
+        reserveTable(desiredSize);
+    }
+
+    /**
+     * Maps are equal if they contain equal entries for the same
+     * keys. The order of the entries does not matter.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MapField<MapType, E> other = (MapField<MapType, E>) o;
+
+        if (length != other.length)
+            return false;
+
+        for (int i = 0; i < length; i++) {
+            final int index = other.indexOfEntryKey(array[i]);
+            if (index < 0 || !array[i].equals(other.array[index]))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public final String toString() {
+        return Arrays.toString(Arrays.copyOf(array, length));
+    }
+
+    // ----------------------------- INTERNAL API -----------------------------
+
+    /**
+     * Returns a cleared entry after the last entry. Content that gets
+     * read into it needs to be committed via {@link #commitPending()}
+     */
+    final E nextPending() {
+        reserve(1);
+        final E entry = array[length];
+        entry.clearQuick();
+        return entry;
+    }
+
+    /**
+     * Inserts the pending entry, or replaces the existing entry with the
+     * same key. The replaced entry gets recycled for the next insertion.
+     */
+    final void commitPending() {
+        final E entry = array[length];
+        final int hash = hashOf(entry);
+        final int slot = findSlot(entry, hash);
+        final int existing = table[slot] - 1;
+        if (existing < 0) {
+            table[slot] = ++length;
+            hashes[slot] = hash;
+        } else {
+            array[length] = array[existing];
+            array[existing] = entry;
+        }
+    }
+
+    /**
+     * @return the index of the entry with the same key as the given entry, or -1
+     */
+    final int indexOfEntryKey(E entry) {
+        if (length == 0) return -1;
+        return table[findSlot(entry, hashOf(entry))] - 1;
+    }
+
+    private int findSlot(E entry, int hash) {
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        int index;
+        while ((index = table[slot]) != 0) {
+            if (hashes[slot] == hash && isSameKey(entry, array[index - 1])) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int slotOf(int index) {
+        final int mask = table.length - 1;
+        int slot = hashOf(array[index]) & mask;
+        while (table[slot] != index + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertSlot(int hash, int value) {
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        hashes[slot] = hash;
+    }
+
+    /**
+     * Backward shift deletion that moves subsequent entries of the same
+     * probe sequence into the gap, so lookups don't need tombstones.
+     */
+    private void removeSlot(int gap) {
+        final int mask = table.length - 1;
+        for (int slot = (gap + 1) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            final int home = hashes[slot] & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                table[gap] = table[slot];
+                hashes[gap] = hashes[slot];
+                gap = slot;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    /**
+     * Grows the table to keep the load factor at or below 0.5
+     */
+    private void reserveTable(int entries) {
+        if (entries <= table.length >>> 1) {
+            return;
+        }
+        int capacity = Math.max(table.length, MIN_TABLE_CAPACITY);
+        while (capacity >>> 1 < entries) {
+            capacity <<= 1;
+        }
+        final int[] oldTable = table;
+        final int[] oldHashes = hashes;
+        table = new int[capacity];
+        hashes = new int[capacity];
+        for (int slot = 0; slot < oldTable.length; slot++) {
+            if (oldTable[slot] != 0) {
+                insertSlot(oldHashes[slot], oldTable[slot]);
+            }
+        }
+    }
+
+    /**
+     * Finalization step of MurmurHash3. The mix is a bijection,
+     * so different int keys never result in the same hash.
+     */
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * @return hash of the key of the entry
+     */
+    abstract int hashOf(E entry);
+
+    /**
+     * @return true if both entries have the same key
+     */
+    abstract boolean isSameKey(E a, E b);
+
+    @SuppressWarnings("unchecked")
+    private E[] allocateArray(int desiredSize) {
+        return (E[]) new ProtoMessage[desiredSize];
+    }
+
+    private E createEmpty() {
+        final E msg = factory.create();
+        msg.parent = owner;
+        return msg;
+    }
+
+    /**
+     * Sets the message that contains this field, so that modifications of
+     * the contained entries invalidate the cached size of the owner.
+     */
+    final void setOwner(ProtoMessage<?> owner) {
+        this.owner = owner;
+        for (int i = 0; i < array.length; i++) {
+            array[i].parent = owner;
+        }
+    }
+
+    private static final int MIN_TABLE_CAPACITY = 8;
+    private static final int[] EMPTY_TABLE = new int[0];
+
+    final MessageFactory<E> factory;
+    private ProtoMessage<?> owner;
+    E[] array = allocateArray(0);
+
+    // Slots store the entry index + 1, so that zero marks an empty slot
+    int[] table = EMPTY_TABLE;
+    int[] hashes = EMPTY_TABLE;
+
+}
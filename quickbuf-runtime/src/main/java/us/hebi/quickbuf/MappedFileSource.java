@@ -0,0 +1,283 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+import static us.hebi.quickbuf.UnsafeAccess.*;
+
+/**
+ * Source that reads from a memory mapped {@link FileChannel}. Files can be
+ * larger than the 2 GB that can be mapped at once, so the file gets mapped
+ * region by region as the reader moves forward. Values that cross the end of
+ * a region are read by mapping a new region that starts at the current position.
+ * <p>
+ * Positions inside the file are 64 bit wide and can be queried and changed via
+ * {@link #getPosition()} and {@link #seek(long)}, e.g., to build an index of
+ * message offsets or to jump to a specific message. All other positions, such as
+ * {@link #getTotalBytesRead()} and limits, are 32 bit wide and relative to the
+ * last call to {@link #seek(long)} or {@link #resetSizeCounter()}. Sequential
+ * readers of files that are larger than 2 GB need to call one of them between
+ * messages.
+ * <p>
+ * This source requires availability of sun.misc.Unsafe.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class MappedFileSource extends ArraySource.DirectArraySource {
+
+    MappedFileSource(int mappingSize) {
+        checkArgument(mappingSize > 0, "mapping size must be positive");
+        checkState(BufferAccess.isAvailable(), "native buffer access is disabled on this platform");
+        this.mappingSize = mappingSize;
+    }
+
+    /**
+     * Changes the input to the given channel and moves to the beginning of
+     * the file. The channel position is not used or modified. The file may
+     * grow while it is being read, e.g., to follow an active recording.
+     *
+     * @param channel channel that supports memory mapping in read-only mode
+     * @return this
+     * @throws IOException if the file size can't be determined
+     */
+    public MappedFileSource setInput(FileChannel channel) throws IOException {
+        this.fileSize = channel.size();
+        this.channel = channel;
+        releaseMapping();
+        return seek(0);
+    }
+
+    /**
+     * @return the absolute position in the file
+     */
+    public long getPosition() {
+        return readStart + position;
+    }
+
+    /**
+     * Moves to the given absolute position in the file and resets any
+     * existing internal state such as limits. The total bytes read get
+     * counted relative to the new position.
+     *
+     * @param position absolute position in the file
+     * @return this
+     */
+    public MappedFileSource seek(long position) {
+        if (position < 0) {
+            throw new IllegalArgumentException("position out of bounds");
+        }
+        resetInternalState();
+        this.readStart = position;
+        this.position = this.offset = 0;
+        updateWindow();
+        return this;
+    }
+
+    /**
+     * Resets the total bytes read to zero without changing the absolute
+     * position. Should only be called between messages.
+     *
+     * @return this
+     */
+    @Override
+    public MappedFileSource resetSizeCounter() {
+        readStart += position;
+        if (currentLimit != NO_LIMIT) {
+            currentLimit -= position;
+        }
+        position = 0;
+        updateWindow();
+        return this;
+    }
+
+    @Override
+    public ProtoSource setInput(byte[] buffer, long offset, int length) {
+        throw new UnsupportedOperationException("MappedFileSource can only read from a FileChannel");
+    }
+
+    @Override
+    public ProtoSource setInput(ByteBuffer buffer) {
+        throw new UnsupportedOperationException("MappedFileSource can only read from a FileChannel");
+    }
+
+    /**
+     * Removes the reference to the current channel and releases
+     * the mapped region.
+     */
+    @Override
+    public MappedFileSource clear() {
+        channel = null;
+        fileSize = 0;
+        releaseMapping();
+        return seek(0);
+    }
+
+    @Override
+    public int pushLimit(int byteLimit) throws InvalidProtocolBufferException {
+        if (byteLimit < 0) {
+            throw InvalidProtocolBufferException.negativeSize();
+        }
+        byteLimit += position;
+        if (byteLimit > currentLimit || byteLimit < 0) {
+            throw InvalidProtocolBufferException.truncatedMessage();
+        }
+        final int oldLimit = currentLimit;
+        currentLimit = byteLimit;
+        limit = Math.min(windowEnd, currentLimit);
+        return oldLimit;
+    }
+
+    @Override
+    public void popLimit(final int oldLimit) {
+        currentLimit = oldLimit;
+        limit = Math.min(windowEnd, currentLimit);
+    }
+
+    @Override
+    public boolean isAtEnd() throws IOException {
+        if (position == limit && limit < currentLimit) {
+            mapRegion(1);
+        }
+        return position == limit;
+    }
+
+    @Override
+    int mergeArrayDecoded(final ProtoMessage<?> message) throws IOException {
+        // The limit may only be the end of the current window
+        return readTag();
+    }
+
+    @Override
+    public void rewindTo(int position) {
+        if (position < 0 || position > currentLimit) {
+            throw new IllegalArgumentException("position out of bounds");
+        }
+        this.position = position;
+        updateWindow();
+    }
+
+    @Override
+    public void skipRawBytes(final int size) throws IOException {
+        if (size > limit - position && size >= 0 && size <= currentLimit - position) {
+            // Move past the current region without mapping the skipped bytes
+            final long end = getPosition() + size;
+            if (end > fileSize && channel != null) {
+                fileSize = channel.size();
+            }
+            if (end <= fileSize) {
+                position += size;
+                updateWindow();
+                return;
+            }
+        }
+        super.skipRawBytes(size);
+    }
+
+    @Override
+    public byte readRawByte() throws IOException {
+        if (position == limit) {
+            requireRemaining(1);
+        }
+        return super.readRawByte();
+    }
+
+    @Override
+    protected void requireRemaining(final int numBytes) throws IOException {
+        if (numBytes > limit - position && limit < currentLimit && numBytes <= currentLimit - position) {
+            mapRegion(numBytes);
+        }
+        super.requireRemaining(numBytes);
+    }
+
+    /**
+     * Maps a new region that starts at the current position and contains
+     * at least numBytes. Does nothing if the file is too short.
+     */
+    private void mapRegion(final int numBytes) throws IOException {
+        final long start = getPosition();
+        if (start + numBytes > fileSize && channel != null) {
+            fileSize = channel.size();
+        }
+        final long available = fileSize - start;
+        if (available < numBytes) {
+            return;
+        }
+
+        // Relative positions need to stay within the int range
+        final long maxSize = Integer.MAX_VALUE - (long) position;
+        if (numBytes > maxSize) {
+            throw new InvalidProtocolBufferException("Reached the end of the addressable range. " +
+                    "Use MappedFileSource.resetSizeCounter() or seek() between messages.");
+        }
+        final long size = Math.min(Math.min(Math.max(mappingSize, numBytes), available), maxSize);
+
+        final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        gcRef = region; // the region gets unmapped when it gets garbage collected
+        mappingAddress = BufferAccess.address(region);
+        mappingStart = start;
+        mappingEnd = start + size;
+        updateWindow();
+    }
+
+    private void releaseMapping() {
+        gcRef = null;
+        mappingAddress = 0;
+        mappingStart = 0;
+        mappingEnd = 0;
+    }
+
+    /**
+     * Updates the readable window after changes to the position or the mapped
+     * region. Positions outside the mapped region result in an empty window, so
+     * the next read maps the required region.
+     */
+    private void updateWindow() {
+        final long start = mappingStart - readStart;
+        final long end = mappingEnd - readStart;
+        if (position < start || position > end) {
+            windowEnd = position;
+        } else {
+            windowEnd = (int) Math.min(end, Integer.MAX_VALUE);
+            baseOffset = mappingAddress - start;
+        }
+        limit = Math.min(windowEnd, currentLimit);
+    }
+
+    private final int mappingSize;
+    private FileChannel channel;
+    private long fileSize;
+
+    private long mappingAddress;
+    private long mappingStart;
+    private long mappingEnd;
+
+    private long readStart;
+    private int windowEnd;
+
+    static final int DEFAULT_MAPPING_SIZE = 64 * 1024 * 1024;
+
+}
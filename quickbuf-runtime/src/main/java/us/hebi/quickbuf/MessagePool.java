@@ -0,0 +1,304 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+
+/**
+ * Pool of reusable messages for pipelines that pass messages between threads. Instead
+ * of cloning a message for every hand-off, the producer can acquire a cleared instance,
+ * copy the contents, and pass it on to a consumer that releases it after processing.
+ * Released messages keep their internal storage, so a steady state pipeline does not
+ * need to allocate.
+ * <p>
+ * Each thread caches messages in a local magazine (a small array of messages). Full
+ * and empty magazines get exchanged with other threads through lock-free depots, so
+ * the shared state only gets touched once per magazine rather than once per message.
+ * The pool is bounded, and messages that get released into a full pool are left to
+ * the garbage collector.
+ * <p>
+ * Released messages must not be used anymore. Leak detection tracks all acquired
+ * messages, so it can detect messages that got released twice or that were never
+ * returned to the pool. It is intended for testing and has a significant overhead.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class MessagePool<T extends ProtoMessage<T>> {
+
+    /**
+     * Returns a shared pool with the default size for all messages of the factory,
+     * e.g., {@code MessagePool.forFactory(RootMessage.getFactory())}.
+     *
+     * @param factory factory of a generated message type
+     * @return the pool that is shared by all users of the factory
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends ProtoMessage<T>> MessagePool<T> forFactory(MessageFactory<T> factory) {
+        MessagePool<?> pool = SHARED_POOLS.get(checkNotNull(factory));
+        if (pool == null) {
+            final MessagePool<T> newPool = newInstance(factory, DEFAULT_MAX_SIZE);
+            pool = SHARED_POOLS.putIfAbsent(factory, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return (MessagePool<T>) pool;
+    }
+
+    /**
+     * Creates a new pool that is not shared with other users of the factory.
+     *
+     * @param factory creates new messages when the pool is empty
+     * @param maxSize maximum number of messages in the shared depot. Each thread may
+     *                additionally hold up to one magazine of messages.
+     * @return new pool
+     */
+    public static <T extends ProtoMessage<T>> MessagePool<T> newInstance(MessageFactory<T> factory, int maxSize) {
+        return new MessagePool<T>(factory, maxSize);
+    }
+
+    private MessagePool(MessageFactory<T> factory, int maxSize) {
+        checkArgument(maxSize > 0, "maxSize must be positive");
+        this.factory = checkNotNull(factory);
+        this.magazineSize = Math.min(maxSize, MAX_MAGAZINE_SIZE);
+        final int numMagazines = Math.max(1, maxSize / magazineSize);
+        this.fullMagazines = new Depot(numMagazines);
+        this.emptyMagazines = new Depot(numMagazines);
+    }
+
+    /**
+     * @return a cleared message from the pool, or a new message if the pool is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        final Magazine magazine = localMagazine.get();
+        if (magazine.size == 0) {
+            final Object[] full = fullMagazines.poll();
+            if (full == null) {
+                return track(factory.create());
+            }
+            emptyMagazines.offer(magazine.messages);
+            magazine.messages = full;
+            magazine.size = full.length;
+        }
+        final int index = --magazine.size;
+        final T message = (T) magazine.messages[index];
+        magazine.messages[index] = null;
+        return track(message);
+    }
+
+    /**
+     * Clears the message and returns it to the pool. The message must have
+     * been acquired from this pool and must not be used afterwards.
+     *
+     * @param message message to be returned
+     */
+    public void release(T message) {
+        untrack(checkNotNull(message));
+        message.clearQuick();
+        final Magazine magazine = localMagazine.get();
+        if (magazine.size == magazine.messages.length) {
+            if (!fullMagazines.offer(magazine.messages)) {
+                return; // the pool is full
+            }
+            final Object[] empty = emptyMagazines.poll();
+            magazine.messages = empty != null ? empty : new Object[magazineSize];
+            magazine.size = 0;
+        }
+        magazine.messages[magazine.size++] = message;
+    }
+
+    /**
+     * Enables tracking of acquired messages. This should be enabled before
+     * any messages get acquired, and is intended for testing.
+     *
+     * @return this
+     */
+    public MessagePool<T> setLeakDetection(boolean enabled) {
+        this.leakTracker = enabled ? new LeakTracker() : null;
+        return this;
+    }
+
+    /**
+     * @return the number of acquired messages that were garbage collected without
+     * being released. Always zero if leak detection is disabled.
+     */
+    public int getLeakCount() {
+        final LeakTracker tracker = leakTracker;
+        return tracker == null ? 0 : tracker.getLeakCount();
+    }
+
+    private T track(T message) {
+        final LeakTracker tracker = leakTracker;
+        if (tracker != null) {
+            tracker.add(message);
+        }
+        return message;
+    }
+
+    private void untrack(T message) {
+        final LeakTracker tracker = leakTracker;
+        if (tracker != null && !tracker.remove(message)) {
+            throw new IllegalArgumentException("Message was not acquired from this pool or has already been released");
+        }
+    }
+
+    /**
+     * Thread local cache that hands out messages from the end of the array
+     */
+    private static class Magazine {
+        Magazine(int size) {
+            messages = new Object[size];
+        }
+
+        Object[] messages;
+        int size;
+    }
+
+    /**
+     * Lock-free storage for magazines. Each slot gets claimed with an atomic
+     * exchange, so a magazine can't be handed out twice. The slots are not
+     * linked, so reusing magazines can't cause ABA problems like it would
+     * with a linked stack.
+     */
+    private static class Depot {
+
+        Depot(int numSlots) {
+            slots = new AtomicReferenceArray<Object[]>(numSlots);
+        }
+
+        boolean offer(Object[] magazine) {
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) == null && slots.compareAndSet(i, null, magazine)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Object[] poll() {
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) != null) {
+                    final Object[] magazine = slots.getAndSet(i, null);
+                    if (magazine != null) {
+                        return magazine;
+                    }
+                }
+            }
+            return null;
+        }
+
+        final AtomicReferenceArray<Object[]> slots;
+
+    }
+
+    /**
+     * Keeps weak references to all acquired messages. References that get
+     * enqueued by the garbage collector belong to leaked messages.
+     */
+    private static class LeakTracker {
+
+        synchronized void add(ProtoMessage<?> message) {
+            expungeLeaks();
+            acquired.add(new TrackedMessage(message, queue));
+        }
+
+        synchronized boolean remove(ProtoMessage<?> message) {
+            expungeLeaks();
+            return acquired.remove(new TrackedMessage(message, null));
+        }
+
+        synchronized int getLeakCount() {
+            expungeLeaks();
+            return leakCount;
+        }
+
+        private void expungeLeaks() {
+            Reference<?> ref;
+            while ((ref = queue.poll()) != null) {
+                if (acquired.remove(ref)) {
+                    leakCount++;
+                }
+            }
+        }
+
+        final Set<TrackedMessage> acquired = new HashSet<TrackedMessage>();
+        final ReferenceQueue<ProtoMessage<?>> queue = new ReferenceQueue<ProtoMessage<?>>();
+        int leakCount = 0;
+
+    }
+
+    /**
+     * Weak reference that compares the identity of the referenced message
+     */
+    private static class TrackedMessage extends WeakReference<ProtoMessage<?>> {
+
+        TrackedMessage(ProtoMessage<?> message, ReferenceQueue<ProtoMessage<?>> queue) {
+            super(message, queue);
+            this.hash = System.identityHashCode(message);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof TrackedMessage)) return false;
+            final Object message = get();
+            return message != null && message == ((TrackedMessage) obj).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        final int hash;
+
+    }
+
+    private final ThreadLocal<Magazine> localMagazine = new ThreadLocal<Magazine>() {
+        @Override
+        protected Magazine initialValue() {
+            return new Magazine(magazineSize);
+        }
+    };
+
+    private final MessageFactory<T> factory;
+    private final int magazineSize;
+    private final Depot fullMagazines;
+    private final Depot emptyMagazines;
+    private volatile LeakTracker leakTracker = null;
+
+    private static final int DEFAULT_MAX_SIZE = 1024;
+    private static final int MAX_MAGAZINE_SIZE = 32;
+    private static final ConcurrentMap<MessageFactory<?>, MessagePool<?>> SHARED_POOLS
+            = new ConcurrentHashMap<MessageFactory<?>, MessagePool<?>>();
+
+}
@@ -0,0 +1,201 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+
+/**
+ * Wait-free ring buffer of preallocated messages for passing messages from a single
+ * producer thread to a single consumer thread. The producer claims a slot, writes the
+ * contents, e.g., via {@link ProtoMessage#copyFrom(ProtoMessage)}, and publishes it.
+ * The consumer polls the slot and releases it after processing. The slots get reused,
+ * so the hand-off does not allocate once all slots have been populated.
+ * <pre>{@code
+ * // producer thread
+ * RootMessage slot = ring.claim();
+ * if (slot != null) {
+ *     slot.copyFrom(msg);
+ *     ring.publish();
+ * }
+ *
+ * // consumer thread
+ * RootMessage received = ring.poll();
+ * if (received != null) {
+ *     process(received);
+ *     ring.release();
+ * }
+ * }</pre>
+ * <p>
+ * The producer and consumer sequences are padded to be on separate cache lines, and
+ * each side caches the last seen sequence of the other side, so the threads only
+ * share cache lines when the ring gets empty or full. Messages that need to be
+ * received by multiple consumers should be published to one ring per consumer.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class MessageRing<T extends ProtoMessage<T>> {
+
+    /**
+     * @param factory  creates the messages for the slots
+     * @param capacity number of slots. Gets rounded up to the next power of two.
+     * @return new ring with preallocated messages
+     */
+    public static <T extends ProtoMessage<T>> MessageRing<T> newInstance(MessageFactory<T> factory, int capacity) {
+        return new MessageRing<T>(factory, capacity);
+    }
+
+    private MessageRing(MessageFactory<T> factory, int capacity) {
+        checkNotNull(factory);
+        checkArgument(capacity > 0 && capacity <= MAX_CAPACITY, "capacity must be between 1 and " + MAX_CAPACITY);
+        final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        slots = new ProtoMessage[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = factory.create();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * @return number of slots in the ring
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Claims the next slot for writing. Must only be called by the producer. The
+     * slot becomes visible to the consumer after calling {@link #publish()}.
+     *
+     * @return a cleared message, or null if the consumer has not released enough slots
+     */
+    @SuppressWarnings("unchecked")
+    public T claim() {
+        final long sequence = seq.producerSequence;
+        if (sequence - seq.cachedConsumerSequence >= slots.length) {
+            seq.cachedConsumerSequence = seq.consumerSequence;
+            if (sequence - seq.cachedConsumerSequence >= slots.length) {
+                return null;
+            }
+        }
+        return ((T) slots[(int) sequence & mask]).clearQuick();
+    }
+
+    /**
+     * Makes the claimed slot visible to the consumer. Must only be
+     * called by the producer after a successful {@link #claim()}.
+     */
+    public void publish() {
+        PRODUCER_SEQUENCE.lazySet(seq, seq.producerSequence + 1);
+    }
+
+    /**
+     * Copies the message into the next slot and publishes it.
+     * Must only be called by the producer.
+     *
+     * @return false if the ring is full
+     */
+    public boolean offer(T message) {
+        final T slot = claim();
+        if (slot == null) {
+            return false;
+        }
+        slot.copyFrom(message);
+        publish();
+        return true;
+    }
+
+    /**
+     * Returns the next published message without removing it. Must only be
+     * called by the consumer. The message stays valid until {@link #release()}
+     * gets called, and it must not be modified.
+     *
+     * @return the next message, or null if nothing has been published
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        final long sequence = seq.consumerSequence;
+        if (sequence >= seq.cachedProducerSequence) {
+            seq.cachedProducerSequence = seq.producerSequence;
+            if (sequence >= seq.cachedProducerSequence) {
+                return null;
+            }
+        }
+        return (T) slots[(int) sequence & mask];
+    }
+
+    /**
+     * Returns the polled slot to the producer. Must only be called by
+     * the consumer after a successful {@link #poll()}.
+     */
+    public void release() {
+        CONSUMER_SEQUENCE.lazySet(seq, seq.consumerSequence + 1);
+    }
+
+    /**
+     * @return the approximate number of published messages that have not been released yet
+     */
+    public int size() {
+        final long consumer = seq.consumerSequence;
+        return (int) Math.max(0, Math.min(seq.producerSequence - consumer, slots.length));
+    }
+
+    /*
+     * The JVM lays out the fields of super classes first, so the padding keeps the
+     * fields that are written by the producer and by the consumer on separate cache
+     * lines (assuming 64 byte lines).
+     */
+    static class Padding0 {
+        long p00, p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    static class ProducerFields extends Padding0 {
+        volatile long producerSequence;
+        long cachedConsumerSequence;
+    }
+
+    static class Padding1 extends ProducerFields {
+        long p10, p11, p12, p13, p14, p15, p16, p17;
+    }
+
+    static class ConsumerFields extends Padding1 {
+        volatile long consumerSequence;
+        long cachedProducerSequence;
+    }
+
+    static final class Sequences extends ConsumerFields {
+        long p20, p21, p22, p23, p24, p25, p26, p27;
+    }
+
+    private final Sequences seq = new Sequences();
+    private final ProtoMessage<?>[] slots;
+    private final int mask;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final AtomicLongFieldUpdater<ProducerFields> PRODUCER_SEQUENCE =
+            AtomicLongFieldUpdater.newUpdater(ProducerFields.class, "producerSequence");
+    private static final AtomicLongFieldUpdater<ConsumerFields> CONSUMER_SEQUENCE =
+            AtomicLongFieldUpdater.newUpdater(ConsumerFields.class, "consumerSequence");
+
+}
+
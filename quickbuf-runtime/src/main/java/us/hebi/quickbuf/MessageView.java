@@ -0,0 +1,449 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+
+/**
+ * Base class for read-only views that were generated with the 'gen_views' option. A view
+ * wraps the serialized bytes of a message and reads individual fields on demand, without
+ * parsing the message or populating any message instance. This can be faster than parsing
+ * when only a few fields of a large message are needed.
+ * <p>
+ * The first access scans the tags of the wrapped message and records the position of each
+ * singular field, so subsequent accesses can seek to the value directly. Nested messages are
+ * returned as views of the nested bytes, and repeated fields are exposed as a {@link FieldCursor}
+ * that iterates over all elements (packed and unpacked).
+ * <p>
+ * Fields that occur multiple times are read with the same semantics as parsing, i.e., the last
+ * occurrence of a scalar field wins, and all occurrences of a singular message or group field
+ * get merged. The view of such a nested message covers the bytes of all occurrences, so it
+ * returns the last occurrence of its own scalar fields and iterates over the concatenated
+ * elements of its repeated fields.
+ * <p>
+ * Views and cursors are reusable and don't allocate after the first access. They must not
+ * be used after the underlying bytes have been modified. The content is not validated
+ * during {@code wrap}, so malformed content surfaces as an {@link IllegalStateException}
+ * on access.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public abstract class MessageView<ViewType extends MessageView<ViewType>> {
+
+    protected MessageView(int numIndexedFields) {
+        positions = new int[numIndexedFields];
+        duplicates = new boolean[numIndexedFields];
+    }
+
+    /**
+     * Wraps the serialized message. The array must not be modified while the view is in use.
+     *
+     * @return this
+     */
+    public final ViewType wrap(byte[] bytes) {
+        return wrap(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Wraps the serialized message. The array must not be modified while the view is in use.
+     *
+     * @return this
+     */
+    public final ViewType wrap(byte[] bytes, int offset, int length) {
+        if (ownedSource == null) {
+            ownedSource = ProtoSource.newArraySource();
+        }
+        ownedSource.setInput(bytes, offset, length);
+        return wrapRegion(ownedSource, 0, length);
+    }
+
+    /**
+     * Wraps the remaining input of a source, e.g., a direct source that reads from
+     * off-heap memory. The source needs to support {@link ProtoSource#rewindTo(int)},
+     * and it must not be used by anything else while the view is in use.
+     *
+     * @return this
+     */
+    public final ViewType wrap(ProtoSource source) {
+        return wrapRegion(checkNotNull(source), source.getTotalBytesRead(), UNKNOWN_END);
+    }
+
+    /**
+     * Wraps a region of a source. An unknown end reads until the
+     * end of the input or until an end group tag.
+     */
+    @SuppressWarnings("unchecked")
+    final ViewType wrapRegion(ProtoSource source, int start, int end) {
+        this.source = source;
+        this.numRegions = 0;
+        this.indexed = false;
+        addRegion(start, end);
+        return (ViewType) this;
+    }
+
+    /**
+     * Appends a region that gets merged with the already wrapped regions
+     */
+    final void addRegion(int start, int end) {
+        if (numRegions == starts.length) {
+            starts = Arrays.copyOf(starts, numRegions * 2);
+            ends = Arrays.copyOf(ends, numRegions * 2);
+        }
+        starts[numRegions] = start;
+        ends[numRegions] = end;
+        numRegions++;
+    }
+
+    /**
+     * @return the field index for the field number, or -1 for fields that are not indexed
+     */
+    protected abstract int indexOf(int fieldNumber);
+
+    /**
+     * @return true if the indexed field is present in the wrapped bytes
+     */
+    protected final boolean has(int index) {
+        ensureIndexed();
+        return positions[index] != 0;
+    }
+
+    private void ensureIndexed() {
+        if (indexed) {
+            return;
+        }
+        Arrays.fill(positions, 0);
+        Arrays.fill(duplicates, false);
+        try {
+            for (int region = 0; region < numRegions; region++) {
+                source.rewindTo(starts[region]);
+                final int oldLimit = pushLimit(source, ends[region]);
+                try {
+                    int tag;
+                    while ((tag = source.readTag()) != 0) {
+                        if (WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_END_GROUP) {
+                            break;
+                        }
+                        final int index = indexOf(WireFormat.getTagFieldNumber(tag));
+                        if (index >= 0) {
+                            duplicates[index] |= positions[index] != 0;
+                            positions[index] = source.getTotalBytesRead() + 1;
+                        }
+                        source.skipField(tag);
+                    }
+                } finally {
+                    popLimit(source, ends[region], oldLimit);
+                }
+            }
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+        indexed = true;
+    }
+
+    /**
+     * Wraps all occurrences of a message or group field, so that the nested view
+     * merges them in the same order as a parser would.
+     */
+    private <V extends MessageView<V>> V wrapAllOccurrences(int index, V view) throws IOException {
+        boolean first = true;
+        for (int region = 0; region < numRegions; region++) {
+            source.rewindTo(starts[region]);
+            final int oldLimit = pushLimit(source, ends[region]);
+            try {
+                int tag;
+                while ((tag = source.readTag()) != 0) {
+                    final int wireType = WireFormat.getTagWireType(tag);
+                    if (wireType == WireFormat.WIRETYPE_END_GROUP) {
+                        break;
+                    }
+                    if (indexOf(WireFormat.getTagFieldNumber(tag)) == index) {
+                        if (wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                            final int length = source.readLength();
+                            final int position = source.getTotalBytesRead();
+                            addRegion(view, first, position, position + length);
+                            source.skipRawBytes(length);
+                        } else {
+                            addRegion(view, first, source.getTotalBytesRead(), UNKNOWN_END);
+                            source.skipField(tag);
+                        }
+                        first = false;
+                        continue;
+                    }
+                    source.skipField(tag);
+                }
+            } finally {
+                popLimit(source, ends[region], oldLimit);
+            }
+        }
+        return view;
+    }
+
+    private void addRegion(MessageView<?> view, boolean first, int start, int end) {
+        if (first) {
+            view.wrapRegion(source, start, end);
+        } else {
+            view.addRegion(start, end);
+        }
+    }
+
+    /**
+     * Positions the source at the value of the indexed field
+     *
+     * @return false if the field is not present
+     */
+    private boolean seek(int index) {
+        if (!has(index)) {
+            return false;
+        }
+        source.rewindTo(positions[index] - 1);
+        return true;
+    }
+
+    /**
+     * Limits the source to the end of a region that starts at the current position, so
+     * that readTag() returns zero at the end. Regions with an unknown end read until the
+     * end of the input or until an end group tag.
+     */
+    static int pushLimit(ProtoSource source, int end) throws IOException {
+        return end == UNKNOWN_END ? 0 : source.pushLimit(end - source.getTotalBytesRead());
+    }
+
+    static void popLimit(ProtoSource source, int end, int oldLimit) {
+        if (end != UNKNOWN_END) {
+            source.popLimit(oldLimit);
+        }
+    }
+
+    static IllegalStateException readFailure(IOException cause) {
+        return new IllegalStateException("Failed to read view content", cause);
+    }
+
+    // ----------------------------- FIELD ACCESS -----------------------------
+
+    protected final double readDouble(int index, double defaultValue) {
+        try {
+            return seek(index) ? source.readDouble() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final float readFloat(int index, float defaultValue) {
+        try {
+            return seek(index) ? source.readFloat() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final long readInt64(int index, long defaultValue) {
+        try {
+            return seek(index) ? source.readInt64() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final long readUInt64(int index, long defaultValue) {
+        try {
+            return seek(index) ? source.readUInt64() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final long readSInt64(int index, long defaultValue) {
+        try {
+            return seek(index) ? source.readSInt64() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final long readFixed64(int index, long defaultValue) {
+        try {
+            return seek(index) ? source.readFixed64() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final long readSFixed64(int index, long defaultValue) {
+        try {
+            return seek(index) ? source.readSFixed64() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final int readInt32(int index, int defaultValue) {
+        try {
+            return seek(index) ? source.readInt32() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final int readUInt32(int index, int defaultValue) {
+        try {
+            return seek(index) ? source.readUInt32() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final int readSInt32(int index, int defaultValue) {
+        try {
+            return seek(index) ? source.readSInt32() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final int readFixed32(int index, int defaultValue) {
+        try {
+            return seek(index) ? source.readFixed32() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final int readSFixed32(int index, int defaultValue) {
+        try {
+            return seek(index) ? source.readSFixed32() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final int readEnum(int index, int defaultValue) {
+        try {
+            return seek(index) ? source.readEnum() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    protected final boolean readBool(int index, boolean defaultValue) {
+        try {
+            return seek(index) ? source.readBool() : defaultValue;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    /**
+     * @return false if the field is not present, in which case the store is not modified
+     */
+    protected final boolean readString(int index, Utf8String store) {
+        try {
+            if (seek(index)) {
+                source.readString(store);
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    /**
+     * @return false if the field is not present, in which case the store is not modified
+     */
+    protected final boolean readBytes(int index, RepeatedByte store) {
+        try {
+            if (seek(index)) {
+                source.readBytes(store);
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    /**
+     * Wraps the nested message, or an empty message if the field is not present
+     */
+    protected final <V extends MessageView<V>> V readMessage(int index, V view) {
+        try {
+            if (!seek(index)) {
+                return view.wrapRegion(source, starts[0], starts[0]);
+            } else if (duplicates[index]) {
+                return wrapAllOccurrences(index, view);
+            }
+            final int length = source.readLength();
+            final int position = source.getTotalBytesRead();
+            return view.wrapRegion(source, position, position + length);
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    /**
+     * Wraps the nested group, or an empty group if the field is not present
+     */
+    protected final <V extends MessageView<V>> V readGroup(int index, V view) {
+        try {
+            if (!seek(index)) {
+                return view.wrapRegion(source, starts[0], starts[0]);
+            } else if (duplicates[index]) {
+                return wrapAllOccurrences(index, view);
+            }
+            return view.wrapRegion(source, source.getTotalBytesRead(), UNKNOWN_END);
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    /**
+     * Resets the cursor to iterate over all elements of a repeated field
+     *
+     * @param cursor   cursor to be reused, or null to create a new one
+     * @param tag      tag of unpacked elements
+     * @param packable true if the elements may be encoded as a packed field
+     * @return the reset cursor
+     */
+    protected final FieldCursor cursor(FieldCursor cursor, int tag, boolean packable) {
+        if (cursor == null) {
+            cursor = new FieldCursor();
+        }
+        return cursor.reset(this, tag, packable);
+    }
+
+    static final int UNKNOWN_END = -1;
+
+    private final int[] positions; // position + 1 of the last value, so that zero marks a missing field
+    private final boolean[] duplicates; // true if the field occurs more than once
+    private boolean indexed;
+    ProtoSource source;
+
+    // Regions that get merged in order. Usually there is only one.
+    int[] starts = new int[1];
+    int[] ends = new int[]{UNKNOWN_END};
+    int numRegions = 1;
+    private ProtoSource ownedSource;
+
+}
@@ -0,0 +1,378 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+
+/**
+ * Decodes a sequence of length delimited messages, e.g., as written by
+ * {@link ProtoMessage#writeDelimitedTo(ProtoSink)}, on multiple threads. The
+ * calling thread walks the length prefixes to split the input into chunks that
+ * contain whole messages, and the chunks get decoded by the tasks of an executor,
+ * e.g., a {@code ForkJoinPool}. Each task reuses the source and message of an
+ * idle worker, so a steady state reader does not allocate any messages.
+ * <p>
+ * In ordered mode, the decoded messages of each chunk are buffered and passed to
+ * the handler on the calling thread in the order of the input. In unordered mode,
+ * the handler gets called directly by the tasks, so it needs to be thread-safe,
+ * but there is no need to buffer messages. In both modes the message instances
+ * get reused after the handler returns, so they need to be copied if they are
+ * needed afterwards.
+ * <pre>{@code
+ * ParallelDelimitedReader<RootMessage> reader = ParallelDelimitedReader
+ *         .newInstance(RootMessage.getFactory(), ForkJoinPool.commonPool())
+ *         .setOrdered(false);
+ * long count = reader.read(fileChannel, handler);
+ * }</pre>
+ * Instances are not thread-safe and can only run one read at a time.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class ParallelDelimitedReader<T extends ProtoMessage<T>> {
+
+    /**
+     * Receives the decoded messages. The message gets reused after this method returns.
+     */
+    public interface Handler<T> {
+        void onMessage(T message) throws IOException;
+    }
+
+    /**
+     * @param factory  creates the messages of each worker
+     * @param executor executes the decoding tasks. Does not get shut down by the reader.
+     * @return new reader
+     */
+    public static <T extends ProtoMessage<T>> ParallelDelimitedReader<T> newInstance(MessageFactory<T> factory, ExecutorService executor) {
+        return new ParallelDelimitedReader<T>(factory, executor);
+    }
+
+    private ParallelDelimitedReader(MessageFactory<T> factory, ExecutorService executor) {
+        this.factory = checkNotNull(factory);
+        this.executor = checkNotNull(executor);
+    }
+
+    /**
+     * Sets the minimum number of bytes per chunk. Chunks contain whole messages, so
+     * they may be larger. Small chunks balance the load better, and large chunks
+     * reduce the overhead of scheduling tasks.
+     *
+     * @param chunkSize minimum number of bytes per chunk
+     * @return this
+     */
+    public ParallelDelimitedReader<T> setChunkSize(int chunkSize) {
+        checkArgument(chunkSize > 0 && chunkSize <= MAX_CHUNK_SIZE, "chunk size out of range");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of chunks that may be scheduled or buffered at the
+     * same time. This bounds the memory used for buffered messages, and it should be
+     * larger than the number of threads so that the workers don't run out of work.
+     *
+     * @param maxPendingChunks maximum number of chunks in flight
+     * @return this
+     */
+    public ParallelDelimitedReader<T> setMaxPendingChunks(int maxPendingChunks) {
+        checkArgument(maxPendingChunks > 0, "maxPendingChunks must be positive");
+        this.maxPendingChunks = maxPendingChunks;
+        return this;
+    }
+
+    /**
+     * @param ordered true if the handler should be called on the calling thread in the
+     *                order of the input, or false if the handler may be called concurrently
+     *                by the worker threads in any order
+     * @return this
+     */
+    public ParallelDelimitedReader<T> setOrdered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * Decodes all delimited messages in the array. The array must not be modified
+     * while it is being read.
+     *
+     * @return the number of decoded messages
+     */
+    public long read(byte[] bytes, Handler<? super T> handler) throws IOException {
+        return read(bytes, 0, bytes.length, handler);
+    }
+
+    /**
+     * Decodes all delimited messages in a range of the array. The array must not be
+     * modified while it is being read.
+     *
+     * @return the number of decoded messages
+     */
+    public long read(byte[] bytes, int offset, int length, Handler<? super T> handler) throws IOException {
+        if (arrayScanner == null) {
+            arrayScanner = ProtoSource.newArraySource();
+        }
+        arrayScanner.setInput(bytes, offset, length);
+        array = bytes;
+        try {
+            return read(arrayScanner, offset, handler);
+        } finally {
+            array = null;
+            arrayScanner.setInput(EMPTY_BYTE_ARRAY);
+        }
+    }
+
+    /**
+     * Decodes all delimited messages in a file. The file gets memory mapped, so
+     * it can be larger than 2 GB. The channel position is not used or modified.
+     *
+     * @return the number of decoded messages
+     */
+    public long read(FileChannel channel, Handler<? super T> handler) throws IOException {
+        if (fileScanner == null) {
+            fileScanner = ProtoSource.newMappedFileSource();
+        }
+        fileScanner.setInput(channel);
+        this.channel = channel;
+        try {
+            return read(fileScanner, 0, handler);
+        } finally {
+            this.channel = null;
+            fileScanner.clear();
+        }
+    }
+
+    private long read(ProtoSource scanner, long startPosition, Handler<? super T> handler) throws IOException {
+        this.handler = checkNotNull(handler);
+        long numMessages = 0;
+        try {
+            long chunkStart = startPosition;
+            int chunkOffset = scanner.getTotalBytesRead();
+            while (!scanner.isAtEnd()) {
+                scanner.skipRawBytes(scanner.readLength());
+                final int chunkLength = scanner.getTotalBytesRead() - chunkOffset;
+                if (chunkLength >= chunkSize) {
+                    numMessages += submit(chunkStart, chunkLength);
+                    chunkStart += chunkLength;
+                    if (scanner == fileScanner) {
+                        // keep the 32 bit positions of large files in range
+                        fileScanner.resetSizeCounter();
+                    }
+                    chunkOffset = scanner.getTotalBytesRead();
+                }
+            }
+            final int chunkLength = scanner.getTotalBytesRead() - chunkOffset;
+            if (chunkLength > 0) {
+                numMessages += submit(chunkStart, chunkLength);
+            }
+            while (!pending.isEmpty()) {
+                numMessages += complete(pending.poll());
+            }
+            return numMessages;
+        } finally {
+            cancelPending();
+            for (Worker worker : idleWorkers) {
+                worker.clear();
+            }
+            this.handler = null;
+        }
+    }
+
+    /**
+     * Schedules a chunk, and completes the oldest pending chunk if there are too many
+     *
+     * @return the number of messages in completed chunks
+     */
+    private int submit(long start, int length) throws IOException {
+        final int numMessages = pending.size() >= maxPendingChunks ? complete(pending.poll()) : 0;
+        Chunk chunk = freeChunks.poll();
+        if (chunk == null) {
+            chunk = new Chunk();
+        }
+        chunk.start = start;
+        chunk.length = length;
+        chunk.future = executor.submit(chunk);
+        pending.add(chunk);
+        return numMessages;
+    }
+
+    /**
+     * Waits for a chunk to finish, and passes the buffered messages to the handler
+     * in ordered mode.
+     *
+     * @return the number of messages in the chunk
+     */
+    private int complete(Chunk chunk) throws IOException {
+        try {
+            chunk.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for chunk at position " + chunk.start);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        chunk.future = null;
+        final int numMessages = chunk.numMessages;
+        if (ordered) {
+            for (int i = 0; i < numMessages; i++) {
+                handler.onMessage(chunk.messages.get(i));
+            }
+        }
+        freeChunks.add(chunk);
+        return numMessages;
+    }
+
+    /**
+     * Cancels chunks that have not started yet and waits for the running ones, so
+     * that no task touches the input after a failed read returns.
+     */
+    private void cancelPending() {
+        Chunk chunk;
+        while ((chunk = pending.poll()) != null) {
+            chunk.future.cancel(false);
+            try {
+                chunk.future.get();
+            } catch (Exception ignored) {
+                // already failed or cancelled
+            }
+            chunk.future = null;
+            freeChunks.add(chunk);
+        }
+    }
+
+    private Worker acquireWorker() {
+        final Worker worker = idleWorkers.poll();
+        return worker != null ? worker : new Worker();
+    }
+
+    class Chunk implements Callable<Void> {
+
+        @Override
+        public Void call() throws IOException {
+            final Worker worker = acquireWorker();
+            try {
+                final ProtoSource source = worker.setInput(start, length);
+                numMessages = 0;
+                if (ordered) {
+                    if (messages == null) {
+                        messages = RepeatedMessage.newEmptyInstance(factory);
+                    }
+                    messages.clearQuick();
+                    while (!source.isAtEnd()) {
+                        messages.next().mergeDelimitedFrom(source);
+                        numMessages++;
+                    }
+                } else {
+                    while (!source.isAtEnd()) {
+                        handler.onMessage(worker.message.clearQuick().mergeDelimitedFrom(source));
+                        numMessages++;
+                    }
+                }
+                return null;
+            } finally {
+                idleWorkers.add(worker);
+            }
+        }
+
+        long start;
+        int length;
+        int numMessages;
+        RepeatedMessage<T> messages;
+        Future<Void> future;
+
+    }
+
+    class Worker {
+
+        ProtoSource setInput(long start, int length) throws IOException {
+            if (array != null) {
+                if (arraySource == null) {
+                    arraySource = ProtoSource.newArraySource();
+                }
+                return arraySource.setInput(array, start, length);
+            }
+            if (fileSource == null) {
+                fileSource = ProtoSource.newMappedFileSource();
+            }
+            if (fileChannel != channel) {
+                fileSource.setInput(channel);
+                fileChannel = channel;
+            }
+            fileSource.seek(start).pushLimit(length);
+            return fileSource;
+        }
+
+        void clear() {
+            if (arraySource != null) {
+                arraySource.setInput(EMPTY_BYTE_ARRAY);
+            }
+            if (fileSource != null) {
+                fileSource.clear();
+                fileChannel = null;
+            }
+            message.clearQuick();
+        }
+
+        final T message = factory.create();
+        ProtoSource arraySource;
+        MappedFileSource fileSource;
+        FileChannel fileChannel;
+
+    }
+
+    private static final int MAX_CHUNK_SIZE = 1 << 30;
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final MessageFactory<T> factory;
+    private final ExecutorService executor;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int maxPendingChunks = 2 * Runtime.getRuntime().availableProcessors();
+    private boolean ordered = true;
+
+    private final ArrayDeque<Chunk> pending = new ArrayDeque<Chunk>();
+    private final ArrayDeque<Chunk> freeChunks = new ArrayDeque<Chunk>();
+    private final ConcurrentLinkedQueue<Worker> idleWorkers = new ConcurrentLinkedQueue<Worker>();
+    private ProtoSource arrayScanner;
+    private MappedFileSource fileScanner;
+
+    // Input of the current read. Published to the tasks by submitting them to the executor.
+    private byte[] array;
+    private FileChannel channel;
+    private Handler<? super T> handler;
+
+}
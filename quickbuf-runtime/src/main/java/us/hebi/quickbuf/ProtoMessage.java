@@ -36,10 +36,16 @@ public abstract class ProtoMessage<MessageType extends ProtoMessage<?>> {
     private static final long serialVersionUID = 0L;
     protected int cachedSize = -1;
 
+    // Content hash of messages with 'gen_hashcode' and 'dirty_tracking'. Zero if not cached.
+    protected long cachedHash;
+
     // Keep the first bitfield in the parent class so that it
     // is likely in the same cache line as the object header
     protected int bitField0_;
 
+    // Enclosing message that needs to be invalidated on changes
+    ProtoMessage<?> parent;
+
     protected ProtoMessage() {
     }
 
@@ -144,6 +150,62 @@ public abstract class ProtoMessage<MessageType extends ProtoMessage<?>> {
      */
     protected abstract int computeSerializedSize();
 
+    /**
+     * Invalidates the cached size and content hash of this message
+     * and all of its parent messages.
+     * <p>
+     * Messages that were generated with the 'dirty_tracking' option keep
+     * their cached size until they get modified, so serializing an unchanged
+     * subtree does not need to recompute its size. Setters and mutable getters
+     * call this method automatically, but modifications that are done through
+     * previously retained references to repeated fields, strings, or bytes can
+     * not be detected and need to call this method manually.
+     */
+    public final void markDirty() {
+        // A parent is always dirty if one of its children is dirty,
+        // so we can stop at the first message that is already dirty
+        for (ProtoMessage<?> msg = this; msg != null && (msg.cachedSize >= 0 || msg.cachedHash != 0); msg = msg.parent) {
+            msg.cachedSize = -1;
+            msg.cachedHash = 0;
+        }
+    }
+
+    /**
+     * Registers this message as the parent of a nested message, so
+     * that modifications of the child get propagated by {@link #markDirty()}
+     *
+     * @param child nested message field
+     * @return child
+     */
+    protected final <T extends ProtoMessage<T>> T attach(T child) {
+        child.parent = this;
+        return child;
+    }
+
+    /**
+     * Registers this message as the parent of all current and future
+     * elements of a repeated message field.
+     *
+     * @param children repeated message field
+     * @return children
+     */
+    protected final <T extends ProtoMessage<T>> RepeatedMessage<T> attach(RepeatedMessage<T> children) {
+        children.setOwner(this);
+        return children;
+    }
+
+    /**
+     * Registers this message as the parent of all current and future
+     * entries of a map field.
+     *
+     * @param children map field
+     * @return children
+     */
+    protected final <T extends MapField<T, ?>> T attach(T children) {
+        children.setOwner(this);
+        return children;
+    }
+
     /**
      * Serializes the message and writes it to {@code output}.
      *
@@ -152,6 +214,55 @@ public abstract class ProtoMessage<MessageType extends ProtoMessage<?>> {
      */
     public abstract void writeTo(ProtoSink output) throws IOException;
 
+    /**
+     * Serializes the message into the given array without going through a
+     * {@link ProtoSink}. Nested length fields get written using the cached
+     * sizes, so the serialized size needs to be up-to-date.
+     * <p>
+     * Messages that were generated with the 'gen_array_writer' option keep the
+     * position in a local variable and don't do any virtual calls for individual
+     * fields. The array writer gets selected automatically when calling
+     * {@link #writeTo(ProtoSink)} with a sink that was created via
+     * {@link ProtoSink#newArraySink()}. Other messages fall back to a temporary sink.
+     *
+     * @param buffer   the output array
+     * @param position the position of the first byte
+     * @return the position after the last written byte
+     * @throws IOException if the message does not fit into the array
+     */
+    public int writeToArray(byte[] buffer, int position) throws IOException {
+        final ProtoSink sink = new ArraySink().setOutput(buffer, position, buffer.length - position);
+        writeTo(sink);
+        return position + sink.getTotalBytesWritten();
+    }
+
+    /**
+     * Writes this message via {@link #writeToArray(byte[], int)} if the output
+     * supports it.
+     *
+     * @param output the output to receive the serialized form.
+     * @return true if the message has been written
+     */
+    protected final boolean tryWriteToArray(ProtoSink output) throws IOException {
+        return output instanceof ArraySink && ((ArraySink) output).writeArrayEncoded(this);
+    }
+
+    /**
+     * Serializes the message back-to-front, i.e., the fields get written in
+     * reverse order and nested lengths get written after their content. This
+     * produces the same output as {@link #writeTo(ProtoSink)} without computing
+     * the serialized size first.
+     * <p>
+     * Messages that were generated without the 'gen_reverse_writer' option fall
+     * back to computing the size and serializing in forward order.
+     *
+     * @param output the output to receive the serialized form.
+     * @throws IOException if an error occurred writing to {@code output}.
+     */
+    public void writeToReversed(ReverseSink output) throws IOException {
+        output.writeForward(this);
+    }
+
     /**
      * Serializes the message and writes it to the {@code output} in
      * length delimited form.
@@ -182,6 +293,40 @@ public abstract class ProtoMessage<MessageType extends ProtoMessage<?>> {
      */
     public abstract MessageType mergeFrom(ProtoSource input) throws IOException;
 
+    /**
+     * Merges fields from a contiguous array without going through the virtual
+     * methods of a {@link ProtoSource}. Decoding stops at the first tag that can't
+     * be handled inline, e.g., unknown fields or the end of the message, and the
+     * position gets written back to the source.
+     * <p>
+     * Messages that were generated with the 'gen_array_reader' option keep the
+     * position and the limit in local variables, and they decode scalar fields
+     * inline. The array reader gets selected automatically when calling
+     * {@link #mergeFrom(ProtoSource)} with a source that was created via
+     * {@link ProtoSource#newArraySource()}. Other messages only read the next tag.
+     *
+     * @param decoder  decoder of the source that owns the array
+     * @param buffer   the input array
+     * @param position the position of the first byte
+     * @param limit    the position after the last byte of this message
+     * @return the first tag that needs to be handled by {@link #mergeFrom(ProtoSource)}
+     * @throws IOException if the input is malformed
+     */
+    protected int mergeFromArray(ArrayDecoder decoder, byte[] buffer, int position, int limit) throws IOException {
+        return decoder.seek(position).readTag();
+    }
+
+    /**
+     * Merges as many fields as possible via {@link #mergeFromArray(ArrayDecoder, byte[], int, int)}
+     * if the input supports it.
+     *
+     * @param input the input to read from
+     * @return the first tag that needs to be handled by the regular decoder
+     */
+    protected final int tryMergeFromArray(ProtoSource input) throws IOException {
+        return input instanceof ArraySource ? ((ArraySource) input).mergeArrayDecoded(this) : input.readTag();
+    }
+
     /**
      * Merge {@code other} into the message being built. {@code other} must have the exact same type
      * as {@code this}.
@@ -297,6 +442,26 @@ public abstract class ProtoMessage<MessageType extends ProtoMessage<?>> {
         return msg;
     }
 
+    /**
+     * Merges the serialized content of a lazily parsed field into the given message and
+     * clears the bytes. The content does not get validated while reading the parent, so
+     * errors surface on first access where they can't be reported as checked exceptions.
+     * <p>
+     * The message is empty while there is unparsed content, so a failed merge clears the
+     * partially parsed message and keeps the bytes. The field can still be written as is,
+     * and it can be overwritten or cleared without parsing the content again.
+     */
+    protected static <T extends ProtoMessage<T>> T mergeLazyBytes(T msg, final RepeatedByte bytes) {
+        try {
+            mergeFrom(msg, bytes.contentArray(), bytes.contentOffset(), bytes.length());
+        } catch (InvalidProtocolBufferException e) {
+            msg.clear();
+            throw new IllegalStateException("Failed to parse lazy field content", e);
+        }
+        bytes.clear();
+        return msg;
+    }
+
     /**
      * Parse {@code input} as a message of this type and merge it with the message being built.
      */
@@ -327,12 +492,30 @@ public abstract class ProtoMessage<MessageType extends ProtoMessage<?>> {
      * be used in hashing structures. This implementation
      * returns a constant value in order to satisfy the
      * contract.
+     * <p>
+     * Messages that were generated with the 'gen_hashcode' option
+     * return a hash of their content that is consistent with
+     * {@link #equals(Object)}. Such messages may be used as keys
+     * as long as they don't get modified.
      */
     @Override
-    public final int hashCode() {
+    public int hashCode() {
         return 0;
     }
 
+    /**
+     * Returns a 64 bit hash of the content that is consistent with
+     * {@link #equals(Object)}, e.g., for sharding. Messages that were
+     * also generated with the 'dirty_tracking' option cache the hash
+     * until they get modified.
+     *
+     * @return content hash
+     * @throws UnsupportedOperationException if the message was not generated with the 'gen_hashcode' option
+     */
+    public long hash64() {
+        throw new UnsupportedOperationException("Content hashing requires the 'gen_hashcode' option");
+    }
+
     /**
      * Returns a string that contains a human-readable representation of the contents. The output
      * may not be compatible with any existing readers.
@@ -379,6 +562,14 @@ public abstract class ProtoMessage<MessageType extends ProtoMessage<?>> {
         }
     }
 
+    protected static void getMissingFields(String prefix, String fieldName, MapField<?, ?> field, List<String> results) {
+        for (int i = 0; i < field.length; i++) {
+            if (!field.array[i].isInitialized()) {
+                field.array[i].getMissingFields(prefix + fieldName + "[" + i + "].", results);
+            }
+        }
+    }
+
     protected UninitializedMessageException rethrowFromParent(UninitializedMessageException ex) {
         throw ex.withParentMessage(this);
     }
@@ -109,8 +109,14 @@ public abstract class ProtoSink {
         return newStreamSink().setOutput(stream);
     }
 
-    /** Create a new ProtoSink writing to the given {@link ByteBuffer}. */
+    /**
+     * Create a new ProtoSink writing to the given {@link ByteBuffer}. Direct buffers
+     * get written via {@code MemorySegment} on Java 22+ runtimes without sun.misc.Unsafe.
+     */
     public static ProtoSink newInstance(ByteBuffer buffer) {
+        if (buffer.isDirect() && !UnsafeAccess.isAvailable() && SegmentAccess.isAvailable()) {
+            return SegmentAccess.newSink().setOutput(buffer);
+        }
         return newBufferSink().setOutput(buffer);
     }
 
@@ -133,11 +139,15 @@ public abstract class ProtoSink {
      * {@link OutOfSpaceException} will be thrown. It is similar to {@link ArraySink},
      * but it allows null buffers to support raw memory addresses.
      *
-     * This sink requires availability of sun.misc.Unsafe. Be aware that
-     * passing incorrect memory addresses may cause the entire runtime to
-     * segfault.
+     * This sink requires availability of sun.misc.Unsafe, or a Java 22+
+     * runtime that falls back to a {@code MemorySegment} based implementation.
+     * Be aware that passing incorrect memory addresses may cause the entire
+     * runtime to segfault.
      */
     public static ProtoSink newDirectSink() {
+        if (!UnsafeAccess.isAvailable() && SegmentAccess.isAvailable()) {
+            return SegmentAccess.newSink();
+        }
         return new ArraySink.DirectArraySink();
     }
 
@@ -155,11 +165,59 @@ public abstract class ProtoSink {
      * The implementation is lightweight and writes byte-by-byte without any internal
      * buffering. This is slower than writing to an array, but it does not require
      * extra memory.
+     *
+     * @see #newBufferedStreamSink()
      */
     public static ProtoSink newStreamSink() {
         return new StreamSink();
     }
 
+    /**
+     * Creates a new {@code ProtoSink} that writes to an {@link OutputStream}
+     * through an internal buffer with the default size.
+     *
+     * @see #newBufferedStreamSink(int)
+     */
+    public static ProtoSink newBufferedStreamSink() {
+        return new BufferedStreamSink(BufferedStreamSink.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new {@code ProtoSink} that encodes into an internal buffer and
+     * writes to an {@link OutputStream} only when the buffer is full or when
+     * {@link #flush()} gets called. Large bytes or string fields bypass the
+     * buffer and get written to the stream directly.
+     *
+     * Note that written data may not reach the stream until {@link #flush()}
+     * gets called.
+     *
+     * @param bufferSize size of the internal buffer in bytes
+     */
+    public static ProtoSink newBufferedStreamSink(int bufferSize) {
+        return new BufferedStreamSink(bufferSize);
+    }
+
+    /**
+     * Creates a new {@link HashingSink} with the default block size.
+     *
+     * @see #newHashingSink(int)
+     */
+    public static HashingSink newHashingSink() {
+        return new HashingSink(HashingSink.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a new {@link HashingSink} that computes a CRC32C checksum and a
+     * 64-bit xxHash of all written bytes, e.g., to fingerprint messages without
+     * serializing them into a separate array. It can optionally forward all
+     * bytes to a downstream sink.
+     *
+     * @param blockSize size of the internal block that gets passed to the hash functions
+     */
+    public static HashingSink newHashingSink(int blockSize) {
+        return new HashingSink(blockSize);
+    }
+
     /**
      * Creates a new {@code ProtoSink} that writes directly to a {@link ByteBuffer}.
      *
@@ -579,6 +637,16 @@ public abstract class ProtoSink {
         return dataSize;
     }
 
+    /** Compute the number of bytes needed to encode all contained map entries */
+    public static int computeRepeatedMessageSizeNoTag(final MapField<?, ?> values) {
+        int dataSize = 0;
+        final int length = values.length;
+        for (int i = 0; i < length; i++) {
+            dataSize += ProtoSink.computeMessageSizeNoTag(values.array[i]);
+        }
+        return dataSize;
+    }
+
     /** Compute the number of bytes needed to encode all contained {@code message} values */
     public static int computeRepeatedGroupSizeNoTag(final RepeatedMessage<?> values) {
         int dataSize = 0;
@@ -665,7 +733,7 @@ public abstract class ProtoSink {
     public void writeStringNoTag(final Utf8String value) throws IOException {
         final int length = value.size();
         writeLength(length);
-        writeRawBytes(value.bytes(), 0, length);
+        writeRawBytes(value.contentArray(), value.contentOffset(), length);
     }
 
     /** Write a {@code string} field to the sink. */
@@ -688,7 +756,7 @@ public abstract class ProtoSink {
     /** Write a {@code bytes} field to the sink. */
     public void writeBytesNoTag(final RepeatedByte value) throws IOException {
         writeLength(value.length);
-        writeRawBytes(value.array, 0, value.length);
+        writeRawBytes(value.contentArray(), value.contentOffset(), value.length);
     }
 
     /**
@@ -1084,6 +1152,13 @@ public abstract class ProtoSink {
      */
     public abstract ProtoSink reset();
 
+    /**
+     * Writes all internally buffered data to the underlying output. This
+     * does nothing for sinks that write to their output directly.
+     */
+    public void flush() throws IOException {
+    }
+
     /**
      * If you create a ProtoSink around a simple flat array, you must
      * not attempt to write more bytes than the array has space.  Otherwise,
@@ -1117,7 +1192,7 @@ public abstract class ProtoSink {
 
     /** Writes the contents as an array of bytes */
     public void writeRawBytes(final RepeatedByte bytes) throws IOException {
-        writeRawBytes(bytes.array(), 0, bytes.length());
+        writeRawBytes(bytes.contentArray(), bytes.contentOffset(), bytes.length());
     }
 
     /** Write part of an array of bytes. */
@@ -1205,7 +1280,7 @@ public abstract class ProtoSink {
             writeRawByte((byte) (((value >>> 7)) | 0x80));
             writeRawByte((byte) (((value >>> 14)) | 0x80));
             writeRawByte((byte) (((value >>> 21)) | 0x80));
-            writeRawByte((byte) (((value >>> 28)) | 0x80));
+            writeRawByte((byte) (((value >> 28)) | 0x80)); // keep the sign bits
             writeRawByte((byte) -1);
             writeRawByte((byte) -1);
             writeRawByte((byte) -1);
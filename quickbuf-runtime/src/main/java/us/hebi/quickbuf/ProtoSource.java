@@ -97,8 +97,14 @@ public abstract class ProtoSource {
         return newStreamSource().setInput(stream);
     }
 
-    /** Create a new ProtoSource reading from the given {@link ByteBuffer}. */
+    /**
+     * Create a new ProtoSource reading from the given {@link ByteBuffer}. Direct buffers
+     * get read via {@code MemorySegment} on Java 22+ runtimes without sun.misc.Unsafe.
+     */
     public static ProtoSource newInstance(ByteBuffer buffer) {
+        if (buffer.isDirect() && !UnsafeAccess.isAvailable() && SegmentAccess.isAvailable()) {
+            return SegmentAccess.newSource().setInput(buffer);
+        }
         return newBufferSource().setInput(buffer);
     }
 
@@ -118,11 +124,15 @@ public abstract class ProtoSource {
      * direct / off-heap memory. It is similar to the array source, but
      * it allows null buffers to support raw memory addresses.
      *
-     * This source requires availability of sun.misc.Unsafe. Be aware that
-     * passing incorrect memory addresses may cause the entire runtime to
-     * segfault.
+     * This source requires availability of sun.misc.Unsafe, or a Java 22+
+     * runtime that falls back to a {@code MemorySegment} based implementation.
+     * Be aware that passing incorrect memory addresses may cause the entire
+     * runtime to segfault.
      */
     public static ProtoSource newDirectSource() {
+        if (!UnsafeAccess.isAvailable() && SegmentAccess.isAvailable()) {
+            return SegmentAccess.newSource();
+        }
         return new ArraySource.DirectArraySource();
     }
 
@@ -132,11 +142,75 @@ public abstract class ProtoSource {
      * The current implementation is a very lightweight wrapper that reads
      * byte-by-byte and does not do any internal buffering. This is slower
      * than reading from an array, but it does not require extra memory.
+     *
+     * @see #newBufferedStreamSource()
      */
     public static ProtoSource newStreamSource() {
         return new StreamSource();
     }
 
+    /**
+     * Creates a new {@code ProtoSource} that reads from an {@link InputStream}
+     * through an internal buffer with the default size.
+     *
+     * @see #newBufferedStreamSource(int)
+     */
+    public static ProtoSource newBufferedStreamSource() {
+        return new BufferedStreamSource(BufferedStreamSource.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new {@code ProtoSource} that reads from an {@link InputStream}
+     * through an internal buffer that gets refilled on demand. Values get
+     * decoded directly from the buffer, which is significantly faster than
+     * reading individual bytes from the stream.
+     *
+     * Note that the source may read ahead of the current message, so the stream
+     * should not be shared with other readers. Consecutive delimited messages
+     * should be read using the same source instance.
+     *
+     * @param bufferSize size of the internal buffer in bytes
+     */
+    public static ProtoSource newBufferedStreamSource(int bufferSize) {
+        return new BufferedStreamSource(bufferSize);
+    }
+
+    /**
+     * Creates a new {@code ProtoSource} that reads from a memory mapped
+     * {@link java.nio.channels.FileChannel} using the default region size.
+     *
+     * @see #newMappedFileSource(int)
+     */
+    public static MappedFileSource newMappedFileSource() {
+        return new MappedFileSource(MappedFileSource.DEFAULT_MAPPING_SIZE);
+    }
+
+    /**
+     * Creates a new {@code ProtoSource} that reads from a memory mapped
+     * {@link java.nio.channels.FileChannel}. The file gets mapped in regions
+     * of the specified size, so it can be used to read files that are larger
+     * than 2 GB. The absolute file position can be accessed via
+     * {@link MappedFileSource#getPosition()} and {@link MappedFileSource#seek(long)}.
+     *
+     * This source requires availability of sun.misc.Unsafe.
+     *
+     * @param mappingSize size of the mapped regions in bytes
+     */
+    public static MappedFileSource newMappedFileSource(int mappingSize) {
+        return new MappedFileSource(mappingSize);
+    }
+
+    /**
+     * Creates a new {@code ProtoSource} that reads from a chain of {@link ByteBuffer}
+     * fragments without copying them into a contiguous array first. Values that lie
+     * inside a single fragment get decoded as fast as with a direct source.
+     *
+     * This source requires availability of sun.misc.Unsafe.
+     */
+    public static CompositeBufferSource newCompositeSource() {
+        return new CompositeBufferSource();
+    }
+
     /**
      * Creates a new {@code ProtoSource} that reads from an {@link ByteBuffer}.
      *
@@ -170,7 +244,7 @@ public abstract class ProtoSource {
      * Changes the input to the current array of the given {@link RepeatedByte}.
      */
     public final ProtoSource setInput(RepeatedByte bytes) {
-        return setInput(bytes.array(), 0, bytes.length());
+        return setInput(bytes.contentArray(), bytes.contentOffset(), bytes.length());
     }
 
     /**
@@ -208,17 +282,21 @@ public abstract class ProtoSource {
      * may legally end wherever a tag occurs, and zero is not a valid tag number.
      */
     public int readTag() throws IOException {
-        if (isAtEnd()) {
-            lastTag = 0;
-            return 0;
-        }
+        do {
+            if (isAtEnd()) {
+                lastTag = 0;
+                return 0;
+            }
 
-        lastTag = readRawVarint32();
-        if (WireFormat.getTagFieldNumber(lastTag) == 0) {
-            // If we actually read zero (or any tag number corresponding
-            // to field number zero), that's not a valid tag.
-            throw InvalidProtocolBufferException.invalidTag();
-        }
+            lastTag = readRawVarint32();
+            if (WireFormat.getTagFieldNumber(lastTag) == 0) {
+                // If we actually read zero (or any tag number corresponding
+                // to field number zero), that's not a valid tag.
+                throw InvalidProtocolBufferException.invalidTag();
+            }
+
+            // Skip fields that were not selected by the projection
+        } while (projection != null && !projection.isSelected(lastTag) && skipField(lastTag));
         return lastTag;
     }
 
@@ -236,6 +314,11 @@ public abstract class ProtoSource {
         }
     }
 
+    /** Sets the tag that was read by a decoder outside of readTag() */
+    final void setLastTag(final int tag) {
+        lastTag = tag;
+    }
+
     /**
      * Reads and discards a single field, given its tag value.
      *
@@ -523,10 +606,7 @@ public abstract class ProtoSource {
     public void readPackedInt64(final RepeatedLong store, final int tag) throws IOException {
         final int length = readLength();
         final int limit = pushLimit(length);
-        while (!isAtEnd()) {
-            reservePackedVarintCapacity(store);
-            store.add(readInt64());
-        }
+        readRawVarint64s(store, false);
         popLimit(limit);
     }
 
@@ -534,11 +614,21 @@ public abstract class ProtoSource {
     public void readPackedSInt64(final RepeatedLong store, final int tag) throws IOException {
         final int length = readLength();
         final int limit = pushLimit(length);
+        readRawVarint64s(store, true);
+        popLimit(limit);
+    }
+
+    /**
+     * Reads varints until the current limit is reached and appends them to the store.
+     * Zig-zag encoded values get decoded on the fly. Sources with access to the
+     * underlying memory may override this to decode the entire range in bulk.
+     */
+    protected void readRawVarint64s(final RepeatedLong store, final boolean zigZag) throws IOException {
         while (!isAtEnd()) {
             reservePackedVarintCapacity(store);
-            store.add(readSInt64());
+            final long value = readRawVarint64();
+            store.add(zigZag ? decodeZigZag64(value) : value);
         }
-        popLimit(limit);
     }
 
     /** Read a repeated {@code uint64} field value from the source. */
@@ -590,10 +680,7 @@ public abstract class ProtoSource {
     public void readPackedInt32(final RepeatedInt store, final int tag) throws IOException {
         final int length = readLength();
         final int limit = pushLimit(length);
-        while (!isAtEnd()) {
-            reservePackedVarintCapacity(store);
-            store.add(readInt32());
-        }
+        readRawVarint32s(store, false);
         popLimit(limit);
     }
 
@@ -601,11 +688,17 @@ public abstract class ProtoSource {
     public void readPackedSInt32(final RepeatedInt store, final int tag) throws IOException {
         final int length = readLength();
         final int limit = pushLimit(length);
+        readRawVarint32s(store, true);
+        popLimit(limit);
+    }
+
+    /** 32 bit version of {@link #readRawVarint64s(RepeatedLong, boolean)} */
+    protected void readRawVarint32s(final RepeatedInt store, final boolean zigZag) throws IOException {
         while (!isAtEnd()) {
             reservePackedVarintCapacity(store);
-            store.add(readSInt32());
+            final int value = readRawVarint32();
+            store.add(zigZag ? decodeZigZag32(value) : value);
         }
-        popLimit(limit);
     }
 
     /** Read a repeated {@code uint32} field value from the source. */
@@ -744,7 +837,12 @@ public abstract class ProtoSource {
             throw InvalidProtocolBufferException.recursionLimitExceeded();
         }
         ++recursionDepth;
+        final FieldProjection parentProjection = projection;
+        if (parentProjection != null) {
+            projection = parentProjection.getNested(fieldNumber);
+        }
         msg.mergeFrom(this);
+        projection = parentProjection;
         checkLastTagWas(WireFormat.makeTag(fieldNumber, WireFormat.WIRETYPE_END_GROUP));
         --recursionDepth;
     }
@@ -759,6 +857,17 @@ public abstract class ProtoSource {
         return nextTag;
     }
 
+    /** Read a map field value from the source. Entries replace existing entries with the same key. */
+    public int readRepeatedMessage(final MapField<?, ?> store, final int tag) throws IOException {
+        int nextTag;
+        do {
+            reserveRepeatedFieldCapacity(store, tag);
+            readMessage(store.nextPending());
+            store.commitPending();
+        } while ((nextTag = readTag()) == tag);
+        return nextTag;
+    }
+
     public void readMessage(final ProtoMessage<?> msg) throws IOException {
         final int length = readLength();
         if (recursionDepth >= recursionLimit) {
@@ -766,12 +875,32 @@ public abstract class ProtoSource {
         }
         final int oldLimit = pushLimit(length);
         ++recursionDepth;
+        final FieldProjection parentProjection = projection;
+        if (parentProjection != null) {
+            projection = parentProjection.getNested(WireFormat.getTagFieldNumber(lastTag));
+        }
         msg.mergeFrom(this);
+        projection = parentProjection;
         checkLastTagWas(0);
         --recursionDepth;
         popLimit(oldLimit);
     }
 
+    /**
+     * Reads a {@code message} field value without parsing it. The serialized
+     * content gets appended to the store, which is equivalent to merging the
+     * messages once the bytes get parsed.
+     */
+    public void readMessageBytes(final RepeatedByte store) throws IOException {
+        if (store.length() == 0) {
+            readBytes(store); // may alias the input
+            return;
+        }
+        final int length = readLength();
+        final int offset = store.addLength(length);
+        readRawBytes(store.array, offset, length);
+    }
+
     /** Read a repeated {@code bytes} field value from the source. */
     public int readRepeatedBytes(final RepeatedBytes store, final int tag) throws IOException {
         int nextTag;
@@ -786,7 +915,7 @@ public abstract class ProtoSource {
     public void readBytes(RepeatedByte store) throws IOException {
         // note: bytes type gets replaced rather than merged
         final int length = readLength();
-        store.setLength(length);
+        store.clear().setLength(length);
         readRawBytes(store.array, 0, length);
     }
 
@@ -869,15 +998,15 @@ public abstract class ProtoSource {
         }
     }
 
-    private static final int xorBits7 = ~0 << 7;
-    private static final int xorBits14 = xorBits7 ^ (~0 << 14);
-    private static final int xorBits21 = xorBits14 ^ (~0 << 21);
-    private static final int xorBits28 = xorBits21 ^ (~0 << 28);
-    private static final long xorBits28L = xorBits21 ^ (~0L << 28);
-    private static final long xorBits35L = xorBits28L ^ (~0L << 35);
-    private static final long xorBits42L = xorBits35L ^ (~0L << 42);
-    private static final long xorBits49L = xorBits42L ^ (~0L << 49);
-    private static final long xorBits56L = xorBits49L ^ (~0L << 56);
+    static final int xorBits7 = ~0 << 7;
+    static final int xorBits14 = xorBits7 ^ (~0 << 14);
+    static final int xorBits21 = xorBits14 ^ (~0 << 21);
+    static final int xorBits28 = xorBits21 ^ (~0 << 28);
+    static final long xorBits28L = xorBits21 ^ (~0L << 28);
+    static final long xorBits35L = xorBits28L ^ (~0L << 35);
+    static final long xorBits42L = xorBits35L ^ (~0L << 42);
+    static final long xorBits49L = xorBits42L ^ (~0L << 49);
+    static final long xorBits56L = xorBits49L ^ (~0L << 56);
 
     long readRawVarint64SlowPath() throws IOException {
         long result = 0;
@@ -960,8 +1089,13 @@ public abstract class ProtoSource {
     /** see setDiscardUnknownFields */
     private boolean shouldDiscardUnknownFields = false;
 
+    /** see setProjection */
+    private FieldProjection rootProjection = null;
+    private FieldProjection projection = null;
+
     protected ProtoSource resetInternalState() {
         lastTag = 0;
+        projection = rootProjection;
         recursionDepth = 0;
         recursionLimit = DEFAULT_RECURSION_LIMIT;
         currentLimit = NO_LIMIT;
@@ -1035,6 +1169,46 @@ public abstract class ProtoSource {
         return this;
     }
 
+    /**
+     * Enables or disables aliasing of {@code string} and {@code bytes} fields. When
+     * enabled, {@link Utf8String} and {@link RepeatedByte} fields become read-only views
+     * into the input buffer rather than copies, which avoids touching large payloads
+     * that only get forwarded. The content gets copied on the first modification, or
+     * when calling {@code detach()} on the field.
+     *
+     * <p>The input buffer must not be modified or reused while any parsed message
+     * still references it. Aliasing is only supported by sources that read from a
+     * heap array, and it is ignored by all other sources.
+     *
+     * @return this
+     */
+    public ProtoSource enableAliasing(boolean enabled) {
+        return this;
+    }
+
+    /**
+     * Restricts parsing to the fields that are selected by the given projection. All
+     * other fields get skipped without being decoded, i.e., they are neither set nor
+     * stored in the unknown bytes. The projection applies to the top level message
+     * that gets read next, and it stays active until it gets replaced.
+     *
+     * <p>Note that the content of fields that get parsed lazily, e.g., nested messages
+     * generated with the {@code lazy_parse} option, does not get filtered.
+     *
+     * @param projection selected fields, or null to parse all fields
+     * @return this
+     */
+    public final ProtoSource setProjection(FieldProjection projection) {
+        this.rootProjection = projection;
+        this.projection = projection;
+        return this;
+    }
+
+    /** @return true if fields get filtered by a projection */
+    final boolean isProjected() {
+        return projection != null;
+    }
+
     /**
      * Whether unknown fields in this input stream should be discarded during parsing into full
      * runtime messages.
@@ -141,6 +141,152 @@ public final class ProtoUtil {
         return a == b;
     }
 
+    // ------------------------------ CONTENT HASHING ------------------------------
+
+    /**
+     * Mixes a value into a content hash. Messages that were generated with the
+     * 'gen_hashcode' option combine the has bits and the values of all set fields,
+     * and finish the result with {@link #finishHash(long)}. The mixing step is the
+     * accumulator round of xxHash64, so the result is well distributed for sharding.
+     * <p>
+     * Hash values are not guaranteed to be stable across releases, so they should
+     * not be persisted.
+     */
+    public static long hash(long hash, long value) {
+        hash += value * PRIME64_2;
+        hash = Long.rotateLeft(hash, 31);
+        return hash * PRIME64_1;
+    }
+
+    public static long hash(long hash, boolean value) {
+        return hash(hash, value ? 1L : 0L);
+    }
+
+    public static long hash(long hash, float value) {
+        // consistent with isEqual(float, float)
+        return hash(hash, Float.floatToIntBits(value));
+    }
+
+    public static long hash(long hash, double value) {
+        // consistent with isEqual(double, double)
+        return hash(hash, Double.doubleToLongBits(value));
+    }
+
+    public static long hash(long hash, Utf8String value) {
+        // Equal strings always have the same utf8 encoding
+        final int length = value.size();
+        return hashBytes(hash, value.contentArray(), value.contentOffset(), length);
+    }
+
+    public static long hash(long hash, RepeatedByte value) {
+        return hashBytes(hash, value.contentArray(), value.contentOffset(), value.length);
+    }
+
+    public static long hash(long hash, ProtoMessage<?> value) {
+        return hash(hash, value.hash64());
+    }
+
+    public static long hash(long hash, RepeatedInt values) {
+        for (int i = 0; i < values.length; i++) {
+            hash = hash(hash, values.array[i]);
+        }
+        return hash(hash, values.length);
+    }
+
+    public static long hash(long hash, RepeatedEnum<?> values) {
+        for (int i = 0; i < values.length; i++) {
+            hash = hash(hash, values.array[i]);
+        }
+        return hash(hash, values.length);
+    }
+
+    public static long hash(long hash, RepeatedLong values) {
+        for (int i = 0; i < values.length; i++) {
+            hash = hash(hash, values.array[i]);
+        }
+        return hash(hash, values.length);
+    }
+
+    public static long hash(long hash, RepeatedFloat values) {
+        for (int i = 0; i < values.length; i++) {
+            hash = hash(hash, values.array[i]);
+        }
+        return hash(hash, values.length);
+    }
+
+    public static long hash(long hash, RepeatedDouble values) {
+        for (int i = 0; i < values.length; i++) {
+            hash = hash(hash, values.array[i]);
+        }
+        return hash(hash, values.length);
+    }
+
+    public static long hash(long hash, RepeatedBoolean values) {
+        for (int i = 0; i < values.length; i++) {
+            hash = hash(hash, values.array[i]);
+        }
+        return hash(hash, values.length);
+    }
+
+    public static long hash(long hash, RepeatedString values) {
+        for (int i = 0; i < values.length; i++) {
+            hash = hash(hash, values.array[i]);
+        }
+        return hash(hash, values.length);
+    }
+
+    public static long hash(long hash, RepeatedBytes values) {
+        for (int i = 0; i < values.length; i++) {
+            hash = hash(hash, values.array[i]);
+        }
+        return hash(hash, values.length);
+    }
+
+    public static long hash(long hash, RepeatedMessage<?> values) {
+        for (int i = 0; i < values.length; i++) {
+            hash = hash(hash, values.array[i].hash64());
+        }
+        return hash(hash, values.length);
+    }
+
+    public static long hash(long hash, MapField<?, ?> values) {
+        // Map equality does not depend on the order of the entries
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += values.array[i].hash64();
+        }
+        return hash(hash(hash, sum), values.length);
+    }
+
+    /**
+     * Final avalanche step of MurmurHash3. The result is never zero,
+     * so that zero can mark a hash that has not been computed yet.
+     */
+    public static long finishHash(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash != 0 ? hash : 1;
+    }
+
+    private static long hashBytes(long hash, final byte[] bytes, final int offset, final int length) {
+        final int limit = offset + length;
+        int i = offset;
+        for (; i <= limit - 8; i += 8) {
+            hash = hash(hash, ByteUtil.readLittleEndian64(bytes, i));
+        }
+        long tail = 0;
+        for (int shift = 0; i < limit; i++, shift += 8) {
+            tail |= (bytes[i] & 0xFFL) << shift;
+        }
+        return hash(hash(hash, tail), length);
+    }
+
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+
     static final Utf8Decoder DEFAULT_UTF8_DECODER = new Utf8Decoder() {
         @Override
         public String decode(byte[] bytes, int offset, int length) {
@@ -0,0 +1,340 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.util.Arrays;
+
+import static us.hebi.quickbuf.ProtoUtil.*;
+
+/**
+ * Class that represents the data for a repeated byte field. This is
+ * also used as the storage for {@code bytes} fields.
+ * <p>
+ * The implementation started out as a copy of {@link RepeatedFloat}, but
+ * it can additionally hold a read-only view into an external buffer (see
+ * {@link ProtoSource#enableAliasing(boolean)}). Aliased content gets copied
+ * into the internal storage before any modification or when calling
+ * {@link #detach()}.
+ *
+ * @author Florian Enner
+ * @since 09 Aug 2019
+ */
+public final class RepeatedByte extends RepeatedField<RepeatedByte, Byte> {
+
+    public static RepeatedByte newEmptyInstance() {
+        return new RepeatedByte();
+    }
+
+    public static RepeatedByte newInstance(byte[] initialValue) {
+        return newEmptyInstance().copyFrom(initialValue);
+    }
+
+    RepeatedByte() {
+    }
+
+    @Override
+    protected void extendCapacityTo(int desiredSize) {
+        detach();
+        array = Arrays.copyOf(array, desiredSize);
+    }
+
+    @Override
+    protected Byte getValueAt(int index) {
+        return get(index);
+    }
+
+    public byte get(int index) {
+        checkIndex(index);
+        return aliasedArray == null ? array[index] : aliasedArray[aliasedOffset + index];
+    }
+
+    public RepeatedByte set(int index, byte value) {
+        checkIndex(index);
+        detach();
+        array[index] = value;
+        return this;
+    }
+
+    public RepeatedByte add(final byte value) {
+        final int pos = addLength(1);
+        array[pos] = value;
+        return this;
+    }
+
+    public RepeatedByte addAll(final byte[] values) {
+        return addAll(values, 0, values.length);
+    }
+
+    public RepeatedByte addAll(final byte[] buffer, final int offset, final int length) {
+        final int pos = addLength(length);
+        System.arraycopy(buffer, offset, array, pos, length);
+        return this;
+    }
+
+    public RepeatedByte copyFrom(final byte[] buffer) {
+        return copyFrom(buffer, 0, buffer.length);
+    }
+
+    public RepeatedByte copyFrom(final byte[] buffer, final int offset, final int length) {
+        aliasedArray = null;
+        setLength(length);
+        System.arraycopy(buffer, offset, array, 0, length);
+        return this;
+    }
+
+    @Override
+    public void addAll(RepeatedByte values) {
+        addAll(values.contentArray(), values.contentOffset(), values.length);
+    }
+
+    @Override
+    public void copyFrom(RepeatedByte other) {
+        copyFrom(other.contentArray(), other.contentOffset(), other.length);
+    }
+
+    /**
+     * Gifts ownership of the supplied array and uses it as the internal storage array.
+     * Subsequent write actions may change the contents, and append actions may replace
+     * the internal storage array with something else.
+     *
+     * @param array array with valid data from zero to length
+     * @return this
+     */
+    public RepeatedByte setInternalArray(byte[] array) {
+        return setInternalArray(array, array.length);
+    }
+
+    public RepeatedByte setInternalArray(byte[] array, int length) {
+        checkNotNull(array);
+        this.aliasedArray = null;
+        this.array = array;
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * Copies aliased content into the internal storage array, so that the
+     * external buffer can be reused. Does nothing if the content is not
+     * aliased.
+     *
+     * @return this
+     */
+    public RepeatedByte detach() {
+        if (aliasedArray != null) {
+            final byte[] content = aliasedArray;
+            aliasedArray = null;
+            if (length > array.length) {
+                array = new byte[length];
+            }
+            System.arraycopy(content, aliasedOffset, array, 0, length);
+        }
+        return this;
+    }
+
+    /**
+     * @return true if the content is a view into an external buffer
+     */
+    public boolean isAliased() {
+        return aliasedArray != null;
+    }
+
+    /**
+     * Replaces the content with a view into an external buffer. The
+     * buffer must not be modified while this object references it.
+     */
+    void setAliasedContent(final byte[] buffer, final int offset, final int length) {
+        this.aliasedArray = buffer;
+        this.aliasedOffset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @return array that contains the valid data starting at the content offset
+     */
+    byte[] contentArray() {
+        return aliasedArray == null ? array : aliasedArray;
+    }
+
+    /**
+     * @return index of the first valid byte in the content array
+     */
+    int contentOffset() {
+        return aliasedArray == null ? 0 : aliasedOffset;
+    }
+
+    @Override
+    public RepeatedByte clear() {
+        aliasedArray = null;
+        return super.clear();
+    }
+
+    /**
+     * @return total capacity of the internal storage array
+     */
+    @Override
+    public int capacity() {
+        return aliasedArray == null ? array.length : length;
+    }
+
+    /**
+     * Creates a copy of the valid data contained in the
+     * internal storage.
+     *
+     * @return copy of only valid data
+     */
+    public final byte[] toArray() {
+        if (length == 0) return EMPTY_ARRAY;
+        final int offset = contentOffset();
+        return Arrays.copyOfRange(contentArray(), offset, offset + length);
+    }
+
+    /**
+     * Provides access to the internal storage array. Do not hold
+     * on to this reference as it can change during a resize.
+     * <p>
+     * The array may be larger than the amount of contained data,
+     * but the data is only valid between index 0 and length.
+     * Aliased content gets detached before returning.
+     *
+     * @return internal storage array
+     */
+    public final byte[] array() {
+        detach();
+        return array;
+    }
+
+    /**
+     * Sets the absolute length of the data that can be serialized. The
+     * internal storage array may get extended to accommodate at least
+     * the desired length.
+     * <p>
+     * This does not change the underlying data, so setting a length
+     * longer than the current one may result in arbitrary data being
+     * serialized.
+     *
+     * @param length desired length
+     * @return this
+     */
+    public final RepeatedByte setLength(final int length) {
+        detach();
+        if (length - array.length > 0) {
+            extendCapacityTo(length);
+        }
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * Sets the length to length + offset and returns
+     * the previous length. The internal storage array
+     * may get extended to accommodate at least the
+     * desired length.
+     * <p>
+     * It is expected that users don't know the exact
+     * desired size, so the growth rate is the same
+     * as a generic ArrayList.
+     * <p>
+     * See {@link RepeatedByte#setLength(int)}
+     *
+     * @param length added to the current length
+     * @return previous length
+     */
+    public final int addLength(final int length) {
+        detach();
+        final int oldLength = this.length;
+        final int newLength = oldLength + length;
+        final int oldCapacity = array.length;
+        if (newLength - oldCapacity > 0) {
+            // overflow-conscious code (copied from ArrayList::grow)
+            int minCapacity = (array == EMPTY_ARRAY) ? Math.max(newLength, DEFAULT_CAPACITY) : newLength;
+            int newCapacity = oldCapacity + (oldCapacity >> 1);
+            if (newCapacity - minCapacity < 0)
+                newCapacity = minCapacity;
+            if (newCapacity - MAX_ARRAY_SIZE > 0)
+                newCapacity = hugeCapacity(minCapacity);
+            // minCapacity is usually close to size, so this is a win:
+            extendCapacityTo(newCapacity);
+        }
+        this.length = newLength;
+        return oldLength;
+    }
+
+    /**
+     * The maximum size of array to allocate.
+     * Some VMs reserve some header words in an array.
+     * Attempts to allocate larger arrays may result in
+     * OutOfMemoryError: Requested array size exceeds VM limit
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private static int hugeCapacity(int minCapacity) {
+        if (minCapacity < 0) // overflow
+            throw new OutOfMemoryError();
+        return (minCapacity > MAX_ARRAY_SIZE) ?
+                Integer.MAX_VALUE :
+                MAX_ARRAY_SIZE;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RepeatedByte other = (RepeatedByte) o;
+
+        if (length != other.length)
+            return false;
+
+        final byte[] a = contentArray(), b = other.contentArray();
+        final int offsetA = contentOffset(), offsetB = other.contentOffset();
+        for (int i = 0; i < length; i++) {
+            if (!ProtoUtil.isEqual(a[offsetA + i], b[offsetB + i]))
+                return false;
+        }
+        return true;
+    }
+
+    public RepeatedByte writeTo(ProtoSink sink) throws java.io.IOException {
+        sink.writeRawBytes(contentArray(), contentOffset(), length);
+        return this;
+    }
+
+    public RepeatedByte writeTo(java.io.OutputStream outputStream) throws java.io.IOException {
+        outputStream.write(contentArray(), contentOffset(), length);
+        return this;
+    }
+
+    public RepeatedByte writeTo(java.nio.ByteBuffer buffer) {
+        buffer.put(contentArray(), contentOffset(), length);
+        return this;
+    }
+
+    byte[] array = EMPTY_ARRAY;
+    private byte[] aliasedArray = null;
+    private int aliasedOffset;
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+}
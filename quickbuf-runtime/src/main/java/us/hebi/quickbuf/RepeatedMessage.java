@@ -100,9 +100,25 @@ public final class RepeatedMessage<MessageType extends ProtoMessage<MessageType>
 
     @Override
     protected MessageType createEmpty() {
-        return factory.create();
+        final MessageType msg = factory.create();
+        msg.parent = owner;
+        return msg;
+    }
+
+    /**
+     * Sets the message that contains this field, so that modifications of
+     * the contained messages invalidate the cached size of the owner.
+     */
+    final void setOwner(ProtoMessage<?> owner) {
+        this.owner = owner;
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] != null) {
+                array[i].parent = owner;
+            }
+        }
     }
 
     final MessageFactory<MessageType> factory;
+    private ProtoMessage<?> owner;
 
 }
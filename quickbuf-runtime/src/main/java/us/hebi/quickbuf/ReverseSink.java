@@ -0,0 +1,433 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import java.io.IOException;
+
+import us.hebi.quickbuf.ProtoSink.OutOfSpaceException;
+
+import static us.hebi.quickbuf.WireFormat.*;
+
+/**
+ * Sink that gets filled back-to-front. Messages write their fields in reverse
+ * order via {@link ProtoMessage#writeToReversed(ReverseSink)}, and every length
+ * prefix gets written after its content, i.e., once the length is known. This
+ * removes the need to compute the serialized size of the entire message tree
+ * before serializing, so the tree only gets traversed once. The output is
+ * byte-identical to {@link ProtoMessage#writeTo(ProtoSink)}.
+ * <p>
+ * The content occupies the end of an internal array that grows as needed. It can
+ * be retrieved via {@link #toByteArray()} or {@link #writeTo(ProtoSink)}.
+ * <p>
+ * The write methods in this class need to be called in the reverse order of the
+ * desired output, e.g., a field value needs to be written before its tag.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class ReverseSink {
+
+    public static ReverseSink newInstance() {
+        return new ReverseSink(256);
+    }
+
+    public static ReverseSink newInstance(int initialCapacity) {
+        return new ReverseSink(initialCapacity);
+    }
+
+    private ReverseSink(int initialCapacity) {
+        ProtoUtil.checkArgument(initialCapacity >= 0, "capacity can't be negative");
+        buffer = new byte[initialCapacity];
+        position = initialCapacity;
+    }
+
+    /**
+     * Discards the written content while keeping the internal buffer
+     *
+     * @return this
+     */
+    public ReverseSink reset() {
+        position = buffer.length;
+        return this;
+    }
+
+    /**
+     * @return the number of bytes written since the last reset
+     */
+    public int getTotalBytesWritten() {
+        return buffer.length - position;
+    }
+
+    /**
+     * @return a copy of the written content
+     */
+    public byte[] toByteArray() {
+        final byte[] result = new byte[getTotalBytesWritten()];
+        System.arraycopy(buffer, position, result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * Copies the written content to the given sink in forward order
+     *
+     * @param output target sink
+     */
+    public void writeTo(ProtoSink output) throws IOException {
+        output.writeRawBytes(buffer, position, getTotalBytesWritten());
+    }
+
+    // -------------------------- MESSAGES --------------------------
+
+    /** Write an embedded message field, including its length prefix, to the sink. */
+    public void writeMessageNoTag(final ProtoMessage<?> value) throws IOException {
+        final int end = getTotalBytesWritten();
+        value.writeToReversed(this);
+        writeLength(getTotalBytesWritten() - end);
+    }
+
+    /** Write a {@code group} field to the sink. Tags need to be written by the caller. */
+    public void writeGroupNoTag(final ProtoMessage<?> value) throws IOException {
+        value.writeToReversed(this);
+    }
+
+    /**
+     * Serializes a message in forward order into a block of the required size. This
+     * is the fallback for messages that were generated without reverse serialization.
+     */
+    void writeForward(final ProtoMessage<?> value) throws IOException {
+        final int size = value.getSerializedSize();
+        final int offset = require(size);
+        value.writeTo(forwardSink.setOutput(buffer, offset, size));
+    }
+
+    // -------------------------- SCALAR TYPES --------------------------
+
+    /** Write a length delimiter to the sink */
+    public void writeLength(final int length) throws IOException {
+        writeUInt32NoTag(length);
+    }
+
+    /** Write a {@code double} field to the sink. */
+    public void writeDoubleNoTag(final double value) throws IOException {
+        writeRawLittleEndian64(Double.doubleToLongBits(value));
+    }
+
+    /** Write a {@code float} field to the sink. */
+    public void writeFloatNoTag(final float value) throws IOException {
+        writeRawLittleEndian32(Float.floatToIntBits(value));
+    }
+
+    /** Write an {@code int64} field to the sink. */
+    public void writeInt64NoTag(final long value) throws IOException {
+        writeUInt64NoTag(value);
+    }
+
+    /** Write an {@code int32} field to the sink. */
+    public void writeInt32NoTag(final int value) throws IOException {
+        if (value >= 0) {
+            writeUInt32NoTag(value);
+        } else {
+            // Must sign-extend
+            writeUInt64NoTag(value);
+        }
+    }
+
+    /** Write a {@code fixed64} field to the sink. */
+    public void writeFixed64NoTag(final long value) throws IOException {
+        writeRawLittleEndian64(value);
+    }
+
+    /** Write a {@code fixed32} field to the sink. */
+    public void writeFixed32NoTag(final int value) throws IOException {
+        writeRawLittleEndian32(value);
+    }
+
+    /** Write a {@code bool} field to the sink. */
+    public void writeBoolNoTag(final boolean value) throws IOException {
+        writeRawByte((byte) (value ? 1 : 0));
+    }
+
+    /** Write a {@code string} field to the sink. */
+    public void writeStringNoTag(final Utf8String value) throws IOException {
+        final int length = value.size();
+        writeRawBytes(value.contentArray(), value.contentOffset(), length);
+        writeLength(length);
+    }
+
+    /** Write a {@code string} field to the sink. */
+    public void writeStringNoTag(final CharSequence value) throws IOException {
+        final int length = Utf8.encodedLength(value);
+        final int offset = require(length); // may replace the buffer
+        Utf8.encodeArray(value, buffer, offset, length);
+        writeLength(length);
+    }
+
+    /** Write a {@code bytes} field to the sink. */
+    public void writeBytesNoTag(final RepeatedByte value) throws IOException {
+        writeRawBytes(value.contentArray(), value.contentOffset(), value.length);
+        writeLength(value.length);
+    }
+
+    /**
+     * Write an enum field to the sink.  Caller is responsible
+     * for converting the enum value to its numeric value.
+     */
+    public void writeEnumNoTag(final int value) throws IOException {
+        writeInt32NoTag(value);
+    }
+
+    /** Write an {@code sfixed32} field to the sink. */
+    public void writeSFixed32NoTag(final int value) throws IOException {
+        writeRawLittleEndian32(value);
+    }
+
+    /** Write an {@code sfixed64} field to the sink. */
+    public void writeSFixed64NoTag(final long value) throws IOException {
+        writeRawLittleEndian64(value);
+    }
+
+    /** Write an {@code sint32} field to the sink. */
+    public void writeSInt32NoTag(final int value) throws IOException {
+        writeUInt32NoTag(ProtoSink.encodeZigZag32(value));
+    }
+
+    /** Write an {@code sint64} field to the sink. */
+    public void writeSInt64NoTag(final long value) throws IOException {
+        writeUInt64NoTag(ProtoSink.encodeZigZag64(value));
+    }
+
+    /** Write a {@code uint32} field to the sink. */
+    public void writeUInt32NoTag(int value) throws IOException {
+        int i = require(ProtoSink.computeRawVarint32Size(value));
+        while ((value & ~0x7F) != 0) {
+            buffer[i++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        buffer[i] = (byte) value;
+    }
+
+    /** Write a {@code uint64} field to the sink. */
+    public void writeUInt64NoTag(long value) throws IOException {
+        int i = require(ProtoSink.computeRawVarint64Size(value));
+        while ((value & ~0x7FL) != 0) {
+            buffer[i++] = (byte) (((int) value) | 0x80);
+            value >>>= 7;
+        }
+        buffer[i] = (byte) value;
+    }
+
+    // -------------------------- PACKED TYPES --------------------------
+
+    /** Write a repeated (packed) {@code double} field, excluding tag, to the sink. */
+    public void writePackedDoubleNoTag(final RepeatedDouble values) throws IOException {
+        int offset = require(values.length * FIXED_64_SIZE);
+        for (int i = 0; i < values.length; i++, offset += FIXED_64_SIZE) {
+            putLittleEndian64(offset, Double.doubleToLongBits(values.array[i]));
+        }
+        writeLength(values.length * FIXED_64_SIZE);
+    }
+
+    /** Write a repeated (packed) {@code float} field, excluding tag, to the sink. */
+    public void writePackedFloatNoTag(final RepeatedFloat values) throws IOException {
+        int offset = require(values.length * FIXED_32_SIZE);
+        for (int i = 0; i < values.length; i++, offset += FIXED_32_SIZE) {
+            putLittleEndian32(offset, Float.floatToIntBits(values.array[i]));
+        }
+        writeLength(values.length * FIXED_32_SIZE);
+    }
+
+    /** Write a repeated (packed) {@code fixed64} field, excluding tag, to the sink. */
+    public void writePackedFixed64NoTag(final RepeatedLong values) throws IOException {
+        int offset = require(values.length * FIXED_64_SIZE);
+        for (int i = 0; i < values.length; i++, offset += FIXED_64_SIZE) {
+            putLittleEndian64(offset, values.array[i]);
+        }
+        writeLength(values.length * FIXED_64_SIZE);
+    }
+
+    /** Write a repeated (packed) {@code fixed32} field, excluding tag, to the sink. */
+    public void writePackedFixed32NoTag(final RepeatedInt values) throws IOException {
+        int offset = require(values.length * FIXED_32_SIZE);
+        for (int i = 0; i < values.length; i++, offset += FIXED_32_SIZE) {
+            putLittleEndian32(offset, values.array[i]);
+        }
+        writeLength(values.length * FIXED_32_SIZE);
+    }
+
+    /** Write a repeated (packed) {@code sfixed32} field, excluding tag, to the sink. */
+    public void writePackedSFixed32NoTag(final RepeatedInt values) throws IOException {
+        writePackedFixed32NoTag(values);
+    }
+
+    /** Write a repeated (packed) {@code sfixed64} field, excluding tag, to the sink. */
+    public void writePackedSFixed64NoTag(final RepeatedLong values) throws IOException {
+        writePackedFixed64NoTag(values);
+    }
+
+    /** Write a repeated (packed) {@code bool} field, excluding tag, to the sink. */
+    public void writePackedBoolNoTag(final RepeatedBoolean values) throws IOException {
+        int offset = require(values.length * MIN_BOOL_SIZE);
+        for (int i = 0; i < values.length; i++) {
+            buffer[offset++] = (byte) (values.array[i] ? 1 : 0);
+        }
+        writeLength(values.length * MIN_BOOL_SIZE);
+    }
+
+    /** Write a repeated (packed) {@code enum} field, excluding tag, to the sink. */
+    public void writePackedEnumNoTag(final RepeatedEnum<?> values) throws IOException {
+        final int end = getTotalBytesWritten();
+        for (int i = values.length - 1; i >= 0; i--) {
+            writeEnumNoTag(values.array()[i]);
+        }
+        writeLength(getTotalBytesWritten() - end);
+    }
+
+    /** Write a repeated (packed) {@code int32} field, excluding tag, to the sink. */
+    public void writePackedInt32NoTag(final RepeatedInt values) throws IOException {
+        final int end = getTotalBytesWritten();
+        for (int i = values.length - 1; i >= 0; i--) {
+            writeInt32NoTag(values.array[i]);
+        }
+        writeLength(getTotalBytesWritten() - end);
+    }
+
+    /** Write a repeated (packed) {@code uint32} field, excluding tag, to the sink. */
+    public void writePackedUInt32NoTag(final RepeatedInt values) throws IOException {
+        final int end = getTotalBytesWritten();
+        for (int i = values.length - 1; i >= 0; i--) {
+            writeUInt32NoTag(values.array[i]);
+        }
+        writeLength(getTotalBytesWritten() - end);
+    }
+
+    /** Write a repeated (packed) {@code sint32} field, excluding tag, to the sink. */
+    public void writePackedSInt32NoTag(final RepeatedInt values) throws IOException {
+        final int end = getTotalBytesWritten();
+        for (int i = values.length - 1; i >= 0; i--) {
+            writeSInt32NoTag(values.array[i]);
+        }
+        writeLength(getTotalBytesWritten() - end);
+    }
+
+    /** Write a repeated (packed) {@code int64} field, excluding tag, to the sink. */
+    public void writePackedInt64NoTag(final RepeatedLong values) throws IOException {
+        writePackedUInt64NoTag(values);
+    }
+
+    /** Write a repeated (packed) {@code uint64} field, excluding tag, to the sink. */
+    public void writePackedUInt64NoTag(final RepeatedLong values) throws IOException {
+        final int end = getTotalBytesWritten();
+        for (int i = values.length - 1; i >= 0; i--) {
+            writeUInt64NoTag(values.array[i]);
+        }
+        writeLength(getTotalBytesWritten() - end);
+    }
+
+    /** Write a repeated (packed) {@code sint64} field, excluding tag, to the sink. */
+    public void writePackedSInt64NoTag(final RepeatedLong values) throws IOException {
+        final int end = getTotalBytesWritten();
+        for (int i = values.length - 1; i >= 0; i--) {
+            writeSInt64NoTag(values.array[i]);
+        }
+        writeLength(getTotalBytesWritten() - end);
+    }
+
+    // -------------------------- RAW VALUES --------------------------
+
+    /** Write a single byte. */
+    public void writeRawByte(final byte value) throws IOException {
+        final int offset = require(1);
+        buffer[offset] = value;
+    }
+
+    /** Write a little-endian 16-bit integer. */
+    public void writeRawLittleEndian16(final short value) throws IOException {
+        final int offset = require(FIXED_16_SIZE);
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+    }
+
+    /** Write a little-endian 32-bit integer. */
+    public void writeRawLittleEndian32(final int value) throws IOException {
+        putLittleEndian32(require(FIXED_32_SIZE), value);
+    }
+
+    /** Write a little-endian 64-bit integer. */
+    public void writeRawLittleEndian64(final long value) throws IOException {
+        putLittleEndian64(require(FIXED_64_SIZE), value);
+    }
+
+    /** Write an array of bytes. */
+    public void writeRawBytes(final RepeatedByte value) throws IOException {
+        writeRawBytes(value.contentArray(), value.contentOffset(), value.length);
+    }
+
+    /** Write part of an array of bytes. */
+    public void writeRawBytes(final byte[] value, int offset, int length) throws IOException {
+        final int start = require(length); // may replace the buffer
+        System.arraycopy(value, offset, buffer, start, length);
+    }
+
+    private void putLittleEndian32(final int offset, final int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) (value >>> 16);
+        buffer[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private void putLittleEndian64(final int offset, final long value) {
+        putLittleEndian32(offset, (int) value);
+        putLittleEndian32(offset + 4, (int) (value >>> 32));
+    }
+
+    /** moves backwards by numBytes and returns the new position */
+    private int require(final int numBytes) throws OutOfSpaceException {
+        if (numBytes > position) {
+            grow(numBytes);
+        }
+        return position -= numBytes;
+    }
+
+    /**
+     * Moves the content to the end of a larger array. Positions that are relative
+     * to the end of the buffer, i.e., the bytes written, remain valid.
+     */
+    private void grow(final int numBytes) throws OutOfSpaceException {
+        final int length = getTotalBytesWritten();
+        final long minCapacity = (long) length + numBytes;
+        if (numBytes < 0 || minCapacity > MAX_CAPACITY) {
+            throw new OutOfSpaceException(new IndexOutOfBoundsException(
+                    "written " + length + " required " + numBytes));
+        }
+        final int capacity = (int) Math.min(MAX_CAPACITY, Math.max(minCapacity, 2L * buffer.length));
+        final byte[] newBuffer = new byte[capacity];
+        System.arraycopy(buffer, position, newBuffer, capacity - length, length);
+        buffer = newBuffer;
+        position = capacity - length;
+    }
+
+    private byte[] buffer;
+    private int position;
+    private final ProtoSink forwardSink = ProtoSink.newArraySink();
+
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+}
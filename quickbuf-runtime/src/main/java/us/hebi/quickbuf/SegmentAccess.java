@@ -0,0 +1,46 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+/**
+ * Provides sources and sinks that are backed by {@code java.lang.foreign.MemorySegment}.
+ * The real implementation lives in {@code src/java22} and gets added as a multi-release
+ * (MR) variant when building with JDK 22 or newer. This placeholder gets loaded by older
+ * JDKs, or when the runtime was built without the Java 22 profile.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+class SegmentAccess {
+
+    static boolean isAvailable() {
+        return false;
+    }
+
+    static ProtoSource newSource() {
+        throw new UnsupportedOperationException("MemorySegment sources require Java 22+");
+    }
+
+    static ProtoSink newSink() {
+        throw new UnsupportedOperationException("MemorySegment sinks require Java 22+");
+    }
+
+}
@@ -0,0 +1,191 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+/**
+ * Map field for {@code string} keys. Keys are hashed and compared on their
+ * UTF-8 encoded bytes, so lookups don't need to decode the contained keys.
+ * Lookups with a {@link CharSequence} encode the key into an internal
+ * buffer, so they don't allocate, but they are not thread-safe.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public final class StringKeyMap<E extends ProtoMessage<E> & StringKeyMap.Entry> extends MapField<StringKeyMap<E>, E> {
+
+    /**
+     * Implemented by generated map entries with string keys
+     */
+    public interface Entry {
+
+        /**
+         * @return the key, or null if the key is not set
+         */
+        Utf8String getMapKey();
+
+        ProtoMessage<?> setKey(Utf8String key);
+
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends ProtoMessage<T> & Entry> StringKeyMap<T> newEmptyInstance(MessageFactory<T> factory) {
+        return new StringKeyMap(factory);
+    }
+
+    private StringKeyMap(MessageFactory<E> factory) {
+        super(factory);
+    }
+
+    /**
+     * @param key key to look up
+     * @return the index of the entry with the key, or -1 if there is no such entry
+     */
+    public int indexOf(final CharSequence key) {
+        return indexOf(lookupKey.copyFromEncoded(key));
+    }
+
+    /**
+     * @param key key to look up
+     * @return the index of the entry with the key, or -1 if there is no such entry
+     */
+    public int indexOf(final Utf8String key) {
+        if (length == 0) return -1;
+        final int hash = hash(key);
+        final int mask = table.length - 1;
+        int index;
+        for (int slot = hash & mask; (index = table[slot]) != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && isSameKey(array[index - 1].getMapKey(), key)) {
+                return index - 1;
+            }
+        }
+        return -1;
+    }
+
+    public boolean containsKey(final CharSequence key) {
+        return indexOf(key) >= 0;
+    }
+
+    public boolean containsKey(final Utf8String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @param key key to look up
+     * @return the entry with the key, or null if there is no such entry
+     */
+    public E find(final CharSequence key) {
+        return find(lookupKey.copyFromEncoded(key));
+    }
+
+    /**
+     * @param key key to look up
+     * @return the entry with the key, or null if there is no such entry
+     */
+    public E find(final Utf8String key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : array[index];
+    }
+
+    /**
+     * Returns the entry with the key for modifications. A new entry
+     * gets added if the key is not contained yet.
+     *
+     * @param key key to look up
+     * @return the existing entry or a new entry with the key
+     */
+    public E put(final CharSequence key) {
+        return put(lookupKey.copyFromEncoded(key));
+    }
+
+    /**
+     * Returns the entry with the key for modifications. A new entry
+     * gets added if the key is not contained yet.
+     *
+     * @param key key to look up
+     * @return the existing entry or a new entry with the key
+     */
+    public E put(final Utf8String key) {
+        final int index = indexOf(key);
+        if (index >= 0) {
+            return array[index];
+        }
+        final E entry = nextPending();
+        entry.setKey(key);
+        commitPending();
+        return entry;
+    }
+
+    /**
+     * @param key key to be removed
+     * @return true if an entry got removed
+     */
+    public boolean remove(final CharSequence key) {
+        return remove(lookupKey.copyFromEncoded(key));
+    }
+
+    /**
+     * @param key key to be removed
+     * @return true if an entry got removed
+     */
+    public boolean remove(final Utf8String key) {
+        final int index = indexOf(key);
+        if (index < 0) return false;
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    int hashOf(E entry) {
+        return hash(entry.getMapKey());
+    }
+
+    @Override
+    boolean isSameKey(E a, E b) {
+        return isSameKey(a.getMapKey(), b.getMapKey());
+    }
+
+    private static int hash(Utf8String key) {
+        int hash = 0;
+        if (key != null) {
+            final int size = key.size();
+            final byte[] bytes = key.contentArray();
+            final int offset = key.contentOffset();
+            for (int i = 0; i < size; i++) {
+                hash = 31 * hash + bytes[offset + i];
+            }
+        }
+        return mix(hash);
+    }
+
+    private static boolean isSameKey(Utf8String a, Utf8String b) {
+        if (a == null || b == null) {
+            return sizeOf(a) == sizeOf(b);
+        }
+        return a.equals(b);
+    }
+
+    private static int sizeOf(Utf8String key) {
+        return key == null ? 0 : key.size();
+    }
+
+    private final Utf8String lookupKey = Utf8String.newEmptyInstance();
+
+}
@@ -24,7 +24,9 @@ import java.util.Arrays;
 
 /**
  * Contains a string and its corresponding utf8 encoded byte sequence,
- * and lazily converts between them when appropriate.
+ * and lazily converts between them when appropriate. The encoded bytes may
+ * also be a read-only view into an external buffer (see
+ * {@link ProtoSource#enableAliasing(boolean)}).
  *
  * @author Florian Enner
  * @since 26 Nov 2019
@@ -73,6 +75,56 @@ public final class Utf8String {
         ensureCapacity(size);
         serializedSize = size;
         string = null;
+        aliasedBytes = null;
+    }
+
+    /**
+     * Replaces the content with a view into an external buffer
+     * that contains utf8 encoded bytes. The buffer must not be
+     * modified while this object references it.
+     */
+    void setAliasedContent(final byte[] buffer, final int offset, final int length) {
+        aliasedBytes = buffer;
+        aliasedOffset = offset;
+        serializedSize = length;
+        string = null;
+    }
+
+    /**
+     * @return array that contains the encoded bytes starting at the content offset
+     */
+    byte[] contentArray() {
+        return aliasedBytes == null ? bytes : aliasedBytes;
+    }
+
+    /**
+     * @return index of the first encoded byte in the content array
+     */
+    int contentOffset() {
+        return aliasedBytes == null ? 0 : aliasedOffset;
+    }
+
+    /**
+     * Copies aliased content into the internal storage array, so that
+     * the external buffer can be reused. Does nothing if the content is
+     * not aliased.
+     *
+     * @return this
+     */
+    public Utf8String detach() {
+        if (aliasedBytes != null) {
+            ensureCapacity(serializedSize);
+            System.arraycopy(aliasedBytes, aliasedOffset, bytes, 0, serializedSize);
+            aliasedBytes = null;
+        }
+        return this;
+    }
+
+    /**
+     * @return true if the encoded bytes are a view into an external buffer
+     */
+    public boolean isAliased() {
+        return aliasedBytes != null;
     }
 
     /**
@@ -96,7 +148,7 @@ public final class Utf8String {
 
     public String getString(Utf8Decoder decoder) {
         if (string == null) {
-            string = decoder.decode(bytes, 0, serializedSize);
+            string = decoder.decode(contentArray(), contentOffset(), serializedSize);
         }
         return string;
     }
@@ -104,7 +156,7 @@ public final class Utf8String {
     public StringBuilder getChars(StringBuilder store) {
         store.setLength(0);
         if (string == null) {
-            Utf8.decodeArray(bytes, 0, serializedSize, store);
+            Utf8.decodeArray(contentArray(), contentOffset(), serializedSize, store);
         } else {
             store.append(string);
         }
@@ -137,6 +189,7 @@ public final class Utf8String {
         ensureCapacityInternal((other.length() * Utf8.MAX_UTF8_EXPANSION));
         serializedSize = Utf8.encodeArray(other, bytes, 0, bytes.length);
         string = null;
+        aliasedBytes = null;
         return this;
     }
 
@@ -146,40 +199,45 @@ public final class Utf8String {
     public Utf8String copyFrom(String other) {
         serializedSize = -1;
         string = other;
+        aliasedBytes = null;
         return this;
     }
 
     public Utf8String copyFrom(Utf8String other) {
+        final byte[] otherBytes = other.contentArray();
+        final int otherOffset = other.contentOffset();
         string = other.string;
         serializedSize = other.serializedSize;
+        aliasedBytes = null;
         if (serializedSize >= 0) {
             ensureCapacityInternal(serializedSize);
-            System.arraycopy(other.bytes, 0, bytes, 0, serializedSize);
+            System.arraycopy(otherBytes, otherOffset, bytes, 0, serializedSize);
         }
         return this;
     }
 
     public Utf8String writeTo(ProtoSink sink) throws java.io.IOException {
         ensureSerialized();
-        sink.writeRawBytes(bytes, 0, serializedSize);
+        sink.writeRawBytes(contentArray(), contentOffset(), serializedSize);
         return this;
     }
 
     public Utf8String writeTo(java.io.OutputStream outputStream) throws java.io.IOException {
         ensureSerialized();
-        outputStream.write(bytes, 0, serializedSize);
+        outputStream.write(contentArray(), contentOffset(), serializedSize);
         return this;
     }
 
     public Utf8String writeTo(java.nio.ByteBuffer buffer) {
         ensureSerialized();
-        buffer.put(bytes, 0, serializedSize);
+        buffer.put(contentArray(), contentOffset(), serializedSize);
         return this;
     }
 
     public void clear() {
         serializedSize = 0;
         string = "";
+        aliasedBytes = null;
     }
 
     @Override
@@ -195,8 +253,10 @@ public final class Utf8String {
         if (size() != other.size())
             return false;
 
+        final byte[] a = contentArray(), b = other.contentArray();
+        final int offsetA = contentOffset(), offsetB = other.contentOffset();
         for (int i = 0; i < serializedSize; i++) {
-            if (bytes[i] != other.bytes[i])
+            if (a[offsetA + i] != b[offsetB + i])
                 return false;
         }
         return true;
@@ -297,5 +357,7 @@ public final class Utf8String {
     private int serializedSize = 0;
     private byte[] bytes = ProtoUtil.EMPTY_BYTE_ARRAY;
     private String string = "";
+    private byte[] aliasedBytes = null;
+    private int aliasedOffset;
 
 }
@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class AliasedSourceTest {
+
+    TestAllTypes msg;
+    byte[] bytes;
+    byte[] original;
+
+    @Before
+    public void setupData() throws IOException {
+        msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        msg.getMutableOptionalBytes().setLength(1000);
+        bytes = msg.toByteArray();
+        original = bytes.clone();
+    }
+
+    @Test
+    public void testArraySource() throws IOException {
+        assertAliasedFields(ProtoSource.newArraySource());
+    }
+
+    @Test
+    public void testDirectSource() throws IOException {
+        assertAliasedFields(ProtoSource.newDirectSource());
+    }
+
+    private void assertAliasedFields(ProtoSource source) throws IOException {
+        TestAllTypes actual = TestAllTypes.parseFrom(source.enableAliasing(true).setInput(bytes));
+        assertEquals(msg, actual);
+        assertArrayEquals(bytes, actual.toByteArray());
+        assertTrue(actual.getOptionalBytes().isAliased());
+        assertTrue(actual.getOptionalStringBytes().isAliased());
+        assertTrue(actual.getRepeatedBytes().get(0).isAliased());
+    }
+
+    @Test
+    public void testCopyOnWrite() throws IOException {
+        TestAllTypes actual = TestAllTypes.parseFrom(ProtoSource.newArraySource().enableAliasing(true).setInput(bytes));
+        actual.getMutableOptionalBytes().set(0, (byte) 1);
+        assertFalse(actual.getOptionalBytes().isAliased());
+        assertArrayEquals(original, bytes);
+    }
+
+    @Test
+    public void testDetach() throws IOException {
+        TestAllTypes actual = TestAllTypes.parseFrom(ProtoSource.newArraySource().enableAliasing(true).setInput(bytes));
+        actual.getMutableOptionalStringBytes().detach();
+        assertFalse(actual.getOptionalStringBytes().isAliased());
+        assertEquals(msg.getOptionalString(), actual.getOptionalString());
+        assertArrayEquals(original, bytes);
+    }
+
+    @Test
+    public void testAliasingDisabled() throws IOException {
+        ProtoSource source = ProtoSource.newArraySource().enableAliasing(true);
+        TestAllTypes actual = TestAllTypes.parseFrom(source.setInput(bytes));
+        actual.clear().mergeFrom(source.enableAliasing(false).setInput(bytes));
+        assertFalse(actual.getOptionalBytes().isAliased());
+        assertEquals(msg, actual);
+    }
+
+}
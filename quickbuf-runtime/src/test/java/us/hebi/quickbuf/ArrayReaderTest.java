@@ -0,0 +1,116 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Test;
+import protos.test.quickbuf.arrayreader.TestAllTypes;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class ArrayReaderTest {
+
+    @Test
+    public void testAllTypes() throws IOException {
+        assertArrayInput(CompatibilityTest.getCombinedMessage());
+    }
+
+    @Test
+    public void testNegativeNumbersAndStrings() throws IOException {
+        assertArrayInput(TestAllTypes.newInstance().setOptionalInt32(-1).setOptionalInt64(-2).setOptionalSint32(-3)
+                .setOptionalBool(true).setOptionalFloat(1.5f).setOptionalNestedEnum(TestAllTypes.NestedEnum.BAZ)
+                .setOptionalString("\uD83D\uDC4D").toByteArray());
+    }
+
+    @Test
+    public void testGroupsAndDefaults() throws IOException {
+        assertArrayInput(TestAllTypes.newInstance().setOptionalInt32(1).setOptionalInt64(Long.MIN_VALUE)
+                .setDefaultInt32(2).setOptionalGroup(TestAllTypes.OptionalGroup.newInstance().setA(3))
+                .addRepeatedInt32(4).toByteArray());
+    }
+
+    @Test
+    public void testMultiByteVarints() throws IOException {
+        // covers word-wise decoding as well as the byte-wise tail near the limit
+        for (int i = 0; i < 64; i++) {
+            assertArrayInput(TestAllTypes.newInstance()
+                    .setOptionalInt64(1L << i)
+                    .setOptionalUint64(-1L >>> i)
+                    .setOptionalSint64(-(1L << i))
+                    .setOptionalInt32(1 << (i % 32))
+                    .setOptionalSint32(-(1 << (i % 32)))
+                    .toByteArray());
+        }
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void testMalformedVarint() throws IOException {
+        byte[] bytes = new byte[20];
+        Arrays.fill(bytes, (byte) 0xFF);
+        bytes[0] = (byte) WireFormat.makeTag(2, WireFormat.WIRETYPE_VARINT);
+        TestAllTypes.parseFrom(bytes);
+    }
+
+    @Test
+    public void testUnknownFields() throws IOException {
+        // unknown fields get handed over to the regular decoder
+        byte[] bytes = CompatibilityTest.getCombinedMessage();
+        TestAllTypes.NestedMessage expected = TestAllTypes.NestedMessage.parseFrom(
+                ProtoSource.newInstance(new ByteArrayInputStream(bytes)));
+        assertArrayEquals(expected.toByteArray(), TestAllTypes.NestedMessage.parseFrom(bytes).toByteArray());
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void testTruncatedInput() throws IOException {
+        byte[] bytes = CompatibilityTest.getCombinedMessage();
+        TestAllTypes.parseFrom(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test
+    public void testUnknownFieldBeforeKnownField() throws IOException {
+        // read from an offset
+        byte[] buffer = new byte[20];
+        int position = 3;
+        position = ArrayEncoder.writeUInt32NoTag(buffer, position, WireFormat.makeTag(9999, WireFormat.WIRETYPE_VARINT));
+        position = ArrayEncoder.writeUInt32NoTag(buffer, position, 1);
+        position = ArrayEncoder.writeUInt32NoTag(buffer, position, WireFormat.makeTag(1, WireFormat.WIRETYPE_VARINT));
+        position = ArrayEncoder.writeUInt32NoTag(buffer, position, 300);
+        TestAllTypes msg = TestAllTypes.parseFrom(ProtoSource.newArraySource().setInput(buffer, 3, position - 3));
+        assertEquals(300, msg.getOptionalInt32());
+        assertEquals(4, msg.getUnknownBytes().length());
+    }
+
+    private static void assertArrayInput(byte[] bytes) throws IOException {
+        // the stream source does not have an array decoder
+        TestAllTypes expected = TestAllTypes.parseFrom(ProtoSource.newInstance(new ByteArrayInputStream(bytes)));
+        TestAllTypes actual = TestAllTypes.parseFrom(ProtoSource.newArraySource().setInput(bytes));
+        assertEquals(expected, actual);
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+}
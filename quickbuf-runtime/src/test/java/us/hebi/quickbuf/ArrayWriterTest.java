@@ -0,0 +1,106 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Test;
+import protos.test.quickbuf.arraywriter.LazyTypes.LazyMessage.RoutedMessage;
+import protos.test.quickbuf.arraywriter.RepeatedPackables;
+import protos.test.quickbuf.arraywriter.TestAllTypes;
+import protos.test.quickbuf.arraywriter.UnittestRequired.TestAllTypesRequired;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class ArrayWriterTest {
+
+    @Test
+    public void testAllTypes() throws IOException {
+        assertArrayOutput(TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage()));
+    }
+
+    @Test
+    public void testPackedRepeated() throws IOException {
+        assertArrayOutput(RepeatedPackables.Packed.parseFrom(CompatibilityTest.repeatedPackablesPacked()));
+    }
+
+    @Test
+    public void testNonPackedRepeated() throws IOException {
+        assertArrayOutput(RepeatedPackables.NonPacked.parseFrom(CompatibilityTest.repeatedPackablesNonPacked()));
+    }
+
+    @Test
+    public void testUnknownFields() throws IOException {
+        assertArrayOutput(TestAllTypes.NestedMessage.parseFrom(CompatibilityTest.getCombinedMessage()));
+    }
+
+    @Test
+    public void testNegativeNumbersAndStrings() throws IOException {
+        assertArrayOutput(TestAllTypes.newInstance().setOptionalInt32(-1).setOptionalInt64(-2)
+                .setOptionalString("\uD83D\uDC4D").setOptionalCord("\u00e4bc"));
+    }
+
+    @Test
+    public void testLazyContent() throws IOException {
+        assertArrayOutput(RoutedMessage.parseFrom(RoutedMessage.newInstance()
+                .setChild(RoutedMessage.newInstance().setC(2).setText("text"))
+                .setC(3)
+                .toByteArray()));
+    }
+
+    @Test(expected = ProtoSink.OutOfSpaceException.class)
+    public void testNotEnoughSpace() throws IOException {
+        TestAllTypes msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        msg.writeTo(ProtoSink.newInstance(new byte[msg.getSerializedSize() - 1]));
+    }
+
+    @Test(expected = UninitializedMessageException.class)
+    public void testMissingRequiredField() throws IOException {
+        TestAllTypesRequired.newInstance().writeTo(ProtoSink.newInstance(new byte[100]));
+    }
+
+    private static void assertArrayOutput(ProtoMessage<?> msg) throws IOException {
+        // regular sink methods
+        RepeatedByte expected = RepeatedByte.newEmptyInstance();
+        msg.getSerializedSize();
+        msg.writeTo(ProtoSink.newInstance(expected));
+
+        // array encoder with some offset
+        byte[] buffer = new byte[expected.length() + 3];
+        ProtoSink sink = ProtoSink.newArraySink().setOutput(buffer, 3, expected.length());
+        msg.writeTo(sink);
+        assertEquals(expected.length(), sink.getTotalBytesWritten());
+        assertArrayEquals(expected.toArray(), Arrays.copyOfRange(buffer, 3, buffer.length));
+        assertEquals(buffer.length, msg.writeToArray(buffer, 3));
+
+        // outputs that end before the array fall back to regular writes
+        buffer = new byte[expected.length() + 1];
+        sink = ProtoSink.newArraySink().setOutput(buffer, 0, expected.length());
+        msg.writeTo(sink);
+        assertArrayEquals(expected.toArray(), Arrays.copyOf(buffer, expected.length()));
+    }
+
+}
@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Test;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class BufferedStreamSinkTest {
+
+    @Test
+    public void testBufferedOutputStreamSink() throws IOException {
+        assertBufferedOutput(4096);
+    }
+
+    @Test
+    public void testBytesLargerThanBuffer() throws IOException {
+        assertBufferedOutput(20);
+        assertBufferedOutput(64);
+    }
+
+    @Test
+    public void testStringsLargerThanBuffer() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append("\u00e4bc\uD83D\uDC4D");
+        }
+        TestAllTypes msg = TestAllTypes.newInstance()
+                .setOptionalInt32(1)
+                .setOptionalString(builder.substring(0, 20)) // fits once encoded, but not in the worst case
+                .setOptionalCord(builder);
+        byte[] expected = msg.toByteArray();
+
+        final int[] numWrites = new int[1];
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(int b) {
+                numWrites[0]++;
+                super.write(b);
+            }
+
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                numWrites[0]++;
+                super.write(b, off, len);
+            }
+        };
+        ProtoSink sink = ProtoSink.newBufferedStreamSink(64).setOutput(baos);
+        sink.writeStringNoTag(builder); // plain CharSequence
+        msg.writeTo(sink);
+        sink.flush();
+
+        RepeatedByte expectedBytes = RepeatedByte.newEmptyInstance();
+        ProtoSink.newInstance(expectedBytes).writeStringNoTag(builder);
+        expectedBytes.addAll(expected);
+        assertArrayEquals(expectedBytes.toArray(), baos.toByteArray());
+        assertTrue("large strings should not be written byte by byte", numWrites[0] < 10);
+    }
+
+    private static void assertBufferedOutput(int bufferSize) throws IOException {
+        TestAllTypes msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        msg.getMutableOptionalBytes().setLength(1000); // larger than small buffers
+        byte[] expected = msg.toByteArray();
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ProtoSink sink = ProtoSink.newBufferedStreamSink(bufferSize).setOutput(baos);
+        msg.writeTo(sink);
+        assertEquals(expected.length, sink.getTotalBytesWritten());
+        sink.flush();
+        assertArrayEquals(expected, baos.toByteArray());
+    }
+
+}
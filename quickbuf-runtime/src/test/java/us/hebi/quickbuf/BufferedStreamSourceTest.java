@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Test;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class BufferedStreamSourceTest {
+
+    @Test
+    public void testBufferedInputStreamSource() throws IOException {
+        byte[] bytes = CompatibilityTest.getCombinedMessage();
+        TestAllTypes expected = TestAllTypes.parseFrom(bytes);
+        assertEquals(expected, TestAllTypes.parseFrom(ProtoSource.newBufferedStreamSource()
+                .setInput(new ByteArrayInputStream(bytes))));
+    }
+
+    @Test
+    public void testBufferedInputStreamSourceRefills() throws IOException {
+        byte[] bytes = CompatibilityTest.getCombinedMessage();
+        TestAllTypes expected = TestAllTypes.parseFrom(bytes);
+
+        // Force frequent refills with a small window and a stream that returns few bytes at a time
+        ProtoSource source = ProtoSource.newBufferedStreamSource(20).setInput(new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        });
+        assertEquals(expected, TestAllTypes.parseFrom(source));
+        assertEquals(bytes.length, source.getTotalBytesRead());
+    }
+
+    @Test
+    public void testBufferedInputStreamSourceDelimited() throws IOException {
+        TestAllTypes msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ProtoSink sink = ProtoSink.newInstance(outputStream);
+        for (int i = 0; i < 10; i++) {
+            msg.setOptionalInt32(i).writeDelimitedTo(sink);
+        }
+
+        ProtoSource source = ProtoSource.newBufferedStreamSource(64)
+                .setInput(new ByteArrayInputStream(outputStream.toByteArray()));
+        TestAllTypes actual = TestAllTypes.newInstance();
+        for (int i = 0; i < 10; i++) {
+            actual.clear().mergeDelimitedFrom(source);
+            assertEquals(msg.setOptionalInt32(i), actual);
+        }
+        assertTrue(source.isAtEnd());
+    }
+
+    @Test
+    public void testBufferedInputStreamSourceRewind() throws IOException {
+        byte[] bytes = CompatibilityTest.getCombinedMessage();
+        ProtoSource source = ProtoSource.newBufferedStreamSource().setInput(new ByteArrayInputStream(bytes));
+        int tag = source.readTag();
+        int position = source.getTotalBytesRead();
+        source.skipField(tag);
+        source.rewindTo(position);
+        assertTrue(source.skipField(tag));
+        source.rewindTo(0);
+        assertEquals(tag, source.readTag());
+    }
+
+}
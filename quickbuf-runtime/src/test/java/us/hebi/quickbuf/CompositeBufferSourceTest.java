@@ -0,0 +1,124 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class CompositeBufferSourceTest {
+
+    TestAllTypes msg;
+    byte[] data;
+    CompositeBufferSource source;
+
+    @Before
+    public void setupData() throws IOException {
+        msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        RepeatedByte bytes = RepeatedByte.newEmptyInstance();
+        ProtoSink sink = ProtoSink.newInstance(bytes);
+        for (int i = 0; i < 3; i++) {
+            msg.setOptionalInt32(i).writeDelimitedTo(sink);
+        }
+        data = bytes.toArray();
+        source = ProtoSource.newCompositeSource();
+    }
+
+    @Test
+    public void testSingleFragment() throws IOException {
+        source.setInput(Collections.singletonList(ByteBuffer.wrap(data)));
+        assertDelimitedMessages();
+    }
+
+    @Test
+    public void testSingleByteFragments() throws IOException {
+        source.setInput(split(1));
+        assertDelimitedMessages();
+    }
+
+    @Test
+    public void testFragmentBoundaries() throws IOException {
+        for (int fragmentSize = 2; fragmentSize < 20; fragmentSize++) {
+            source.setInput(split(fragmentSize));
+            assertDelimitedMessages();
+        }
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        source.setInput(split(7));
+        assertFalse(source.isAtEnd());
+        source.clear();
+        assertTrue(source.isAtEnd());
+    }
+
+    private void assertDelimitedMessages() throws IOException {
+        TestAllTypes actual = TestAllTypes.newInstance();
+        for (int i = 0; i < 3; i++) {
+            actual.clear().mergeDelimitedFrom(source);
+            assertEquals(msg.setOptionalInt32(i), actual);
+        }
+        assertTrue(source.isAtEnd());
+    }
+
+    /**
+     * Splits the data into a mix of heap, direct, read-only, and empty fragments
+     */
+    private List<ByteBuffer> split(int fragmentSize) {
+        List<ByteBuffer> fragments = new ArrayList<ByteBuffer>();
+        for (int offset = 0; offset < data.length; offset += fragmentSize) {
+            final int length = Math.min(fragmentSize, data.length - offset);
+            switch (fragments.size() % 4) {
+                case 0:
+                    fragments.add(ByteBuffer.wrap(data, offset, length));
+                    break;
+                case 1:
+                    ByteBuffer direct = ByteBuffer.allocateDirect(length + 2);
+                    direct.position(1);
+                    direct.put(data, offset, length);
+                    ((Buffer) direct).flip().position(1);
+                    fragments.add(direct);
+                    break;
+                case 2:
+                    fragments.add(ByteBuffer.wrap(data, offset, length).asReadOnlyBuffer());
+                    break;
+                default:
+                    fragments.add(ByteBuffer.allocate(0));
+                    offset -= fragmentSize;
+            }
+        }
+        return fragments;
+    }
+
+}
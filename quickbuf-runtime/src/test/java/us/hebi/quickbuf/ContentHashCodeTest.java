@@ -0,0 +1,109 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.hashcode.LazyTypes.LazyMessage;
+import protos.test.quickbuf.hashcode.LazyTypes.LazyMessage.RoutedMessage;
+import protos.test.quickbuf.hashcode.MapTypes.MapMessage;
+import protos.test.quickbuf.hashcode.TestAllTypes;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class ContentHashCodeTest {
+
+    TestAllTypes msg;
+    TestAllTypes copy;
+
+    @Before
+    public void setupData() throws IOException {
+        msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        copy = TestAllTypes.parseFrom(msg.toByteArray());
+    }
+
+    @Test
+    public void testEqualContentHasEqualHash() throws IOException {
+        assertNotSame(msg, copy);
+        assertEquals(msg, copy);
+        assertEquals(msg.hash64(), copy.hash64());
+        assertEquals(msg.hashCode(), copy.hashCode());
+        assertEquals(msg.hash64(), TestAllTypes.parseFrom(JsonSource.newInstance(msg.toString())).hash64());
+    }
+
+    @Test
+    public void testMessagesAsKeys() {
+        Map<TestAllTypes, String> map = new HashMap<TestAllTypes, String>();
+        map.put(msg, "value");
+        assertEquals("value", map.get(copy));
+        assertNull(map.get(copy.clone().setOptionalInt32(copy.getOptionalInt32() + 1)));
+    }
+
+    @Test
+    public void testChangedFieldsChangeHash() {
+        assertNotEquals(msg.hash64(), copy.setOptionalDouble(Math.nextUp(copy.getOptionalDouble())).hash64());
+        assertNotEquals(msg.hash64(), copy.copyFrom(msg).setOptionalString("other").hash64());
+        copy.copyFrom(msg).getMutableOptionalNestedMessage().setBb(-1);
+        assertNotEquals(msg.hash64(), copy.hash64());
+    }
+
+    @Test
+    public void testChangedHasStateChangesHash() {
+        assertNotEquals(msg.hash64(), copy.clearOptionalBool().hash64());
+        assertNotEquals(TestAllTypes.newInstance().hash64(), TestAllTypes.newInstance().setOptionalInt32(0).hash64());
+    }
+
+    @Test
+    public void testDirtyTrackingCachesHash() throws IOException {
+        // the hash is cached until the next modification
+        LazyMessage lazy = LazyMessage.newInstance().setOptionalString("text");
+        RoutedMessage leaf = lazy.getMutableOptionalRoutedMessage().getMutableChild().setC(2);
+        long hash = lazy.hash64();
+        assertEquals(hash, lazy.cachedHash);
+        leaf.setText("modified");
+        assertEquals(0, lazy.cachedHash);
+        assertNotEquals(hash, lazy.hash64());
+        assertEquals(LazyMessage.parseFrom(lazy.toByteArray()).hash64(), lazy.hash64());
+        leaf.clearText();
+        assertEquals(hash, lazy.hash64());
+    }
+
+    @Test
+    public void testMapsIgnoreEntryOrder() {
+        MapMessage a = MapMessage.newInstance();
+        MapMessage b = MapMessage.newInstance();
+        for (int i = 0; i < 10; i++) {
+            a.getMutableInt32ToString().put(i).setValue("value " + i);
+            b.getMutableInt32ToString().put(9 - i).setValue("value " + (9 - i));
+        }
+        assertEquals(a, b);
+        assertEquals(a.hash64(), b.hash64());
+    }
+
+}
@@ -0,0 +1,125 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.dirty.LazyTypes.LazyMessage;
+import protos.test.quickbuf.dirty.LazyTypes.LazyMessage.RoutedMessage;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class DirtyTrackingTest {
+
+    LazyMessage msg;
+    RoutedMessage leaf;
+    LazyMessage.NestedMessage element;
+
+    @Before
+    public void setupData() {
+        msg = LazyMessage.newInstance().setOptionalString("text");
+        leaf = msg.getMutableOptionalRoutedMessage().setC(1).getMutableChild().setC(2);
+        element = msg.getMutableRepeatedNestedMessage().next()
+                .setRecursiveMessage(LazyMessage.newInstance());
+        msg.getMutableRepeatedNestedMessage().next()
+                .setRecursiveMessage(LazyMessage.newInstance());
+        assertEquals(msg.toByteArray().length, msg.getCachedSize());
+    }
+
+    @Test
+    public void testNestedChangesInvalidateParents() {
+        leaf.setText("modified");
+        assertEquals(-1, leaf.cachedSize);
+        assertEquals(-1, msg.getOptionalRoutedMessage().cachedSize);
+        assertEquals(-1, msg.cachedSize);
+        assertTrue(msg.getRepeatedNestedMessage().get(1).cachedSize >= 0); // untouched subtree stays cached
+    }
+
+    @Test
+    public void testRetainedReferences() {
+        leaf.setText("modified");
+        element.setBb(1000);
+        element.getMutableRecursiveMessage().addRepeatedInt32(1);
+
+        LazyMessage expected = LazyMessage.newInstance().setOptionalString("text");
+        expected.getMutableOptionalRoutedMessage().setC(1).getMutableChild().setC(2).setText("modified");
+        expected.getMutableRepeatedNestedMessage().next().setBb(1000)
+                .setRecursiveMessage(LazyMessage.newInstance().addRepeatedInt32(1));
+        expected.getMutableRepeatedNestedMessage().next()
+                .setRecursiveMessage(LazyMessage.newInstance());
+        assertEquals(expected.getSerializedSize(), msg.getSerializedSize());
+        assertArrayEquals(expected.toByteArray(), msg.toByteArray());
+    }
+
+    @Test
+    public void testCopiesTrackChangesIndependently() {
+        LazyMessage copy = msg.clone();
+        assertEquals(msg.cachedSize, copy.cachedSize);
+        copy.getMutableOptionalRoutedMessage().getMutableChild().clearText().setText("modified");
+        assertEquals(-1, copy.cachedSize);
+        assertTrue(msg.cachedSize >= 0);
+        assertEquals(copy.toByteArray().length, copy.getSerializedSize());
+    }
+
+    @Test
+    public void testMergeInvalidatesSize() throws IOException {
+        msg.mergeFrom(ProtoSource.newInstance(LazyMessage.newInstance().setOptionalString("longer text").toByteArray()));
+        assertEquals(-1, msg.cachedSize);
+        assertEquals(msg.toByteArray().length, msg.getCachedSize());
+    }
+
+    @Test
+    public void testClearInvalidatesSize() throws IOException {
+        msg.getOptionalRoutedMessage().clear();
+        assertEquals(-1, msg.cachedSize);
+        assertArrayEquals(msg.toByteArray(), LazyMessage.parseFrom(msg.toByteArray()).toByteArray());
+    }
+
+    @Test
+    public void testMarkDirty() {
+        // changes through retained repeated fields need to be marked manually
+        RepeatedInt ints = msg.getMutableRepeatedInt32();
+        int size = msg.getSerializedSize();
+        ints.add(1);
+        assertEquals(size, msg.getSerializedSize());
+        msg.markDirty();
+        assertEquals(size + ProtoSink.computeInt32Size(31, 1), msg.getSerializedSize());
+    }
+
+    @Test
+    public void testLazyContentWithDuplicateFields() throws IOException {
+        // parsing lazy content with duplicate fields invalidates the size of the raw bytes
+        byte[] duplicates = new byte[]{(byte) 0x9A, 0x01, 0x04, 0x08, 0x01, 0x08, 0x03};
+        LazyMessage lazy = LazyMessage.parseFrom(duplicates);
+        assertEquals(duplicates.length, lazy.getSerializedSize());
+        assertEquals(3, lazy.getOptionalRoutedMessage().getC());
+        assertEquals(-1, lazy.cachedSize);
+        assertEquals(lazy.clone().getSerializedSize(), lazy.getSerializedSize());
+        assertArrayEquals(new byte[]{(byte) 0x9A, 0x01, 0x02, 0x08, 0x03}, lazy.toByteArray());
+    }
+
+}
@@ -0,0 +1,119 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class FieldIndexTest {
+
+    TestAllTypes msg;
+    byte[] bytes;
+    FieldIndex index;
+
+    @Before
+    public void setupData() throws IOException {
+        msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        msg.getMutableOptionalGroup().setA(17);
+        bytes = msg.toByteArray();
+        index = FieldIndex.newInstance().index(bytes);
+    }
+
+    @Test
+    public void testEntriesCoverMessage() {
+        int numBytes = 0;
+        for (int i = 0; i < index.size(); i++) {
+            numBytes += ProtoSink.computeRawVarint32Size(index.getTag(i)) + index.getLength(i);
+        }
+        assertEquals(bytes.length, numBytes);
+    }
+
+    @Test
+    public void testSingularFields() throws IOException {
+        assertEquals(msg.getOptionalInt32(), index.seek(index.lastIndexOf(1)).readInt32());
+        Utf8String string = Utf8String.newEmptyInstance();
+        index.seek(index.lastIndexOf(14)).readString(string);
+        assertEquals(msg.getOptionalString(), string.toString());
+        TestAllTypes.NestedMessage nested = TestAllTypes.NestedMessage.newInstance();
+        index.seek(index.lastIndexOf(18)).readMessage(nested);
+        assertEquals(msg.getOptionalNestedMessage(), nested);
+        assertEquals(-1, index.lastIndexOf(12345));
+    }
+
+    @Test
+    public void testRepeatedFields() throws IOException {
+        Utf8String string = Utf8String.newEmptyInstance();
+        int count = 0;
+        for (int i = index.indexOf(44); i >= 0; i = index.nextIndexOf(44, i + 1)) {
+            index.seek(i).readString(string);
+            assertEquals(msg.getRepeatedString().get(count++), string.toString());
+        }
+        assertEquals(msg.getRepeatedString().length(), count);
+    }
+
+    @Test
+    public void testNestedMessages() throws IOException {
+        FieldIndex inner = FieldIndex.newInstance().index(index, index.lastIndexOf(18));
+        assertEquals(msg.getOptionalNestedMessage().getBb(), inner.seek(inner.lastIndexOf(1)).readInt32());
+    }
+
+    @Test
+    public void testGroups() throws IOException {
+        FieldIndex inner = FieldIndex.newInstance().index(index, index.lastIndexOf(16));
+        assertEquals(1, inner.size());
+        assertEquals(17, inner.seek(inner.indexOf(17)).readInt32());
+
+        byte[] group = new byte[]{(byte) 0x83, 0x01, (byte) 0x88, 0x01, 0x11, (byte) 0x84, 0x01, 0x08, 0x01};
+        FieldIndex outer = FieldIndex.newInstance().index(group);
+        assertEquals(2, outer.size());
+        assertEquals(17, inner.index(outer, 0).seek(0).readInt32());
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void testEndGroupAtTopLevel() throws IOException {
+        FieldIndex.newInstance().index(new byte[]{0x08, 0x01, (byte) 0x84, 0x01, 0x10, 0x02});
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void testEndGroupInsideMessage() throws IOException {
+        byte[] message = new byte[]{(byte) 0x92, 0x01, 0x03, 0x08, 0x01, 0x0C};
+        FieldIndex outer = FieldIndex.newInstance().index(message);
+        FieldIndex.newInstance().index(outer, 0);
+    }
+
+    @Test
+    public void testReuse() throws IOException {
+        index.index(TestAllTypes.newInstance().setOptionalInt32(-7).toByteArray());
+        assertEquals(1, index.size());
+        assertEquals(-7, index.seek(0).readInt32());
+        assertEquals(0, index.clear().size());
+    }
+
+}
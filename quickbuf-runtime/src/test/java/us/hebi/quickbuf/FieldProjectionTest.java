@@ -0,0 +1,151 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class FieldProjectionTest {
+
+    TestAllTypes msg;
+    byte[] data;
+    FieldProjection projection;
+    TestAllTypes expected;
+
+    @Before
+    public void setupData() throws IOException {
+        // Nested message with an unknown field 2 that only survives if all nested fields are selected
+        TestAllTypes.NestedMessage nested = TestAllTypes.NestedMessage.newInstance().setBb(2);
+        nested.getUnknownBytes().addAll(new byte[]{0x10, 0x05});
+
+        msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage())
+                .setOptionalInt32(7)
+                .setOptionalString("text")
+                .setOptionalNestedMessage(nested);
+        msg.getMutableOptionalGroup().setA(3);
+        msg.getMutableRepeatedNestedMessage().add(nested);
+        msg.getMutableRepeatedGroup().next().setA(4);
+        data = msg.toByteArray();
+
+        projection = FieldProjection.newInstance()
+                .include(1)
+                .include(14)
+                .include(16)
+                .include(18, 1)
+                .include(48);
+
+        expected = TestAllTypes.newInstance()
+                .setOptionalInt32(7)
+                .setOptionalString("text")
+                .setOptionalGroup(msg.getOptionalGroup())
+                .setOptionalNestedMessage(TestAllTypes.NestedMessage.newInstance().setBb(2));
+        expected.getMutableRepeatedNestedMessage().addAll(msg.getRepeatedNestedMessage());
+    }
+
+    @Test
+    public void testIsIncluded() {
+        assertTrue(projection.isIncluded(1));
+        assertTrue(projection.isIncluded(18));
+        assertFalse(projection.isIncluded(2));
+    }
+
+    @Test
+    public void testLargeFieldNumbers() throws IOException {
+        FieldProjection large = FieldProjection.newInstance()
+                .include(MAX_FIELD_NUMBER)
+                .include(1)
+                .include(18, MAX_FIELD_NUMBER);
+        assertTrue(large.isIncluded(MAX_FIELD_NUMBER));
+        assertFalse(large.isIncluded(MAX_FIELD_NUMBER - 1));
+        assertEquals("{1, 18={" + MAX_FIELD_NUMBER + "}, " + MAX_FIELD_NUMBER + "}", large.toString());
+
+        // selected unknown fields get stored, the others are skipped
+        TestAllTypes source = TestAllTypes.newInstance().setOptionalInt32(7).setOptionalInt64(8);
+        byte[] unknown = new byte[]{(byte) 0xF8, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 0x01}; // field 536870911
+        byte[] input = concat(source.toByteArray(), unknown);
+        TestAllTypes actual = TestAllTypes.parseFrom(ProtoSource.newArraySource().setProjection(large).setInput(input));
+        assertEquals(7, actual.getOptionalInt32());
+        assertFalse(actual.hasOptionalInt64());
+        assertArrayEquals(unknown, actual.getUnknownBytes().toArray());
+    }
+
+    @Test
+    public void testFullySelectedNestedMessage() {
+        FieldProjection full = FieldProjection.newInstance()
+                .include(18, 1)
+                .include(18)
+                .include(18, 2);
+        assertEquals("{18}", full.toString());
+    }
+
+    @Test
+    public void testFieldProjection() throws IOException {
+        TestAllTypes actual = TestAllTypes.parseFrom(ProtoSource.newArraySource().setProjection(projection).setInput(data));
+        assertEquals(expected, actual);
+        assertEquals(0, actual.getUnknownBytes().length());
+    }
+
+    @Test
+    public void testNestedProjection() throws IOException {
+        TestAllTypes actual = TestAllTypes.parseFrom(ProtoSource.newArraySource().setProjection(projection).setInput(data));
+
+        // Partially selected messages drop unknown fields, fully selected ones keep them
+        assertEquals(0, actual.getOptionalNestedMessage().getUnknownBytes().length());
+        int last = actual.getRepeatedNestedMessage().length() - 1;
+        assertEquals(2, actual.getRepeatedNestedMessage().get(last).getUnknownBytes().length());
+    }
+
+    @Test
+    public void testProjectionStaysActive() throws IOException {
+        ProtoSource source = ProtoSource.newArraySource().setProjection(projection);
+        TestAllTypes actual = TestAllTypes.newInstance();
+        actual.mergeFrom(source.setInput(data));
+        actual.clear().mergeFrom(source.setInput(data));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testDisabledProjection() throws IOException {
+        ProtoSource source = ProtoSource.newArraySource().setProjection(projection);
+        TestAllTypes actual = TestAllTypes.parseFrom(source.setInput(data));
+        actual.clear().mergeFrom(source.setProjection(null).setInput(data));
+        assertEquals(msg, actual);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static final int MAX_FIELD_NUMBER = 536870911;
+
+}
@@ -0,0 +1,161 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Checksum;
+
+import static org.junit.Assert.*;
+import static us.hebi.quickbuf.ProtoUtil.Charsets.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class HashingSinkTest {
+
+    static final int[] blockSizes = {20, 64, 1024, 4096};
+
+    TestAllTypes msg;
+    byte[] bytes;
+    long expectedCrc;
+    long expectedHash;
+
+    @Before
+    public void setupData() throws IOException {
+        msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        msg.getMutableOptionalBytes().setLength(3000); // larger than the block
+        bytes = msg.toByteArray();
+
+        Checksum crc = Checksums.newCrc32c();
+        crc.update(bytes, 0, bytes.length);
+        expectedCrc = crc.getValue();
+
+        Checksum xxHash = Checksums.newXxHash64();
+        xxHash.update(bytes, 0, bytes.length);
+        expectedHash = xxHash.getValue();
+    }
+
+    @Test
+    public void testReferenceValues() {
+        byte[] check = "123456789".getBytes(UTF_8);
+        Checksum crc = Checksums.newCrc32c();
+        crc.update(check, 0, check.length);
+        assertEquals(0xE3069283L, crc.getValue());
+        assertEquals(0xEF46DB3751D8E999L, Checksums.newXxHash64().getValue());
+    }
+
+    @Test
+    public void testXxHash64ReferenceValues() {
+        assertXxHash64(0xD24EC4F1A98C6E5BL, "a");
+        assertXxHash64(0x44BC2CF5AD770999L, "abc");
+        assertXxHash64(0xBF2CD639B4143B80L, "abcdefghijklmnopqrstuvwxyz012345"); // one full stripe
+        assertXxHash64(0xFBCEA83C8A378BF1L, "Nobody inspects the spammish repetition");
+    }
+
+    private static void assertXxHash64(long expected, String input) {
+        byte[] data = input.getBytes(UTF_8);
+        Checksum xxHash = Checksums.newXxHash64();
+        xxHash.update(data, 0, data.length);
+        assertEquals(input, expected, xxHash.getValue());
+
+        xxHash.reset();
+        for (byte b : data) {
+            xxHash.update(b);
+        }
+        assertEquals(input, expected, xxHash.getValue());
+    }
+
+    @Test
+    public void testPiecewiseUpdates() {
+        // Piecewise updates must match a single update
+        Checksum xxHash = Checksums.newXxHash64();
+        Checksum crc = Checksums.newCrc32c();
+        for (int i = 0, step = 1; i < bytes.length; i += step, step = step % 41 + 1) {
+            int length = Math.min(step, bytes.length - i);
+            if (length == 1) {
+                xxHash.update(bytes[i]);
+            } else {
+                xxHash.update(bytes, i, length);
+            }
+            crc.update(bytes, i, length);
+        }
+        assertEquals(expectedHash, xxHash.getValue());
+        assertEquals(expectedCrc, crc.getValue());
+    }
+
+    @Test
+    public void testHashingSink() throws IOException {
+        for (int blockSize : blockSizes) {
+            HashingSink sink = ProtoSink.newHashingSink(blockSize);
+            msg.writeTo(sink);
+            assertEquals(bytes.length, sink.getTotalBytesWritten());
+            assertEquals(expectedCrc, sink.getCrc32c());
+            assertEquals(expectedHash, sink.getHash64());
+        }
+    }
+
+    @Test
+    public void testIntermediateReads() throws IOException {
+        // Reading the hashes in between must not change the result
+        for (int blockSize : blockSizes) {
+            HashingSink sink = ProtoSink.newHashingSink(blockSize);
+            msg.writeTo(sink);
+            assertEquals(expectedCrc, sink.getCrc32c());
+            msg.writeTo(sink.reset());
+            assertEquals(expectedHash, sink.getHash64());
+            assertEquals(expectedCrc, sink.getCrc32c());
+        }
+    }
+
+    @Test
+    public void testTeeToSink() throws IOException {
+        for (int blockSize : blockSizes) {
+            HashingSink sink = ProtoSink.newHashingSink(blockSize);
+            RepeatedByte output = RepeatedByte.newEmptyInstance();
+            sink.setOutput(ProtoSink.newInstance(output));
+            msg.writeTo(sink);
+            assertEquals(expectedCrc, sink.getCrc32c());
+            sink.flush();
+            assertArrayEquals(bytes, output.toArray());
+            assertEquals(expectedHash, sink.getHash64());
+        }
+    }
+
+    @Test
+    public void testTeeToStream() throws IOException {
+        for (int blockSize : blockSizes) {
+            HashingSink sink = ProtoSink.newHashingSink(blockSize);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            msg.writeTo(sink.setOutput(baos));
+            sink.flush();
+            assertArrayEquals(bytes, baos.toByteArray());
+            assertEquals(expectedCrc, sink.getCrc32c());
+            assertEquals(expectedHash, sink.getHash64());
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.LazyTypes.LazyMessage;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class IncrementalDecoderTest {
+
+    TestAllTypes msg;
+    byte[] data;
+    IncrementalDecoder<TestAllTypes> delimited;
+
+    @Before
+    public void setupData() throws IOException {
+        msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        RepeatedByte bytes = RepeatedByte.newEmptyInstance();
+        ProtoSink sink = ProtoSink.newInstance(bytes);
+        for (int i = 0; i < 3; i++) {
+            msg.setOptionalInt32(i).writeDelimitedTo(sink);
+        }
+        TestAllTypes.newInstance().writeDelimitedTo(sink);
+        data = bytes.toArray();
+        delimited = IncrementalDecoder.newDelimitedInstance(TestAllTypes.newInstance());
+    }
+
+    @Test
+    public void testDelimitedChunks() throws IOException {
+        for (int chunkSize = 1; chunkSize < 40; chunkSize++) {
+            List<TestAllTypes> received = new ArrayList<TestAllTypes>();
+            for (int offset = 0; offset < data.length; offset += chunkSize) {
+                delimited.feed(ByteBuffer.wrap(data, offset, Math.min(chunkSize, data.length - offset)));
+                while (delimited.next()) {
+                    received.add(delimited.getMessage().clone());
+                }
+            }
+            delimited.finish();
+            assertEquals(4, received.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(msg.setOptionalInt32(i), received.get(i));
+            }
+            assertEquals(TestAllTypes.newInstance(), received.get(3));
+        }
+    }
+
+    @Test
+    public void testTopLevelChunks() throws IOException {
+        byte[] single = msg.toByteArray();
+        IncrementalDecoder<TestAllTypes> topLevel = IncrementalDecoder.newInstance(TestAllTypes.newInstance());
+        for (int chunkSize = 1; chunkSize < 40; chunkSize++) {
+            for (int offset = 0; offset < single.length; offset += chunkSize) {
+                topLevel.feed(single, offset, Math.min(chunkSize, single.length - offset));
+                assertFalse(topLevel.next());
+                assertTrue(topLevel.getBufferedBytes() < 1024);
+            }
+            topLevel.finish();
+            assertEquals(msg, topLevel.getMessage());
+            topLevel.reset();
+        }
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void testTruncatedInput() throws IOException {
+        delimited.feed(data, 0, data.length - 2);
+        while (delimited.next()) {
+        }
+        delimited.finish();
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void testFieldExceedsMessage() throws IOException {
+        delimited.feed(new byte[]{1, 0x10, 0x01}, 0, 3);
+        delimited.next();
+    }
+
+    @Test
+    public void testNestedFieldsAreBuffered() throws IOException {
+        LazyMessage large = newLargeMessage();
+        byte[] largeBytes = large.toByteArray();
+        IncrementalDecoder<LazyMessage> nested = IncrementalDecoder.newInstance(LazyMessage.newInstance());
+        int maxBuffered = 0;
+        for (int offset = 0; offset < largeBytes.length; offset += 100) {
+            nested.feed(largeBytes, offset, Math.min(100, largeBytes.length - offset));
+            nested.next();
+            maxBuffered = Math.max(maxBuffered, nested.getBufferedBytes());
+        }
+        nested.finish();
+        assertEquals(large, nested.getMessage());
+        assertTrue(maxBuffered > 1000);
+    }
+
+    @Test
+    public void testMaxBufferedBytes() throws IOException {
+        byte[] largeBytes = newLargeMessage().toByteArray();
+        IncrementalDecoder<LazyMessage> nested = IncrementalDecoder.newInstance(LazyMessage.newInstance())
+                .setMaxBufferedBytes(512);
+        try {
+            for (int offset = 0; offset < largeBytes.length; offset += 100) {
+                nested.feed(ByteBuffer.wrap(largeBytes, offset, Math.min(100, largeBytes.length - offset)));
+                nested.next();
+            }
+            fail("exceeded buffer limit");
+        } catch (InvalidProtocolBufferException expected) {
+            assertTrue(nested.getBufferedBytes() <= 512);
+        }
+    }
+
+    private static LazyMessage newLargeMessage() {
+        char[] text = new char[2000];
+        Arrays.fill(text, 'x');
+        LazyMessage large = LazyMessage.newInstance().setOptionalString("text");
+        large.getMutableOptionalRoutedMessage().setC(1).setText(new String(text));
+        return large;
+    }
+
+}
@@ -0,0 +1,154 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.maps.MapTypes.MapMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class IndexedMapTest {
+
+    MapMessage msg;
+    IntKeyMap<MapMessage.Int32ToStringEntry> intMap;
+
+    @Before
+    public void setupData() {
+        msg = MapMessage.newInstance();
+        intMap = msg.getMutableInt32ToString();
+        for (int i = 0; i < 1000; i++) {
+            intMap.put(i * 7).setValue("value " + i);
+        }
+        msg.getMutableSint64ToMessage().put(Long.MIN_VALUE).getMutableValue().setBb(1);
+        msg.getMutableSint64ToMessage().put(1L << 32).getMutableValue().setBb(2);
+        msg.getMutableStringToDouble().put("a").setValue(1.5);
+        msg.getMutableStringToDouble().put("\u00fc").setValue(2.5);
+        msg.getMutableStringToDouble().put("").setValue(3.5);
+        msg.addBoolToInt32(MapMessage.BoolToInt32Entry.newInstance().setKey(true).setValue(4));
+    }
+
+    @Test
+    public void testIntKeyLookup() {
+        assertEquals(1000, intMap.length());
+        assertEquals("value 5", intMap.find(35).getValue());
+        assertEquals(5, intMap.indexOf(35));
+        assertNull(intMap.find(36));
+        assertFalse(intMap.containsKey(-7));
+    }
+
+    @Test
+    public void testLongKeyLookup() {
+        assertEquals(2, msg.getSint64ToMessage().find(1L << 32).getValue().getBb());
+        assertNull(msg.getSint64ToMessage().find(1));
+    }
+
+    @Test
+    public void testStringKeyLookup() {
+        assertEquals(2.5, msg.getStringToDouble().find("\u00fc").getValue(), 0);
+        assertEquals(2.5, msg.getStringToDouble().find(Utf8String.newInstance("\u00fc")).getValue(), 0);
+        assertEquals(3.5, msg.getStringToDouble().find("").getValue(), 0);
+        assertNull(msg.getStringToDouble().find("b"));
+    }
+
+    @Test
+    public void testExistingKeysGetReplaced() {
+        intMap.put(35).setValue("replaced");
+        intMap.add(MapMessage.Int32ToStringEntry.newInstance().setKey(42).setValue("added"));
+        assertEquals(1000, intMap.length());
+        assertEquals("replaced", intMap.find(35).getValue());
+        assertEquals("added", intMap.find(42).getValue());
+    }
+
+    @Test
+    public void testRemove() {
+        // removals move the last entry
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(intMap.remove(i * 7));
+        }
+        assertFalse(intMap.remove(0));
+        assertEquals(500, intMap.length());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 1, intMap.containsKey(i * 7));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        intMap.remove(0);
+        MapMessage parsed = MapMessage.parseFrom(msg.toByteArray());
+        assertEquals(msg, parsed);
+        assertEquals("value 5", parsed.getInt32ToString().find(35).getValue());
+        assertEquals(msg, MapMessage.parseFrom(JsonSource.newInstance(msg.toString())));
+        assertEquals(msg, MapMessage.newInstance().copyFrom(msg));
+        assertEquals(msg, msg.clone());
+    }
+
+    @Test
+    public void testDuplicateKeysOnTheWire() throws IOException {
+        // the last entry wins
+        MapMessage update = MapMessage.newInstance();
+        update.getMutableInt32ToString().put(35).setValue("updated");
+        update.getMutableStringToDouble().put("a").setValue(-1);
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        merged.write(msg.toByteArray());
+        merged.write(update.toByteArray());
+
+        MapMessage parsed = MapMessage.parseFrom(merged.toByteArray());
+        assertEquals(1000, parsed.getInt32ToString().length());
+        assertEquals("updated", parsed.getInt32ToString().find(35).getValue());
+        assertEquals(-1, parsed.getStringToDouble().find("a").getValue(), 0);
+        assertEquals(3, parsed.getStringToDouble().length());
+        assertEquals(parsed, msg.clone().mergeFrom(update));
+    }
+
+    @Test
+    public void testEqualityIgnoresOrder() {
+        MapMessage reversed = MapMessage.newInstance();
+        for (int i = intMap.length() - 1; i >= 0; i--) {
+            reversed.getMutableInt32ToString().add(intMap.get(i));
+        }
+        assertNotEquals(msg.getInt32ToString().get(0), reversed.getInt32ToString().get(0));
+        assertEquals(msg.getInt32ToString(), reversed.getInt32ToString());
+        reversed.getMutableInt32ToString().put(35).setValue("different");
+        assertNotEquals(msg.getInt32ToString(), reversed.getInt32ToString());
+    }
+
+    @Test
+    public void testReuse() throws IOException {
+        byte[] bytes = msg.toByteArray();
+        MapMessage parsed = MapMessage.parseFrom(bytes);
+        parsed.clearQuick();
+        assertFalse(parsed.hasInt32ToString());
+        assertEquals(0, parsed.getMutableInt32ToString().length());
+        assertNull(parsed.getMutableInt32ToString().find(35));
+        parsed.mergeFrom(ProtoSource.newInstance(bytes));
+        assertEquals(msg, parsed);
+    }
+
+}
@@ -0,0 +1,164 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.lazyparse.LazyTypes.LazyMessage;
+import protos.test.quickbuf.lazyparse.LazyTypes.LazyMessage.RoutedMessage;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class LazyParsingTest {
+
+    RepeatedByte first;
+    byte[] input;
+    byte[] concatenated;
+    RoutedMessage expected;
+
+    @Before
+    public void setupData() throws IOException {
+        // Nested content in non-canonical order, so we can tell whether it got re-encoded
+        first = RepeatedByte.newEmptyInstance();
+        first.addAll(RoutedMessage.newInstance().setText("text").toByteArray());
+        first.addAll(RoutedMessage.newInstance().setC(1).toByteArray());
+        RepeatedByte second = RepeatedByte.newInstance(RoutedMessage.newInstance()
+                .setChild(RoutedMessage.newInstance().setC(2))
+                .toByteArray());
+
+        input = new byte[64];
+        ProtoSink sink = ProtoSink.newInstance(input);
+        sink.writeBytes(19, first);
+        sink.writeBytes(19, second);
+        input = Arrays.copyOf(input, sink.getTotalBytesWritten());
+
+        // Repeated occurrences get concatenated
+        RepeatedByte content = RepeatedByte.newEmptyInstance();
+        content.addAll(first);
+        content.addAll(second);
+        concatenated = new byte[64];
+        sink.setOutput(concatenated).writeBytes(19, content);
+        concatenated = Arrays.copyOf(concatenated, sink.getTotalBytesWritten());
+
+        expected = RoutedMessage.newInstance()
+                .setText("text")
+                .setC(1)
+                .setChild(RoutedMessage.newInstance().setC(2));
+    }
+
+    @Test
+    public void testUntouchedContentIsForwarded() throws IOException {
+        byte[] single = Arrays.copyOf(input, first.length() + 3);
+        assertArrayEquals(single, LazyMessage.parseFrom(single).toByteArray());
+    }
+
+    @Test
+    public void testRepeatedOccurrencesGetConcatenated() throws IOException {
+        LazyMessage msg = LazyMessage.parseFrom(input);
+        assertTrue(msg.hasOptionalRoutedMessage());
+        assertArrayEquals(concatenated, msg.toByteArray());
+        assertEquals(concatenated.length, msg.getSerializedSize());
+
+        LazyMessage copy = msg.clone();
+        assertArrayEquals(concatenated, copy.toByteArray());
+        assertEquals(msg, copy);
+    }
+
+    @Test
+    public void testContentGetsParsedOnFirstAccess() throws IOException {
+        LazyMessage msg = LazyMessage.parseFrom(input);
+        LazyMessage copy = msg.clone();
+        assertEquals(expected, msg.getOptionalRoutedMessage());
+        assertArrayEquals(LazyMessage.newInstance().setOptionalRoutedMessage(expected).toByteArray(), msg.toByteArray());
+        assertEquals(msg, copy);
+    }
+
+    @Test
+    public void testMergeIntoParsedContent() throws IOException {
+        LazyMessage msg = LazyMessage.parseFrom(input);
+        msg.getOptionalRoutedMessage();
+        msg.mergeFrom(ProtoSource.newInstance(input));
+        assertEquals(2, msg.getOptionalRoutedMessage().getChild().getC());
+        assertEquals("text", msg.getOptionalRoutedMessage().getText());
+    }
+
+    @Test
+    public void testMergeUnparsedContent() throws IOException {
+        LazyMessage merged = LazyMessage.newInstance().mergeFrom(LazyMessage.parseFrom(input));
+        assertEquals(expected, merged.getOptionalRoutedMessage());
+    }
+
+    @Test
+    public void testClearDiscardsContent() throws IOException {
+        LazyMessage msg = LazyMessage.parseFrom(input);
+        msg.clear();
+        assertTrue(msg.isEmpty());
+        assertEquals(0, msg.getSerializedSize());
+        msg.mergeFrom(ProtoSource.newInstance(input)).clearQuick();
+        assertEquals(0, msg.getSerializedSize());
+    }
+
+    @Test
+    public void testJsonOutputParsesContent() throws IOException {
+        assertEquals(LazyMessage.newInstance().setOptionalRoutedMessage(expected).toString(),
+                LazyMessage.parseFrom(input).toString());
+    }
+
+    @Test
+    public void testInvalidContentFailsOnAccess() throws IOException {
+        byte[] invalid = new byte[]{(byte) 0x9A, 0x01, 0x02, (byte) 0xFF, (byte) 0xFF};
+        LazyMessage corrupt = LazyMessage.parseFrom(invalid);
+        assertArrayEquals(invalid, corrupt.toByteArray());
+        try {
+            corrupt.getOptionalRoutedMessage();
+            fail("expected content to be invalid");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof InvalidProtocolBufferException);
+        }
+    }
+
+    @Test
+    public void testSetterOverwritesInvalidContent() throws IOException {
+        // Failed parsing keeps the content, and setters overwrite it without parsing
+        byte[] truncated = new byte[]{(byte) 0x9A, 0x01, 0x02, 0x08, (byte) 0x80};
+        LazyMessage corrupt = LazyMessage.parseFrom(truncated);
+        try {
+            corrupt.getOptionalRoutedMessage();
+            fail("expected content to be invalid");
+        } catch (IllegalStateException e) {
+        }
+        assertTrue(corrupt.hasOptionalRoutedMessage());
+        assertArrayEquals(truncated, corrupt.toByteArray());
+        corrupt.setOptionalRoutedMessage(RoutedMessage.newInstance().setC(5));
+        assertEquals(5, corrupt.getOptionalRoutedMessage().getC());
+        assertEquals(LazyMessage.newInstance().setOptionalRoutedMessage(RoutedMessage.newInstance().setC(5)),
+                LazyMessage.parseFrom(corrupt.toByteArray()));
+        assertTrue(LazyMessage.parseFrom(truncated).clearOptionalRoutedMessage().isEmpty());
+    }
+
+}
@@ -0,0 +1,102 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class MappedFileSourceTest {
+
+    TestAllTypes msg;
+    File file;
+    RandomAccessFile input;
+    long[] positions = new long[10];
+
+    @Before
+    public void writeFile() throws IOException {
+        msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        file = File.createTempFile("quickbuf", ".bin");
+        file.deleteOnExit();
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            ProtoSink sink = ProtoSink.newInstance(output);
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = sink.getTotalBytesWritten();
+                msg.setOptionalInt32(i).writeDelimitedTo(sink);
+            }
+        } finally {
+            output.close();
+        }
+        input = new RandomAccessFile(file, "r");
+    }
+
+    @After
+    public void closeFile() throws IOException {
+        input.close();
+    }
+
+    @Test
+    public void testSequentialRead() throws IOException {
+        // Small regions to force values across mapping boundaries
+        MappedFileSource source = ProtoSource.newMappedFileSource(37).setInput(input.getChannel());
+        TestAllTypes actual = TestAllTypes.newInstance();
+        for (int i = 0; i < positions.length; i++) {
+            assertEquals(positions[i], source.getPosition());
+            actual.clear().mergeDelimitedFrom(source);
+            assertEquals(msg.setOptionalInt32(i), actual);
+            source.resetSizeCounter();
+        }
+        assertTrue(source.isAtEnd());
+        assertEquals(file.length(), source.getPosition());
+    }
+
+    @Test
+    public void testRandomAccess() throws IOException {
+        MappedFileSource source = ProtoSource.newMappedFileSource(37).setInput(input.getChannel());
+        TestAllTypes actual = TestAllTypes.newInstance();
+        for (int i = positions.length - 1; i >= 0; i--) {
+            actual.clear().mergeDelimitedFrom(source.seek(positions[i]));
+            assertEquals(msg.setOptionalInt32(i), actual);
+        }
+    }
+
+    @Test
+    public void testDefaultRegionSize() throws IOException {
+        MappedFileSource source = ProtoSource.newMappedFileSource().setInput(input.getChannel());
+        TestAllTypes actual = TestAllTypes.newInstance();
+        actual.mergeDelimitedFrom(source.seek(positions[3]));
+        assertEquals(msg.setOptionalInt32(3), actual);
+    }
+
+}
@@ -0,0 +1,112 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class MessagePoolTest {
+
+    final AtomicInteger created = new AtomicInteger();
+    final MessageFactory<TestAllTypes> factory = new MessageFactory<TestAllTypes>() {
+        @Override
+        public TestAllTypes create() {
+            created.incrementAndGet();
+            return TestAllTypes.newInstance();
+        }
+    };
+    MessagePool<TestAllTypes> pool;
+    TestAllTypes msg;
+
+    @Before
+    public void setupPool() throws IOException {
+        pool = MessagePool.newInstance(factory, 64).setLeakDetection(true);
+        msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+    }
+
+    @Test
+    public void testReleasedMessagesGetReused() {
+        TestAllTypes first = pool.acquire().copyFrom(msg);
+        pool.release(first);
+        assertSame(first, pool.acquire());
+        assertEquals(TestAllTypes.newInstance(), first);
+        assertEquals(1, created.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDoubleRelease() {
+        TestAllTypes first = pool.acquire();
+        pool.release(first);
+        pool.release(first);
+    }
+
+    @Test
+    public void testCrossThreadPipeline() throws Exception {
+        // producer acquires and consumer releases
+        final BlockingQueue<TestAllTypes> queue = new ArrayBlockingQueue<TestAllTypes>(16);
+        final int numMessages = 100000;
+        final AtomicInteger mismatches = new AtomicInteger();
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < numMessages; i++) {
+                        TestAllTypes received = queue.take();
+                        if (!msg.equals(received)) {
+                            mismatches.incrementAndGet();
+                        }
+                        pool.release(received);
+                    }
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+        consumer.start();
+        for (int i = 0; i < numMessages; i++) {
+            queue.put(pool.acquire().copyFrom(msg));
+        }
+        consumer.join();
+        assertEquals(0, mismatches.get());
+        assertTrue("allocated " + created.get() + " messages", created.get() < 1000);
+        assertEquals(0, pool.getLeakCount());
+    }
+
+    @Test
+    public void testSharedPools() {
+        // shared pools are keyed by the factory
+        assertSame(MessagePool.forFactory(TestAllTypes.getFactory()), MessagePool.forFactory(TestAllTypes.getFactory()));
+        assertNotSame(MessagePool.forFactory(TestAllTypes.getFactory()), MessagePool.forFactory(factory));
+    }
+
+}
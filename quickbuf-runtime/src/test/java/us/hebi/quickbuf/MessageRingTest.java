@@ -0,0 +1,105 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class MessageRingTest {
+
+    MessageRing<TestAllTypes> ring;
+
+    @Before
+    public void setupRing() {
+        ring = MessageRing.newInstance(TestAllTypes.getFactory(), 5);
+    }
+
+    @Test
+    public void testCapacityIsPowerOfTwo() {
+        assertEquals(8, ring.capacity());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    public void testEmptyRing() {
+        assertNull(ring.poll());
+    }
+
+    @Test
+    public void testFillAndDrain() {
+        for (int i = 0; i < ring.capacity(); i++) {
+            ring.claim().setOptionalInt32(i);
+            ring.publish();
+        }
+        assertNull(ring.claim());
+        assertEquals(8, ring.size());
+        for (int i = 0; i < ring.capacity(); i++) {
+            assertEquals(i, ring.poll().getOptionalInt32());
+            ring.release();
+        }
+        assertNull(ring.poll());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    public void testCrossThreadOrdering() throws Exception {
+        final TestAllTypes msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        final int numMessages = 100000;
+        final AtomicInteger received = new AtomicInteger();
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                int expected = 0;
+                while (expected < numMessages) {
+                    TestAllTypes slot = ring.poll();
+                    if (slot == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    if (slot.getOptionalInt64() == expected && slot.getOptionalString().equals(msg.getOptionalString())) {
+                        received.incrementAndGet();
+                    }
+                    expected++;
+                    ring.release();
+                }
+            }
+        });
+        consumer.start();
+        for (int i = 0; i < numMessages; i++) {
+            msg.setOptionalInt64(i);
+            while (!ring.offer(msg)) {
+                Thread.yield();
+            }
+        }
+        consumer.join();
+        assertEquals(numMessages, received.get());
+    }
+
+}
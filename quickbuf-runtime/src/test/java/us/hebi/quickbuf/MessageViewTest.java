@@ -0,0 +1,177 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.views.ForeignMessage;
+import protos.test.quickbuf.views.TestAllTypes;
+import protos.test.quickbuf.views.TestAllTypes.TestAllTypesView;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class MessageViewTest {
+
+    TestAllTypes msg;
+    TestAllTypesView view;
+
+    @Before
+    public void setupData() throws IOException {
+        msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        msg.getMutableOptionalGroup().setA(17);
+        msg.addRepeatedPackedInt32(1).addRepeatedPackedInt32(-2);
+        byte[] bytes = msg.toByteArray();
+
+        // Embedded in a larger array
+        byte[] padded = new byte[bytes.length + 10];
+        System.arraycopy(bytes, 0, padded, 5, bytes.length);
+        view = TestAllTypesView.newInstance().wrap(padded, 5, bytes.length);
+    }
+
+    @Test
+    public void testSingularFields() {
+        assertEquals(msg.hasOptionalInt32(), view.hasOptionalInt32());
+        assertEquals(msg.getOptionalInt32(), view.getOptionalInt32());
+        assertEquals(msg.getOptionalSint64(), view.getOptionalSint64());
+        assertEquals(msg.getOptionalDouble(), view.getOptionalDouble(), 0);
+        assertEquals(msg.getOptionalBool(), view.getOptionalBool());
+        assertEquals(msg.getOptionalString(), view.getOptionalString());
+        assertEquals(msg.getOptionalBytes(), view.getOptionalBytes());
+        assertEquals(msg.getOptionalNestedEnum(), view.getOptionalNestedEnum());
+        assertEquals(msg.getOptionalNestedMessage().getBb(), view.getOptionalNestedMessage().getBb());
+        assertEquals(17, view.getOptionalGroup().getA());
+    }
+
+    @Test
+    public void testMissingFieldDefaults() {
+        TestAllTypesView empty = TestAllTypesView.newInstance().wrap(new byte[0]);
+        assertFalse(empty.hasDefaultInt32());
+        assertEquals(41, empty.getDefaultInt32());
+        assertEquals("hello", empty.getDefaultString());
+        assertEquals(TestAllTypes.newInstance().getDefaultBytes(), empty.getDefaultBytes());
+        assertFalse(empty.hasOptionalForeignMessage());
+        assertFalse(empty.getOptionalForeignMessage().hasC());
+    }
+
+    @Test
+    public void testPackedCursor() {
+        FieldCursor cursor = view.getRepeatedPackedInt32Cursor();
+        for (int i = 0; i < msg.getRepeatedPackedInt32().length(); i++) {
+            assertTrue(cursor.next());
+            assertEquals(msg.getRepeatedPackedInt32().get(i), cursor.readInt32());
+        }
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testStringCursor() {
+        FieldCursor cursor = view.getRepeatedStringCursor();
+        Utf8String string = Utf8String.newEmptyInstance();
+        for (int i = 0; i < msg.getRepeatedString().length(); i++) {
+            assertTrue(cursor.next());
+            assertEquals(msg.getRepeatedString().get(i), cursor.readString(string).toString());
+        }
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testMessageCursor() {
+        FieldCursor cursor = view.getRepeatedForeignMessageCursor();
+        ForeignMessage.ForeignMessageView nested = ForeignMessage.ForeignMessageView.newInstance();
+        for (int i = 0; i < msg.getRepeatedForeignMessage().length(); i++) {
+            assertTrue(cursor.next());
+            assertEquals(msg.getRepeatedForeignMessage().get(i).getC(), cursor.readMessage(nested).getC());
+        }
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testRewrapResetsIndex() {
+        assertTrue(view.hasOptionalString());
+        view.wrap(TestAllTypes.newInstance().setOptionalInt32(-7).toByteArray());
+        assertEquals(-7, view.getOptionalInt32());
+        assertFalse(view.hasOptionalString());
+        assertFalse(view.getRepeatedStringCursor().next());
+    }
+
+    @Test
+    public void testConcatenatedMessagesGetMerged() throws IOException {
+        TestAllTypes first = TestAllTypes.newInstance().setOptionalInt32(1);
+        first.getMutableOptionalNestedMessage().setBb(1);
+        first.getMutableOptionalGroup().setA(1);
+        first.getMutableOptionalForeignMessage().setC(5);
+        TestAllTypes second = TestAllTypes.newInstance().setOptionalInt32(2);
+        second.getMutableOptionalNestedMessage();
+        second.getMutableOptionalGroup().setA(2);
+
+        byte[] bytes = concat(first.toByteArray(), second.toByteArray());
+        TestAllTypes expected = TestAllTypes.parseFrom(bytes);
+        view.wrap(bytes);
+        assertEquals(expected.getOptionalInt32(), view.getOptionalInt32());
+        assertEquals(expected.getOptionalNestedMessage().hasBb(), view.getOptionalNestedMessage().hasBb());
+        assertEquals(expected.getOptionalNestedMessage().getBb(), view.getOptionalNestedMessage().getBb());
+        assertEquals(expected.getOptionalGroup().getA(), view.getOptionalGroup().getA());
+        assertEquals(expected.getOptionalForeignMessage().getC(), view.getOptionalForeignMessage().getC());
+        assertEquals(1, view.getOptionalNestedMessage().getBb());
+    }
+
+    @Test
+    public void testLaterNestedFieldsWin() throws IOException {
+        TestAllTypes first = TestAllTypes.newInstance();
+        first.getMutableOptionalNestedMessage().setBb(1);
+        first.getMutableOptionalGroup().setA(2);
+        TestAllTypes second = TestAllTypes.newInstance();
+        second.getMutableOptionalNestedMessage().setBb(3);
+
+        byte[] bytes = concat(first.toByteArray(), second.toByteArray());
+        view.wrap(bytes);
+        assertEquals(TestAllTypes.parseFrom(bytes).getOptionalNestedMessage().getBb(), view.getOptionalNestedMessage().getBb());
+        assertEquals(3, view.getOptionalNestedMessage().getBb());
+        assertEquals(2, view.getOptionalGroup().getA());
+    }
+
+    @Test
+    public void testMalformedNestedContent() {
+        // does not leave a limit behind
+        view.wrap(new byte[]{(byte) 0x92, 0x01, 0x02, 0x08, (byte) 0x80, 0x08, 0x07});
+        try {
+            view.getOptionalNestedMessage().getBb();
+            fail("nested content is truncated");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof InvalidProtocolBufferException);
+        }
+        assertEquals(7, view.getOptionalInt32());
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+}
@@ -24,6 +24,7 @@ import org.junit.Before;
 import org.junit.Test;
 import protos.test.quickbuf.TestAllTypes;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.Random;
 
@@ -188,7 +189,104 @@ public class NumericTypesTest {
     private void testExtendedInt64Error(long value) throws IOException {
         sink.reset().writeNegativeVarint64(value);
         assertEquals(value, source.setInput(bytes).readRawVarint64SlowPath());
-        assertNotEquals(value, source.setInput(bytes).readRawVarint64());
+        assertNotEquals(value, ProtoSource.newInstance(new ByteArrayInputStream(bytes.toArray())).readRawVarint64());
+
+        // Word-wise decoding in array sources is not affected
+        assertEquals(value, source.setInput(bytes).readRawVarint64());
+    }
+
+    @Test
+    public void testVarintsAtAllOffsets() throws IOException {
+        // Back to back values result in varints at all offsets within a word
+        // and exercise the byte-wise fallback near the end of the buffer
+        long[] values = new long[6 * 64 + n];
+        for (int i = 0; i < 64; i++) {
+            values[6 * i] = 1L << i;
+            values[6 * i + 1] = ~(1L << i);
+            values[6 * i + 2] = ~0L << i;
+            values[6 * i + 3] = (1L << i) - 1;
+            values[6 * i + 4] = 1L << i | Long.MIN_VALUE;
+            values[6 * i + 5] = -(1L << i);
+        }
+        for (int i = 6 * 64; i < values.length; i++) {
+            values[i] = rnd.nextLong() >> rnd.nextInt(64);
+        }
+
+        sink.reset();
+        for (long value : values) {
+            sink.writeInt64NoTag(value);
+            sink.writeInt32NoTag((int) value);
+        }
+
+        testVarintsAtAllOffsets(source.setInput(bytes), values);
+        testVarintsAtAllOffsets(ProtoSource.newInstance(new ByteArrayInputStream(bytes.toArray())), values);
+        if (UnsafeAccess.isAvailable()) {
+            testVarintsAtAllOffsets(ProtoSource.newDirectSource().setInput(bytes), values);
+        }
+    }
+
+    private void testVarintsAtAllOffsets(ProtoSource source, long[] values) throws IOException {
+        for (long value : values) {
+            assertEquals(value, source.readRawVarint64());
+            assertEqual((int) value, source.readRawVarint32());
+        }
+        assertTrue(source.isAtEnd());
+    }
+
+    @Test
+    public void testPackedVarints() throws IOException {
+        RepeatedLong longs = RepeatedLong.newEmptyInstance();
+        RepeatedInt ints = RepeatedInt.newEmptyInstance();
+        for (int i = 0; i < 64; i++) {
+            longs.add(1L << i);
+            longs.add(~0L << i);
+            longs.add(-(1L << i));
+            longs.add(rnd.nextLong() >> rnd.nextInt(64));
+        }
+        for (int i = 0; i < longs.length(); i++) {
+            ints.add((int) longs.get(i));
+        }
+
+        sink.reset();
+        sink.writePackedInt64NoTag(longs);
+        sink.writePackedSInt64NoTag(longs);
+        sink.writePackedInt32NoTag(ints);
+        sink.writePackedSInt32NoTag(ints);
+        sink.writePackedInt32NoTag(RepeatedInt.newEmptyInstance());
+
+        testPackedVarints(source.setInput(bytes), longs, ints);
+        testPackedVarints(ProtoSource.newInstance(new ByteArrayInputStream(bytes.toArray())), longs, ints);
+        if (UnsafeAccess.isAvailable()) {
+            testPackedVarints(ProtoSource.newDirectSource().setInput(bytes), longs, ints);
+        }
+    }
+
+    private void testPackedVarints(ProtoSource source, RepeatedLong longs, RepeatedInt ints) throws IOException {
+        // existing values get appended to
+        RepeatedLong actualLongs = RepeatedLong.newEmptyInstance();
+        RepeatedInt actualInts = RepeatedInt.newEmptyInstance();
+        RepeatedLong expectedLongs = RepeatedLong.newEmptyInstance();
+        RepeatedInt expectedInts = RepeatedInt.newEmptyInstance();
+        actualLongs.add(42);
+        expectedLongs.add(42);
+        expectedLongs.addAll(longs);
+
+        source.readPackedInt64(actualLongs, 0);
+        assertArrayEquals(expectedLongs.toArray(), actualLongs.toArray());
+        expectedLongs.addAll(longs);
+        source.readPackedSInt64(actualLongs, 0);
+        assertArrayEquals(expectedLongs.toArray(), actualLongs.toArray());
+
+        source.readPackedInt32(actualInts, 0);
+        expectedInts.addAll(ints);
+        assertArrayEquals(expectedInts.toArray(), actualInts.toArray());
+        source.readPackedSInt32(actualInts, 0);
+        expectedInts.addAll(ints);
+        assertArrayEquals(expectedInts.toArray(), actualInts.toArray());
+
+        source.readPackedInt32(actualInts, 0);
+        assertArrayEquals(expectedInts.toArray(), actualInts.toArray());
+        assertTrue(source.isAtEnd());
     }
 
     @Test
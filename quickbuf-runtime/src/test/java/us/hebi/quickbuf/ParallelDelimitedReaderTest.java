@@ -0,0 +1,140 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class ParallelDelimitedReaderTest {
+
+    static final int numMessages = 1000;
+
+    TestAllTypes msg;
+    byte[] data;
+    ExecutorService executor;
+    ParallelDelimitedReader<TestAllTypes> reader;
+
+    final Thread caller = Thread.currentThread();
+    final AtomicInteger next = new AtomicInteger();
+    final ParallelDelimitedReader.Handler<TestAllTypes> ordered = new ParallelDelimitedReader.Handler<TestAllTypes>() {
+        @Override
+        public void onMessage(TestAllTypes message) {
+            assertSame(caller, Thread.currentThread());
+            assertEquals(msg.setOptionalInt32(next.getAndIncrement()), message);
+        }
+    };
+
+    @Before
+    public void setupData() throws IOException {
+        msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ProtoSink sink = ProtoSink.newInstance(bytes);
+        for (int i = 0; i < numMessages; i++) {
+            msg.setOptionalInt32(i).writeDelimitedTo(sink);
+        }
+        sink.flush();
+        data = bytes.toByteArray();
+
+        executor = Executors.newFixedThreadPool(4);
+        reader = ParallelDelimitedReader
+                .newInstance(TestAllTypes.getFactory(), executor)
+                .setChunkSize(1000)
+                .setMaxPendingChunks(3);
+    }
+
+    @After
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testOrdered() throws IOException {
+        // calls the handler on the calling thread in input order
+        assertEquals(numMessages, reader.read(data, ordered));
+        assertEquals(numMessages, next.get());
+    }
+
+    @Test
+    public void testUnordered() throws IOException {
+        // sees every message once
+        final AtomicInteger duplicates = new AtomicInteger();
+        final boolean[] seen = new boolean[numMessages];
+        ParallelDelimitedReader.Handler<TestAllTypes> unordered = new ParallelDelimitedReader.Handler<TestAllTypes>() {
+            @Override
+            public void onMessage(TestAllTypes message) {
+                synchronized (seen) {
+                    if (seen[message.getOptionalInt32()]) {
+                        duplicates.incrementAndGet();
+                    }
+                    seen[message.getOptionalInt32()] = true;
+                }
+            }
+        };
+        assertEquals(numMessages, reader.setOrdered(false).read(data, unordered));
+        assertEquals(0, duplicates.get());
+        for (boolean value : seen) {
+            assertTrue(value);
+        }
+    }
+
+    @Test
+    public void testMappedFile() throws IOException {
+        File file = File.createTempFile("quickbuf", ".bin");
+        file.deleteOnExit();
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            output.write(data);
+        } finally {
+            output.close();
+        }
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            assertEquals(numMessages, reader.read(input.getChannel(), ordered));
+            assertEquals(numMessages, next.get());
+        } finally {
+            input.close();
+        }
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void testTruncatedInput() throws IOException {
+        reader.read(Arrays.copyOf(data, data.length - 1), ordered);
+    }
+
+}
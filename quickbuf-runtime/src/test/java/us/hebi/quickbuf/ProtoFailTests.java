@@ -414,6 +414,12 @@ public class ProtoFailTests {
         } catch (InvalidProtocolBufferException ex) {
         }
 
+        try {
+            msg.clear().mergeFrom(ProtoSource.newBufferedStreamSource().setInput(new ByteArrayInputStream(data, 0, data.length - 1)));
+            fail("BufferedStreamSource");
+        } catch (InvalidProtocolBufferException ex) {
+        }
+
         try {
             msg.clear().mergeFrom(ProtoSource.newBufferSource().setInput(ByteBuffer.wrap(data, 0, data.length - 1)));
             fail("BufferSource");
@@ -440,6 +446,11 @@ public class ProtoFailTests {
         ProtoSource.newInstance(new ByteArrayInputStream(new byte[n])).readRawBytes(new byte[0], 0, n);
     }
 
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testReadIntoTruncatedDestinationBufferedStream() throws IOException {
+        ProtoSource.newBufferedStreamSource().setInput(new ByteArrayInputStream(new byte[n])).readRawBytes(new byte[0], 0, n);
+    }
+
     @Test(expected = IndexOutOfBoundsException.class)
     public void testReadIntoTruncatedDestinationBuffer() throws IOException {
         ProtoSource.newInstance(ByteBuffer.wrap(new byte[n])).readRawBytes(new byte[0], 0, n);
@@ -460,6 +471,11 @@ public class ProtoFailTests {
         ProtoSource.newInstance(new ByteArrayInputStream(new byte[n])).readRawBytes(null, 0, n);
     }
 
+    @Test(expected = NullPointerException.class)
+    public void testReadIntoNullDestinationBufferedStream() throws IOException {
+        ProtoSource.newBufferedStreamSource().setInput(new ByteArrayInputStream(new byte[n])).readRawBytes(null, 0, n);
+    }
+
     @Test(expected = NullPointerException.class)
     public void testReadIntoNullDestinationBuffer() throws IOException {
         ProtoSource.newInstance(ByteBuffer.wrap(new byte[n])).readRawBytes(null, 0, n);
@@ -496,4 +512,32 @@ public class ProtoFailTests {
 
     }
 
+    @Test
+    public void testBufferedStreamLimitsExceeded() throws IOException {
+        byte[] bytes = CompatibilityTest.optionalPrimitives();
+        ProtoSource source = ProtoSource.newBufferedStreamSource(32);
+
+        try {
+            source.setInput(new ByteArrayInputStream(bytes));
+            source.setSizeLimit(bytes.length - 1);
+            TestAllTypes.parseFrom(source);
+            fail();
+        } catch (InvalidProtocolBufferException e) {
+            assertTrue(e.getMessage().contains("size limit"));
+        }
+
+        source.resetSizeCounter();
+        assertEquals(0, source.getTotalBytesRead());
+
+        try {
+            source.setInput(new ByteArrayInputStream(bytes));
+            source.pushLimit(bytes.length - 20);
+            TestAllTypes.parseFrom(source);
+            fail();
+        } catch (InvalidProtocolBufferException e) {
+            assertTrue(e.getMessage().contains("input ended unexpectedly"));
+        }
+
+    }
+
 }
@@ -0,0 +1,138 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.reverse.LazyTypes.LazyMessage.RoutedMessage;
+import protos.test.quickbuf.reverse.RepeatedPackables;
+import protos.test.quickbuf.reverse.TestAllTypes;
+import protos.test.quickbuf.reverse.UnittestRequired;
+import protos.test.quickbuf.reverse.UnittestRequired.TestAllTypesRequired;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class ReverseSinkTest {
+
+    ReverseSink sink;
+
+    @Before
+    public void setupSink() {
+        // start with an empty buffer to check that growing keeps nested lengths intact
+        sink = ReverseSink.newInstance(0);
+    }
+
+    @Test
+    public void testAllTypes() throws IOException {
+        assertReversedOutput(TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage()));
+    }
+
+    @Test
+    public void testPackedRepeated() throws IOException {
+        assertReversedOutput(RepeatedPackables.Packed.parseFrom(CompatibilityTest.repeatedPackablesPacked()));
+    }
+
+    @Test
+    public void testNonPackedRepeated() throws IOException {
+        assertReversedOutput(RepeatedPackables.NonPacked.parseFrom(CompatibilityTest.repeatedPackablesNonPacked()));
+    }
+
+    @Test
+    public void testUnknownFields() throws IOException {
+        assertReversedOutput(TestAllTypes.NestedMessage.parseFrom(CompatibilityTest.getCombinedMessage()));
+    }
+
+    @Test
+    public void testNegativeNumbersAndStrings() throws IOException {
+        assertReversedOutput(TestAllTypes.newInstance().setOptionalInt32(-1).setOptionalInt64(-2)
+                .setOptionalString("\uD83D\uDC4D").setOptionalCord("\u00e4bc"));
+    }
+
+    @Test
+    public void testRequiredFields() throws IOException {
+        assertReversedOutput(TestAllTypesRequired.newInstance()
+                .setRequiredBool(true)
+                .setRequiredDouble(100.0d)
+                .setRequiredFloat(101.0f)
+                .setRequiredFixed32(102)
+                .setRequiredFixed64(103)
+                .setRequiredSfixed32(104)
+                .setRequiredSfixed64(105)
+                .setRequiredSint32(106)
+                .setRequiredSint64(107)
+                .setRequiredInt32(-108)
+                .setRequiredInt64(109)
+                .setRequiredUint32(110)
+                .setRequiredUint64(111)
+                .setRequiredString("test")
+                .addRequiredBytes((byte) 0)
+                .setRequiredNestedEnum(TestAllTypesRequired.NestedEnum.BAR)
+                .setRequiredNestedMessage(UnittestRequired.SimpleMessage.newInstance().setRequiredField(0)));
+    }
+
+    @Test(expected = UninitializedMessageException.class)
+    public void testMissingRequiredField() throws IOException {
+        TestAllTypesRequired.newInstance().writeToReversed(sink);
+    }
+
+    @Test
+    public void testLazyContent() throws IOException {
+        assertReversedOutput(RoutedMessage.parseFrom(RoutedMessage.newInstance()
+                .setChild(RoutedMessage.newInstance().setC(2).setText("text"))
+                .setC(3)
+                .toByteArray()));
+    }
+
+    @Test
+    public void testForwardFallback() throws IOException {
+        // messages without reverse serialization fall back to forward writes
+        TestAllTypes msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        sink.writeForward(msg);
+        assertArrayEquals(msg.toByteArray(), sink.toByteArray());
+    }
+
+    @Test
+    public void testCharSequence() throws IOException {
+        // strings that are not stored as utf8
+        RepeatedByte bytes = RepeatedByte.newEmptyInstance();
+        ProtoSink.newInstance(bytes).writeStringNoTag(new StringBuilder("\u00e4bc\uD83D\uDC4D"));
+        sink.writeStringNoTag(new StringBuilder("\u00e4bc\uD83D\uDC4D"));
+        assertArrayEquals(bytes.toArray(), sink.toByteArray());
+    }
+
+    private void assertReversedOutput(ProtoMessage<?> msg) throws IOException {
+        byte[] expected = msg.toByteArray();
+        msg.writeToReversed(sink);
+        assertEquals(expected.length, sink.getTotalBytesWritten());
+        assertArrayEquals(expected, sink.toByteArray());
+
+        byte[] copy = new byte[expected.length];
+        sink.writeTo(ProtoSink.newInstance(copy));
+        assertArrayEquals(expected, copy);
+    }
+
+}
@@ -0,0 +1,116 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Test;
+import protos.test.quickbuf.sparse.RepeatedPackables;
+import protos.test.quickbuf.sparse.TestAllTypes;
+import protos.test.quickbuf.sparse.TestAllTypes.NestedEnum;
+import protos.test.quickbuf.sparse.UnittestRequired;
+import protos.test.quickbuf.sparse.UnittestRequired.TestAllTypesRequired;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Messages with sparse has bits need to produce the same bytes as the
+ * messages generated with the default bit assignment.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class SparseHasBitsTest {
+
+    @Test
+    public void testAllTypes() throws IOException {
+        byte[] input = CompatibilityTest.getCombinedMessage();
+        byte[] expected = protos.test.quickbuf.TestAllTypes.parseFrom(input).toByteArray();
+        assertSparseOutput(expected, TestAllTypes.parseFrom(input));
+    }
+
+    @Test
+    public void testPackedRepeated() throws IOException {
+        byte[] input = CompatibilityTest.repeatedPackablesPacked();
+        byte[] expected = protos.test.quickbuf.RepeatedPackables.Packed.parseFrom(input).toByteArray();
+        assertSparseOutput(expected, RepeatedPackables.Packed.parseFrom(input));
+    }
+
+    @Test
+    public void testSingleFields() throws IOException {
+        assertSparseOutput(protos.test.quickbuf.TestAllTypes.newInstance().setOptionalInt32(-1).toByteArray(),
+                TestAllTypes.newInstance().setOptionalInt32(-1));
+        assertSparseOutput(protos.test.quickbuf.TestAllTypes.newInstance().setOptionalString("text").toByteArray(),
+                TestAllTypes.newInstance().setOptionalString("text"));
+        assertSparseOutput(protos.test.quickbuf.TestAllTypes.newInstance().setDefaultDouble(1).toByteArray(),
+                TestAllTypes.newInstance().setDefaultDouble(1));
+        assertSparseOutput(protos.test.quickbuf.TestAllTypes.newInstance()
+                        .setOptionalNestedEnum(protos.test.quickbuf.TestAllTypes.NestedEnum.BAZ).toByteArray(),
+                TestAllTypes.newInstance().setOptionalNestedEnum(NestedEnum.BAZ));
+    }
+
+    @Test
+    public void testClearedFields() throws IOException {
+        TestAllTypes msg = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        msg.clear();
+        assertSparseOutput(new byte[0], msg);
+    }
+
+    @Test
+    public void testRequiredFields() throws IOException {
+        TestAllTypesRequired msg = TestAllTypesRequired.newInstance()
+                .setRequiredBool(true)
+                .setRequiredDouble(100.0d)
+                .setRequiredFloat(101.0f)
+                .setRequiredFixed32(102)
+                .setRequiredFixed64(103)
+                .setRequiredSfixed32(104)
+                .setRequiredSfixed64(105)
+                .setRequiredSint32(106)
+                .setRequiredSint64(107)
+                .setRequiredInt32(-108)
+                .setRequiredInt64(109)
+                .setRequiredUint32(110)
+                .setRequiredUint64(111)
+                .setRequiredString("test")
+                .addRequiredBytes((byte) 0)
+                .setRequiredNestedEnum(TestAllTypesRequired.NestedEnum.BAR)
+                .setRequiredNestedMessage(UnittestRequired.SimpleMessage.newInstance().setRequiredField(0));
+        TestAllTypesRequired copy = TestAllTypesRequired.parseFrom(msg.toByteArray());
+        assertEquals(msg, copy);
+        assertSparseOutput(msg.toByteArray(), copy);
+    }
+
+    @Test(expected = UninitializedMessageException.class)
+    public void testMissingRequiredField() throws IOException {
+        TestAllTypesRequired.newInstance().setRequiredBool(true).toByteArray();
+    }
+
+    private void assertSparseOutput(byte[] expected, ProtoMessage<?> msg) throws IOException {
+        assertEquals(expected.length, msg.getSerializedSize());
+        assertArrayEquals(expected, msg.toByteArray());
+
+        ReverseSink sink = ReverseSink.newInstance(0);
+        msg.writeToReversed(sink);
+        assertArrayEquals(expected, sink.toByteArray());
+    }
+
+}
@@ -0,0 +1,254 @@
+/*-
+ * #%L
+ * quickbuf-runtime
+ * %%
+ * Copyright (C) 2019 - 2026 HEBI Robotics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package us.hebi.quickbuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import protos.test.quickbuf.RepeatedPackables;
+import protos.test.quickbuf.TestAllTypes;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.lang.foreign.ValueLayout.*;
+import static org.junit.Assert.*;
+
+/**
+ * Round trip tests for the MemorySegment based source and sink. Compiled
+ * and run by the 'jdk22-segments' profile.
+ *
+ * @author Florian Enner
+ * @since 17 Oct 2026
+ */
+public class SegmentTest {
+
+    TestAllTypes message;
+    byte[] array;
+
+    @Before
+    public void setupData() throws IOException {
+        message = TestAllTypes.parseFrom(CompatibilityTest.getCombinedMessage());
+        array = message.toByteArray();
+    }
+
+    @Test
+    public void testConfinedArena() throws IOException {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(array.length);
+            SegmentSink sink = SegmentSink.newInstance(segment);
+            message.writeTo(sink);
+            sink.checkNoSpaceLeft();
+            assertEquals(array.length, sink.getPosition());
+            assertArrayEquals(array, segment.toArray(JAVA_BYTE));
+
+            SegmentSource source = SegmentSource.newInstance(segment);
+            assertEquals(message, TestAllTypes.newInstance().mergeFrom(source));
+            assertTrue(source.isAtEnd());
+            assertEquals(array.length, source.getPosition());
+        }
+    }
+
+    @Test
+    public void testSharedArena() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Arena arena = Arena.ofShared()) {
+            final MemorySegment segment = arena.allocate(array.length);
+            executor.submit(() -> {
+                message.writeTo(SegmentSink.newInstance(segment));
+                return null;
+            }).get();
+            assertEquals(message, TestAllTypes.parseFrom(SegmentSource.newInstance(segment)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConfinedArenaFromOtherThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Arena arena = Arena.ofConfined()) {
+            final MemorySegment segment = arena.allocate(array.length);
+            try {
+                executor.submit(() -> {
+                    message.writeTo(SegmentSink.newInstance(segment));
+                    return null;
+                }).get();
+                fail("confined segments can't be accessed by other threads");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof WrongThreadException);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRepeatedPacked() throws IOException {
+        RepeatedPackables.Packed msg = RepeatedPackables.Packed.parseFrom(CompatibilityTest.repeatedPackablesPacked());
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(msg.getSerializedSize());
+            msg.writeTo(SegmentSink.newInstance(segment));
+            assertArrayEquals(msg.toByteArray(), segment.toArray(JAVA_BYTE));
+            assertEquals(msg, RepeatedPackables.Packed.parseFrom(SegmentSource.newInstance(segment)));
+        }
+    }
+
+    @Test
+    public void testRepeatedNonPacked() throws IOException {
+        RepeatedPackables.NonPacked msg = RepeatedPackables.NonPacked.parseFrom(CompatibilityTest.repeatedPackablesNonPacked());
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(msg.getSerializedSize());
+            msg.writeTo(SegmentSink.newInstance(segment));
+            assertEquals(msg, RepeatedPackables.NonPacked.parseFrom(SegmentSource.newInstance(segment)));
+        }
+    }
+
+    @Test
+    public void testArrayInput() throws IOException {
+        int offset = 11;
+        byte[] target = new byte[array.length + offset];
+        ProtoSink sink = new SegmentSink().setOutput(target, offset, array.length);
+        message.writeTo(sink);
+        sink.checkNoSpaceLeft();
+        assertArrayEquals(array, Arrays.copyOfRange(target, offset, target.length));
+
+        ProtoSource source = new SegmentSource().setInput(target, offset, array.length);
+        assertEquals(message, TestAllTypes.newInstance().mergeFrom(source));
+    }
+
+    @Test
+    public void testRawAddress() throws IOException {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(array.length);
+            ProtoSink sink = new SegmentSink().setOutput(null, segment.address(), array.length);
+            message.writeTo(sink);
+            assertArrayEquals(array, segment.toArray(JAVA_BYTE));
+
+            ProtoSource source = new SegmentSource().setInput(null, segment.address(), array.length);
+            assertEquals(message, TestAllTypes.newInstance().mergeFrom(source));
+        }
+    }
+
+    @Test
+    public void testByteBuffers() throws IOException {
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocateDirect(array.length), ByteBuffer.allocate(array.length)}) {
+            message.writeTo(new SegmentSink().setOutput(buffer));
+            ProtoSource source = new SegmentSource().setInput(buffer);
+            assertEquals(message, TestAllTypes.newInstance().mergeFrom(source));
+            source.setInput(buffer.asReadOnlyBuffer());
+            assertEquals(message, TestAllTypes.newInstance().mergeFrom(source));
+        }
+    }
+
+    @Test
+    public void testFactoryFallback() throws IOException {
+        // Direct factories only select segments if Unsafe is not available
+        assertTrue(SegmentAccess.isAvailable());
+        boolean expectSegments = !UnsafeAccess.isAvailable();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(array.length);
+        ProtoSink sink = ProtoSink.newInstance(buffer.duplicate()); // buffer sinks advance the position
+        assertEquals(expectSegments, sink instanceof SegmentSink);
+        assertEquals(expectSegments, ProtoSink.newDirectSink() instanceof SegmentSink);
+        message.writeTo(sink);
+
+        ProtoSource source = ProtoSource.newInstance(buffer);
+        assertEquals(expectSegments, source instanceof SegmentSource);
+        assertEquals(expectSegments, ProtoSource.newDirectSource() instanceof SegmentSource);
+        assertEquals(message, TestAllTypes.newInstance().mergeFrom(source));
+
+        // Heap buffers keep using the buffer based implementation
+        assertFalse(ProtoSource.newInstance(ByteBuffer.wrap(array)) instanceof SegmentSource);
+    }
+
+    @Test
+    public void testReadOnlySegment() throws IOException {
+        MemorySegment segment = MemorySegment.ofArray(array).asReadOnly();
+        assertEquals(message, TestAllTypes.parseFrom(SegmentSource.newInstance(segment)));
+        try {
+            SegmentSink.newInstance(segment);
+            fail("read only segments can't be written");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new SegmentSink().setOutput(ByteBuffer.allocateDirect(8).asReadOnlyBuffer());
+            fail("read only buffers can't be written");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testBounds() throws IOException {
+        MemorySegment segment = MemorySegment.ofArray(new byte[array.length - 1]);
+        try {
+            message.writeTo(SegmentSink.newInstance(segment));
+            fail("segment is too small");
+        } catch (ProtoSink.OutOfSpaceException expected) {
+        }
+        segment = MemorySegment.ofArray(Arrays.copyOf(array, array.length - 1));
+        try {
+            TestAllTypes.parseFrom(SegmentSource.newInstance(segment));
+            fail("segment is truncated");
+        } catch (InvalidProtocolBufferException expected) {
+        }
+    }
+
+    @Test
+    public void testLargeSegment() throws IOException {
+        final long size = 3L << 30;
+        final long offset = (1L << 31) + 7;
+        File file = File.createTempFile("quickbuf", ".bin");
+        file.deleteOnExit();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.SPARSE, StandardOpenOption.DELETE_ON_CLOSE);
+             Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+
+            // 32 bit counters saturate
+            SegmentSink sink = SegmentSink.newInstance(segment);
+            assertEquals(Integer.MAX_VALUE, sink.spaceLeft());
+
+            // Write two messages beyond 2 GB
+            sink = SegmentSink.newInstance(segment.asSlice(offset));
+            message.writeDelimitedTo(sink);
+            message.clone().setOptionalInt32(-1).writeDelimitedTo(sink);
+            int length = sink.getTotalBytesWritten();
+
+            // Read with 64 bit positions
+            SegmentSource source = SegmentSource.newInstance(segment).seek(offset);
+            assertEquals(offset, source.getPosition());
+            assertEquals(message, TestAllTypes.newInstance().mergeDelimitedFrom(source));
+            source.resetSizeCounter();
+            assertEquals(-1, TestAllTypes.newInstance().mergeDelimitedFrom(source).getOptionalInt32());
+            assertEquals(offset + length, source.getPosition());
+            assertEquals(length, source.getTotalBytesRead() + array.length + ProtoSink.computeUInt32SizeNoTag(array.length));
+        }
+    }
+
+}